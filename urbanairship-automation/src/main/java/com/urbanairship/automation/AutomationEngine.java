@@ -11,7 +11,6 @@ import com.urbanairship.CancelableOperation;
 import com.urbanairship.Logger;
 import com.urbanairship.OperationScheduler;
 import com.urbanairship.PendingResult;
-import com.urbanairship.Predicate;
 import com.urbanairship.analytics.Analytics;
 import com.urbanairship.analytics.AnalyticsListener;
 import com.urbanairship.analytics.CustomEvent;
@@ -25,7 +24,7 @@ import com.urbanairship.reactive.Function;
 import com.urbanairship.reactive.Observable;
 import com.urbanairship.reactive.Scheduler;
 import com.urbanairship.reactive.Schedulers;
-import com.urbanairship.reactive.Subject;
+import com.urbanairship.reactive.SerialSubscription;
 import com.urbanairship.reactive.Subscriber;
 import com.urbanairship.reactive.Subscription;
 import com.urbanairship.util.AirshipHandlerThread;
@@ -37,8 +36,11 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
@@ -201,8 +203,19 @@ public class AutomationEngine<T extends Schedule> {
     private String screen;
     private String regionId;
 
-    private Subject<TriggerUpdate> stateObservableUpdates;
     private Subscription compoundTriggerSubscription;
+
+    /**
+     * Index of schedule IDs waiting on a compound trigger state check, keyed by trigger type.
+     * Only accessed on the background thread.
+     */
+    private final SparseArray<Set<String>> pendingStateChecks = new SparseArray<>();
+
+    /**
+     * In-flight state checks, keyed by trigger type. At most one state observable per
+     * trigger type is subscribed at a time. Only accessed on the background thread.
+     */
+    private final SparseArray<Subscription> stateCheckSubscriptions = new SparseArray<>();
     private Scheduler backgroundScheduler;
 
     private final ApplicationListener applicationListener = new ApplicationListener() {
@@ -772,6 +785,12 @@ public class AutomationEngine<T extends Schedule> {
 
     /**
      * Restores compound triggers for all schedule entries.
+     * <p>
+     * State updates are bounded to one in-flight check per trigger type, see {@link #checkStateTriggers()}.
+     * Event updates are posted through {@link Observable#observeOn(Scheduler)}, which posts a single
+     * drain for a burst of events. The events themselves are not merged: each one increments trigger
+     * progress and the active triggers are read again after each event, since a schedule that
+     * triggers or is cancelled part way through a burst changes which triggers count the rest.
      */
     @WorkerThread
     private void restoreCompoundTriggers() {
@@ -790,14 +809,12 @@ public class AutomationEngine<T extends Schedule> {
             eventObservables.add(observable);
         }
 
-        Observable<TriggerUpdate> eventStream = Observable.merge(eventObservables);
-        this.stateObservableUpdates = Subject.create();
-
-        this.compoundTriggerSubscription = Observable.merge(eventStream, stateObservableUpdates)
+        this.compoundTriggerSubscription = Observable.merge(eventObservables)
                                                      .subscribe(new Subscriber<TriggerUpdate>() {
                                                          @Override
                                                          public void onNext(@NonNull TriggerUpdate update) {
-                                                             updateTriggers(update.triggerEntries, update.json, update.value);
+                                                             // Already on the background thread
+                                                             processTriggers(update.triggerEntries, update.json, update.value);
                                                          }
                                                      });
 
@@ -834,8 +851,10 @@ public class AutomationEngine<T extends Schedule> {
         sortSchedulesByPriority(entries);
 
         for (final ScheduleEntry scheduleEntry : entries) {
-            subscribeStateObservables(scheduleEntry, -1);
+            addPendingStateChecks(scheduleEntry, -1);
         }
+
+        checkStateTriggers();
     }
 
     /**
@@ -847,43 +866,119 @@ public class AutomationEngine<T extends Schedule> {
      */
     @WorkerThread
     private void subscribeStateObservables(@NonNull final ScheduleEntry entry, final long lastStateChangeTime) {
-        Observable.from(COMPOUND_TRIGGER_TYPES)
-                  .filter(new Predicate<Integer>() {
-                      @Override
-                      public boolean apply(Integer triggerType) {
-                          if (stateChangeTimeStamps.get(triggerType, startTime) <= lastStateChangeTime) {
-                              return false;
-                          }
-
-                          for (TriggerEntry triggerEntry : entry.triggerEntries) {
-                              if (triggerEntry.type == triggerType) {
-                                  return true;
-                              }
-                          }
-                          return false;
-                      }
-                  })
-                  .flatMap(new Function<Integer, Observable<TriggerUpdate>>() {
-                      @NonNull
-                      @Override
-                      public Observable<TriggerUpdate> apply(@NonNull final Integer type) {
-                          return createStateObservable(type)
-                                  .observeOn(backgroundScheduler)
-                                  .map(new Function<JsonSerializable, TriggerUpdate>() {
-                                      @NonNull
-                                      @Override
-                                      public TriggerUpdate apply(@NonNull JsonSerializable json) {
-                                          return new TriggerUpdate(dataManager.getActiveTriggerEntries(type, entry.scheduleId), json, 1.0);
-                                      }
-                                  });
-                      }
-                  })
-                  .subscribe(new Subscriber<TriggerUpdate>() {
-                      @Override
-                      public void onNext(@NonNull TriggerUpdate value) {
-                          stateObservableUpdates.onNext(value);
-                      }
-                  });
+        addPendingStateChecks(entry, lastStateChangeTime);
+        checkStateTriggers();
+    }
+
+    /**
+     * Adds the schedule to the pending state check index for each compound trigger type it uses.
+     *
+     * @param entry The schedule entry.
+     * @param lastStateChangeTime A timestamp to filter out state triggers.
+     */
+    @WorkerThread
+    private void addPendingStateChecks(@NonNull ScheduleEntry entry, long lastStateChangeTime) {
+        for (int type : COMPOUND_TRIGGER_TYPES) {
+            if (stateChangeTimeStamps.get(type, startTime) <= lastStateChangeTime) {
+                continue;
+            }
+
+            for (TriggerEntry triggerEntry : entry.triggerEntries) {
+                if (triggerEntry.type == type) {
+                    Set<String> scheduleIds = pendingStateChecks.get(type);
+                    if (scheduleIds == null) {
+                        scheduleIds = new LinkedHashSet<>();
+                        pendingStateChecks.put(type, scheduleIds);
+                    }
+                    scheduleIds.add(entry.scheduleId);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks the state of each compound trigger type that has pending schedules. A single state
+     * observable is shared by all the pending schedules of a type. Schedules that are added while a
+     * check is in flight are coalesced into the next check.
+     */
+    @WorkerThread
+    private void checkStateTriggers() {
+        for (final int type : COMPOUND_TRIGGER_TYPES) {
+            final Set<String> scheduleIds = pendingStateChecks.get(type);
+            if (scheduleIds == null || scheduleIds.isEmpty() || stateCheckSubscriptions.get(type) != null) {
+                continue;
+            }
+
+            pendingStateChecks.remove(type);
+
+            final SerialSubscription subscription = new SerialSubscription();
+            stateCheckSubscriptions.put(type, subscription);
+
+            subscription.setSubscription(createStateObservable(type)
+                    .observeOn(backgroundScheduler)
+                    .subscribe(new Subscriber<JsonSerializable>() {
+                        @Override
+                        public void onNext(@NonNull JsonSerializable json) {
+                            processTriggers(filterTriggerEntries(dataManager.getActiveTriggerEntries(type), scheduleIds), json, 1.0);
+                        }
+
+                        @Override
+                        public void onCompleted() {
+                            onStateCheckFinished(type);
+                        }
+
+                        @Override
+                        public void onError(@NonNull Exception e) {
+                            Logger.error(e, "AutomationEngine - Failed to check compound trigger state: %s", type);
+                            onStateCheckFinished(type);
+                        }
+                    }));
+        }
+    }
+
+    /**
+     * Called when a state check finishes. Starts the next check if schedules were added in the meantime.
+     *
+     * @param type The trigger type.
+     */
+    @WorkerThread
+    private void onStateCheckFinished(int type) {
+        stateCheckSubscriptions.remove(type);
+        checkStateTriggers();
+    }
+
+    /**
+     * Filters trigger entries to the given schedules, preserving the schedule order.
+     *
+     * @param triggerEntries The trigger entries.
+     * @param scheduleIds The schedule IDs.
+     * @return The filtered trigger entries.
+     */
+    @NonNull
+    private static List<TriggerEntry> filterTriggerEntries(@NonNull List<TriggerEntry> triggerEntries, @NonNull Set<String> scheduleIds) {
+        Map<String, List<TriggerEntry>> triggersBySchedule = new HashMap<>();
+        for (TriggerEntry triggerEntry : triggerEntries) {
+            if (!scheduleIds.contains(triggerEntry.scheduleId)) {
+                continue;
+            }
+
+            List<TriggerEntry> list = triggersBySchedule.get(triggerEntry.scheduleId);
+            if (list == null) {
+                list = new ArrayList<>();
+                triggersBySchedule.put(triggerEntry.scheduleId, list);
+            }
+            list.add(triggerEntry);
+        }
+
+        List<TriggerEntry> result = new ArrayList<>();
+        for (String scheduleId : scheduleIds) {
+            List<TriggerEntry> list = triggersBySchedule.get(scheduleId);
+            if (list != null) {
+                result.addAll(list);
+            }
+        }
+        return result;
     }
 
     /**
@@ -1102,46 +1197,58 @@ public class AutomationEngine<T extends Schedule> {
         backgroundHandler.post(new Runnable() {
             @Override
             public void run() {
-                if (isPaused.get() || triggerEntries.isEmpty()) {
-                    return;
-                }
+                processTriggers(triggerEntries, json, value);
+            }
+        });
+    }
 
-                Set<String> triggeredSchedules = new HashSet<>();
-                Set<String> cancelledSchedules = new HashSet<>();
+    /**
+     * Processes trigger updates on the background thread.
+     *
+     * @param triggerEntries The triggers
+     * @param json The relevant event or state data.
+     * @param value The trigger value to increment by.
+     */
+    @WorkerThread
+    private void processTriggers(@NonNull List<TriggerEntry> triggerEntries, @NonNull JsonSerializable json, double value) {
+        if (isPaused.get() || triggerEntries.isEmpty()) {
+            return;
+        }
 
-                List<TriggerEntry> triggersToUpdate = new ArrayList<>();
+        Set<String> triggeredSchedules = new HashSet<>();
+        Set<String> cancelledSchedules = new HashSet<>();
 
-                for (TriggerEntry trigger : triggerEntries) {
-                    if (trigger.jsonPredicate != null && !trigger.jsonPredicate.apply(json)) {
-                        continue;
-                    }
+        List<TriggerEntry> triggersToUpdate = new ArrayList<>();
 
-                    triggersToUpdate.add(trigger);
-                    trigger.setProgress(trigger.getProgress() + value);
+        for (TriggerEntry trigger : triggerEntries) {
+            if (trigger.jsonPredicate != null && !trigger.jsonPredicate.apply(json)) {
+                continue;
+            }
 
-                    if (trigger.getProgress() >= trigger.goal) {
-                        trigger.setProgress(0);
+            triggersToUpdate.add(trigger);
+            trigger.setProgress(trigger.getProgress() + value);
 
-                        if (trigger.isCancellation) {
-                            cancelledSchedules.add(trigger.scheduleId);
-                            cancelScheduleAlarms(Collections.singletonList(trigger.scheduleId));
-                        } else {
-                            triggeredSchedules.add(trigger.scheduleId);
-                        }
-                    }
+            if (trigger.getProgress() >= trigger.goal) {
+                trigger.setProgress(0);
+
+                if (trigger.isCancellation) {
+                    cancelledSchedules.add(trigger.scheduleId);
+                    cancelScheduleAlarms(Collections.singletonList(trigger.scheduleId));
+                } else {
+                    triggeredSchedules.add(trigger.scheduleId);
                 }
+            }
+        }
 
-                dataManager.saveTriggers(triggersToUpdate);
+        dataManager.saveTriggers(triggersToUpdate);
 
-                if (!cancelledSchedules.isEmpty()) {
-                    handleCancelledSchedules(dataManager.getScheduleEntries(cancelledSchedules));
-                }
+        if (!cancelledSchedules.isEmpty()) {
+            handleCancelledSchedules(dataManager.getScheduleEntries(cancelledSchedules));
+        }
 
-                if (!triggeredSchedules.isEmpty()) {
-                    handleTriggeredSchedules(dataManager.getScheduleEntries(triggeredSchedules));
-                }
-            }
-        });
+        if (!triggeredSchedules.isEmpty()) {
+            handleTriggeredSchedules(dataManager.getScheduleEntries(triggeredSchedules));
+        }
     }
 
     /**
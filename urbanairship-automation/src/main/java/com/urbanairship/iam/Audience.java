@@ -314,6 +314,9 @@ public class Audience implements JsonSerializable {
         if (missBehavior != null ? !missBehavior.equals(audience.missBehavior) : audience.missBehavior != null) {
             return false;
         }
+        if (testDevices != null ? !testDevices.equals(audience.testDevices) : audience.testDevices != null) {
+            return false;
+        }
         return versionPredicate != null ? versionPredicate.equals(audience.versionPredicate) : audience.versionPredicate == null;
     }
 
@@ -326,6 +329,7 @@ public class Audience implements JsonSerializable {
         result = 31 * result + (tagSelector != null ? tagSelector.hashCode() : 0);
         result = 31 * result + (versionPredicate != null ? versionPredicate.hashCode() : 0);
         result = 31 * result + (missBehavior != null ? missBehavior.hashCode() : 0);
+        result = 31 * result + (testDevices != null ? testDevices.hashCode() : 0);
         return result;
     }
 
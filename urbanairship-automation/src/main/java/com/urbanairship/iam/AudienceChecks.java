@@ -12,8 +12,10 @@ import com.urbanairship.push.PushManager;
 import com.urbanairship.util.UAStringUtil;
 import com.urbanairship.util.VersionUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -27,9 +29,29 @@ import androidx.core.os.LocaleListCompat;
 
 /**
  * Audience checks.
+ * <p>
+ * The conditions of an audience are compiled the first time the audience is checked and kept for
+ * the audiences that were checked most recently. The locale and app version results are reused
+ * until the device locales or app version change.
  */
 public abstract class AudienceChecks {
 
+    /**
+     * Max number of audiences that keep their compiled conditions.
+     */
+    private static final int MAX_COMPILED_AUDIENCES = 500;
+
+    private static final Map<Audience, CompiledAudience> compiledAudiences = new LinkedHashMap<Audience, CompiledAudience>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Audience, CompiledAudience> eldest) {
+            return size() > MAX_COMPILED_AUDIENCES;
+        }
+    };
+
+    private static final Object channelDigestLock = new Object();
+    private static String digestedChannelId;
+    private static byte[] channelDigest;
+
     /**
      * Checks the audience and new user.
      *
@@ -52,16 +74,13 @@ public abstract class AudienceChecks {
 
         // Test devices
         if (!audience.getTestDevices().isEmpty()) {
-            byte[] digest = UAStringUtil.sha256Digest(UAirship.shared().getChannel().getId());
-            if (digest == null || digest.length < 16) {
+            byte[] digest = getChannelDigest(UAirship.shared().getChannel().getId());
+            if (digest == null) {
                 return false;
             }
 
-            digest = Arrays.copyOf(digest, 16);
-
-            for (String testDevice : audience.getTestDevices()) {
-                byte[] decoded = UAStringUtil.base64Decode(testDevice);
-                if (Arrays.equals(digest, decoded)) {
+            for (byte[] testDevice : compile(audience).testDevices) {
+                if (Arrays.equals(digest, testDevice)) {
                     return true;
                 }
             }
@@ -100,6 +119,8 @@ public abstract class AudienceChecks {
             tagGroups = TagSelector.EMPTY_TAG_GROUPS;
         }
 
+        CompiledAudience compiledAudience = compile(audience);
+
         UAirship airship = UAirship.shared();
         AirshipLocationClient locationClient = airship.getLocationClient();
         PushManager pushManager = airship.getPushManager();
@@ -134,7 +155,7 @@ public abstract class AudienceChecks {
         }
 
         // Locale
-        if (!isLocaleConditionMet(context, audience)) {
+        if (!isLocaleConditionMet(context, compiledAudience)) {
             return false;
         }
 
@@ -149,22 +170,64 @@ public abstract class AudienceChecks {
         }
 
         // Version
-        return isAppVersionConditionMet(audience);
+        return isAppVersionConditionMet(compiledAudience);
     }
 
     /**
-     * Helper method to check the app version.
+     * Gets the compiled audience.
      *
      * @param audience The audience.
+     * @return The compiled audience.
+     */
+    @NonNull
+    private static CompiledAudience compile(@NonNull Audience audience) {
+        synchronized (compiledAudiences) {
+            CompiledAudience compiledAudience = compiledAudiences.get(audience);
+            if (compiledAudience == null) {
+                compiledAudience = new CompiledAudience(audience);
+                compiledAudiences.put(audience, compiledAudience);
+            }
+            return compiledAudience;
+        }
+    }
+
+    /**
+     * Gets the first 16 bytes of the channel ID's SHA-256 digest. The digest is cached for the
+     * last channel ID.
+     *
+     * @param channelId The channel ID.
+     * @return The digest, or null if it is not available.
+     */
+    @Nullable
+    private static byte[] getChannelDigest(@Nullable String channelId) {
+        if (channelId == null) {
+            return null;
+        }
+
+        synchronized (channelDigestLock) {
+            if (!channelId.equals(digestedChannelId)) {
+                byte[] digest = UAStringUtil.sha256Digest(channelId);
+                channelDigest = digest == null || digest.length < 16 ? null : Arrays.copyOf(digest, 16);
+                digestedChannelId = channelId;
+            }
+
+            return channelDigest;
+        }
+    }
+
+    /**
+     * Helper method to check the app version.
+     *
+     * @param compiledAudience The compiled audience.
      * @return {@code true} if the app version conditions are met or are not defined, otherwise {@code false}.
      */
-    private static boolean isAppVersionConditionMet(@NonNull Audience audience) {
-        if (audience.getVersionPredicate() == null) {
+    private static boolean isAppVersionConditionMet(@NonNull CompiledAudience compiledAudience) {
+        if (compiledAudience.audience.getVersionPredicate() == null) {
             return true;
         }
 
-        // Apply the predicate
-        return audience.getVersionPredicate().apply(VersionUtils.createVersionObject());
+        long appVersion = UAirship.shared().getApplicationMetrics().getCurrentAppVersion();
+        return compiledAudience.isAppVersionConditionMet(appVersion);
     }
 
     private static Set<String> sanitizeLanguageTags(List<String> languageTags) {
@@ -191,34 +254,96 @@ public abstract class AudienceChecks {
      * Helper method to check the locales.
      *
      * @param context The application context.
-     * @param audience The audience.
+     * @param compiledAudience The compiled audience.
      * @return {@code true} if the locale conditions are met or are not defined, otherwise {@code false}.
      */
-    private static boolean isLocaleConditionMet(@NonNull Context context, @NonNull Audience audience) {
-        if (audience.getLanguageTags().isEmpty()) {
+    private static boolean isLocaleConditionMet(@NonNull Context context, @NonNull CompiledAudience compiledAudience) {
+        if (compiledAudience.audience.getLanguageTags().isEmpty()) {
             return true;
         }
 
         LocaleListCompat userLocales = ConfigurationCompat.getLocales(context.getResources().getConfiguration());
+        return compiledAudience.isLocaleConditionMet(userLocales);
+    }
 
-        // Find best locale
-        Locale locale = userLocales.getFirstMatch(audience.getLanguageTags().toArray(new String[] {}));
-        if (locale == null) {
-            return false;
+    /**
+     * Audience conditions that are parsed once, along with the last locale and app version
+     * results.
+     */
+    private static class CompiledAudience {
+
+        final Audience audience;
+        final List<byte[]> testDevices = new ArrayList<>();
+
+        private final String[] languageTags;
+        private final List<Locale> audienceLocales = new ArrayList<>();
+
+        private String lastUserLocales;
+        private boolean lastLocaleResult;
+
+        private boolean hasAppVersionResult;
+        private long lastAppVersion;
+        private boolean lastAppVersionResult;
+
+        CompiledAudience(@NonNull Audience audience) {
+            this.audience = audience;
+
+            for (String testDevice : audience.getTestDevices()) {
+                byte[] decoded = UAStringUtil.base64Decode(testDevice);
+                if (decoded != null) {
+                    testDevices.add(decoded);
+                }
+            }
+
+            this.languageTags = audience.getLanguageTags().toArray(new String[] {});
+            if (languageTags.length > 0) {
+                // Sanitize language tags in case any happen to be malformed
+                Set<String> sanitizedTags = sanitizeLanguageTags(audience.getLanguageTags());
+
+                try {
+                    LocaleListCompat locales = LocaleListCompat.forLanguageTags(UAStringUtil.join(sanitizedTags, ","));
+                    for (int i = 0; i < locales.size(); i++) {
+                        audienceLocales.add(locales.get(i));
+                    }
+                } catch (Exception e) {
+                    Logger.error("Unable to construct locale list: ", e);
+                }
+            }
+        }
+
+        synchronized boolean isLocaleConditionMet(@NonNull LocaleListCompat userLocales) {
+            String userLocalesTags = userLocales.toLanguageTags();
+            if (userLocalesTags.equals(lastUserLocales)) {
+                return lastLocaleResult;
+            }
+
+            lastLocaleResult = matchLocale(userLocales);
+            lastUserLocales = userLocalesTags;
+            return lastLocaleResult;
         }
 
-        // getFirstMatch will return the default language if none of the specified locales are found,
-        // so we still have to verify the locale exists in the audience conditions
+        synchronized boolean isAppVersionConditionMet(long appVersion) {
+            if (hasAppVersionResult && appVersion == lastAppVersion) {
+                return lastAppVersionResult;
+            }
 
-        // Sanitize language tags in case any happen to be malformed
-        Set<String> languageTags = sanitizeLanguageTags(audience.getLanguageTags());
+            lastAppVersionResult = audience.getVersionPredicate() == null
+                    || audience.getVersionPredicate().apply(VersionUtils.createVersionObject(appVersion));
+            lastAppVersion = appVersion;
+            hasAppVersionResult = true;
+            return lastAppVersionResult;
+        }
 
-        try {
-            String joinedTags = UAStringUtil.join(languageTags, ",");
-            LocaleListCompat audienceLocales = LocaleListCompat.forLanguageTags(joinedTags);
-            for (int i = 0; i < audienceLocales.size(); i++) {
-                Locale audienceLocale = audienceLocales.get(i);
+        private boolean matchLocale(@NonNull LocaleListCompat userLocales) {
+            // Find best locale
+            Locale locale = userLocales.getFirstMatch(languageTags);
+            if (locale == null) {
+                return false;
+            }
 
+            // getFirstMatch will return the default language if none of the specified locales are found,
+            // so we still have to verify the locale exists in the audience conditions
+            for (Locale audienceLocale : audienceLocales) {
                 if (!locale.getLanguage().equals(audienceLocale.getLanguage())) {
                     continue;
                 }
@@ -229,11 +354,10 @@ public abstract class AudienceChecks {
 
                 return true;
             }
-        } catch (Exception e) {
-            Logger.error("Unable to construct locale list: ", e);
+
+            return false;
         }
 
-        return false;
     }
 
 }
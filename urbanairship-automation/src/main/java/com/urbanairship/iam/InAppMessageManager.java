@@ -81,11 +81,39 @@ public class InAppMessageManager extends AirshipComponent implements InAppMessag
      */
     private static final String DISPLAY_INTERVAL_KEY = "com.urbanairship.iam.displayinterval";
 
+    /**
+     * Prepare stage that checks the message audience.
+     *
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    @NonNull
+    public static final String PREPARE_STAGE_AUDIENCE = "audience";
+
+    /**
+     * Prepare stage that prepares the message assets.
+     *
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    @NonNull
+    public static final String PREPARE_STAGE_ASSETS = "assets";
+
+    /**
+     * Prepare stage that prepares the display adapter.
+     *
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    @NonNull
+    public static final String PREPARE_STAGE_ADAPTER = "adapter";
+
     // State
     private final Map<String, AdapterWrapper> adapterWrappers = new ConcurrentHashMap<>();
     private final InAppRemoteDataObserver remoteDataSubscriber;
 
     private final RetryingExecutor executor;
+    private final PrepareScheduler prepareScheduler;
     private final ActionRunRequestFactory actionRunRequestFactory;
     private final RemoteData remoteData;
     private final Analytics analytics;
@@ -157,6 +185,7 @@ public class InAppMessageManager extends AirshipComponent implements InAppMessag
         this.backgroundHandler = new Handler(AirshipLoopers.getBackgroundLooper());
 
         this.executor = new RetryingExecutor(this.mainHandler, AirshipExecutors.newSerialExecutor());
+        this.prepareScheduler = new PrepareScheduler(this.mainHandler, AirshipExecutors.THREAD_POOL_EXECUTOR, PrepareScheduler.DEFAULT_MAX_CONCURRENT);
         this.driver = new InAppMessageDriver();
         this.automationEngine = new AutomationEngine.Builder<InAppMessageSchedule>()
                 .setAnalytics(analytics)
@@ -180,7 +209,7 @@ public class InAppMessageManager extends AirshipComponent implements InAppMessag
 
     @VisibleForTesting
     InAppMessageManager(@NonNull Context context, @NonNull PreferenceDataStore preferenceDataStore, Analytics analytics, ActivityMonitor activityMonitor,
-                        RetryingExecutor executor, InAppMessageDriver driver, AutomationEngine<InAppMessageSchedule> engine,
+                        RetryingExecutor executor, PrepareScheduler prepareScheduler, InAppMessageDriver driver, AutomationEngine<InAppMessageSchedule> engine,
                         RemoteData remoteData, AirshipChannel airshipChannel, ActionRunRequestFactory actionRunRequestFactory,
                         TagGroupManager tagGroupManager, InAppRemoteDataObserver observer, AssetManager assetManager) {
         super(context, preferenceDataStore);
@@ -196,6 +225,7 @@ public class InAppMessageManager extends AirshipComponent implements InAppMessag
         this.mainHandler = new Handler(Looper.getMainLooper());
         this.backgroundHandler = new Handler(AirshipLoopers.getBackgroundLooper());
         this.executor = executor;
+        this.prepareScheduler = prepareScheduler;
         this.actionRunRequestFactory = actionRunRequestFactory;
         this.tagGroupManager = tagGroupManager;
         this.assetManager = assetManager;
@@ -209,6 +239,7 @@ public class InAppMessageManager extends AirshipComponent implements InAppMessag
     protected void init() {
         super.init();
         executor.setPaused(true);
+        prepareScheduler.setPaused(true);
 
         this.automationEngine.setScheduleListener(new AutomationEngine.ScheduleListener<InAppMessageSchedule>() {
             @Override
@@ -338,6 +369,7 @@ public class InAppMessageManager extends AirshipComponent implements InAppMessag
     public void onAirshipReady(@NonNull UAirship airship) {
         super.onAirshipReady(airship);
         executor.setPaused(false);
+        prepareScheduler.setPaused(false);
         remoteDataSubscriber.subscribe(remoteData, backgroundHandler.getLooper(), this);
         automationEngine.checkPendingSchedules();
     }
@@ -500,6 +532,19 @@ public class InAppMessageManager extends AirshipComponent implements InAppMessag
         return getDataStore().getLong(InAppMessageManager.DISPLAY_INTERVAL_KEY, InAppMessageManager.DEFAULT_DISPLAY_INTERVAL_MS);
     }
 
+    /**
+     * Gets the average time each prepare stage took, keyed by the stage name. The stages are
+     * {@link #PREPARE_STAGE_AUDIENCE}, {@link #PREPARE_STAGE_ASSETS} and {@link #PREPARE_STAGE_ADAPTER}.
+     *
+     * @return A map of stage name to average latency in milliseconds.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    @NonNull
+    public Map<String, Long> getPrepareLatencies() {
+        return prepareScheduler.getAverageLatencies();
+    }
+
     /**
      * Gets the asset manager.
      *
@@ -609,7 +654,7 @@ public class InAppMessageManager extends AirshipComponent implements InAppMessag
         }
 
         // Audience checks
-        PrepareScheduleOperation checkAudience = new PrepareScheduleOperation(schedule) {
+        PrepareScheduleOperation checkAudience = new PrepareScheduleOperation(PREPARE_STAGE_AUDIENCE, schedule) {
             @Override
             public int onPrepare() {
                 InAppMessage message = adapter.message;
@@ -651,7 +696,7 @@ public class InAppMessageManager extends AirshipComponent implements InAppMessag
         };
 
         // Prepare Assets
-        PrepareScheduleOperation prepareAssets = new PrepareScheduleOperation(schedule) {
+        PrepareScheduleOperation prepareAssets = new PrepareScheduleOperation(PREPARE_STAGE_ASSETS, schedule) {
             @Override
             public int onPrepare() {
                 int result = assetManager.onPrepare(schedule, adapter.message);
@@ -676,7 +721,7 @@ public class InAppMessageManager extends AirshipComponent implements InAppMessag
         };
 
         // Prepare Adapter
-        PrepareScheduleOperation prepareAdapter = new PrepareScheduleOperation(schedule) {
+        PrepareScheduleOperation prepareAdapter = new PrepareScheduleOperation(PREPARE_STAGE_ADAPTER, schedule) {
             @Override
             public int onPrepare() {
                 int result = adapter.prepare(getContext(), assetManager.getAssets(schedule.getId()));
@@ -703,8 +748,8 @@ public class InAppMessageManager extends AirshipComponent implements InAppMessag
             }
         };
 
-        // Execute the operations
-        executor.execute(checkAudience, prepareAssets, prepareAdapter);
+        // Prepare the schedule ahead of any schedules that are retrying since its triggers just fired
+        prepareScheduler.prepare(schedule.getId(), true, checkAudience, prepareAssets, prepareAdapter);
     }
 
     /**
@@ -946,14 +991,22 @@ public class InAppMessageManager extends AirshipComponent implements InAppMessag
     /**
      * Operation to prepare a schedule.
      */
-    private abstract class PrepareScheduleOperation implements RetryingExecutor.Operation {
+    private abstract class PrepareScheduleOperation implements PrepareScheduler.Stage {
 
+        private final String name;
         private final InAppMessageSchedule schedule;
 
-        PrepareScheduleOperation(@NonNull InAppMessageSchedule schedule) {
+        PrepareScheduleOperation(@NonNull String name, @NonNull InAppMessageSchedule schedule) {
+            this.name = name;
             this.schedule = schedule;
         }
 
+        @NonNull
+        @Override
+        public String getName() {
+            return name;
+        }
+
         @Override
         public int run() {
             if (isScheduleInvalid(schedule)) {
@@ -0,0 +1,303 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.iam;
+
+import android.os.Handler;
+import android.os.SystemClock;
+
+import com.urbanairship.Logger;
+import com.urbanairship.util.RetryingExecutor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Prepares schedules on a bounded number of threads.
+ * <p>
+ * The stages of a schedule run in order, one at a time, while different schedules prepare in
+ * parallel up to the max concurrency. A stage that needs to be retried gives up its slot while it
+ * waits to retry, so a slow asset download or tag group lookup does not hold up other schedules.
+ * Boosted schedules, such as schedules whose triggers just fired, start before schedules that
+ * are retrying.
+ */
+class PrepareScheduler {
+
+    /**
+     * Default max number of schedules that prepare at the same time.
+     */
+    static final int DEFAULT_MAX_CONCURRENT = 3;
+
+    /**
+     * Initial retry backoff
+     */
+    private static final long INITIAL_BACKOFF_MILLIS = 30000; // 30 seconds
+
+    /**
+     * Max backoff
+     */
+    private static final long MAX_BACKOFF_MILLIS = 300000; // 5 minutes
+
+    /**
+     * A named prepare stage.
+     */
+    interface Stage extends RetryingExecutor.Operation {
+
+        /**
+         * The stage name. Used to track the stage latency.
+         *
+         * @return The stage name.
+         */
+        @NonNull
+        String getName();
+
+    }
+
+    private final Handler scheduler;
+    private final Executor executor;
+    private final int maxConcurrent;
+
+    private final Object lock = new Object();
+    private final PriorityQueue<Task> queue = new PriorityQueue<>(11, new Comparator<Task>() {
+        @Override
+        public int compare(@NonNull Task lh, @NonNull Task rh) {
+            if (lh.isBoosted != rh.isBoosted) {
+                return lh.isBoosted ? -1 : 1;
+            }
+
+            if (lh.sequence == rh.sequence) {
+                return 0;
+            }
+
+            return lh.sequence < rh.sequence ? -1 : 1;
+        }
+    });
+
+    // Schedules that are preparing, mapped to the preparations that are waiting on them
+    private final Map<String, ArrayDeque<Task>> activeSchedules = new HashMap<>();
+    private final Map<String, Latency> latencies = new HashMap<>();
+
+    private int running;
+    private long sequence;
+    private boolean isPaused;
+
+    /**
+     * Default constructor.
+     *
+     * @param scheduler A handler used to schedule retries.
+     * @param executor The executor that runs the stages.
+     * @param maxConcurrent The max number of schedules that prepare at the same time.
+     */
+    PrepareScheduler(@NonNull Handler scheduler, @NonNull Executor executor, int maxConcurrent) {
+        this.scheduler = scheduler;
+        this.executor = executor;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+    }
+
+    /**
+     * Prepares a schedule. If the schedule is already preparing, the stages will run once the
+     * current preparation is finished.
+     *
+     * @param scheduleId The schedule ID.
+     * @param isBoosted {@code true} to start the schedule before schedules that are not boosted.
+     * @param stages The stages to run in order. If a stage cancels, the rest of the stages are skipped.
+     */
+    void prepare(@NonNull String scheduleId, boolean isBoosted, @NonNull Stage... stages) {
+        if (stages.length == 0) {
+            return;
+        }
+
+        synchronized (lock) {
+            Task task = new Task(scheduleId, Arrays.asList(stages), isBoosted);
+            ArrayDeque<Task> waiting = activeSchedules.get(scheduleId);
+            if (waiting != null) {
+                waiting.add(task);
+                return;
+            }
+
+            activeSchedules.put(scheduleId, new ArrayDeque<Task>());
+            enqueue(task);
+        }
+
+        drain();
+    }
+
+    /**
+     * Pauses/resumes the scheduler. While paused, stages that are already running will finish,
+     * but no new stages will start.
+     *
+     * @param isPaused {@code true} to pause, {@code false} to resume.
+     */
+    void setPaused(boolean isPaused) {
+        synchronized (lock) {
+            this.isPaused = isPaused;
+        }
+
+        drain();
+    }
+
+    /**
+     * Gets the average latency of each stage that has run.
+     *
+     * @return A map of stage name to average latency in milliseconds.
+     */
+    @NonNull
+    Map<String, Long> getAverageLatencies() {
+        synchronized (lock) {
+            Map<String, Long> result = new HashMap<>();
+            for (Map.Entry<String, Latency> entry : latencies.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().total / entry.getValue().count);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Starts as many queued tasks as allowed.
+     */
+    private void drain() {
+        List<Task> tasks = new ArrayList<>();
+        synchronized (lock) {
+            while (!isPaused && running < maxConcurrent && !queue.isEmpty()) {
+                tasks.add(queue.poll());
+                running++;
+            }
+        }
+
+        for (final Task task : tasks) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    runStage(task);
+                }
+            });
+        }
+    }
+
+    /**
+     * Runs the current stage of the task.
+     *
+     * @param task The task.
+     */
+    private void runStage(@NonNull final Task task) {
+        Stage stage = task.stages.get(task.index);
+
+        long start = SystemClock.elapsedRealtime();
+        int result;
+        try {
+            result = stage.run();
+        } catch (Exception e) {
+            Logger.error(e, "PrepareScheduler - Schedule: %s stage: %s failed, cancelling.", task.scheduleId, stage.getName());
+            result = RetryingExecutor.RESULT_CANCEL;
+        }
+        long duration = SystemClock.elapsedRealtime() - start;
+
+        Logger.verbose("PrepareScheduler - Schedule: %s stage: %s result: %s took %s ms", task.scheduleId, stage.getName(), result, duration);
+
+        synchronized (lock) {
+            running--;
+
+            Latency latency = latencies.get(stage.getName());
+            if (latency == null) {
+                latency = new Latency();
+                latencies.put(stage.getName(), latency);
+            }
+            latency.count++;
+            latency.total += duration;
+
+            switch (result) {
+                case RetryingExecutor.RESULT_RETRY:
+                    final long backOff = task.backOff;
+                    task.backOff = Math.min(backOff * 2, MAX_BACKOFF_MILLIS);
+                    task.isBoosted = false;
+                    scheduler.postAtTime(new Runnable() {
+                        @Override
+                        public void run() {
+                            synchronized (lock) {
+                                enqueue(task);
+                            }
+                            drain();
+                        }
+                    }, executor, SystemClock.uptimeMillis() + backOff);
+                    break;
+
+                case RetryingExecutor.RESULT_FINISHED:
+                    if (task.index < task.stages.size() - 1) {
+                        task.index++;
+                        task.backOff = INITIAL_BACKOFF_MILLIS;
+                        enqueue(task);
+                        break;
+                    }
+
+                    finish(task);
+                    break;
+
+                case RetryingExecutor.RESULT_CANCEL:
+                default:
+                    finish(task);
+                    break;
+            }
+        }
+
+        drain();
+    }
+
+    /**
+     * Finishes the task and queues the next task of the same schedule.
+     *
+     * @param task The finished task.
+     */
+    private void finish(@NonNull Task task) {
+        ArrayDeque<Task> waiting = activeSchedules.get(task.scheduleId);
+        Task next = waiting == null ? null : waiting.poll();
+        if (next == null) {
+            activeSchedules.remove(task.scheduleId);
+        } else {
+            enqueue(next);
+        }
+    }
+
+    private void enqueue(@NonNull Task task) {
+        task.sequence = sequence++;
+        queue.add(task);
+    }
+
+    /**
+     * The preparation of a single schedule.
+     */
+    private static class Task {
+
+        final String scheduleId;
+        final List<Stage> stages;
+        boolean isBoosted;
+        int index;
+        long sequence;
+        long backOff = INITIAL_BACKOFF_MILLIS;
+
+        Task(@NonNull String scheduleId, @NonNull List<Stage> stages, boolean isBoosted) {
+            this.scheduleId = scheduleId;
+            this.stages = stages;
+            this.isBoosted = isBoosted;
+        }
+
+    }
+
+    /**
+     * Latency totals for a stage.
+     */
+    private static class Latency {
+
+        long count;
+        long total;
+
+    }
+
+}
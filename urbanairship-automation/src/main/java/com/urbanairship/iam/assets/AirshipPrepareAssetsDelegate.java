@@ -5,6 +5,7 @@ package com.urbanairship.iam.assets;
 import android.graphics.BitmapFactory;
 
 import com.urbanairship.Logger;
+import com.urbanairship.UAirship;
 import com.urbanairship.iam.InAppMessage;
 import com.urbanairship.iam.InAppMessageSchedule;
 import com.urbanairship.iam.MediaInfo;
@@ -13,6 +14,7 @@ import com.urbanairship.iam.fullscreen.FullScreenDisplayContent;
 import com.urbanairship.iam.modal.ModalDisplayContent;
 import com.urbanairship.json.JsonMap;
 import com.urbanairship.util.FileUtils;
+import com.urbanairship.util.MediaCache;
 import com.urbanairship.util.UAHttpStatusUtil;
 
 import java.io.File;
@@ -76,7 +78,8 @@ public class AirshipPrepareAssetsDelegate implements PrepareAssetsDelegate {
     }
 
     /**
-     * Helper method that caches an image in the assets.
+     * Helper method that caches an image in the assets. The image is fetched through the shared
+     * {@link MediaCache} so media used by other messages or notifications is only downloaded once.
      *
      * @param assets The assets.
      * @param url The image URL.
@@ -86,7 +89,7 @@ public class AirshipPrepareAssetsDelegate implements PrepareAssetsDelegate {
     @NonNull
     protected FileUtils.DownloadResult cacheImage(@NonNull Assets assets, @NonNull String url) throws IOException {
         File file = assets.file(url);
-        FileUtils.DownloadResult result = FileUtils.downloadFile(new URL(url), file);
+        FileUtils.DownloadResult result = MediaCache.shared(UAirship.getApplicationContext()).fetch(new URL(url), file);
 
         if (result.isSuccess) {
             // Cache the width and height for view resizing
@@ -110,7 +113,7 @@ public class AirshipPrepareAssetsDelegate implements PrepareAssetsDelegate {
      * @return The media info if set, otherwise {@code null}.
      */
     @Nullable
-    private MediaInfo getMediaInfo(@NonNull InAppMessage message) {
+    static MediaInfo getMediaInfo(@NonNull InAppMessage message) {
         switch (message.getType()) {
             case InAppMessage.TYPE_BANNER:
                 BannerDisplayContent bannerDisplayContent = message.getDisplayContent();
@@ -5,12 +5,17 @@ package com.urbanairship.iam.assets;
 import android.content.Context;
 
 import com.urbanairship.Logger;
+import com.urbanairship.UAirship;
 import com.urbanairship.iam.InAppMessage;
 import com.urbanairship.iam.InAppMessageManager;
 import com.urbanairship.iam.InAppMessageSchedule;
+import com.urbanairship.iam.MediaInfo;
+import com.urbanairship.util.MediaCache;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.net.MalformedURLException;
+import java.net.URL;
 import java.util.concurrent.Callable;
 
 import androidx.annotation.IntDef;
@@ -53,6 +58,8 @@ public class AssetManager {
     @NonNull
     private final AssetCache assetCache;
 
+    @NonNull
+    private final MediaCache mediaCache;
 
     /**
      * Default constructor. Applications should not create their own, instead use the asset manager
@@ -63,12 +70,19 @@ public class AssetManager {
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
     public AssetManager(@NonNull Context context) {
         this.assetCache = new AssetCache(context);
+        this.mediaCache = MediaCache.shared(context);
         this.assetsDelegate = new AirshipPrepareAssetsDelegate();
     }
 
     @VisibleForTesting
     AssetManager(@NonNull AssetCache assetCache) {
+        this(assetCache, MediaCache.shared(UAirship.getApplicationContext()));
+    }
+
+    @VisibleForTesting
+    AssetManager(@NonNull AssetCache assetCache, @NonNull MediaCache mediaCache) {
         this.assetCache = assetCache;
+        this.mediaCache = mediaCache;
     }
 
     /**
@@ -116,6 +130,27 @@ public class AssetManager {
             } catch (Exception e) {
                 Logger.error(e, "Unable to prepare assets for schedule: %s message: %s", schedule.getId(), schedule.getInfo().getInAppMessage().getId());
             }
+        } else {
+            prefetchMedia(schedule);
+        }
+    }
+
+    /**
+     * Warms the shared media cache with the schedule's image on unmetered networks so preparing
+     * the message later only needs a local copy.
+     *
+     * @param schedule The schedule.
+     */
+    private void prefetchMedia(@NonNull InAppMessageSchedule schedule) {
+        MediaInfo mediaInfo = AirshipPrepareAssetsDelegate.getMediaInfo(schedule.getInfo().getInAppMessage());
+        if (mediaInfo == null || !MediaInfo.TYPE_IMAGE.equals(mediaInfo.getType())) {
+            return;
+        }
+
+        try {
+            mediaCache.prefetch(new URL(mediaInfo.getUrl()));
+        } catch (MalformedURLException e) {
+            Logger.debug(e, "Invalid media URL: %s", mediaInfo.getUrl());
         }
     }
 
@@ -13,9 +13,10 @@ import com.urbanairship.json.JsonSerializable;
 import com.urbanairship.json.JsonValue;
 import com.urbanairship.util.Clock;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -25,6 +26,11 @@ import androidx.annotation.NonNull;
 
 /**
  * Tracks pending and sent mutations.
+ * <p>
+ * Sent mutations are kept in memory as an append-only history ordered by time, oldest first, so
+ * recording a mutation never re-sorts or re-parses the history and pruning only drops records from
+ * the front. The net effect of the records since a given time is collapsed once and reused until
+ * the history changes.
  */
 class TagGroupHistorian {
 
@@ -37,6 +43,12 @@ class TagGroupHistorian {
     private final Clock clock;
     private long maxRecordAge = Long.MAX_VALUE;
 
+    private ArrayDeque<MutationRecord> records;
+
+    // Net local delta of the records since deltaSinceDate
+    private List<TagGroupsMutation> delta;
+    private long deltaSinceDate;
+
     /**
      * Default constructor.
      *
@@ -68,7 +80,10 @@ class TagGroupHistorian {
      * @param unit The time unit.
      */
     void setMaxRecordAge(long duration, @NonNull TimeUnit unit) {
-        this.maxRecordAge = unit.toMillis(duration);
+        synchronized (recordLock) {
+            this.maxRecordAge = unit.toMillis(duration);
+            this.delta = null;
+        }
     }
 
     /**
@@ -80,10 +95,8 @@ class TagGroupHistorian {
      */
     void applyLocalData(@NonNull Map<String, Set<String>> tags, long sinceDate) {
         // Records
-        for (MutationRecord record : getMutationRecords()) {
-            if (record.time >= sinceDate) {
-                record.mutation.apply(tags);
-            }
+        for (TagGroupsMutation mutation : getLocalDelta(sinceDate)) {
+            mutation.apply(tags);
         }
 
         // Named User
@@ -104,50 +117,87 @@ class TagGroupHistorian {
      */
     private void recordMutation(@NonNull TagGroupsMutation mutation) {
         synchronized (recordLock) {
-            List<MutationRecord> records = getMutationRecords();
-
-            // Add new record
-            records.add(new MutationRecord(clock.currentTimeMillis(), mutation));
-
-            // Sort entries by oldest first
-            Collections.sort(records, new Comparator<MutationRecord>() {
-                @Override
-                public int compare(@NonNull MutationRecord lh, @NonNull MutationRecord rh) {
-                    if (lh.time == rh.time) {
-                        return 0;
-                    }
-                    if (lh.time > rh.time) {
-                        return 1;
-                    }
-                    return -1;
+            ArrayDeque<MutationRecord> records = getMutationRecords();
+            MutationRecord record = new MutationRecord(clock.currentTimeMillis(), mutation);
+
+            MutationRecord last = records.peekLast();
+            if (last == null || last.time <= record.time) {
+                records.addLast(record);
+            } else {
+                // Clock went backwards, keep the history in order
+                List<MutationRecord> sorted = new ArrayList<>(records);
+                int index = sorted.size();
+                while (index > 0 && sorted.get(index - 1).time > record.time) {
+                    index--;
                 }
-            });
+                sorted.add(index, record);
+                records.clear();
+                records.addAll(sorted);
+            }
 
+            delta = null;
             dataStore.put(RECORDS_KEY, JsonValue.wrapOpt(records));
         }
     }
 
     /**
-     * Gets the recorded mutations.
+     * Gets the net local delta of the records since the specified time.
      *
-     * @return The list of recorded mutations.
+     * @param sinceDate The time in milliseconds since the epoch.
+     * @return The collapsed mutations.
      */
     @NonNull
-    private List<MutationRecord> getMutationRecords() {
+    private List<TagGroupsMutation> getLocalDelta(long sinceDate) {
         synchronized (recordLock) {
-            // Grab entries, should already be sorted
-            List<MutationRecord> allRecords = MutationRecord.fromJsonList(dataStore.getJsonValue(RECORDS_KEY).optList());
+            ArrayDeque<MutationRecord> records = getMutationRecords();
 
-            // Remove any dated records
-            List<MutationRecord> filteredRecords = new ArrayList<>();
-            for (MutationRecord record : allRecords) {
-                long age = clock.currentTimeMillis() - record.time;
-                if (age <= maxRecordAge) {
-                    filteredRecords.add(record);
+            if (delta != null && deltaSinceDate == sinceDate) {
+                return delta;
+            }
+
+            // Records are ordered by time so the matching records are at the end
+            List<TagGroupsMutation> mutations = new ArrayList<>();
+            Iterator<MutationRecord> iterator = records.descendingIterator();
+            while (iterator.hasNext()) {
+                MutationRecord record = iterator.next();
+                if (record.time < sinceDate) {
+                    break;
                 }
+                mutations.add(record.mutation);
+            }
+            Collections.reverse(mutations);
+
+            delta = TagGroupsMutation.collapseMutations(mutations);
+            deltaSinceDate = sinceDate;
+            return delta;
+        }
+    }
+
+    /**
+     * Gets the recorded mutations, oldest first. Records older than the max record age are pruned.
+     *
+     * @return The recorded mutations.
+     */
+    @NonNull
+    private ArrayDeque<MutationRecord> getMutationRecords() {
+        synchronized (recordLock) {
+            if (records == null) {
+                records = new ArrayDeque<>(MutationRecord.fromJsonList(dataStore.getJsonValue(RECORDS_KEY).optList()));
             }
 
-            return filteredRecords;
+            // Remove any dated records
+            long now = clock.currentTimeMillis();
+            boolean pruned = false;
+            while (!records.isEmpty() && now - records.peekFirst().time > maxRecordAge) {
+                records.removeFirst();
+                pruned = true;
+            }
+
+            if (pruned) {
+                delta = null;
+            }
+
+            return records;
         }
     }
 
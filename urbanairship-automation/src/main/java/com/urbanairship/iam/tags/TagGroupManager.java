@@ -2,6 +2,7 @@
 
 package com.urbanairship.iam.tags;
 
+import com.urbanairship.AirshipExecutors;
 import com.urbanairship.Logger;
 import com.urbanairship.PreferenceDataStore;
 import com.urbanairship.channel.AirshipChannel;
@@ -13,6 +14,10 @@ import com.urbanairship.util.Clock;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 
 import androidx.annotation.IntRange;
@@ -24,6 +29,11 @@ import androidx.annotation.WorkerThread;
 
 /**
  * In-App Message Manager helper class that manages tag group audience data.
+ * <p>
+ * Lookups do not block each other. The last response is kept in memory and served while it is
+ * fresh. Once it is older than the max cache age it is still served, as long as it is within the
+ * stale read time, while a refresh runs in the background. Concurrent lookups that need a refresh
+ * share a single in-flight request as long as it covers the requested tags.
  *
  * @hide
  */
@@ -82,8 +92,14 @@ public class TagGroupManager {
     private final AirshipChannel airshipChannel;
     private final TagGroupLookupApiClient client;
     private final Clock clock;
+    private final Executor executor;
 
-    private RequestTagsCallback requestTagsCallback;
+    private final Object cacheLock = new Object();
+    private CacheEntry cacheEntry;
+    private boolean isCacheLoaded;
+    private PendingRefresh pendingRefresh;
+
+    private volatile RequestTagsCallback requestTagsCallback;
 
     /**
      * Default constructor.
@@ -99,18 +115,19 @@ public class TagGroupManager {
                            @NonNull PreferenceDataStore dataStore) {
         this(new TagGroupLookupApiClient(runtimeConfig), airshipChannel,
                 new TagGroupHistorian(tagGroupRegistrar, dataStore, Clock.DEFAULT_CLOCK),
-                dataStore, Clock.DEFAULT_CLOCK);
+                dataStore, Clock.DEFAULT_CLOCK, AirshipExecutors.THREAD_POOL_EXECUTOR);
     }
 
     @VisibleForTesting
     TagGroupManager(@NonNull TagGroupLookupApiClient client, @NonNull AirshipChannel airshipChannel,
                     @NonNull TagGroupHistorian historian, @NonNull PreferenceDataStore dataStore,
-                    @NonNull Clock clock) {
+                    @NonNull Clock clock, @NonNull Executor executor) {
         this.client = client;
         this.airshipChannel = airshipChannel;
         this.historian = historian;
         this.dataStore = dataStore;
         this.clock = clock;
+        this.executor = executor;
 
         this.historian.init();
         updateMaxRecordAge();
@@ -154,8 +171,9 @@ public class TagGroupManager {
     }
 
     /**
-     * Sets the cache stale read time. If the cache fails to refresh, the cache will still
-     * be used if it's newer than the specified duration.
+     * Sets the cache stale read time. A cache entry that is older than the max cache age but
+     * newer than the stale read time is returned immediately while it is refreshed in the
+     * background. It is also still used if a blocking refresh fails.
      *
      * @param duration The duration.
      * @param unit The time unit.
@@ -166,9 +184,10 @@ public class TagGroupManager {
     }
 
     /**
-     * Gets the cache stale age read time in milliseconds.
+     * Gets the cache stale read time in milliseconds. Entries within this time are served
+     * immediately and refreshed in the background once they pass the max cache age.
      *
-     * @return The cache stale age read time in milliseconds.
+     * @return The cache stale read time in milliseconds.
      */
     public long getCacheStaleReadTimeMilliseconds() {
         return dataStore.getLong(CACHE_STALE_READ_TIME_KEY, DEFAULT_CACHE_STALE_READ_TIME_MS);
@@ -220,8 +239,9 @@ public class TagGroupManager {
      */
     @NonNull
     @WorkerThread
-    public synchronized TagGroupResult getTags(@NonNull Map<String, Set<String>> tags) {
-        if (requestTagsCallback == null) {
+    public TagGroupResult getTags(@NonNull Map<String, Set<String>> tags) {
+        RequestTagsCallback callback = requestTagsCallback;
+        if (callback == null) {
             throw new IllegalStateException("RequestTagsCallback not set");
         }
 
@@ -246,81 +266,147 @@ public class TagGroupManager {
             return new TagGroupResult(false, null);
         }
 
-        long cacheStaleReadTime = getCacheStaleReadTimeMilliseconds();
-        long cacheMaxAgeTime = getCacheMaxAgeTimeMilliseconds();
-
-        TagGroupResponse cachedResponse = null;
-        if (TagGroupUtils.containsAll(getCachedRequestTags(), tags)) {
-            cachedResponse = getCachedResponse();
+        CacheEntry entry = getCacheEntry();
+        if (entry != null && TagGroupUtils.containsAll(entry.requestedTags, tags)) {
+            if (getCacheMaxAgeTimeMilliseconds() > clock.currentTimeMillis() - entry.createDate) {
+                return new TagGroupResult(true, generateTags(tags, entry));
+            }
+
+            // Serve the stale cache while it refreshes in the background
+            if (isReadable(entry)) {
+                PendingRefresh refresh = getRefresh(tags, callback);
+                if (refresh.isOwner) {
+                    executor.execute(refresh.task);
+                }
+
+                return new TagGroupResult(true, generateTags(tags, entry));
+            }
         }
 
-        long cacheCreateDate = getCacheCreateDate();
-
-        if (cachedResponse != null && cacheMaxAgeTime > clock.currentTimeMillis() - cacheCreateDate) {
-            return new TagGroupResult(true, generateTags(tags, cachedResponse, cacheCreateDate));
+        // Refresh the cache, or wait for the in-flight refresh
+        PendingRefresh refresh = getRefresh(tags, callback);
+        if (refresh.isOwner) {
+            refresh.task.run();
         }
 
-        // Refresh the cache
         try {
-            refreshCache(tags, cachedResponse);
-            cachedResponse = getCachedResponse();
-            cacheCreateDate = getCacheCreateDate();
-        } catch (Exception e) {
+            CacheEntry refreshed = refresh.task.get();
+            if (refreshed != null) {
+                entry = refreshed;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Logger.error(e, "Interrupted while refreshing tags.");
+        } catch (ExecutionException e) {
             Logger.error(e, "Failed to refresh tags.");
         }
 
-        if (cachedResponse == null) {
-            return new TagGroupResult(false, null);
-        }
-
-        if (cacheStaleReadTime <= 0 || cacheStaleReadTime > clock.currentTimeMillis() - cacheCreateDate) {
-            return new TagGroupResult(true, generateTags(tags, cachedResponse, cacheCreateDate));
+        if (entry != null && TagGroupUtils.containsAll(entry.requestedTags, tags) && isReadable(entry)) {
+            return new TagGroupResult(true, generateTags(tags, entry));
         }
 
         return new TagGroupResult(false, null);
     }
 
     /**
-     * Sets the cached response.
+     * Checks if the cache entry is newer than the stale read time.
      *
-     * @param response The response to cache.
+     * @param entry The cache entry.
+     * @return {@code true} if the entry can be read, otherwise {@code false}.
      */
-    private void setCachedResponse(@NonNull TagGroupResponse response, @NonNull Map<String, Set<String>> requestedTags) {
-        dataStore.put(CACHE_RESPONSE_KEY, response);
-        dataStore.put(CACHE_CREATE_DATE_KEY, clock.currentTimeMillis());
-        dataStore.put(CACHE_REQUESTED_TAGS_KEY, JsonValue.wrapOpt(requestedTags));
+    private boolean isReadable(@NonNull CacheEntry entry) {
+        long cacheStaleReadTime = getCacheStaleReadTimeMilliseconds();
+        return cacheStaleReadTime <= 0 || cacheStaleReadTime > clock.currentTimeMillis() - entry.createDate;
     }
 
     /**
-     * Gets the cached response.
+     * Gets the cache entry. The entry is loaded from the data store the first time.
      *
-     * @return The cached response, or null if not available.
+     * @return The cache entry, or null if not available.
      */
     @Nullable
-    private TagGroupResponse getCachedResponse() {
-        JsonValue value = dataStore.getJsonValue(CACHE_RESPONSE_KEY);
-        if (value.isNull()) {
-            return null;
+    private CacheEntry getCacheEntry() {
+        synchronized (cacheLock) {
+            if (!isCacheLoaded) {
+                isCacheLoaded = true;
+
+                JsonValue value = dataStore.getJsonValue(CACHE_RESPONSE_KEY);
+                if (!value.isNull()) {
+                    cacheEntry = new CacheEntry(TagGroupResponse.fromJsonValue(value),
+                            TagGroupUtils.parseTags(dataStore.getJsonValue(CACHE_REQUESTED_TAGS_KEY)),
+                            dataStore.getLong(CACHE_CREATE_DATE_KEY, -1));
+                }
+            }
+
+            return cacheEntry;
         }
-        return TagGroupResponse.fromJsonValue(value);
     }
 
     /**
-     * Gets the cache creation date.
+     * Sets the cache entry.
      *
-     * @return The cache creation date if available, otherwise {@code -1} will be returned.
+     * @param entry The cache entry.
      */
-    private long getCacheCreateDate() {
-        return dataStore.getLong(CACHE_CREATE_DATE_KEY, -1);
+    private void setCacheEntry(@NonNull CacheEntry entry) {
+        synchronized (cacheLock) {
+            isCacheLoaded = true;
+            cacheEntry = entry;
+
+            dataStore.put(CACHE_RESPONSE_KEY, entry.response);
+            dataStore.put(CACHE_CREATE_DATE_KEY, entry.createDate);
+            dataStore.put(CACHE_REQUESTED_TAGS_KEY, JsonValue.wrapOpt(entry.requestedTags));
+        }
     }
 
     /**
-     * Gets the cache creation date.
+     * Gets the in-flight refresh if it covers the requested tags, otherwise creates a new refresh.
+     * A new refresh is not started, the caller owns it and is expected to run it.
      *
-     * @return The cache creation date if available, otherwise {@code -1} will be returned.
+     * @param tags The requested tags.
+     * @param callback The request tags callback.
+     * @return The refresh.
      */
-    private Map<String, Set<String>> getCachedRequestTags() {
-        return TagGroupUtils.parseTags(dataStore.getJsonValue(CACHE_REQUESTED_TAGS_KEY));
+    @NonNull
+    private PendingRefresh getRefresh(@NonNull Map<String, Set<String>> tags, @NonNull RequestTagsCallback callback) {
+        synchronized (cacheLock) {
+            if (pendingRefresh != null && TagGroupUtils.containsAll(pendingRefresh.requestTags, tags)) {
+                return pendingRefresh.join();
+            }
+        }
+
+        Map<String, Set<String>> requestTags;
+        try {
+            requestTags = TagGroupUtils.union(tags, callback.getTags());
+        } catch (Exception e) {
+            Logger.error(e, "Failed to get the request tags.");
+            requestTags = tags;
+        }
+
+        synchronized (cacheLock) {
+            // Another refresh might have started while gathering the request tags
+            if (pendingRefresh != null && TagGroupUtils.containsAll(pendingRefresh.requestTags, tags)) {
+                return pendingRefresh.join();
+            }
+
+            final Map<String, Set<String>> finalRequestTags = requestTags;
+            FutureTask<CacheEntry> task = new FutureTask<>(new Callable<CacheEntry>() {
+                @Override
+                public CacheEntry call() throws Exception {
+                    try {
+                        return refreshCache(finalRequestTags);
+                    } finally {
+                        synchronized (cacheLock) {
+                            if (pendingRefresh != null && pendingRefresh.requestTags == finalRequestTags) {
+                                pendingRefresh = null;
+                            }
+                        }
+                    }
+                }
+            });
+
+            pendingRefresh = new PendingRefresh(requestTags, task, true);
+            return pendingRefresh;
+        }
     }
 
     /**
@@ -332,16 +418,19 @@ public class TagGroupManager {
     }
 
     /**
-     * Helper method to generate the tags from the response. Local cache data will be applied.
+     * Helper method to generate the tags from the cache entry. Local cache data will be applied.
      *
-     * @param response The response.
+     * @param requestedTags The requested tags.
+     * @param entry The cache entry.
      * @return The tag groups.
      */
     @NonNull
-    private Map<String, Set<String>> generateTags(Map<String, Set<String>> requestedTags, TagGroupResponse response, long cacheTime) {
-        Map<String, Set<String>> currentTags = new HashMap<>(response.tags);
+    private Map<String, Set<String>> generateTags(Map<String, Set<String>> requestedTags, CacheEntry entry) {
+        // Copy the tag sets so applying local data does not change the cached response
+        Map<String, Set<String>> currentTags = new HashMap<>();
+        TagGroupUtils.addAll(currentTags, entry.response.tags);
 
-        this.historian.applyLocalData(currentTags, cacheTime - getPreferLocalTagDataTime());
+        this.historian.applyLocalData(currentTags, entry.createDate - getPreferLocalTagDataTime());
 
         // Override the device tags if needed
         if (requestedTags.containsKey("device") && airshipChannel.getChannelTagRegistrationEnabled()) {
@@ -355,36 +444,73 @@ public class TagGroupManager {
     /**
      * Refreshes the cache.
      *
-     * @param tags The requested tags.
-     * @param cachedResponse The cached response.
+     * @param requestTags The tags to request.
+     * @return The new cache entry, or null if the refresh failed.
      */
-    private void refreshCache(Map<String, Set<String>> tags, @Nullable TagGroupResponse cachedResponse) throws Exception {
-        Map<String, Set<String>> requestTags;
-        if (requestTagsCallback != null) {
-            requestTags = TagGroupUtils.union(tags, requestTagsCallback.getTags());
-        } else {
-            requestTags = tags;
-        }
-
+    @Nullable
+    private CacheEntry refreshCache(@NonNull Map<String, Set<String>> requestTags) {
         // Only use the cached response if it the requested tags are the same
-        if (cachedResponse != null && !requestTags.equals(getCachedRequestTags())) {
-            cachedResponse = null;
+        CacheEntry entry = getCacheEntry();
+        TagGroupResponse cachedResponse = null;
+        if (entry != null && requestTags.equals(entry.requestedTags)) {
+            cachedResponse = entry.response;
         }
 
         TagGroupResponse response = client.lookupTagGroups(airshipChannel.getId(), requestTags, cachedResponse);
 
         if (response == null) {
             Logger.error("Failed to refresh the cache.");
-            return;
+            return null;
         }
 
         if (response.status != 200) {
             Logger.error("Failed to refresh the cache. Status: %s", response);
-            return;
+            return null;
         }
 
         Logger.verbose("Refreshed tag group with response: %s", response);
-        setCachedResponse(response, requestTags);
+        CacheEntry refreshed = new CacheEntry(response, requestTags, clock.currentTimeMillis());
+        setCacheEntry(refreshed);
+        return refreshed;
+    }
+
+    /**
+     * A cached lookup response.
+     */
+    private static class CacheEntry {
+
+        final TagGroupResponse response;
+        final Map<String, Set<String>> requestedTags;
+        final long createDate;
+
+        CacheEntry(@NonNull TagGroupResponse response, @NonNull Map<String, Set<String>> requestedTags, long createDate) {
+            this.response = response;
+            this.requestedTags = requestedTags;
+            this.createDate = createDate;
+        }
+
+    }
+
+    /**
+     * A cache refresh that is shared by the lookups it covers.
+     */
+    private static class PendingRefresh {
+
+        final Map<String, Set<String>> requestTags;
+        final FutureTask<CacheEntry> task;
+        final boolean isOwner;
+
+        PendingRefresh(@NonNull Map<String, Set<String>> requestTags, @NonNull FutureTask<CacheEntry> task, boolean isOwner) {
+            this.requestTags = requestTags;
+            this.task = task;
+            this.isOwner = isOwner;
+        }
+
+        @NonNull
+        PendingRefresh join() {
+            return new PendingRefresh(requestTags, task, false);
+        }
+
     }
 
 }
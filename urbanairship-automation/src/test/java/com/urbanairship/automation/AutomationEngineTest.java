@@ -28,6 +28,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -244,6 +245,32 @@ public class AutomationEngineTest {
         verifyTrigger(trigger, null);
     }
 
+    @Test
+    public void testActiveSessionSharedStateCheck() throws Exception {
+        activityMonitor.startActivity();
+
+        List<ActionScheduleInfo> scheduleInfos = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            scheduleInfos.add(ActionScheduleInfo.newBuilder()
+                                                .addTrigger(Triggers.newActiveSessionTriggerBuilder()
+                                                                    .setGoal(1)
+                                                                    .build())
+                                                .addAction("test_action", JsonValue.wrap("action_value"))
+                                                .build());
+        }
+
+        PendingResult<List<ActionSchedule>> pendingResult = automationEngine.schedule(scheduleInfos, JsonMap.EMPTY_MAP);
+        runLooperTasks();
+
+        List<ActionSchedule> schedules = pendingResult.get();
+        assertEquals(50, schedules.size());
+
+        // Every schedule is triggered by the single foreground state check
+        for (ActionSchedule schedule : schedules) {
+            assertEquals(ScheduleEntry.STATE_PREPARING_SCHEDULE, automationDataManager.getScheduleEntry(schedule.getId()).getExecutionState());
+        }
+    }
+
     @Test
     public void testVersion() throws Exception {
         when(mockMetrics.getAppVersionUpdated()).thenReturn(true);
@@ -140,6 +140,50 @@ public class AudienceChecksTest {
         assertFalse(AudienceChecks.checkAudienceForScheduling(context, someOtherTestDeviceAudience, false));
     }
 
+    @Test
+    public void testTestDevicesChannelChange() {
+        byte[] bytes = Arrays.copyOf(UAStringUtil.sha256Digest("test channel"), 16);
+        String testDevice = Base64.encodeToString(bytes, Base64.DEFAULT);
+
+        Audience testDeviceAudience = Audience.newBuilder()
+                                              .addTestDevice(testDevice)
+                                              .build();
+
+        when(airshipChannel.getId()).thenReturn("test channel");
+        assertTrue(AudienceChecks.checkAudienceForScheduling(context, testDeviceAudience, false));
+
+        when(airshipChannel.getId()).thenReturn("some other channel");
+        assertFalse(AudienceChecks.checkAudienceForScheduling(context, testDeviceAudience, false));
+
+        when(airshipChannel.getId()).thenReturn(null);
+        assertFalse(AudienceChecks.checkAudienceForScheduling(context, testDeviceAudience, false));
+    }
+
+    @Test
+    public void testAudiencesWithDifferentTestDevices() {
+        byte[] bytes = Arrays.copyOf(UAStringUtil.sha256Digest("test channel"), 16);
+        String testDevice = Base64.encodeToString(bytes, Base64.DEFAULT);
+
+        bytes = Arrays.copyOf(UAStringUtil.sha256Digest("some other channel"), 16);
+        String otherTestDevice = Base64.encodeToString(bytes, Base64.DEFAULT);
+
+        Audience otherAudience = Audience.newBuilder()
+                                         .addTestDevice(otherTestDevice)
+                                         .build();
+
+        Audience audience = Audience.newBuilder()
+                                    .addTestDevice(testDevice)
+                                    .build();
+
+        assertFalse(audience.equals(otherAudience));
+
+        when(airshipChannel.getId()).thenReturn("test channel");
+
+        // Check the other audience first so its conditions are compiled first
+        assertFalse(AudienceChecks.checkAudienceForScheduling(context, otherAudience, false));
+        assertTrue(AudienceChecks.checkAudienceForScheduling(context, audience, false));
+    }
+
     @Test
     public void testTagSelector() {
         final Set<String> tags = new HashSet<>();
@@ -222,6 +266,15 @@ public class AudienceChecksTest {
 
         when(applicationMetrics.getCurrentAppVersion()).thenReturn(3l);
         assertFalse(AudienceChecks.checkAudience(context, audience));
+
+        // Equal audience
+        Audience otherAudience = Audience.newBuilder()
+                                         .setVersionMatcher(ValueMatcher.newNumberRangeMatcher(1.0, 2.0))
+                                         .build();
+        assertFalse(AudienceChecks.checkAudience(context, otherAudience));
+
+        when(applicationMetrics.getCurrentAppVersion()).thenReturn(1l);
+        assertTrue(AudienceChecks.checkAudience(context, otherAudience));
     }
 
     @Test
@@ -52,6 +52,7 @@ import androidx.test.ext.junit.runners.AndroidJUnit4;
 
 import static com.urbanairship.iam.tags.TestUtils.tagSet;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
@@ -135,15 +136,17 @@ public class InAppMessageManagerTest {
         Subject<RemoteDataPayload> subject = Subject.create();
         when(mockRemoteData.payloadsForType(any(String.class))).thenReturn(subject);
 
-        RetryingExecutor executor = new RetryingExecutor(new Handler(Looper.getMainLooper()), new Executor() {
+        Executor directExecutor = new Executor() {
             @Override
             public void execute(@NonNull Runnable runnable) {
                 runnable.run();
             }
-        });
+        };
+        RetryingExecutor executor = new RetryingExecutor(new Handler(Looper.getMainLooper()), directExecutor);
+        PrepareScheduler prepareScheduler = new PrepareScheduler(new Handler(Looper.getMainLooper()), directExecutor, PrepareScheduler.DEFAULT_MAX_CONCURRENT);
 
         manager = new InAppMessageManager(TestApplication.getApplication(), TestApplication.getApplication().preferenceDataStore, mockAnalytics, new TestActivityMonitor(),
-                executor, mockDriver, mockEngine, mockRemoteData, UAirship.shared().getChannel(), actionRunRequestFactory, mockTagManager, testObserver, mockAssetManager);
+                executor, prepareScheduler, mockDriver, mockEngine, mockRemoteData, UAirship.shared().getChannel(), actionRunRequestFactory, mockTagManager, testObserver, mockAssetManager);
 
         InAppMessageScheduleInfo info = InAppMessageScheduleInfo.newBuilder()
                                                                 .addTrigger(Triggers.newAppInitTriggerBuilder().setGoal(1).build())
@@ -415,6 +418,19 @@ public class InAppMessageManagerTest {
         verify(mockAdapter, times(2)).onPrepare(any(Context.class), any(Assets.class));
     }
 
+    @Test
+    public void testPrepareLatencies() {
+        when(mockAssetManager.onPrepare(schedule, schedule.getInfo().getInAppMessage())).thenReturn(AssetManager.PREPARE_RESULT_OK);
+        when(mockAdapter.onPrepare(any(Context.class), any(Assets.class))).thenReturn(InAppMessageAdapter.OK);
+
+        driverListener.onPrepareSchedule(schedule);
+
+        Map<String, Long> latencies = manager.getPrepareLatencies();
+        assertTrue(latencies.containsKey(InAppMessageManager.PREPARE_STAGE_AUDIENCE));
+        assertTrue(latencies.containsKey(InAppMessageManager.PREPARE_STAGE_ASSETS));
+        assertTrue(latencies.containsKey(InAppMessageManager.PREPARE_STAGE_ADAPTER));
+    }
+
     @Test
     public void testRetryAssetsPrepare() {
         when(mockAssetManager.onPrepare(schedule, schedule.getInfo().getInAppMessage())).thenReturn(AssetManager.PREPARE_RESULT_RETRY);
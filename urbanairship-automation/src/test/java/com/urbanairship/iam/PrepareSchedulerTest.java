@@ -0,0 +1,245 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.iam;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.urbanairship.util.RetryingExecutor;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Shadows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link PrepareScheduler} tests.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PrepareSchedulerTest {
+
+    private PrepareScheduler scheduler;
+    private TestExecutor executor;
+    private List<String> runOrder;
+
+    @Before
+    public void setup() {
+        executor = new TestExecutor();
+        runOrder = new ArrayList<>();
+        scheduler = new PrepareScheduler(new Handler(Looper.getMainLooper()), executor, 2);
+    }
+
+    @Test
+    public void testStagesRunInOrder() {
+        TestStage first = new TestStage("first", RetryingExecutor.RESULT_FINISHED);
+        TestStage second = new TestStage("second", RetryingExecutor.RESULT_FINISHED);
+
+        scheduler.prepare("schedule", true, first, second);
+
+        executor.runNext();
+        assertEquals(1, first.runCount);
+        assertEquals(0, second.runCount);
+
+        executor.runNext();
+        assertEquals(1, second.runCount);
+        assertTrue(executor.runnables.isEmpty());
+    }
+
+    @Test
+    public void testCancelSkipsStages() {
+        TestStage first = new TestStage("first", RetryingExecutor.RESULT_CANCEL);
+        TestStage second = new TestStage("second", RetryingExecutor.RESULT_FINISHED);
+
+        scheduler.prepare("schedule", true, first, second);
+        executor.runAll();
+
+        assertEquals(1, first.runCount);
+        assertEquals(0, second.runCount);
+    }
+
+    @Test
+    public void testExceptionCancelsStages() {
+        TestStage failing = new TestStage("failing", RetryingExecutor.RESULT_FINISHED) {
+            @Override
+            public int run() {
+                super.run();
+                throw new IllegalStateException("failed");
+            }
+        };
+        TestStage second = new TestStage("second", RetryingExecutor.RESULT_FINISHED);
+        TestStage next = new TestStage("next", RetryingExecutor.RESULT_FINISHED);
+
+        scheduler.prepare("schedule", true, failing, second);
+        scheduler.prepare("schedule", true, next);
+        executor.runAll();
+
+        assertEquals(1, failing.runCount);
+        assertEquals(0, second.runCount);
+
+        // The next preparation of the schedule still runs
+        assertEquals(1, next.runCount);
+
+        // The slot is released
+        scheduler.prepare("one", true, new TestStage("one", RetryingExecutor.RESULT_FINISHED));
+        scheduler.prepare("two", true, new TestStage("two", RetryingExecutor.RESULT_FINISHED));
+        assertEquals(2, executor.runnables.size());
+    }
+
+    @Test
+    public void testMaxConcurrent() {
+        scheduler.prepare("one", true, new TestStage("one", RetryingExecutor.RESULT_FINISHED));
+        scheduler.prepare("two", true, new TestStage("two", RetryingExecutor.RESULT_FINISHED));
+        scheduler.prepare("three", true, new TestStage("three", RetryingExecutor.RESULT_FINISHED));
+
+        // Only 2 can prepare at the same time
+        assertEquals(2, executor.runnables.size());
+
+        executor.runNext();
+        assertEquals(2, executor.runnables.size());
+
+        executor.runAll();
+        assertEquals(3, runOrder.size());
+    }
+
+    @Test
+    public void testRetryReleasesSlot() {
+        TestStage slow = new TestStage("slow", RetryingExecutor.RESULT_RETRY);
+        scheduler.prepare("slow", true, slow);
+        scheduler.prepare("one", true, new TestStage("one", RetryingExecutor.RESULT_FINISHED));
+        scheduler.prepare("two", true, new TestStage("two", RetryingExecutor.RESULT_FINISHED));
+
+        // Retrying stage waits for the backoff without holding a slot
+        executor.runAll();
+        assertEquals(1, slow.runCount);
+        assertEquals(3, runOrder.size());
+
+        slow.result = RetryingExecutor.RESULT_FINISHED;
+        advanceLooper(30000);
+        executor.runAll();
+        assertEquals(2, slow.runCount);
+    }
+
+    @Test
+    public void testBoostedSchedulesRunFirst() {
+        scheduler.setPaused(true);
+
+        scheduler.prepare("normal", false, new TestStage("normal", RetryingExecutor.RESULT_FINISHED));
+        scheduler.prepare("boosted", true, new TestStage("boosted", RetryingExecutor.RESULT_FINISHED));
+
+        scheduler.setPaused(false);
+        executor.runAll();
+
+        assertEquals("boosted", runOrder.get(0));
+        assertEquals("normal", runOrder.get(1));
+    }
+
+    @Test
+    public void testSameScheduleRunsInOrder() {
+        TestStage first = new TestStage("first", RetryingExecutor.RESULT_RETRY);
+        TestStage second = new TestStage("second", RetryingExecutor.RESULT_FINISHED);
+
+        scheduler.prepare("schedule", true, first);
+        scheduler.prepare("schedule", true, second);
+
+        // Second preparation waits for the first
+        executor.runAll();
+        assertEquals(1, first.runCount);
+        assertEquals(0, second.runCount);
+
+        first.result = RetryingExecutor.RESULT_FINISHED;
+        advanceLooper(30000);
+        executor.runAll();
+
+        assertEquals(2, first.runCount);
+        assertEquals(1, second.runCount);
+    }
+
+    @Test
+    public void testPause() {
+        TestStage stage = new TestStage("stage", RetryingExecutor.RESULT_FINISHED);
+
+        scheduler.setPaused(true);
+        scheduler.prepare("schedule", true, stage);
+        assertTrue(executor.runnables.isEmpty());
+
+        scheduler.setPaused(false);
+        executor.runAll();
+        assertEquals(1, stage.runCount);
+    }
+
+    @Test
+    public void testLatencies() {
+        scheduler.prepare("schedule", true, new TestStage("first", RetryingExecutor.RESULT_FINISHED),
+                new TestStage("second", RetryingExecutor.RESULT_FINISHED));
+        executor.runAll();
+
+        Map<String, Long> latencies = scheduler.getAverageLatencies();
+        assertEquals(2, latencies.size());
+        assertTrue(latencies.containsKey("first"));
+        assertTrue(latencies.containsKey("second"));
+    }
+
+    private void advanceLooper(long millis) {
+        Shadows.shadowOf(Looper.getMainLooper()).getScheduler().advanceBy(millis, TimeUnit.MILLISECONDS);
+    }
+
+    private static class TestExecutor implements Executor {
+
+        final List<Runnable> runnables = new ArrayList<>();
+
+        @Override
+        public void execute(@NonNull Runnable runnable) {
+            runnables.add(runnable);
+        }
+
+        void runNext() {
+            runnables.remove(0).run();
+        }
+
+        void runAll() {
+            while (!runnables.isEmpty()) {
+                runNext();
+            }
+        }
+
+    }
+
+    private class TestStage implements PrepareScheduler.Stage {
+
+        final String name;
+        int result;
+        int runCount;
+
+        TestStage(@NonNull String name, int result) {
+            this.name = name;
+            this.result = result;
+        }
+
+        @NonNull
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int run() {
+            runCount++;
+            runOrder.add(name);
+            return result;
+        }
+
+    }
+
+}
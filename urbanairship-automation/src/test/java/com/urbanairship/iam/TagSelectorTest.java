@@ -9,6 +9,7 @@ import org.junit.runner.RunWith;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -133,4 +134,55 @@ public class TagSelectorTest {
         assertTrue(tagGroups.get("some-other-group").contains("not-tag"));
     }
 
+    @Test
+    public void testRepeatedTags() {
+        // Same tag with and without a group, and the same tag in several branches
+        TagSelector selector = TagSelector.and(
+                TagSelector.or(TagSelector.tag("tag", "group"), TagSelector.tag("other")),
+                TagSelector.not(TagSelector.tag("tag")),
+                TagSelector.or(TagSelector.not(TagSelector.tag("tag", "group")), TagSelector.tag("other")));
+
+        Map<String, Set<String>> tagGroups = new HashMap<>();
+        tagGroups.put("group", tagSet("tag"));
+
+        assertFalse(selector.apply(tagSet("tag", "other"), tagGroups));
+        assertTrue(selector.apply(tagSet("other"), tagGroups));
+        assertFalse(selector.apply(tagSet(), tagGroups));
+        assertTrue(selector.apply(tagSet("other"), new HashMap<String, Set<String>>()));
+    }
+
+    @Test
+    public void testLargeSelector() {
+        // OR of 50 ANDs, each requiring tag-i and not tag-(i + 1)
+        List<TagSelector> selectors = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            selectors.add(TagSelector.and(
+                    TagSelector.tag("tag-" + i),
+                    TagSelector.not(TagSelector.tag("tag-" + (i + 1))),
+                    TagSelector.not(TagSelector.tag("excluded"))));
+        }
+        TagSelector selector = TagSelector.or(selectors);
+
+        Set<String> deviceTags = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            deviceTags.add("other-tag-" + i);
+        }
+        assertFalse(selector.apply(deviceTags));
+
+        deviceTags.add("tag-10");
+        assertTrue(selector.apply(deviceTags));
+
+        // Every branch fails
+        for (int i = 0; i <= 50; i++) {
+            deviceTags.add("tag-" + i);
+        }
+        assertFalse(selector.apply(deviceTags));
+
+        deviceTags.remove("tag-50");
+        assertTrue(selector.apply(deviceTags));
+
+        deviceTags.add("excluded");
+        assertFalse(selector.apply(deviceTags));
+    }
+
 }
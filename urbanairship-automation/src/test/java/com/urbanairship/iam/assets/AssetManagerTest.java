@@ -6,14 +6,20 @@ import com.urbanairship.automation.Triggers;
 import com.urbanairship.iam.InAppMessage;
 import com.urbanairship.iam.InAppMessageSchedule;
 import com.urbanairship.iam.InAppMessageScheduleInfo;
+import com.urbanairship.iam.MediaInfo;
+import com.urbanairship.iam.TextInfo;
 import com.urbanairship.iam.custom.CustomDisplayContent;
+import com.urbanairship.iam.modal.ModalDisplayContent;
 import com.urbanairship.json.JsonMap;
 import com.urbanairship.json.JsonValue;
+import com.urbanairship.util.MediaCache;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 
+import java.net.URL;
 import java.util.concurrent.Callable;
 
 import androidx.test.ext.junit.runners.AndroidJUnit4;
@@ -34,6 +40,7 @@ public class AssetManagerTest {
     private AssetCache mockCache;
     private PrepareAssetsDelegate mockAssetsDelegate;
     private CachePolicyDelegate mockCachePolicyDelegate;
+    private MediaCache mockMediaCache;
 
     private InAppMessageSchedule schedule;
 
@@ -42,7 +49,8 @@ public class AssetManagerTest {
         mockCache = mock(AssetCache.class);
         mockAssetsDelegate = mock(PrepareAssetsDelegate.class);
         mockCachePolicyDelegate = mock(CachePolicyDelegate.class);
-        assetManager = new AssetManager(mockCache);
+        mockMediaCache = mock(MediaCache.class);
+        assetManager = new AssetManager(mockCache, mockMediaCache);
         assetManager.setPrepareAssetDelegate(mockAssetsDelegate);
         assetManager.setCachePolicyDelegate(mockCachePolicyDelegate);
 
@@ -97,6 +105,45 @@ public class AssetManagerTest {
         verifyZeroInteractions(mockAssetsDelegate);
     }
 
+    /**
+     * Test prefetching the image into the media cache when a new message is scheduled without caching.
+     */
+    @Test
+    public void testPrefetchMediaSkipSchedule() {
+        InAppMessage message = InAppMessage.newBuilder()
+                                           .setId("some-message-id")
+                                           .setDisplayContent(ModalDisplayContent.newBuilder()
+                                                                                 .setHeading(TextInfo.newBuilder()
+                                                                                                     .setText("oh hi")
+                                                                                                     .build())
+                                                                                 .setMedia(MediaInfo.newBuilder()
+                                                                                                    .setUrl("https://example.com/image.png")
+                                                                                                    .setDescription("Its cool.")
+                                                                                                    .setType(MediaInfo.TYPE_IMAGE)
+                                                                                                    .build())
+                                                                                 .build())
+                                           .build();
+
+        final InAppMessageSchedule imageSchedule = new InAppMessageSchedule("image-id", JsonMap.EMPTY_MAP, InAppMessageScheduleInfo.newBuilder()
+                                                                                                                           .addTrigger(Triggers.newActiveSessionTriggerBuilder().build())
+                                                                                                                           .setMessage(message)
+                                                                                                                           .build());
+
+        when(mockCachePolicyDelegate.shouldCacheOnSchedule(imageSchedule)).thenReturn(false);
+
+        assetManager.onSchedule(imageSchedule, new Callable<InAppMessage>() {
+            @Override
+            public InAppMessage call() throws Exception {
+                return imageSchedule.getInfo().getInAppMessage();
+            }
+        });
+
+        ArgumentCaptor<URL> captor = ArgumentCaptor.forClass(URL.class);
+        verify(mockMediaCache).prefetch(captor.capture());
+        assertEquals("https://example.com/image.png", captor.getValue().toString());
+        verifyZeroInteractions(mockAssetsDelegate);
+    }
+
     /**
      * Test preparing assets when a message is being prepared for display.
      */
@@ -22,11 +22,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 
 import static com.urbanairship.iam.tags.TestUtils.tagSet;
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
@@ -149,6 +151,87 @@ public class TagGroupHistorianTest {
         assertTrue(historyTags.contains("three"));
     }
 
+    /**
+     * Test records older than the max record age are pruned.
+     */
+    @Test
+    public void testMaxRecordAge() {
+        historian.setMaxRecordAge(10, TimeUnit.MILLISECONDS);
+
+        listener.onMutationUploaded(TagGroupsMutation.newAddTagsMutation("history-group", tagSet("one")));
+        clock.currentTimeMillis += 5;
+        listener.onMutationUploaded(TagGroupsMutation.newAddTagsMutation("history-group", tagSet("two")));
+
+        Map<String, Set<String>> tags = new HashMap<>();
+        historian.applyLocalData(tags, 0);
+        assertEquals(tagSet("one", "two"), tags.get("history-group"));
+
+        // Time travel past the first record
+        clock.currentTimeMillis += 6;
+
+        tags.clear();
+        historian.applyLocalData(tags, 0);
+        assertEquals(tagSet("two"), tags.get("history-group"));
+
+        // Time travel past the second record
+        clock.currentTimeMillis += 5;
+
+        tags.clear();
+        historian.applyLocalData(tags, 0);
+        assertFalse(tags.containsKey("history-group"));
+    }
+
+    /**
+     * Test the local delta is updated when a new mutation is recorded.
+     */
+    @Test
+    public void testApplyLocalDataAfterNewRecord() {
+        listener.onMutationUploaded(TagGroupsMutation.newAddTagsMutation("history-group", tagSet("one")));
+
+        Map<String, Set<String>> tags = new HashMap<>();
+        historian.applyLocalData(tags, 0);
+        assertEquals(tagSet("one"), tags.get("history-group"));
+
+        listener.onMutationUploaded(TagGroupsMutation.newRemoveTagsMutation("history-group", tagSet("one")));
+        listener.onMutationUploaded(TagGroupsMutation.newAddTagsMutation("history-group", tagSet("two")));
+
+        tags.clear();
+        historian.applyLocalData(tags, 0);
+        assertEquals(tagSet("two"), tags.get("history-group"));
+
+        listener.onMutationUploaded(TagGroupsMutation.newSetTagsMutation("set-group", tagSet("one")));
+
+        tags.clear();
+        historian.applyLocalData(tags, 0);
+        assertEquals(tagSet("one"), tags.get("set-group"));
+
+        // Changing the applied tags does not change the history
+        tags.get("set-group").add("two");
+        tags.clear();
+        historian.applyLocalData(tags, 0);
+        assertEquals(tagSet("one"), tags.get("set-group"));
+    }
+
+    /**
+     * Test records are persisted.
+     */
+    @Test
+    public void testRecordsPersisted() {
+        listener.onMutationUploaded(TagGroupsMutation.newSetTagsMutation("history-group", tagSet("one", "two")));
+        clock.currentTimeMillis += 10;
+        listener.onMutationUploaded(TagGroupsMutation.newAddTagsMutation("history-group", tagSet("three")));
+
+        TagGroupHistorian restored = new TagGroupHistorian(mockRegistrar, TestApplication.getApplication().preferenceDataStore, clock);
+
+        Map<String, Set<String>> tags = new HashMap<>();
+        restored.applyLocalData(tags, clock.currentTimeMillis - 9);
+        assertEquals(tagSet("three"), tags.get("history-group"));
+
+        tags.clear();
+        restored.applyLocalData(tags, 0);
+        assertEquals(tagSet("one", "two", "three"), tags.get("history-group"));
+    }
+
     @Test
     public void testNullRecord() {
         PreferenceDataStore dataStore = TestApplication.getApplication().preferenceDataStore;
@@ -12,9 +12,13 @@ import org.junit.runner.RunWith;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 import androidx.annotation.NonNull;
@@ -56,6 +60,7 @@ public class TagGroupManagerTest {
     private Map<String, Set<String>> clientResponseTags;
 
     private TestClock clock;
+    private TestExecutor executor;
 
     @Before
     public void setup() {
@@ -85,7 +90,8 @@ public class TagGroupManagerTest {
         });
 
         mockHistorian = mock(TagGroupHistorian.class);
-        manager = new TagGroupManager(mockClient, mockChannel, mockHistorian, TestApplication.getApplication().preferenceDataStore, clock);
+        executor = new TestExecutor();
+        manager = new TagGroupManager(mockClient, mockChannel, mockHistorian, TestApplication.getApplication().preferenceDataStore, clock, executor);
 
         callback = new TestCallback();
         manager.setRequestTagsCallback(callback);
@@ -365,6 +371,106 @@ public class TagGroupManagerTest {
         assertFalse(result.success);
     }
 
+    /**
+     * Test requesting tags past the cache max age returns the cached tags before the cache is refreshed.
+     */
+    @Test
+    public void getTagsStaleWhileRevalidate() {
+        manager.setCacheMaxAgeTime(TagGroupManager.MIN_CACHE_MAX_AGE_TIME_MS, TimeUnit.MILLISECONDS);
+
+        TagGroupResponse response = new TagGroupResponse(200, clientResponseTags, "lastModifiedTime");
+        when(mockClient.lookupTagGroups(channelId, getExpectedClientRequestTags(), null))
+                .thenReturn(response);
+
+        TagGroupResult result = manager.getTags(requestTags);
+        assertTrue(result.success);
+
+        // Time travel past the cache max age
+        clock.currentTimeMillis += TagGroupManager.MIN_CACHE_MAX_AGE_TIME_MS + 1;
+
+        Map<String, Set<String>> updatedTags = new HashMap<>();
+        updatedTags.put("some-group", tagSet("story"));
+        when(mockClient.lookupTagGroups(channelId, getExpectedClientRequestTags(), response))
+                .thenReturn(new TagGroupResponse(200, updatedTags, "lastModifiedTime"));
+
+        executor.isPaused = true;
+
+        // Stale tags are returned right away
+        result = manager.getTags(requestTags);
+        assertTrue(result.success);
+        assertEquals(tagSet("cool"), result.tagGroups.get("some-group"));
+        verify(mockClient, times(0)).lookupTagGroups(channelId, getExpectedClientRequestTags(), response);
+
+        // Another stale read shares the same refresh
+        manager.getTags(requestTags);
+        assertEquals(1, executor.runnables.size());
+
+        executor.runAll();
+        verify(mockClient, times(1)).lookupTagGroups(channelId, getExpectedClientRequestTags(), response);
+
+        // Refreshed tags
+        result = manager.getTags(requestTags);
+        assertTrue(result.success);
+        assertEquals(tagSet("story"), result.tagGroups.get("some-group"));
+    }
+
+    /**
+     * Test concurrent lookups share a single request.
+     */
+    @Test
+    public void getTagsConcurrentLookups() throws InterruptedException {
+        final CountDownLatch requestStarted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        when(mockClient.lookupTagGroups(channelId, getExpectedClientRequestTags(), null))
+                .thenAnswer(new Answer<TagGroupResponse>() {
+                    @Override
+                    public TagGroupResponse answer(InvocationOnMock invocation) throws Throwable {
+                        requestStarted.countDown();
+                        release.await();
+                        return new TagGroupResponse(200, clientResponseTags, "lastModifiedTime");
+                    }
+                });
+
+        final List<TagGroupResult> results = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    TagGroupResult result = manager.getTags(requestTags);
+                    synchronized (results) {
+                        results.add(result);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        // Wait for every lookup to block on the request
+        requestStarted.await();
+        long timeout = System.currentTimeMillis() + 5000;
+        for (Thread thread : threads) {
+            while (thread.getState() != Thread.State.WAITING && System.currentTimeMillis() < timeout) {
+                Thread.sleep(1);
+            }
+        }
+
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        verify(mockClient, times(1)).lookupTagGroups(channelId, getExpectedClientRequestTags(), null);
+        verifyNoMoreInteractions(mockClient);
+        assertEquals(20, results.size());
+        for (TagGroupResult result : results) {
+            assertTrue(result.success);
+            assertEquals(tagSet("cool"), result.tagGroups.get("some-group"));
+        }
+    }
+
     /**
      * Test requesting new tags that were previously not fetched will cause the cache to be refreshed.
      */
@@ -433,6 +539,29 @@ public class TagGroupManagerTest {
         return TagGroupUtils.union(callbackResponseTags, requestTags);
     }
 
+    private static class TestExecutor implements Executor {
+
+        final List<Runnable> runnables = new ArrayList<>();
+        boolean isPaused;
+
+        @Override
+        public void execute(@NonNull Runnable runnable) {
+            if (isPaused) {
+                runnables.add(runnable);
+            } else {
+                runnable.run();
+            }
+        }
+
+        void runAll() {
+            for (Runnable runnable : new ArrayList<>(runnables)) {
+                runnable.run();
+            }
+            runnables.clear();
+        }
+
+    }
+
     private class TestCallback implements TagGroupManager.RequestTagsCallback {
 
         Map<String, Set<String>> tags;
@@ -56,6 +56,8 @@ public class AirshipConfigOptions {
     private static final int DEFAULT_PRODUCTION_LOG_LEVEL = Log.ERROR;
     private static final int DEFAULT_DEVELOPMENT_LOG_LEVEL = Log.DEBUG;
     private static final long DEFAULT_BG_REPORTING_INTERVAL_MS = 24 * 60 * 60 * 1000; // 24 hours
+    private static final long DEFAULT_PUSH_DEDUPLICATION_TTL_MS = 7 * 24 * 60 * 60 * 1000L; // 7 days
+    private static final long DEFAULT_NOTIFICATION_MEDIA_DEADLINE_MS = 7 * 1000; // 7 seconds
 
     private static final Pattern APP_CREDENTIAL_PATTERN = Pattern.compile("^[a-zA-Z0-9\\-_]{22}$");
 
@@ -221,6 +223,30 @@ public class AirshipConfigOptions {
      */
     public final long backgroundReportingIntervalMS;
 
+    /**
+     * How long in milliseconds the canonical or send ID of a received push is remembered
+     * to drop duplicate pushes, e.g. the same push delivered by more than one push provider.
+     * <p>
+     * Defaults to 7 days.
+     */
+    public final long pushDeduplicationTtlMS;
+
+    /**
+     * How long in milliseconds a notification waits for its media to load before it is posted
+     * without it. The notification is updated in place once the media loads.
+     * <p>
+     * Defaults to 7 seconds.
+     */
+    public final long notificationMediaDeadlineMS;
+
+    /**
+     * Flag indicating whether stored analytics events are compressed so more events fit in the
+     * event database while the device is offline.
+     * <p>
+     * Defaults to <code>false</code>.
+     */
+    public final boolean eventStorageCompressionEnabled;
+
     /**
      * Logger level when the application is in debug mode. Possible values are:
      * <br><ul>
@@ -342,6 +368,9 @@ public class AirshipConfigOptions {
         this.inProduction = builder.inProduction;
         this.analyticsEnabled = builder.analyticsEnabled;
         this.backgroundReportingIntervalMS = builder.backgroundReportingIntervalMS;
+        this.pushDeduplicationTtlMS = builder.pushDeduplicationTtlMS;
+        this.notificationMediaDeadlineMS = builder.notificationMediaDeadlineMS;
+        this.eventStorageCompressionEnabled = builder.eventStorageCompressionEnabled;
         this.autoLaunchApplication = builder.autoLaunchApplication;
         this.channelCreationDelayEnabled = builder.channelCreationDelayEnabled;
         this.channelCaptureEnabled = builder.channelCaptureEnabled;
@@ -487,6 +516,9 @@ public class AirshipConfigOptions {
         private static final String FIELD_IN_PRODUCTION = "inProduction";
         private static final String FIELD_ANALYTICS_ENABLED = "analyticsEnabled";
         private static final String FIELD_BACKGROUND_REPORTING_INTERVAL_MS = "backgroundReportingIntervalMS";
+        private static final String FIELD_PUSH_DEDUPLICATION_TTL_MS = "pushDeduplicationTtlMS";
+        private static final String FIELD_NOTIFICATION_MEDIA_DEADLINE_MS = "notificationMediaDeadlineMS";
+        private static final String FIELD_EVENT_STORAGE_COMPRESSION_ENABLED = "eventStorageCompressionEnabled";
         private static final String FIELD_DEVELOPMENT_LOG_LEVEL = "developmentLogLevel";
         private static final String FIELD_PRODUCTION_LOG_LEVEL = "productionLogLevel";
         private static final String FIELD_LOG_LEVEL = "logLevel";
@@ -525,6 +557,9 @@ public class AirshipConfigOptions {
         private Boolean inProduction = null;
         private boolean analyticsEnabled = true;
         private long backgroundReportingIntervalMS = DEFAULT_BG_REPORTING_INTERVAL_MS;
+        private long pushDeduplicationTtlMS = DEFAULT_PUSH_DEDUPLICATION_TTL_MS;
+        private long notificationMediaDeadlineMS = DEFAULT_NOTIFICATION_MEDIA_DEADLINE_MS;
+        private boolean eventStorageCompressionEnabled = false;
         private Integer developmentLogLevel;
         private Integer productionLogLevel;
         private Integer logLevel;
@@ -734,6 +769,18 @@ public class AirshipConfigOptions {
                             this.setBackgroundReportingIntervalMS(configParser.getLong(name, backgroundReportingIntervalMS));
                             break;
 
+                        case FIELD_PUSH_DEDUPLICATION_TTL_MS:
+                            this.setPushDeduplicationTtlMS(configParser.getLong(name, pushDeduplicationTtlMS));
+                            break;
+
+                        case FIELD_NOTIFICATION_MEDIA_DEADLINE_MS:
+                            this.setNotificationMediaDeadlineMS(configParser.getLong(name, notificationMediaDeadlineMS));
+                            break;
+
+                        case FIELD_EVENT_STORAGE_COMPRESSION_ENABLED:
+                            this.setEventStorageCompressionEnabled(configParser.getBoolean(name, eventStorageCompressionEnabled));
+                            break;
+
                         case FIELD_DEVELOPMENT_LOG_LEVEL:
                             this.setDevelopmentLogLevel(Logger.parseLogLevel(configParser.getString(name), DEFAULT_DEVELOPMENT_LOG_LEVEL));
                             break;
@@ -1136,6 +1183,42 @@ public class AirshipConfigOptions {
             return this;
         }
 
+        /**
+         * Set how long the ID of a received push is remembered to drop duplicate pushes.
+         *
+         * @param pushDeduplicationTtlMS The push de-duplication TTL in milliseconds.
+         * @return The config options builder.
+         */
+        @NonNull
+        public Builder setPushDeduplicationTtlMS(long pushDeduplicationTtlMS) {
+            this.pushDeduplicationTtlMS = pushDeduplicationTtlMS;
+            return this;
+        }
+
+        /**
+         * Set how long a notification waits for its media to load before it is posted without it.
+         *
+         * @param notificationMediaDeadlineMS The notification media deadline in milliseconds.
+         * @return The config options builder.
+         */
+        @NonNull
+        public Builder setNotificationMediaDeadlineMS(long notificationMediaDeadlineMS) {
+            this.notificationMediaDeadlineMS = notificationMediaDeadlineMS;
+            return this;
+        }
+
+        /**
+         * Set the flag indicating whether stored analytics events are compressed.
+         *
+         * @param eventStorageCompressionEnabled The flag indicating whether stored analytics events are compressed.
+         * @return The config options builder.
+         */
+        @NonNull
+        public Builder setEventStorageCompressionEnabled(boolean eventStorageCompressionEnabled) {
+            this.eventStorageCompressionEnabled = eventStorageCompressionEnabled;
+            return this;
+        }
+
         /**
          * Set the logger level when the application is in debug mode.
          *
@@ -0,0 +1,201 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+/**
+ * Runs startup tasks as a dependency graph. Tasks whose dependencies have finished are run
+ * concurrently on the executor. {@link #run()} blocks until every task has finished.
+ */
+class ComponentInitializer {
+
+    private final Executor executor;
+    private final StartupTrace trace;
+    private final Map<String, Task> tasks = new LinkedHashMap<>();
+
+    private CountDownLatch latch;
+    private Throwable error;
+
+    /**
+     * Default constructor.
+     *
+     * @param executor The executor to run tasks on.
+     * @param trace The startup trace.
+     */
+    ComponentInitializer(@NonNull Executor executor, @NonNull StartupTrace trace) {
+        this.executor = executor;
+        this.trace = trace;
+    }
+
+    /**
+     * Adds a task.
+     *
+     * @param name The task name. Used for the startup trace and as a dependency name.
+     * @param runnable The task.
+     * @param dependencies Names of the tasks that need to finish before this task can run.
+     * @return The initializer.
+     */
+    @NonNull
+    ComponentInitializer add(@NonNull String name, @NonNull Runnable runnable, @NonNull String... dependencies) {
+        if (tasks.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate startup task: " + name);
+        }
+
+        tasks.put(name, new Task(name, runnable, dependencies));
+        return this;
+    }
+
+    /**
+     * Runs all the tasks and waits for them to finish.
+     *
+     * @throws IllegalStateException if a dependency is missing or the graph contains a cycle.
+     * @throws RuntimeException if a task fails.
+     */
+    @WorkerThread
+    void run() {
+        Map<String, List<Task>> dependents = new HashMap<>();
+        for (Task task : tasks.values()) {
+            for (String dependency : task.dependencies) {
+                if (!tasks.containsKey(dependency)) {
+                    throw new IllegalStateException("Startup task " + task.name + " depends on missing task " + dependency);
+                }
+
+                List<Task> list = dependents.get(dependency);
+                if (list == null) {
+                    list = new ArrayList<>();
+                    dependents.put(dependency, list);
+                }
+                list.add(task);
+            }
+        }
+
+        checkForCycles(dependents);
+
+        for (Task task : tasks.values()) {
+            task.dependents = dependents.containsKey(task.name) ? dependents.get(task.name) : new ArrayList<Task>();
+        }
+
+        latch = new CountDownLatch(tasks.size());
+        for (Task task : tasks.values()) {
+            if (task.dependencies.length == 0) {
+                submit(task);
+            }
+        }
+
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted during takeOff", e);
+        }
+
+        synchronized (this) {
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            } else if (error instanceof Error) {
+                throw (Error) error;
+            } else if (error != null) {
+                throw new RuntimeException(error);
+            }
+        }
+    }
+
+    private void submit(@NonNull final Task task) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    trace.trace(task.name, task.runnable);
+                } catch (Throwable t) {
+                    synchronized (ComponentInitializer.this) {
+                        if (error == null) {
+                            error = t;
+                        }
+                    }
+
+                    // Release the caller, dependents will never run
+                    while (latch.getCount() > 0) {
+                        latch.countDown();
+                    }
+                    return;
+                }
+
+                for (Task dependent : task.dependents) {
+                    boolean isReady;
+                    synchronized (dependent) {
+                        dependent.pendingDependencies--;
+                        isReady = dependent.pendingDependencies == 0;
+                    }
+
+                    if (isReady) {
+                        submit(dependent);
+                    }
+                }
+
+                latch.countDown();
+            }
+        });
+    }
+
+    private void checkForCycles(@NonNull Map<String, List<Task>> dependents) {
+        Map<String, Integer> pending = new HashMap<>();
+        List<String> ready = new ArrayList<>();
+        for (Task task : tasks.values()) {
+            pending.put(task.name, task.dependencies.length);
+            if (task.dependencies.length == 0) {
+                ready.add(task.name);
+            }
+        }
+
+        int visited = 0;
+        while (!ready.isEmpty()) {
+            String name = ready.remove(ready.size() - 1);
+            visited++;
+
+            List<Task> list = dependents.get(name);
+            if (list == null) {
+                continue;
+            }
+
+            for (Task dependent : list) {
+                int count = pending.get(dependent.name) - 1;
+                pending.put(dependent.name, count);
+                if (count == 0) {
+                    ready.add(dependent.name);
+                }
+            }
+        }
+
+        if (visited != tasks.size()) {
+            throw new IllegalStateException("Startup tasks contain a dependency cycle.");
+        }
+    }
+
+    private static class Task {
+
+        private final String name;
+        private final Runnable runnable;
+        private final String[] dependencies;
+        private List<Task> dependents;
+        private int pendingDependencies;
+
+        Task(@NonNull String name, @NonNull Runnable runnable, @NonNull String[] dependencies) {
+            this.name = name;
+            this.runnable = runnable;
+            this.dependencies = dependencies;
+            this.pendingDependencies = dependencies.length;
+        }
+
+    }
+
+}
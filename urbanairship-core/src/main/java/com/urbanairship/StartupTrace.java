@@ -0,0 +1,151 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship;
+
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+/**
+ * Startup trace for {@link UAirship} takeOff. Records the wall time and thread for each
+ * component that is created or initialized during takeOff.
+ */
+public class StartupTrace {
+
+    private final long startTime;
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Default constructor.
+     *
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public StartupTrace() {
+        this.startTime = SystemClock.elapsedRealtime();
+    }
+
+    /**
+     * Runs and records a startup step.
+     *
+     * @param name The step name.
+     * @param runnable The step.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public void trace(@NonNull String name, @NonNull Runnable runnable) {
+        long start = SystemClock.elapsedRealtime();
+        try {
+            runnable.run();
+        } finally {
+            long end = SystemClock.elapsedRealtime();
+            Entry entry = new Entry(name, start - startTime, end - start, Thread.currentThread().getName());
+            synchronized (entries) {
+                entries.add(entry);
+            }
+            Logger.verbose("StartupTrace - %s", entry);
+        }
+    }
+
+    /**
+     * Gets the recorded entries in the order they finished.
+     *
+     * @return The list of entries.
+     */
+    @NonNull
+    public List<Entry> getEntries() {
+        synchronized (entries) {
+            return Collections.unmodifiableList(new ArrayList<>(entries));
+        }
+    }
+
+    /**
+     * Gets the total wall time of takeOff in milliseconds, from the start of takeOff until the
+     * last recorded step.
+     *
+     * @return The takeOff time in milliseconds.
+     */
+    public long getTakeOffTimeMs() {
+        long time = 0;
+        synchronized (entries) {
+            for (Entry entry : entries) {
+                time = Math.max(time, entry.startTimeMs + entry.durationMs);
+            }
+        }
+        return time;
+    }
+
+    /**
+     * A single startup step.
+     */
+    public static class Entry {
+
+        private final String name;
+        private final long startTimeMs;
+        private final long durationMs;
+        private final String threadName;
+
+        Entry(@NonNull String name, long startTimeMs, long durationMs, @NonNull String threadName) {
+            this.name = name;
+            this.startTimeMs = startTimeMs;
+            this.durationMs = durationMs;
+            this.threadName = threadName;
+        }
+
+        /**
+         * The step name.
+         *
+         * @return The step name.
+         */
+        @NonNull
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * The step start time in milliseconds, relative to the start of takeOff.
+         *
+         * @return The start time in milliseconds.
+         */
+        public long getStartTimeMs() {
+            return startTimeMs;
+        }
+
+        /**
+         * The step wall time in milliseconds.
+         *
+         * @return The wall time in milliseconds.
+         */
+        public long getDurationMs() {
+            return durationMs;
+        }
+
+        /**
+         * The name of the thread that ran the step.
+         *
+         * @return The thread name.
+         */
+        @NonNull
+        public String getThreadName() {
+            return threadName;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "Entry{" +
+                    "name='" + name + '\'' +
+                    ", startTimeMs=" + startTimeMs +
+                    ", durationMs=" + durationMs +
+                    ", threadName='" + threadName + '\'' +
+                    '}';
+        }
+
+    }
+
+}
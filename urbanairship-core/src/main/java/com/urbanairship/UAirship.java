@@ -45,10 +45,13 @@ import com.urbanairship.util.UAStringUtil;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import androidx.annotation.IntDef;
 import androidx.annotation.MainThread;
@@ -110,6 +113,22 @@ public class UAirship {
      */
     private static final String LIBRARY_VERSION_KEY = "com.urbanairship.application.device.LIBRARY_VERSION";
 
+    // Startup task names
+    private static final String STARTUP_ACTIONS = "actions";
+    private static final String STARTUP_ANALYTICS = "analytics";
+    private static final String STARTUP_APPLICATION_METRICS = "application_metrics";
+    private static final String STARTUP_PUSH = "push";
+    private static final String STARTUP_NAMED_USER = "named_user";
+    private static final String STARTUP_CHANNEL_CAPTURE = "channel_capture";
+    private static final String STARTUP_REMOTE_DATA = "remote_data";
+    private static final String STARTUP_REMOTE_CONFIG = "remote_config";
+    private static final String STARTUP_ACCENGAGE = "accengage";
+    private static final String STARTUP_MESSAGE_CENTER = "message_center";
+    private static final String STARTUP_LOCATION = "location";
+    private static final String STARTUP_AUTOMATION = "automation";
+    private static final String STARTUP_DEBUG = "debug";
+    private static final String STARTUP_AD_ID = "ad_id";
+
     private final static Object airshipLock = new Object();
     volatile static boolean isFlying = false;
     volatile static boolean isTakingOff = false;
@@ -136,8 +155,9 @@ public class UAirship {
     public static final String DATA_COLLECTION_ENABLED_KEY = "com.urbanairship.DATA_COLLECTION_ENABLED";
 
     private DeepLinkListener deepLinkListener;
-    private final Map<Class, AirshipComponent> componentClassMap = new HashMap<>();
-    private final List<AirshipComponent> components = new ArrayList<>();
+    private final Map<Class, AirshipComponent> componentClassMap = new ConcurrentHashMap<>();
+    private final List<AirshipComponent> components = new CopyOnWriteArrayList<>();
+    private final StartupTrace startupTrace = new StartupTrace();
     ActionRegistry actionRegistry;
     AirshipConfigOptions airshipConfigOptions;
     Analytics analytics;
@@ -696,14 +716,24 @@ public class UAirship {
      * Initializes UAirship instance.
      */
     private void init() {
-
         // Create and init the preference data store first
-        this.preferenceDataStore = new PreferenceDataStore(application);
-        this.preferenceDataStore.init();
+        startupTrace.trace("preference_data_store", new Runnable() {
+            @Override
+            public void run() {
+                preferenceDataStore = new PreferenceDataStore(application);
+                preferenceDataStore.init();
+            }
+        });
 
         this.localeManager = new LocaleManager(application, preferenceDataStore);
 
-        this.providers = PushProviders.load(application, airshipConfigOptions);
+        startupTrace.trace("push_providers", new Runnable() {
+            @Override
+            public void run() {
+                providers = PushProviders.load(application, airshipConfigOptions);
+            }
+        });
+
         int platform = determinePlatform(providers);
         this.pushProvider = determinePushProvider(platform, providers);
 
@@ -711,85 +741,167 @@ public class UAirship {
             Logger.info("Using push provider: %s", this.pushProvider);
         }
 
-        RemoteAirshipUrlConfigProvider remoteAirshipUrlConfigProvider = new RemoteAirshipUrlConfigProvider(airshipConfigOptions, preferenceDataStore);
+        final RemoteAirshipUrlConfigProvider remoteAirshipUrlConfigProvider = new RemoteAirshipUrlConfigProvider(airshipConfigOptions, preferenceDataStore);
         this.runtimeConfig = new AirshipRuntimeConfig(platform, airshipConfigOptions, remoteAirshipUrlConfigProvider);
 
-        TagGroupRegistrar tagGroupRegistrar = new TagGroupRegistrar(runtimeConfig, preferenceDataStore);
+        final TagGroupRegistrar tagGroupRegistrar = new TagGroupRegistrar(runtimeConfig, preferenceDataStore);
         tagGroupRegistrar.migrateKeys();
 
-        this.channel = new AirshipChannel(application, preferenceDataStore, runtimeConfig, tagGroupRegistrar, localeManager);
+        // Make sure the shared activity monitor is created before components are constructed concurrently
+        final GlobalActivityMonitor activityMonitor = GlobalActivityMonitor.shared(application);
+
+        startupTrace.trace("channel", new Runnable() {
+            @Override
+            public void run() {
+                channel = new AirshipChannel(application, preferenceDataStore, runtimeConfig, tagGroupRegistrar, localeManager);
+            }
+        });
 
         if (channel.getId() == null && "huawei".equalsIgnoreCase(Build.MANUFACTURER)) {
             remoteAirshipUrlConfigProvider.disableFallbackUrls();
         }
 
-        components.add(channel);
-
-        this.whitelist = Whitelist.createDefaultWhitelist(airshipConfigOptions);
-        this.actionRegistry = new ActionRegistry();
-        this.actionRegistry.registerDefaultActions(getApplicationContext());
+        // Modules are processed in a fixed order once constructed
+        final Map<String, Module> modules = Collections.synchronizedMap(new HashMap<String, Module>());
+
+        // Construct the remaining components as a dependency graph
+        new ComponentInitializer(AirshipExecutors.THREAD_POOL_EXECUTOR, startupTrace)
+                .add(STARTUP_ACTIONS, new Runnable() {
+                    @Override
+                    public void run() {
+                        whitelist = Whitelist.createDefaultWhitelist(airshipConfigOptions);
+                        actionRegistry = new ActionRegistry();
+                        actionRegistry.registerDefaultActions(getApplicationContext());
+                    }
+                })
+                .add(STARTUP_ANALYTICS, new Runnable() {
+                    @Override
+                    public void run() {
+                        analytics = new Analytics(application, preferenceDataStore, runtimeConfig, channel, localeManager);
+                    }
+                })
+                .add(STARTUP_APPLICATION_METRICS, new Runnable() {
+                    @Override
+                    public void run() {
+                        applicationMetrics = new ApplicationMetrics(application, preferenceDataStore, activityMonitor);
+                    }
+                })
+                .add(STARTUP_PUSH, new Runnable() {
+                    @Override
+                    public void run() {
+                        pushManager = new PushManager(application, preferenceDataStore, airshipConfigOptions, pushProvider, channel, analytics);
+                    }
+                }, STARTUP_ANALYTICS)
+                .add(STARTUP_NAMED_USER, new Runnable() {
+                    @Override
+                    public void run() {
+                        namedUser = new NamedUser(application, preferenceDataStore, runtimeConfig, tagGroupRegistrar, channel);
+                    }
+                })
+                .add(STARTUP_CHANNEL_CAPTURE, new Runnable() {
+                    @Override
+                    public void run() {
+                        channelCapture = new ChannelCapture(application, airshipConfigOptions, channel, preferenceDataStore, activityMonitor);
+                    }
+                })
+                .add(STARTUP_REMOTE_DATA, new Runnable() {
+                    @Override
+                    public void run() {
+                        remoteData = new RemoteData(application, preferenceDataStore, airshipConfigOptions, activityMonitor, pushManager);
+                    }
+                }, STARTUP_PUSH)
+                .add(STARTUP_REMOTE_CONFIG, new Runnable() {
+                    @Override
+                    public void run() {
+                        remoteConfigManager = new RemoteConfigManager(application, preferenceDataStore, remoteData);
+                        remoteConfigManager.addRemoteAirshipConfigListener(remoteAirshipUrlConfigProvider);
+                        remoteConfigManager.addRemoteAirshipConfigListener(new RemoteAirshipConfigListener() {
+                            @Override
+                            public void onRemoteConfigUpdated(@NonNull RemoteAirshipConfig remoteAirshipConfig) {
+                                if (channel.getId() == null) {
+                                    channel.updateRegistration();
+                                }
+                            }
+                        });
+                    }
+                }, STARTUP_REMOTE_DATA)
+                .add(STARTUP_ACCENGAGE, new Runnable() {
+                    @Override
+                    public void run() {
+                        modules.put(STARTUP_ACCENGAGE, Modules.accengage(application, preferenceDataStore, channel, pushManager, analytics));
+                    }
+                }, STARTUP_PUSH)
+                .add(STARTUP_MESSAGE_CENTER, new Runnable() {
+                    @Override
+                    public void run() {
+                        modules.put(STARTUP_MESSAGE_CENTER, Modules.messageCenter(application, preferenceDataStore, channel, pushManager));
+                    }
+                }, STARTUP_PUSH)
+                .add(STARTUP_LOCATION, new Runnable() {
+                    @Override
+                    public void run() {
+                        modules.put(STARTUP_LOCATION, Modules.location(application, preferenceDataStore, channel, analytics));
+                    }
+                }, STARTUP_ANALYTICS)
+                .add(STARTUP_AUTOMATION, new Runnable() {
+                    @Override
+                    public void run() {
+                        modules.put(STARTUP_AUTOMATION, Modules.automation(application, preferenceDataStore, runtimeConfig,
+                                channel, pushManager, analytics, remoteData, tagGroupRegistrar));
+                    }
+                }, STARTUP_PUSH, STARTUP_REMOTE_DATA)
+                .add(STARTUP_DEBUG, new Runnable() {
+                    @Override
+                    public void run() {
+                        modules.put(STARTUP_DEBUG, Modules.debug(application, preferenceDataStore));
+                    }
+                })
+                .add(STARTUP_AD_ID, new Runnable() {
+                    @Override
+                    public void run() {
+                        modules.put(STARTUP_AD_ID, Modules.adId(application, preferenceDataStore));
+                    }
+                })
+                .run();
 
-        // Airship components
-        this.analytics = new Analytics(application, preferenceDataStore, runtimeConfig, channel, localeManager);
+        components.add(channel);
         components.add(this.analytics);
-
-        this.applicationMetrics = new ApplicationMetrics(application, preferenceDataStore, GlobalActivityMonitor.shared(application));
         components.add(this.applicationMetrics);
-
-        this.pushManager = new PushManager(application, preferenceDataStore, airshipConfigOptions, pushProvider, channel, analytics);
         components.add(this.pushManager);
-
-        this.namedUser = new NamedUser(application, preferenceDataStore, runtimeConfig, tagGroupRegistrar, channel);
         components.add(this.namedUser);
-
-        this.channelCapture = new ChannelCapture(application, airshipConfigOptions, channel, preferenceDataStore, GlobalActivityMonitor.shared(application));
         components.add(this.channelCapture);
-
-        this.remoteData = new RemoteData(application, preferenceDataStore, airshipConfigOptions, GlobalActivityMonitor.shared(application), pushManager);
         components.add(this.remoteData);
-
-        this.remoteConfigManager = new RemoteConfigManager(application, preferenceDataStore, remoteData);
-        this.remoteConfigManager.addRemoteAirshipConfigListener(remoteAirshipUrlConfigProvider);
-        this.remoteConfigManager.addRemoteAirshipConfigListener(new RemoteAirshipConfigListener() {
-            @Override
-            public void onRemoteConfigUpdated(@NonNull RemoteAirshipConfig remoteAirshipConfig) {
-                if (channel.getId() == null) {
-                    channel.updateRegistration();
-                }
-            }
-        });
-
         components.add(this.remoteConfigManager);
 
         // Accengage
-        AccengageModule accengageModule = Modules.accengage(application, preferenceDataStore, channel, pushManager, analytics);
+        AccengageModule accengageModule = (AccengageModule) modules.get(STARTUP_ACCENGAGE);
         processModule(accengageModule);
         this.accengageNotificationHandler = accengageModule == null ? null : accengageModule.getAccengageNotificationHandler();
 
         // Message Center
-        Module messageCenterModule = Modules.messageCenter(application, preferenceDataStore, channel, pushManager);
-        processModule(messageCenterModule);
+        processModule(modules.get(STARTUP_MESSAGE_CENTER));
 
         // Location
-        LocationModule locationModule = Modules.location(application, preferenceDataStore, channel, analytics);
+        LocationModule locationModule = (LocationModule) modules.get(STARTUP_LOCATION);
         processModule(locationModule);
         this.locationClient = locationModule == null ? null : locationModule.getLocationClient();
 
         // Automation
-        Module automationModule = Modules.automation(application, preferenceDataStore, runtimeConfig,
-                channel, pushManager, analytics, remoteData, tagGroupRegistrar);
-        processModule(automationModule);
+        processModule(modules.get(STARTUP_AUTOMATION));
 
         // Debug
-        Module debugModule = Modules.debug(application, preferenceDataStore);
-        processModule(debugModule);
+        processModule(modules.get(STARTUP_DEBUG));
 
         // Ad Id
-        Module adIdModule = Modules.adId(application, preferenceDataStore);
-        processModule(adIdModule);
+        processModule(modules.get(STARTUP_AD_ID));
 
-        for (AirshipComponent component : components) {
-            component.init();
+        for (final AirshipComponent component : components) {
+            startupTrace.trace("init:" + component.getClass().getSimpleName(), new Runnable() {
+                @Override
+                public void run() {
+                    component.init();
+                }
+            });
         }
 
         // Store the version
@@ -966,6 +1078,17 @@ public class UAirship {
         return runtimeConfig.getPlatform();
     }
 
+    /**
+     * Returns the startup trace for takeOff. Contains the wall time and thread for each component
+     * that was created or initialized during takeOff.
+     *
+     * @return The startup trace.
+     */
+    @NonNull
+    public StartupTrace getStartupTrace() {
+        return startupTrace;
+    }
+
     /**
      * Returns a list of all the top level airship components.
      *
@@ -140,6 +140,8 @@ public class CustomEvent extends Event implements JsonSerializable {
     @NonNull
     private final JsonMap properties;
 
+    private final int propertiesSize;
+
     private CustomEvent(@NonNull Builder builder) {
         this.eventName = builder.eventName;
         this.eventValue = builder.value;
@@ -149,6 +151,7 @@ public class CustomEvent extends Event implements JsonSerializable {
         this.sendId = builder.pushSendId;
         this.templateType = builder.templateType;
         this.properties = new JsonMap(builder.properties);
+        this.propertiesSize = builder.getPropertiesSize();
     }
 
     /**
@@ -325,9 +328,8 @@ public class CustomEvent extends Event implements JsonSerializable {
             isValid = false;
         }
 
-        int length = properties.toJsonValue().toString().getBytes().length;
-        if (length > MAX_TOTAL_PROPERTIES_SIZE) {
-            Logger.error("Total custom properties size (%s bytes) exceeds maximum size of %s bytes.", length, MAX_TOTAL_PROPERTIES_SIZE);
+        if (propertiesSize > MAX_TOTAL_PROPERTIES_SIZE) {
+            Logger.error("Total custom properties size (%s bytes) exceeds maximum size of %s bytes.", propertiesSize, MAX_TOTAL_PROPERTIES_SIZE);
             isValid = false;
         }
 
@@ -372,7 +374,16 @@ public class CustomEvent extends Event implements JsonSerializable {
         private String templateType;
 
         @NonNull
-        private Map<String, JsonValue> properties = new HashMap<>();
+        private final Map<String, JsonValue> properties = new HashMap<>();
+
+        /**
+         * Encoded UTF-8 size of each property entry, tracked as properties are added so the
+         * properties never need to be serialized to check their size.
+         */
+        @NonNull
+        private final Map<String, Integer> propertySizes = new HashMap<>();
+
+        private int propertyEntriesSize;
 
         /**
          * Creates a new custom event builder
@@ -398,12 +409,16 @@ public class CustomEvent extends Event implements JsonSerializable {
          */
         @NonNull
         public Builder setProperties(@Nullable JsonMap properties) {
-            if (properties == null) {
-                this.properties.clear();
-                return this;
+            this.properties.clear();
+            this.propertySizes.clear();
+            this.propertyEntriesSize = 0;
+
+            if (properties != null) {
+                for (Map.Entry<String, JsonValue> entry : properties) {
+                    putProperty(entry.getKey(), entry.getValue());
+                }
             }
 
-            this.properties = properties.getMap();
             return this;
         }
 
@@ -561,7 +576,7 @@ public class CustomEvent extends Event implements JsonSerializable {
         @NonNull
         public Builder addProperty(@NonNull @Size(min = 1) String name,
                                    @NonNull JsonSerializable value) {
-            properties.put(name, value.toJsonValue());
+            putProperty(name, value.toJsonValue());
             return this;
         }
 
@@ -578,7 +593,7 @@ public class CustomEvent extends Event implements JsonSerializable {
         @NonNull
         public Builder addProperty(@NonNull @Size(min = 1) String name,
                                    @NonNull @Size(min = 1) String value) {
-            properties.put(name, JsonValue.wrap(value));
+            putProperty(name, JsonValue.wrap(value));
             return this;
         }
 
@@ -594,7 +609,7 @@ public class CustomEvent extends Event implements JsonSerializable {
          */
         @NonNull
         public Builder addProperty(@NonNull @Size(min = 1) String name, int value) {
-            properties.put(name, JsonValue.wrap(value));
+            putProperty(name, JsonValue.wrap(value));
             return this;
         }
 
@@ -610,7 +625,7 @@ public class CustomEvent extends Event implements JsonSerializable {
          */
         @NonNull
         public Builder addProperty(@NonNull @Size(min = 1) String name, long value) {
-            properties.put(name, JsonValue.wrap(value));
+            putProperty(name, JsonValue.wrap(value));
             return this;
         }
 
@@ -631,7 +646,7 @@ public class CustomEvent extends Event implements JsonSerializable {
                 throw new NumberFormatException("Infinity or NaN: " + value);
             }
 
-            properties.put(name, JsonValue.wrap(value));
+            putProperty(name, JsonValue.wrap(value));
             return this;
         }
 
@@ -647,7 +662,7 @@ public class CustomEvent extends Event implements JsonSerializable {
          */
         @NonNull
         public Builder addProperty(@NonNull @Size(min = 1) String name, boolean value) {
-            properties.put(name, JsonValue.wrap(value));
+            putProperty(name, JsonValue.wrap(value));
             return this;
         }
 
@@ -665,10 +680,29 @@ public class CustomEvent extends Event implements JsonSerializable {
         @Deprecated
         public Builder addProperty(@NonNull String name,
                                    @NonNull Collection<String> value) {
-            properties.put(name, JsonValue.wrapOpt(value));
+            putProperty(name, JsonValue.wrapOpt(value));
             return this;
         }
 
+        private void putProperty(@NonNull String name, @NonNull JsonValue value) {
+            // "name":value
+            int size = UAStringUtil.getUtf8Length(JsonValue.wrap(name).toString()) + 1 + UAStringUtil.getUtf8Length(value.toString());
+
+            Integer previous = propertySizes.put(name, size);
+            propertyEntriesSize += size - (previous == null ? 0 : previous);
+            properties.put(name, value);
+        }
+
+        /**
+         * Gets the size of the properties encoded as a UTF-8 JSON object.
+         *
+         * @return The properties size in bytes.
+         */
+        int getPropertiesSize() {
+            // Braces and the commas between entries
+            return 2 + propertyEntriesSize + Math.max(0, properties.size() - 1);
+        }
+
         /**
          * Builds the custom event.
          *
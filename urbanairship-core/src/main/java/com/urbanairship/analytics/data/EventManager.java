@@ -11,6 +11,7 @@ import com.urbanairship.app.GlobalActivityMonitor;
 import com.urbanairship.config.AirshipRuntimeConfig;
 import com.urbanairship.job.JobDispatcher;
 import com.urbanairship.job.JobInfo;
+import com.urbanairship.util.UAStringUtil;
 
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -62,22 +63,42 @@ public class EventManager {
      */
     private static final long MULTIPLE_BATCH_DELAY = 1000; // 1s
 
+    /**
+     * Multiplier applied to the normal and low priority batch delays on a metered or unknown
+     * network.
+     */
+    private static final int CONSTRAINED_DELAY_MULTIPLIER = 2;
+
+    /**
+     * Multiplier applied to the normal and low priority batch delays on a slow network or when
+     * the battery is low.
+     */
+    private static final int POOR_DELAY_MULTIPLIER = 4;
+
     private final PreferenceDataStore preferenceDataStore;
     private final JobDispatcher jobDispatcher;
     private final ActivityMonitor activityMonitor;
     private final EventResolver eventResolver;
     private final EventApiClient apiClient;
     private final AirshipRuntimeConfig runtimeConfig;
+    private final UploadConditions uploadConditions;
 
     private final Object eventLock = new Object();
+    private final Object metricsLock = new Object();
 
     private boolean isScheduled;
 
+    // Upload metrics
+    private long uploadedBytes;
+    private long uploadedEventCount;
+    private int sessionUploadCount;
+    private String sessionId;
+
     public EventManager(@NonNull Context context,
                  @NonNull PreferenceDataStore preferenceDataStore,
                  @NonNull AirshipRuntimeConfig runtimeConfig) {
         this(preferenceDataStore, runtimeConfig, JobDispatcher.shared(context),GlobalActivityMonitor.shared(context),
-                new EventResolver(context), new EventApiClient(runtimeConfig));
+                new EventResolver(context, runtimeConfig.getConfigOptions().eventStorageCompressionEnabled), new EventApiClient(runtimeConfig), new UploadConditions(context));
     }
 
     @VisibleForTesting
@@ -86,7 +107,8 @@ public class EventManager {
                         @NonNull JobDispatcher jobDispatcher,
                         @NonNull ActivityMonitor activityMonitor,
                         @NonNull EventResolver eventResolver,
-                        @NonNull EventApiClient apiClient) {
+                        @NonNull EventApiClient apiClient,
+                        @NonNull UploadConditions uploadConditions) {
 
         this.preferenceDataStore = preferenceDataStore;
         this.runtimeConfig = runtimeConfig;
@@ -94,7 +116,7 @@ public class EventManager {
         this.activityMonitor = activityMonitor;
         this.eventResolver = eventResolver;
         this.apiClient = apiClient;
-
+        this.uploadConditions = uploadConditions;
     }
 
     /**
@@ -148,25 +170,44 @@ public class EventManager {
             eventResolver.trimDatabase(preferenceDataStore.getInt(MAX_TOTAL_DB_SIZE_KEY, EventResponse.MAX_TOTAL_DB_SIZE_BYTES));
         }
 
-        switch (event.getPriority()) {
-            case Event.HIGH_PRIORITY:
-                scheduleEventUpload(HIGH_PRIORITY_BATCH_DELAY, TimeUnit.MILLISECONDS);
-                break;
+        synchronized (metricsLock) {
+            if (!sessionId.equals(this.sessionId)) {
+                this.sessionId = sessionId;
+                sessionUploadCount = 0;
+            }
+        }
+
+        if (event.getPriority() == Event.HIGH_PRIORITY) {
+            scheduleEventUpload(HIGH_PRIORITY_BATCH_DELAY, TimeUnit.MILLISECONDS);
+            return;
+        }
 
+        int quality = uploadConditions.getQuality();
+        int multiplier = getDelayMultiplier(quality);
+
+        switch (event.getPriority()) {
             case Event.NORMAL_PRIORITY:
-                scheduleEventUpload(Math.max(getNextSendDelay(), NORMAL_PRIORITY_BATCH_DELAY), TimeUnit.MILLISECONDS);
+                scheduleEventUpload(Math.max(getNextSendDelay(), NORMAL_PRIORITY_BATCH_DELAY * multiplier), TimeUnit.MILLISECONDS);
                 break;
 
             case Event.LOW_PRIORITY:
             default:
                 if (activityMonitor.isAppForegrounded()) {
-                    scheduleEventUpload(Math.max(getNextSendDelay(), LOW_PRIORITY_BATCH_DELAY), TimeUnit.MILLISECONDS);
+                    scheduleEventUpload(Math.max(getNextSendDelay(), LOW_PRIORITY_BATCH_DELAY * multiplier), TimeUnit.MILLISECONDS);
+                    break;
+                }
+
+                long batchDelay = jobDispatcher.getPendingBatchDelay();
+                if (quality == UploadConditions.QUALITY_GOOD && batchDelay >= 0 && getNextSendDelay() <= batchDelay) {
+                    // Piggyback on the pending network batch's wake-up instead of waking up on our own later
+                    Logger.verbose("EventManager - Piggybacking upload on pending network jobs.");
+                    scheduleEventUpload(batchDelay, TimeUnit.MILLISECONDS);
                 } else {
                     long currentTime = System.currentTimeMillis();
                     long lastSendTime = preferenceDataStore.getLong(LAST_SEND_KEY, 0);
                     long sendDelta = currentTime - lastSendTime;
                     long minimumWait = Math.max(runtimeConfig.getConfigOptions().backgroundReportingIntervalMS - sendDelta, getNextSendDelay());
-                    scheduleEventUpload(Math.max(minimumWait, LOW_PRIORITY_BATCH_DELAY), TimeUnit.MILLISECONDS);
+                    scheduleEventUpload(Math.max(minimumWait, LOW_PRIORITY_BATCH_DELAY * multiplier), TimeUnit.MILLISECONDS);
                 }
                 break;
         }
@@ -182,6 +223,46 @@ public class EventManager {
         }
     }
 
+    /**
+     * Gets the average size of the uploaded events in bytes.
+     *
+     * @return The average uploaded event size in bytes, or 0 if no events have been uploaded.
+     */
+    public long getBytesPerEvent() {
+        synchronized (metricsLock) {
+            return uploadedEventCount == 0 ? 0 : uploadedBytes / uploadedEventCount;
+        }
+    }
+
+    /**
+     * Gets the number of successful uploads during the current session.
+     *
+     * @return The number of uploads during the current session.
+     */
+    public int getSessionUploadCount() {
+        synchronized (metricsLock) {
+            return sessionUploadCount;
+        }
+    }
+
+    /**
+     * Gets the delay multiplier for normal and low priority events.
+     *
+     * @param quality The upload quality.
+     * @return The delay multiplier.
+     */
+    private static int getDelayMultiplier(@UploadConditions.Quality int quality) {
+        switch (quality) {
+            case UploadConditions.QUALITY_POOR:
+                return POOR_DELAY_MULTIPLIER;
+            case UploadConditions.QUALITY_CONSTRAINED:
+                return CONSTRAINED_DELAY_MULTIPLIER;
+            case UploadConditions.QUALITY_GOOD:
+            default:
+                return 1;
+        }
+    }
+
     /**
      * Gets the next upload delay in milliseconds. The next upload delay is calculated by the following:
      * Max(0, (Last Send Time + MIN_BATCH_INTERVAL) - Current Time)
@@ -217,7 +298,8 @@ public class EventManager {
                 return true;
             }
 
-            final int avgSize = Math.max(1, eventResolver.getDatabaseSize() / eventCount);
+            // Batches are limited by the uploaded size, not the stored size
+            final int avgSize = Math.max(1, eventResolver.getPayloadSize() / eventCount);
 
             //pull enough events to fill a batch (roughly)
             int batchEventCount = Math.min(MAX_BATCH_EVENT_COUNT, preferenceDataStore.getInt(MAX_BATCH_SIZE_KEY, EventResponse.MAX_BATCH_SIZE_BYTES) / avgSize);
@@ -235,12 +317,24 @@ public class EventManager {
             return false;
         }
 
-        Logger.debug("EventManager - Analytic events uploaded.");
-
         synchronized (eventLock) {
             eventResolver.deleteEvents(events.keySet());
         }
 
+        long bytes = 0;
+        for (String payload : events.values()) {
+            bytes += UAStringUtil.getUtf8Length(payload);
+        }
+
+        synchronized (metricsLock) {
+            uploadedBytes += bytes;
+            uploadedEventCount += events.size();
+            sessionUploadCount++;
+
+            Logger.debug("EventManager - Analytic events uploaded. Events: %s, bytes: %s, bytes per event: %s, uploads this session: %s",
+                    events.size(), bytes, uploadedBytes / uploadedEventCount, sessionUploadCount);
+        }
+
         // Update preferences
         preferenceDataStore.put(MAX_TOTAL_DB_SIZE_KEY, response.getMaxTotalSize());
         preferenceDataStore.put(MAX_BATCH_SIZE_KEY, response.getMaxBatchSize());
@@ -248,7 +342,7 @@ public class EventManager {
 
         // If there are still events left, schedule the next send
         if (eventCount - events.size() > 0) {
-            scheduleEventUpload(MULTIPLE_BATCH_DELAY, TimeUnit.MILLISECONDS);
+            scheduleEventUpload(MULTIPLE_BATCH_DELAY * getDelayMultiplier(uploadConditions.getQuality()), TimeUnit.MILLISECONDS);
         }
 
         return true;
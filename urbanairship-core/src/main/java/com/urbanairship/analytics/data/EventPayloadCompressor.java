@@ -0,0 +1,123 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.analytics.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Compresses event payloads for storage.
+ * <p>
+ * Each payload is deflated on its own with a preset dictionary of the keys and values that are
+ * repeated in every event, so even small events compress well without having to compress events
+ * together. The first byte of a compressed payload is the format version so the dictionary can
+ * be changed later without breaking stored events.
+ */
+class EventPayloadCompressor {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final String CHARSET = "UTF-8";
+
+    private static final int BUFFER_SIZE = 1024;
+
+    /**
+     * Preset dictionary. Deflate favors matches that are closer to the end of the dictionary, so
+     * the keys present in every event are last.
+     */
+    private static final byte[] DICTIONARY = utf8("\"interaction_type\":\"\",\"interaction_id\":\"\",\"template_type\":\"\","
+            + "\"transaction_id\":\"\",\"last_received_metadata\":\"\",\"conversion_metadata\":\"\",\"conversion_send_id\":\"\","
+            + "\"properties\":{},\"event_value\":,\"event_name\":\"\",\"enhanced_custom_event\","
+            + "\"previous_screen\":\"\",\"screen\":\"\",\"entered_time\":\"\",\"exited_time\":\"\",\"duration\":\"\",\"screen_tracking\","
+            + "\"push_arrived\",\"push_id\":\"\",\"metadata\":\"\",\"last_metadata\":\"\","
+            + "\"notification_types\":[],\"os_version\":\"\",\"lib_version\":\"\",\"package_version\":\"\","
+            + "\"time_zone\":,\"daylight_savings\":false,\"carrier\":\"\",\"connection_subtype\":\"\",\"connection_type\":\"wifi\","
+            + "\"app_background\",\"app_foreground\","
+            + "{\"type\":\"\",\"event_id\":\"\",\"time\":\"\",\"data\":{\"session_id\":\"\"}}");
+
+    /**
+     * Compresses a payload.
+     *
+     * @param payload The event payload.
+     * @return The compressed payload.
+     */
+    @NonNull
+    static byte[] compress(@NonNull String payload) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setDictionary(DICTIONARY);
+            deflater.setInput(utf8(payload));
+            deflater.finish();
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            outputStream.write(FORMAT_VERSION);
+
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                outputStream.write(buffer, 0, count);
+            }
+
+            return outputStream.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Decompresses a payload.
+     *
+     * @param compressed The compressed payload.
+     * @return The event payload.
+     * @throws IOException if the payload is not a valid compressed payload.
+     */
+    @NonNull
+    static String decompress(@NonNull byte[] compressed) throws IOException {
+        if (compressed.length == 0 || compressed[0] != FORMAT_VERSION) {
+            throw new IOException("Unsupported event payload format.");
+        }
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed, 1, compressed.length - 1);
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(compressed.length * 4);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                outputStream.write(buffer, 0, count);
+
+                if (count == 0 && !inflater.finished()) {
+                    if (inflater.needsDictionary()) {
+                        inflater.setDictionary(DICTIONARY);
+                    } else if (inflater.needsInput()) {
+                        throw new IOException("Truncated event payload.");
+                    }
+                }
+            }
+
+            return outputStream.toString(CHARSET);
+        } catch (DataFormatException e) {
+            throw new IOException("Invalid event payload.", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    @NonNull
+    private static byte[] utf8(@NonNull String value) {
+        try {
+            return value.getBytes(CHARSET);
+        } catch (UnsupportedEncodingException e) {
+            // Should never happen
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
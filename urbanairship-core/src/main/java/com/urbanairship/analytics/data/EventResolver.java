@@ -13,7 +13,9 @@ import com.urbanairship.UrbanAirshipResolver;
 import com.urbanairship.analytics.Event;
 import com.urbanairship.util.UAStringUtil;
 
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -35,12 +37,45 @@ public class EventResolver extends UrbanAirshipResolver {
     @NonNull
     public static final String ASCENDING_SORT_ORDER = EventsStorage.Events._ID + " ASC";
 
+    /**
+     * Sort order that matches the priority index, lowest priority then oldest first.
+     */
+    private static final String TRIM_SORT_ORDER = EventsStorage.Events.COLUMN_NAME_PRIORITY + " ASC, " + EventsStorage.Events._ID + " ASC";
+
+    /**
+     * Retention priority by event type, for event types that are more or less valuable to keep
+     * than their upload priority implies.
+     */
+    private static final Map<String, Integer> TYPE_PRIORITIES = new HashMap<>();
+
+    static {
+        TYPE_PRIORITIES.put("enhanced_custom_event", Event.HIGH_PRIORITY);
+        TYPE_PRIORITIES.put("push_arrived", Event.HIGH_PRIORITY);
+        TYPE_PRIORITIES.put("interactive_notification_action", Event.HIGH_PRIORITY);
+        TYPE_PRIORITIES.put("install_attribution", Event.HIGH_PRIORITY);
+        TYPE_PRIORITIES.put("screen_tracking", Event.LOW_PRIORITY);
+    }
+
     @NonNull
     private final Uri uri;
 
+    private final boolean compressPayloads;
+
     public EventResolver(@NonNull Context context) {
+        this(context, false);
+    }
+
+    /**
+     * Default constructor.
+     *
+     * @param context The application context.
+     * @param compressPayloads {@code true} to compress new event payloads, otherwise {@code false}.
+     * Events are read back regardless of how they were stored.
+     */
+    public EventResolver(@NonNull Context context, boolean compressPayloads) {
         super(context);
         this.uri = UrbanAirshipProvider.getEventsContentUri(context);
+        this.compressPayloads = compressPayloads;
     }
 
     /**
@@ -66,14 +101,31 @@ public class EventResolver extends UrbanAirshipResolver {
             return events;
         }
 
+        Set<String> invalidEventIds = new HashSet<>();
+
         cursor.moveToFirst();
         while (!cursor.isAfterLast()) {
-            events.put(cursor.getString(0), cursor.getString(1));
+            String eventId = cursor.getString(0);
+            if (cursor.getType(1) == Cursor.FIELD_TYPE_BLOB) {
+                try {
+                    events.put(eventId, EventPayloadCompressor.decompress(cursor.getBlob(1)));
+                } catch (IOException e) {
+                    Logger.error(e, "EventsStorage - Unable to decompress event: %s", eventId);
+                    invalidEventIds.add(eventId);
+                }
+            } else {
+                events.put(eventId, cursor.getString(1));
+            }
             cursor.moveToNext();
         }
 
         cursor.close();
 
+        // Drop events that can never be uploaded
+        if (!invalidEventIds.isEmpty()) {
+            deleteEvents(invalidEventIds);
+        }
+
         return events;
     }
 
@@ -115,33 +167,6 @@ public class EventResolver extends UrbanAirshipResolver {
         return builder.toString();
     }
 
-    /**
-     * Gets the oldest session id in the
-     * database
-     *
-     * @return The oldest session id if exists, null otherwise
-     */
-    @Nullable
-    private String getOldestSessionId() {
-        String[] columns = new String[] { EventsStorage.Events.COLUMN_NAME_SESSION_ID };
-        Uri eventsUri = uri.buildUpon().appendQueryParameter(UrbanAirshipProvider.QUERY_PARAMETER_LIMIT, "1").build();
-
-        Cursor cursor = query(eventsUri, columns, null, null, ASCENDING_SORT_ORDER);
-
-        if (cursor == null) {
-            Logger.error("EventsStorage - Unable to query database.");
-            return null;
-        }
-
-        String sessionId = null;
-        if (cursor.moveToFirst()) {
-            sessionId = cursor.getString(0);
-        }
-        cursor.close();
-
-        return sessionId;
-    }
-
     /**
      * Gets the current event count in the database
      *
@@ -167,13 +192,26 @@ public class EventResolver extends UrbanAirshipResolver {
     }
 
     /**
-     * Returns the sum of the events data fields in bytes
+     * Returns the sum of the stored events data fields in bytes
      *
      * @return The current size of the database in bytes
      */
     int getDatabaseSize() {
+        return sum(EventsStorage.Events.COLUMN_NAME_STORED_SIZE);
+    }
+
+    /**
+     * Returns the sum of the uncompressed event payloads in bytes
+     *
+     * @return The size of the event payloads in bytes
+     */
+    int getPayloadSize() {
+        return sum(EventsStorage.Events.COLUMN_NAME_EVENT_SIZE);
+    }
+
+    private int sum(@NonNull String column) {
         Integer result = null;
-        String[] columns = new String[] { "SUM(" + EventsStorage.Events.COLUMN_NAME_EVENT_SIZE + ") as _size" };
+        String[] columns = new String[] { "SUM(" + column + ") as _size" };
         Cursor cursor = query(uri, columns, null, null, null);
 
         if (cursor == null) {
@@ -198,41 +236,87 @@ public class EventResolver extends UrbanAirshipResolver {
      */
     void insertEvent(@NonNull Event event, @NonNull String sessionId) {
         String eventPayload = event.createEventPayload(sessionId);
+        int eventSize = UAStringUtil.getUtf8Length(eventPayload);
 
         ContentValues values = new ContentValues();
         values.put(EventsStorage.Events.COLUMN_NAME_TYPE, event.getType());
         values.put(EventsStorage.Events.COLUMN_NAME_EVENT_ID, event.getEventId());
-        values.put(EventsStorage.Events.COLUMN_NAME_DATA, eventPayload);
         values.put(EventsStorage.Events.COLUMN_NAME_TIME, event.getTime());
         values.put(EventsStorage.Events.COLUMN_NAME_SESSION_ID, sessionId);
-        values.put(EventsStorage.Events.COLUMN_NAME_EVENT_SIZE, eventPayload.length());
+        values.put(EventsStorage.Events.COLUMN_NAME_EVENT_SIZE, eventSize);
+        values.put(EventsStorage.Events.COLUMN_NAME_PRIORITY, getRetentionPriority(event));
+
+        if (compressPayloads) {
+            byte[] compressed = EventPayloadCompressor.compress(eventPayload);
+            values.put(EventsStorage.Events.COLUMN_NAME_DATA, compressed);
+            values.put(EventsStorage.Events.COLUMN_NAME_STORED_SIZE, compressed.length);
+        } else {
+            values.put(EventsStorage.Events.COLUMN_NAME_DATA, eventPayload);
+            values.put(EventsStorage.Events.COLUMN_NAME_STORED_SIZE, eventSize);
+        }
 
         insert(uri, values);
     }
 
     /**
-     * Trims the database down to the specified size.
+     * Trims the database down to the specified size. The lowest priority events are deleted
+     * first, oldest first within the same priority.
      *
      * @param maxDatabaseSize The max db size in bytes.
      */
     void trimDatabase(int maxDatabaseSize) {
-        while (getDatabaseSize() > maxDatabaseSize) {
+        int excess = getDatabaseSize() - maxDatabaseSize;
+        if (excess <= 0) {
+            return;
+        }
 
-            String sessionId = getOldestSessionId();
-            if (UAStringUtil.isEmpty(sessionId)) {
-                break;
-            }
+        String[] columns = new String[] {
+                EventsStorage.Events._ID,
+                EventsStorage.Events.COLUMN_NAME_PRIORITY,
+                EventsStorage.Events.COLUMN_NAME_STORED_SIZE
+        };
+
+        Cursor cursor = query(uri, columns, null, null, TRIM_SORT_ORDER);
+        if (cursor == null) {
+            Logger.error("EventsStorage - Unable to query events database.");
+            return;
+        }
 
-            Logger.debug("Event database size exceeded. Deleting oldest session: %s", sessionId);
+        // Walk the priority index until enough events are found to get under the max size
+        long lastId = -1;
+        int lastPriority = 0;
+        int trimmed = 0;
+        while (trimmed < excess && cursor.moveToNext()) {
+            lastId = cursor.getLong(0);
+            lastPriority = cursor.getInt(1);
+            trimmed += cursor.getInt(2);
+        }
 
-            int deleted = delete(uri, EventsStorage.Events.COLUMN_NAME_SESSION_ID + " = ?", new String[] { sessionId });
+        cursor.close();
 
-            if (deleted > 0) {
-                Logger.debug("EventsStorage - Deleted %s rows with session ID %s", deleted, sessionId);
-            } else {
-                break;
-            }
+        if (lastId == -1) {
+            return;
         }
+
+        String priority = String.valueOf(lastPriority);
+        int deleted = delete(uri, EventsStorage.Events.COLUMN_NAME_PRIORITY + " < ? OR ("
+                        + EventsStorage.Events.COLUMN_NAME_PRIORITY + " = ? AND " + EventsStorage.Events._ID + " <= ?)",
+                new String[] { priority, priority, String.valueOf(lastId) });
+
+        Logger.debug("EventsStorage - Event database size exceeded. Deleted %s events up to priority %s.", deleted, lastPriority);
+    }
+
+    /**
+     * Gets the priority used to decide which events are trimmed first. Events that are the most
+     * valuable to keep while offline are kept over lower value events that are generated often.
+     *
+     * @param event The event.
+     * @return The retention priority.
+     */
+    @Event.Priority
+    static int getRetentionPriority(@NonNull Event event) {
+        Integer priority = TYPE_PRIORITIES.get(event.getType());
+        return priority == null ? event.getPriority() : priority;
     }
 
 }
@@ -7,6 +7,7 @@ import android.database.sqlite.SQLiteDatabase;
 import android.provider.BaseColumns;
 
 import com.urbanairship.Logger;
+import com.urbanairship.analytics.Event;
 import com.urbanairship.util.DataManager;
 
 import androidx.annotation.NonNull;
@@ -28,7 +29,7 @@ public class EventsStorage extends DataManager {
     /**
      * The database version
      */
-    private static final int DATABASE_VERSION = 1;
+    private static final int DATABASE_VERSION = 3;
 
     /**
      * Events table contract
@@ -55,16 +56,31 @@ public class EventsStorage extends DataManager {
         @NonNull
         String COLUMN_NAME_TIME = "time";
 
-        //serialized
+        //serialized, either as TEXT or as a compressed BLOB
         @NonNull
         String COLUMN_NAME_DATA = "data";
 
         @NonNull
         String COLUMN_NAME_SESSION_ID = "session_id";
 
+        //uncompressed payload size
         @NonNull
         String COLUMN_NAME_EVENT_SIZE = "event_size";
 
+        //stored data size
+        @NonNull
+        String COLUMN_NAME_STORED_SIZE = "stored_size";
+
+        //retention priority, lower priority events are trimmed first
+        @NonNull
+        String COLUMN_NAME_PRIORITY = "priority";
+
+        /**
+         * Index used to trim events in priority then insertion order.
+         */
+        @NonNull
+        String INDEX_NAME_PRIORITY = "events_priority";
+
     }
 
     public EventsStorage(@NonNull Context context, @NonNull String appKey) {
@@ -73,6 +89,19 @@ public class EventsStorage extends DataManager {
 
     @Override
     protected void onUpgrade(@NonNull SQLiteDatabase db, int oldVersion, int newVersion) {
+        switch (oldVersion) {
+            case 1:
+                // Events stored before compression was supported are stored uncompressed
+                db.execSQL("ALTER TABLE " + Events.TABLE_NAME + " ADD COLUMN " + Events.COLUMN_NAME_STORED_SIZE + " INTEGER;");
+                db.execSQL("UPDATE " + Events.TABLE_NAME + " SET " + Events.COLUMN_NAME_STORED_SIZE + " = " + Events.COLUMN_NAME_EVENT_SIZE + ";");
+
+            case 2:
+                // Existing events are trimmed as normal priority events
+                db.execSQL("ALTER TABLE " + Events.TABLE_NAME + " ADD COLUMN " + Events.COLUMN_NAME_PRIORITY + " INTEGER DEFAULT " + Event.NORMAL_PRIORITY + ";");
+                createIndexes(db);
+                return;
+        }
+
         // Logs that the database is being upgraded
         Logger.debug("EventsStorage - Upgrading analytics database from version %s to %s, which will destroy all old data", oldVersion, newVersion);
 
@@ -92,8 +121,17 @@ public class EventsStorage extends DataManager {
                 + Events.COLUMN_NAME_TIME + " INTEGER,"
                 + Events.COLUMN_NAME_DATA + " TEXT,"
                 + Events.COLUMN_NAME_SESSION_ID + " TEXT,"
-                + Events.COLUMN_NAME_EVENT_SIZE + " INTEGER"
+                + Events.COLUMN_NAME_EVENT_SIZE + " INTEGER,"
+                + Events.COLUMN_NAME_STORED_SIZE + " INTEGER,"
+                + Events.COLUMN_NAME_PRIORITY + " INTEGER"
                 + ");");
+
+        createIndexes(db);
+    }
+
+    private void createIndexes(@NonNull SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS " + Events.INDEX_NAME_PRIORITY + " ON " + Events.TABLE_NAME
+                + " (" + Events.COLUMN_NAME_PRIORITY + ", " + Events._ID + ");");
     }
 
     @Override
@@ -0,0 +1,154 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.analytics.data;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.os.BatteryManager;
+import android.telephony.TelephonyManager;
+
+import com.urbanairship.Logger;
+import com.urbanairship.util.Clock;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+/**
+ * Determines how favorable the device's network and battery state is for uploading events.
+ */
+class UploadConditions {
+
+    @IntDef({ QUALITY_GOOD, QUALITY_CONSTRAINED, QUALITY_POOR })
+    @Retention(RetentionPolicy.SOURCE)
+    @interface Quality {}
+
+    /**
+     * Unmetered network and a healthy battery.
+     */
+    static final int QUALITY_GOOD = 0;
+
+    /**
+     * Metered or unknown network.
+     */
+    static final int QUALITY_CONSTRAINED = 1;
+
+    /**
+     * Slow mobile network or low battery.
+     */
+    static final int QUALITY_POOR = 2;
+
+    /**
+     * Battery percent that is considered low when the device is not charging.
+     */
+    private static final int LOW_BATTERY_PERCENT = 15;
+
+    /**
+     * How long the quality is cached for, since it is checked every time an event is added.
+     */
+    private static final long CACHE_TIME_MS = 30000; // 30s
+
+    private final Context context;
+    private final Clock clock;
+
+    private int cachedQuality;
+    private long cachedTime;
+    private boolean isCached;
+
+    UploadConditions(@NonNull Context context) {
+        this(context, Clock.DEFAULT_CLOCK);
+    }
+
+    @VisibleForTesting
+    UploadConditions(@NonNull Context context, @NonNull Clock clock) {
+        this.context = context.getApplicationContext();
+        this.clock = clock;
+    }
+
+    /**
+     * Gets the current upload quality.
+     *
+     * @return The upload quality.
+     */
+    @Quality
+    synchronized int getQuality() {
+        long now = clock.currentTimeMillis();
+        if (!isCached || now - cachedTime >= CACHE_TIME_MS) {
+            cachedQuality = determineQuality();
+            cachedTime = now;
+            isCached = true;
+        }
+
+        return cachedQuality;
+    }
+
+    @Quality
+    private int determineQuality() {
+        if (isBatteryLow()) {
+            return QUALITY_POOR;
+        }
+
+        ConnectivityManager cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (cm == null) {
+            return QUALITY_CONSTRAINED;
+        }
+
+        NetworkInfo info = cm.getActiveNetworkInfo();
+        if (info == null || !info.isConnected()) {
+            return QUALITY_CONSTRAINED;
+        }
+
+        if (info.getType() == ConnectivityManager.TYPE_MOBILE && isSlowNetworkType(info.getSubtype())) {
+            return QUALITY_POOR;
+        }
+
+        return cm.isActiveNetworkMetered() ? QUALITY_CONSTRAINED : QUALITY_GOOD;
+    }
+
+    private boolean isBatteryLow() {
+        Intent battery;
+        try {
+            battery = context.registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        } catch (RuntimeException e) {
+            Logger.debug(e, "UploadConditions - Unable to read battery state.");
+            return false;
+        }
+
+        if (battery == null) {
+            return false;
+        }
+
+        int status = battery.getIntExtra(BatteryManager.EXTRA_STATUS, -1);
+        if (status == BatteryManager.BATTERY_STATUS_CHARGING || status == BatteryManager.BATTERY_STATUS_FULL) {
+            return false;
+        }
+
+        int level = battery.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+        int scale = battery.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+        if (level < 0 || scale <= 0) {
+            return false;
+        }
+
+        return level * 100 / scale <= LOW_BATTERY_PERCENT;
+    }
+
+    private static boolean isSlowNetworkType(int subtype) {
+        switch (subtype) {
+            case TelephonyManager.NETWORK_TYPE_GPRS:
+            case TelephonyManager.NETWORK_TYPE_EDGE:
+            case TelephonyManager.NETWORK_TYPE_CDMA:
+            case TelephonyManager.NETWORK_TYPE_1xRTT:
+            case TelephonyManager.NETWORK_TYPE_IDEN:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+}
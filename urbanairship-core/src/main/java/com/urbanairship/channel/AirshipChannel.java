@@ -5,14 +5,21 @@ package com.urbanairship.channel;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
 import android.telephony.TelephonyManager;
 import android.util.Log;
 
 import com.urbanairship.AirshipComponent;
 import com.urbanairship.AirshipComponentGroups;
+import com.urbanairship.AirshipLoopers;
 import com.urbanairship.Logger;
 import com.urbanairship.PreferenceDataStore;
 import com.urbanairship.UAirship;
+import com.urbanairship.app.ActivityMonitor;
+import com.urbanairship.app.ApplicationListener;
+import com.urbanairship.app.GlobalActivityMonitor;
+import com.urbanairship.app.SimpleApplicationListener;
 import com.urbanairship.config.AirshipRuntimeConfig;
 import com.urbanairship.http.RequestException;
 import com.urbanairship.http.Response;
@@ -63,6 +70,16 @@ public class AirshipChannel extends AirshipComponent {
      */
     private static final String ACTION_UPDATE_CHANNEL_REGISTRATION = "ACTION_UPDATE_CHANNEL_REGISTRATION";
 
+    /**
+     * Action to update the channel registration, tag groups and attributes in a single job.
+     */
+    private static final String ACTION_UPDATE_CHANNEL = "ACTION_UPDATE_CHANNEL";
+
+    /**
+     * Window that channel updates are merged into while the app is in the foreground.
+     */
+    private static final long UPDATE_DEBOUNCE_MS = 5000; // 5 seconds.
+
     /**
      * Max time between channel registration updates.
      */
@@ -86,6 +103,8 @@ public class AirshipChannel extends AirshipComponent {
     private final TagGroupRegistrar tagGroupRegistrar;
     private final JobDispatcher jobDispatcher;
     private final LocaleManager localeManager;
+    private final ActivityMonitor activityMonitor;
+    private final Handler updateHandler;
 
     private final List<AirshipChannelListener> airshipChannelListeners = new CopyOnWriteArrayList<>();
     private final List<ChannelRegistrationPayloadExtender> channelRegistrationPayloadExtenders = new CopyOnWriteArrayList<>();
@@ -97,6 +116,36 @@ public class AirshipChannel extends AirshipComponent {
     private boolean channelTagRegistrationEnabled = true;
     private boolean channelCreationDelayEnabled;
 
+    // Last registration payload, loaded from the data store the first time it is needed
+    private final Object lastPayloadLock = new Object();
+    private ChannelRegistrationPayload lastRegistrationPayload;
+    private boolean isLastPayloadLoaded;
+
+    // Registration request sizes
+    private int registrationCount;
+    private long registrationBytes;
+    private long fullRegistrationBytes;
+
+    // Debounced channel updates
+    private final Object updateLock = new Object();
+    private boolean isUpdatePending;
+    private int pendingUpdateRequests;
+    private int coalescedUpdateCount;
+
+    private final Runnable flushUpdatesRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flushUpdates();
+        }
+    };
+
+    private final ApplicationListener applicationListener = new SimpleApplicationListener() {
+        @Override
+        public void onBackground(long time) {
+            flushUpdates();
+        }
+    };
+
     /**
      * Channel registration extender.
      *
@@ -134,7 +183,8 @@ public class AirshipChannel extends AirshipComponent {
                           @NonNull LocaleManager localeManager) {
         this(context, dataStore, runtimeConfig, new ChannelApiClient(runtimeConfig),
                 tagGroupRegistrar, localeManager, JobDispatcher.shared(context),
-                new PendingAttributeMutationStore(dataStore, ATTRIBUTE_DATASTORE_KEY), new AttributeApiClient(runtimeConfig));
+                new PendingAttributeMutationStore(dataStore, ATTRIBUTE_DATASTORE_KEY), new AttributeApiClient(runtimeConfig),
+                GlobalActivityMonitor.shared(context), AirshipLoopers.getBackgroundLooper());
     }
 
     @VisibleForTesting
@@ -146,7 +196,9 @@ public class AirshipChannel extends AirshipComponent {
                    @NonNull LocaleManager localeManager,
                    @NonNull JobDispatcher jobDispatcher,
                    @NonNull PendingAttributeMutationStore attributeMutationStore,
-                   @NonNull AttributeApiClient attributeApiClient) {
+                   @NonNull AttributeApiClient attributeApiClient,
+                   @NonNull ActivityMonitor activityMonitor,
+                   @NonNull Looper looper) {
         super(context, dataStore);
 
         this.runtimeConfig = runtimeConfig;
@@ -156,6 +208,8 @@ public class AirshipChannel extends AirshipComponent {
         this.jobDispatcher = jobDispatcher;
         this.attributeMutationStore = attributeMutationStore;
         this.attributeApiClient = attributeApiClient;
+        this.activityMonitor = activityMonitor;
+        this.updateHandler = new Handler(looper);
     }
 
     /**
@@ -173,6 +227,19 @@ public class AirshipChannel extends AirshipComponent {
 
         channelCreationDelayEnabled = getId() == null && runtimeConfig.getConfigOptions().channelCreationDelayEnabled;
         attributeMutationStore.collapseAndSaveMutations();
+        activityMonitor.addApplicationListener(applicationListener);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @hide
+     */
+    @Override
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    protected void tearDown() {
+        activityMonitor.removeApplicationListener(applicationListener);
+        updateHandler.removeCallbacks(flushUpdatesRunnable);
     }
 
     /**
@@ -188,16 +255,12 @@ public class AirshipChannel extends AirshipComponent {
         localeManager.addListener(new LocaleChangedListener() {
             @Override
             public void onLocaleChanged(@NonNull Locale locale) {
-                dispatchUpdateRegistrationJob();
+                requestUpdate();
             }
         });
 
-        if (getId() != null) {
-            dispatchUpdateRegistrationJob();
-            dispatchUpdateTagGroupsJob();
-            dispatchUpdateAttributesJob();
-        } else if (!channelCreationDelayEnabled) {
-            dispatchUpdateRegistrationJob();
+        if (getId() != null || !channelCreationDelayEnabled) {
+            requestUpdate();
         }
     }
 
@@ -219,27 +282,19 @@ public class AirshipChannel extends AirshipComponent {
     @Override
     public int onPerformJob(@NonNull UAirship airship, @NonNull JobInfo jobInfo) {
         switch (jobInfo.getAction()) {
-            case ACTION_UPDATE_CHANNEL_REGISTRATION:
-                ChannelRegistrationPayload payload = getNextChannelRegistrationPayload();
-                String channelId = getId();
+            case ACTION_UPDATE_CHANNEL:
+                int registrationResult = onUpdateRegistration(false);
+                int tagGroupResult = onUpdateTagGroup();
+                int attributesResult = onUpdateAttributes();
 
-                if (channelId == null && channelCreationDelayEnabled) {
-                    Logger.debug("AirshipChannel - Channel registration is currently disabled.");
-                    return JobInfo.JOB_FINISHED;
+                if (registrationResult == JobInfo.JOB_RETRY || tagGroupResult == JobInfo.JOB_RETRY || attributesResult == JobInfo.JOB_RETRY) {
+                    return JobInfo.JOB_RETRY;
                 }
 
-                if (!shouldUpdateRegistration(payload)) {
-                    Logger.verbose("AirshipChannel - Channel already up to date.");
-                    return JobInfo.JOB_FINISHED;
-                }
+                return JobInfo.JOB_FINISHED;
 
-                Logger.verbose("AirshipChannel - Performing channel registration.");
-
-                if (UAStringUtil.isEmpty(channelId)) {
-                    return onCreateChannel();
-                } else {
-                    return onUpdateChannel();
-                }
+            case ACTION_UPDATE_CHANNEL_REGISTRATION:
+                return onUpdateRegistration(true);
 
             case ACTION_UPDATE_TAG_GROUPS:
                 return onUpdateTagGroup();
@@ -270,9 +325,7 @@ public class AirshipChannel extends AirshipComponent {
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
     public void onComponentEnableChange(boolean isEnabled) {
         if (isEnabled) {
-            dispatchUpdateRegistrationJob();
-            dispatchUpdateTagGroupsJob();
-            dispatchUpdateAttributesJob();
+            requestUpdate();
         }
     }
 
@@ -359,7 +412,7 @@ public class AirshipChannel extends AirshipComponent {
                 }
 
                 tagGroupRegistrar.addMutations(TagGroupRegistrar.CHANNEL, collapsedMutations);
-                dispatchUpdateTagGroupsJob();
+                requestUpdate();
             }
         };
     }
@@ -383,7 +436,7 @@ public class AirshipChannel extends AirshipComponent {
 
                 // Add mutations to store
                 attributeMutationStore.add(pendingMutations);
-                dispatchUpdateAttributesJob();
+                requestUpdate();
             }
         };
     }
@@ -405,7 +458,7 @@ public class AirshipChannel extends AirshipComponent {
                 getDataStore().put(TAGS_KEY, JsonValue.wrapOpt(normalizedTags));
             }
 
-            dispatchUpdateRegistrationJob();
+            requestUpdate();
         } else {
             Logger.warn("AirshipChannel - Unable to set tags when opted out of data collection.");
         }
@@ -453,7 +506,7 @@ public class AirshipChannel extends AirshipComponent {
     public void enableChannelCreation() {
         if (isChannelCreationDelayEnabled()) {
             channelCreationDelayEnabled = false;
-            dispatchUpdateRegistrationJob();
+            requestUpdate();
         }
     }
 
@@ -464,7 +517,21 @@ public class AirshipChannel extends AirshipComponent {
      */
     @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
     public void updateRegistration() {
-        dispatchUpdateRegistrationJob();
+        requestUpdate();
+    }
+
+    /**
+     * Gets the number of channel update jobs that were saved by merging update requests into a
+     * single job.
+     *
+     * @return The number of coalesced update jobs.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public int getCoalescedUpdateCount() {
+        synchronized (updateLock) {
+            return coalescedUpdateCount;
+        }
     }
 
     /**
@@ -561,11 +628,11 @@ public class AirshipChannel extends AirshipComponent {
      * Check the specified payload and last registration time to determine if registration is required
      *
      * @param payload The channel registration payload
+     * @param lastSuccessPayload The last successfully registered payload
      * @return <code>True</code> if registration is required, <code>false</code> otherwise
      */
-    private boolean shouldUpdateRegistration(@NonNull ChannelRegistrationPayload payload) {
+    private boolean shouldUpdateRegistration(@NonNull ChannelRegistrationPayload payload, @Nullable ChannelRegistrationPayload lastSuccessPayload) {
         // check time and payload
-        ChannelRegistrationPayload lastSuccessPayload = getLastRegistrationPayload();
         if (lastSuccessPayload == null) {
             Logger.verbose("AirshipChannel - Should update registration. Last payload is null.");
             return true;
@@ -591,28 +658,75 @@ public class AirshipChannel extends AirshipComponent {
      *
      * @param channelPayload A ChannelRegistrationPayload.
      */
-    private void setLastRegistrationPayload(ChannelRegistrationPayload channelPayload) {
-        getDataStore().put(LAST_REGISTRATION_PAYLOAD_KEY, channelPayload);
-        getDataStore().put(LAST_REGISTRATION_TIME_KEY, System.currentTimeMillis());
+    private void setLastRegistrationPayload(@Nullable ChannelRegistrationPayload channelPayload) {
+        synchronized (lastPayloadLock) {
+            lastRegistrationPayload = channelPayload;
+            isLastPayloadLoaded = true;
+
+            getDataStore().put(LAST_REGISTRATION_PAYLOAD_KEY, channelPayload);
+            getDataStore().put(LAST_REGISTRATION_TIME_KEY, System.currentTimeMillis());
+        }
     }
 
     /**
-     * Gets the last registration payload
+     * Gets the last registration payload. The payload is only parsed from the data store the
+     * first time, after that the in-memory copy is returned.
      *
      * @return a ChannelRegistrationPayload
      */
     @Nullable
     private ChannelRegistrationPayload getLastRegistrationPayload() {
-        JsonValue jsonValue = getDataStore().getJsonValue(LAST_REGISTRATION_PAYLOAD_KEY);
-        if (jsonValue.isNull()) {
-            return null;
+        synchronized (lastPayloadLock) {
+            if (isLastPayloadLoaded) {
+                return lastRegistrationPayload;
+            }
+
+            isLastPayloadLoaded = true;
+
+            JsonValue jsonValue = getDataStore().getJsonValue(LAST_REGISTRATION_PAYLOAD_KEY);
+            if (jsonValue.isNull()) {
+                return null;
+            }
+
+            try {
+                lastRegistrationPayload = ChannelRegistrationPayload.fromJson(jsonValue);
+            } catch (JsonException e) {
+                Logger.error(e, "AirshipChannel - Failed to parse payload from JSON.");
+            }
+
+            return lastRegistrationPayload;
         }
+    }
 
-        try {
-            return ChannelRegistrationPayload.fromJson(jsonValue);
-        } catch (JsonException e) {
-            Logger.error(e, "AirshipChannel - Failed to parse payload from JSON.");
-            return null;
+    /**
+     * Records the size of a registration request.
+     *
+     * @param payload The payload that was sent.
+     * @param fullPayload The full payload the sent payload was minimized from.
+     */
+    private void recordRegistrationSize(@NonNull ChannelRegistrationPayload payload, @NonNull ChannelRegistrationPayload fullPayload) {
+        int bytes = UAStringUtil.getUtf8Length(payload.toString());
+        int fullBytes = payload == fullPayload ? bytes : UAStringUtil.getUtf8Length(fullPayload.toString());
+
+        synchronized (lastPayloadLock) {
+            registrationCount++;
+            registrationBytes += bytes;
+            fullRegistrationBytes += fullBytes;
+
+            Logger.verbose("AirshipChannel - Registration sent %s bytes, full payload is %s bytes. Average %s bytes per registration, saved %s bytes total.",
+                    bytes, fullBytes, registrationBytes / registrationCount, fullRegistrationBytes - registrationBytes);
+        }
+    }
+
+    /**
+     * Gets the average number of bytes sent per channel registration request.
+     *
+     * @return The average request size in bytes, or 0 if no requests have been sent.
+     */
+    @VisibleForTesting
+    long getAverageRegistrationBytes() {
+        synchronized (lastPayloadLock) {
+            return registrationCount == 0 ? 0 : registrationBytes / registrationCount;
         }
     }
 
@@ -634,6 +748,39 @@ public class AirshipChannel extends AirshipComponent {
         return lastRegistrationTime;
     }
 
+    /**
+     * Creates or updates the channel registration if the payload has changed.
+     *
+     * @param requestFollowUpUpdate {@code true} to request a follow-up update after the channel
+     * is created, {@code false} if the caller uploads tag groups and attributes itself.
+     * @return The job result.
+     */
+    @WorkerThread
+    @JobInfo.JobResult
+    private int onUpdateRegistration(boolean requestFollowUpUpdate) {
+        ChannelRegistrationPayload payload = getNextChannelRegistrationPayload();
+        String channelId = getId();
+
+        if (channelId == null && channelCreationDelayEnabled) {
+            Logger.debug("AirshipChannel - Channel registration is currently disabled.");
+            return JobInfo.JOB_FINISHED;
+        }
+
+        ChannelRegistrationPayload lastPayload = getLastRegistrationPayload();
+        if (!shouldUpdateRegistration(payload, lastPayload)) {
+            Logger.verbose("AirshipChannel - Channel already up to date.");
+            return JobInfo.JOB_FINISHED;
+        }
+
+        Logger.verbose("AirshipChannel - Performing channel registration.");
+
+        if (UAStringUtil.isEmpty(channelId)) {
+            return onCreateChannel(payload, requestFollowUpUpdate);
+        } else {
+            return onUpdateChannel(channelId, payload, lastPayload);
+        }
+    }
+
     /**
      * Handles performing any tag group requests if any pending tag group changes are available.
      *
@@ -657,12 +804,13 @@ public class AirshipChannel extends AirshipComponent {
     /**
      * Called to create the channel.
      *
+     * @param payload The channel registration payload.
+     * @param requestFollowUpUpdate {@code true} to request a follow-up update once the channel is created.
      * @return The job result.
      */
     @WorkerThread
     @JobInfo.JobResult
-    private int onCreateChannel() {
-        ChannelRegistrationPayload payload = getNextChannelRegistrationPayload();
+    private int onCreateChannel(@NonNull ChannelRegistrationPayload payload, boolean requestFollowUpUpdate) {
         Response<String> response;
         try {
             response = channelApiClient.createChannelWithPayload(payload);
@@ -671,6 +819,8 @@ public class AirshipChannel extends AirshipComponent {
             return JobInfo.JOB_RETRY;
         }
 
+        recordRegistrationSize(payload, payload);
+
         // 2xx
         if (response.isSuccessful()) {
             String channelId = response.getResult();
@@ -692,8 +842,10 @@ public class AirshipChannel extends AirshipComponent {
                 getContext().sendBroadcast(channelCreatedIntent);
             }
 
-            dispatchUpdateTagGroupsJob();
-            dispatchUpdateAttributesJob();
+            // The combined update job uploads tag groups and attributes right after this
+            if (requestFollowUpUpdate) {
+                requestUpdate();
+            }
 
             return JobInfo.JOB_FINISHED;
         }
@@ -709,19 +861,19 @@ public class AirshipChannel extends AirshipComponent {
     }
 
     /**
-     * Called to update the channel.
+     * Called to update the channel. Only the fields that changed since the last registration
+     * are sent.
      *
+     * @param channelId The channel ID.
+     * @param payload The channel registration payload.
+     * @param lastPayload The last successfully registered payload.
      * @return The job result.
      */
     @WorkerThread
     @JobInfo.JobResult
-    private int onUpdateChannel() {
-        String channelId = getId();
-        if (channelId == null) {
-            return JobInfo.JOB_FINISHED;
-        }
-        ChannelRegistrationPayload payload = getNextChannelRegistrationPayload();
-        ChannelRegistrationPayload minimizedPayload = payload.minimizedPayload(getLastRegistrationPayload());
+    private int onUpdateChannel(@NonNull String channelId, @NonNull ChannelRegistrationPayload payload,
+                                @Nullable ChannelRegistrationPayload lastPayload) {
+        ChannelRegistrationPayload minimizedPayload = payload.minimizedPayload(lastPayload);
 
         Response<Void> response;
         try {
@@ -731,6 +883,8 @@ public class AirshipChannel extends AirshipComponent {
             return JobInfo.JOB_RETRY;
         }
 
+        recordRegistrationSize(minimizedPayload, payload);
+
         // 2xx
         if (response.isSuccessful()) {
             Logger.info("Airship channel updated.");
@@ -752,7 +906,7 @@ public class AirshipChannel extends AirshipComponent {
         if (response.getStatus() == HttpURLConnection.HTTP_CONFLICT) {
             setLastRegistrationPayload(null);
             getDataStore().remove(CHANNEL_ID_KEY);
-            dispatchUpdateRegistrationJob();
+            requestUpdate();
             return JobInfo.JOB_FINISHED;
         }
 
@@ -815,7 +969,7 @@ public class AirshipChannel extends AirshipComponent {
                 Logger.error("AirshipChannel - Dropping attributes %s due to error: %s message: %s", mutations, response.getStatus(), response.getResponseBody());
             }
 
-            attributeMutationStore.pop();
+            attributeMutationStore.removeUploaded(mutations);
         }
 
         return true;
@@ -833,40 +987,56 @@ public class AirshipChannel extends AirshipComponent {
     }
 
     /**
-     * Dispatches a job to update registration.
+     * Requests a channel update. Requests made in the foreground are merged into a single job
+     * that runs once the debounce window ends. The update is dispatched right away if the app is
+     * in the background, where the job dispatcher already batches network jobs, or if the
+     * channel has not been created yet.
      */
-    private void dispatchUpdateRegistrationJob() {
-        JobInfo jobInfo = JobInfo.newBuilder()
-                                 .setAction(ACTION_UPDATE_CHANNEL_REGISTRATION)
-                                 .setId(JobInfo.CHANNEL_UPDATE_REGISTRATION)
-                                 .setNetworkAccessRequired(true)
-                                 .setAirshipComponent(AirshipChannel.class)
-                                 .build();
+    private void requestUpdate() {
+        boolean flushNow = getId() == null || !activityMonitor.isAppForegrounded();
+
+        synchronized (updateLock) {
+            pendingUpdateRequests++;
+            if (!isUpdatePending) {
+                isUpdatePending = true;
+                if (!flushNow) {
+                    updateHandler.postDelayed(flushUpdatesRunnable, UPDATE_DEBOUNCE_MS);
+                }
+            }
+        }
 
-        jobDispatcher.dispatch(jobInfo);
+        if (flushNow) {
+            flushUpdates();
+        }
     }
 
     /**
-     * Dispatches a job to update the tag groups.
+     * Dispatches the pending channel update, if any.
      */
-    private void dispatchUpdateTagGroupsJob() {
-        JobInfo jobInfo = JobInfo.newBuilder()
-                                 .setAction(ACTION_UPDATE_TAG_GROUPS)
-                                 .setId(JobInfo.CHANNEL_UPDATE_TAG_GROUPS)
-                                 .setNetworkAccessRequired(true)
-                                 .setAirshipComponent(AirshipChannel.class)
-                                 .build();
+    private void flushUpdates() {
+        synchronized (updateLock) {
+            if (!isUpdatePending) {
+                return;
+            }
 
-        jobDispatcher.dispatch(jobInfo);
+            updateHandler.removeCallbacks(flushUpdatesRunnable);
+            coalescedUpdateCount += pendingUpdateRequests - 1;
+            Logger.verbose("AirshipChannel - Merged %s update requests into a single job, %s coalesced in total.", pendingUpdateRequests, coalescedUpdateCount);
+
+            isUpdatePending = false;
+            pendingUpdateRequests = 0;
+        }
+
+        dispatchUpdateChannelJob();
     }
 
     /**
-     * Dispatches a job to update the tag groups.
+     * Dispatches a job to update the registration, tag groups, and attributes.
      */
-    private void dispatchUpdateAttributesJob() {
+    private void dispatchUpdateChannelJob() {
         JobInfo jobInfo = JobInfo.newBuilder()
-                                 .setAction(ACTION_UPDATE_ATTRIBUTES)
-                                 .setId(JobInfo.CHANNEL_UPDATE_ATTRIBUTES)
+                                 .setAction(ACTION_UPDATE_CHANNEL)
+                                 .setId(JobInfo.CHANNEL_UPDATE_REGISTRATION)
                                  .setNetworkAccessRequired(true)
                                  .setAirshipComponent(AirshipChannel.class)
                                  .build();
@@ -14,6 +14,7 @@ import com.urbanairship.http.RequestException;
 import com.urbanairship.http.Response;
 import com.urbanairship.job.JobDispatcher;
 import com.urbanairship.job.JobInfo;
+import com.urbanairship.json.JsonMap;
 import com.urbanairship.util.UAStringUtil;
 
 import java.net.HttpURLConnection;
@@ -60,6 +61,16 @@ public class NamedUser extends AirshipComponent {
      */
     private static final String LAST_UPDATED_TOKEN_KEY = "com.urbanairship.nameduser.LAST_UPDATED_TOKEN_KEY";
 
+    /**
+     * Key for storing the last state that was synced with Airship. Stores the change token, channel ID and
+     * named user ID in a single value and replaces {@link #LAST_UPDATED_TOKEN_KEY}.
+     */
+    private static final String LAST_SYNCED_STATE_KEY = "com.urbanairship.nameduser.LAST_SYNCED_STATE_KEY";
+
+    private static final String SYNCED_TOKEN = "token";
+    private static final String SYNCED_CHANNEL_ID = "channel_id";
+    private static final String SYNCED_NAMED_USER_ID = "named_user_id";
+
     /**
      * The maximum length of the named user ID string.
      */
@@ -181,7 +192,12 @@ public class NamedUser extends AirshipComponent {
      */
     public void forceUpdate() {
         Logger.debug("NamedUser - force named user update.");
-        updateChangeToken();
+        synchronized (idLock) {
+            // Forget the synced state so the named user is sent even if it has not changed
+            preferenceDataStore.remove(LAST_SYNCED_STATE_KEY);
+            preferenceDataStore.remove(LAST_UPDATED_TOKEN_KEY);
+            updateChangeToken();
+        }
         dispatchNamedUserUpdateJob();
     }
 
@@ -284,7 +300,7 @@ public class NamedUser extends AirshipComponent {
     boolean isIdUpToDate() {
         synchronized (idLock) {
             String changeToken = getChangeToken();
-            String lastUpdatedToken = preferenceDataStore.getString(LAST_UPDATED_TOKEN_KEY, null);
+            String lastUpdatedToken = getLastSyncedToken();
             String currentId = getId();
 
             if (currentId == null && changeToken == null) {
@@ -305,6 +321,54 @@ public class NamedUser extends AirshipComponent {
         return preferenceDataStore.getString(CHANGE_TOKEN_KEY, null);
     }
 
+    /**
+     * Gets the change token from the last time the named user was synced.
+     *
+     * @return The last synced change token.
+     */
+    @Nullable
+    private String getLastSyncedToken() {
+        JsonMap syncedState = preferenceDataStore.getJsonValue(LAST_SYNCED_STATE_KEY).optMap();
+        if (syncedState.containsKey(SYNCED_TOKEN)) {
+            return syncedState.opt(SYNCED_TOKEN).getString();
+        }
+
+        // Older versions only stored the token
+        return preferenceDataStore.getString(LAST_UPDATED_TOKEN_KEY, null);
+    }
+
+    /**
+     * Checks if the named user ID is already synced for the channel. Only known once the named user
+     * has been synced by this version of the SDK.
+     *
+     * @param channelId The channel ID.
+     * @param namedUserId The named user ID.
+     * @return {@code true} if the named user ID is already synced for the channel, otherwise {@code false}.
+     */
+    private boolean isSynced(@NonNull String channelId, @Nullable String namedUserId) {
+        JsonMap syncedState = preferenceDataStore.getJsonValue(LAST_SYNCED_STATE_KEY).optMap();
+        return channelId.equals(syncedState.opt(SYNCED_CHANNEL_ID).getString())
+                && UAStringUtil.equals(namedUserId, syncedState.opt(SYNCED_NAMED_USER_ID).getString());
+    }
+
+    /**
+     * Stores the synced state.
+     *
+     * @param changeToken The change token that was synced.
+     * @param channelId The channel ID.
+     * @param namedUserId The named user ID.
+     */
+    private void setSyncedState(@Nullable String changeToken, @NonNull String channelId, @Nullable String namedUserId) {
+        JsonMap syncedState = JsonMap.newBuilder()
+                                     .put(SYNCED_TOKEN, changeToken)
+                                     .put(SYNCED_CHANNEL_ID, channelId)
+                                     .put(SYNCED_NAMED_USER_ID, namedUserId)
+                                     .build();
+
+        preferenceDataStore.put(LAST_SYNCED_STATE_KEY, syncedState);
+        preferenceDataStore.remove(LAST_UPDATED_TOKEN_KEY);
+    }
+
     /**
      * Modify the change token to force an update.
      */
@@ -376,7 +440,9 @@ public class NamedUser extends AirshipComponent {
     }
 
     /**
-     * Handles associate/disassociate updates.
+     * Handles associate/disassociate updates. Only the current named user ID is sent, so any IDs that
+     * were set since the last update are skipped. If the current ID is the one that was last synced,
+     * no request is made.
      *
      * @return The job result.
      */
@@ -389,6 +455,12 @@ public class NamedUser extends AirshipComponent {
         synchronized (idLock) {
             changeToken = getChangeToken();
             namedUserId = getId();
+
+            if (isSynced(channelId, namedUserId)) {
+                Logger.verbose("NamedUser - Named user ID %s is already synced, skipping update.", namedUserId);
+                setSyncedState(changeToken, channelId, namedUserId);
+                return JobInfo.JOB_FINISHED;
+            }
         }
 
         Response<Void> response;
@@ -417,7 +489,9 @@ public class NamedUser extends AirshipComponent {
         // 2xx
         if (response.isSuccessful()) {
             Logger.debug("Update named user succeeded with status: %s", response.getStatus());
-            preferenceDataStore.put(LAST_UPDATED_TOKEN_KEY, changeToken);
+            synchronized (idLock) {
+                setSyncedState(changeToken, channelId, namedUserId);
+            }
             return JobInfo.JOB_FINISHED;
         }
 
@@ -474,7 +548,7 @@ public class NamedUser extends AirshipComponent {
                 Logger.error("NamedUser - Dropping attributes %s due to error: %s message: %s", mutations, response.getStatus(), response.getResponseBody());
             }
 
-            attributeMutationStore.pop();
+            attributeMutationStore.removeUploaded(mutations);
         }
 
         return JobInfo.JOB_FINISHED;
@@ -5,18 +5,40 @@ package com.urbanairship.channel;
 import com.urbanairship.PreferenceDataStore;
 import com.urbanairship.json.JsonList;
 import com.urbanairship.json.JsonValue;
+import com.urbanairship.util.UAStringUtil;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-
+import androidx.annotation.VisibleForTesting;
+
+/**
+ * Stores pending attribute mutations.
+ * <p>
+ * Mutations are compacted as they are added so only the last mutation for each attribute is kept,
+ * ordered by when the attribute was last changed. The compacted mutations are kept in memory and
+ * stored as a single list, so the stored value grows with the number of attributes instead of the
+ * number of edits.
+ */
 class PendingAttributeMutationStore {
+
+    /**
+     * Max size of the mutations returned by {@link #peek()}.
+     */
+    private static final int MAX_BATCH_SIZE_BYTES = 64 * 1024; // 64 KB
+
     private final PreferenceDataStore dataStore;
     private final String storeKey;
+    private final int maxBatchSizeBytes;
     private final Object attributeLock = new Object();
 
+    private LinkedHashMap<String, PendingAttributeMutation> mutations;
+    private boolean requiresSave;
 
     /**
      * Default constructor.
@@ -25,8 +47,14 @@ class PendingAttributeMutationStore {
      * @param storeKey The store key.
      */
     PendingAttributeMutationStore(PreferenceDataStore dataStore, String storeKey) {
+        this(dataStore, storeKey, MAX_BATCH_SIZE_BYTES);
+    }
+
+    @VisibleForTesting
+    PendingAttributeMutationStore(PreferenceDataStore dataStore, String storeKey, int maxBatchSizeBytes) {
         this.dataStore = dataStore;
         this.storeKey = storeKey;
+        this.maxBatchSizeBytes = maxBatchSizeBytes;
     }
 
     /**
@@ -34,84 +62,109 @@ class PendingAttributeMutationStore {
      */
     void clear() {
         synchronized (attributeLock) {
+            mutations = new LinkedHashMap<>();
+            requiresSave = false;
             dataStore.remove(storeKey);
         }
     }
 
     /**
-     * Adds new pending attribute mutations to the end of the store.
+     * Adds new pending attribute mutations. A mutation replaces any pending mutation for the
+     * same attribute.
      *
      * @param pendingAttributeMutations A list of pending attribute mutations.
      */
     void add(List<PendingAttributeMutation> pendingAttributeMutations) {
         synchronized (attributeLock) {
-            List<List<PendingAttributeMutation>> allMutations = getMutations();
-            allMutations.add(pendingAttributeMutations);
-            dataStore.put(storeKey, JsonValue.wrapOpt(allMutations));
+            Map<String, PendingAttributeMutation> mutations = getMutationMap();
+            for (PendingAttributeMutation mutation : pendingAttributeMutations) {
+                // Remove first so the attribute moves to the end
+                mutations.remove(mutation.getMutationName());
+                mutations.put(mutation.getMutationName(), mutation);
+            }
+
+            save();
         }
     }
 
     /**
-     * Pops the next pending attribute mutations off the store.
+     * Pops the next batch of pending attribute mutations off the store.
      *
-     * @return The next attributes mutation or {@code null} if no mutations exist.
+     * @return The next batch of attribute mutations or {@code null} if no mutations exist.
      */
     @Nullable
     List<PendingAttributeMutation> pop() {
         synchronized (attributeLock) {
-            List<List<PendingAttributeMutation>> allMutations = getMutations();
-
-            if (peek() == null) {
-                return null;
+            List<PendingAttributeMutation> batch = peek();
+            if (batch != null) {
+                removeUploaded(batch);
             }
 
-            List<PendingAttributeMutation> mutations = allMutations.remove(0);
-
-            dataStore.put(storeKey, JsonValue.wrapOpt(allMutations));
-            return mutations;
+            return batch;
         }
     }
 
     /**
-     * Peeks the top mutation.
+     * Peeks the next batch of mutations. The batch is capped in size so large sets of
+     * changes are uploaded over several requests. A batch always contains at least one mutation.
      *
-     * @return The top attributes mutation or {@code null} if no mutations exist.
+     * @return The next batch of attribute mutations or {@code null} if no mutations exist.
      */
     @Nullable
     List<PendingAttributeMutation> peek() {
         synchronized (attributeLock) {
-            List<List<PendingAttributeMutation>> allMutations = getMutations();
-
-            if (allMutations.isEmpty()) {
+            Map<String, PendingAttributeMutation> mutations = getMutationMap();
+            if (mutations.isEmpty()) {
                 return null;
             }
 
-            if (allMutations.get(0).isEmpty()) {
-                return null;
+            List<PendingAttributeMutation> batch = new ArrayList<>();
+            int batchSize = 0;
+            for (PendingAttributeMutation mutation : mutations.values()) {
+                int size = UAStringUtil.getUtf8Length(mutation.toJsonValue().toString());
+                if (!batch.isEmpty() && batchSize + size > maxBatchSizeBytes) {
+                    break;
+                }
+
+                batch.add(mutation);
+                batchSize += size;
             }
 
-            return allMutations.get(0);
+            return batch;
         }
     }
 
     /**
-     * Collapses a list of mutations down to a single collection of mutations.
+     * Removes uploaded mutations. Mutations that were replaced since they were peeked are kept.
+     *
+     * @param uploaded The uploaded mutations.
      */
-    void collapseAndSaveMutations() {
+    void removeUploaded(@NonNull List<PendingAttributeMutation> uploaded) {
         synchronized (attributeLock) {
-            List<List<PendingAttributeMutation>> allMutations = getMutations();
-
-            List<PendingAttributeMutation> combined = new ArrayList<>();
-            for (List<PendingAttributeMutation> mutations : allMutations) {
-                combined.addAll(mutations);
+            Map<String, PendingAttributeMutation> mutations = getMutationMap();
+            boolean changed = false;
+            for (PendingAttributeMutation mutation : uploaded) {
+                if (mutations.get(mutation.getMutationName()) == mutation) {
+                    mutations.remove(mutation.getMutationName());
+                    changed = true;
+                }
             }
 
-            List<PendingAttributeMutation> collapsedMutation = PendingAttributeMutation.collapseMutations(combined);
-
-            allMutations.clear();
-            allMutations.add(collapsedMutation);
+            if (changed) {
+                save();
+            }
+        }
+    }
 
-            dataStore.put(storeKey, JsonValue.wrapOpt(allMutations));
+    /**
+     * Saves the mutations if they were collapsed when loaded from an older format.
+     */
+    void collapseAndSaveMutations() {
+        synchronized (attributeLock) {
+            getMutationMap();
+            if (requiresSave) {
+                save();
+            }
         }
     }
 
@@ -122,12 +175,59 @@ class PendingAttributeMutationStore {
      */
     @NonNull
     List<List<PendingAttributeMutation>> getMutations() {
-        JsonList jsonList =  dataStore.getJsonValue(storeKey).optList();
-        List<List<PendingAttributeMutation>> allMutations = new ArrayList<>();
+        synchronized (attributeLock) {
+            Map<String, PendingAttributeMutation> mutations = getMutationMap();
+            if (mutations.isEmpty()) {
+                return new ArrayList<>();
+            }
+
+            List<List<PendingAttributeMutation>> allMutations = new ArrayList<>();
+            allMutations.add(new ArrayList<>(mutations.values()));
+            return allMutations;
+        }
+    }
+
+    /**
+     * Gets the compacted mutations, loading them from the data store the first time. Older
+     * versions stored a list of mutation lists, which is collapsed while loading.
+     *
+     * @return The compacted mutations.
+     */
+    @NonNull
+    private Map<String, PendingAttributeMutation> getMutationMap() {
+        if (mutations != null) {
+            return mutations;
+        }
+
+        mutations = new LinkedHashMap<>();
 
+        JsonList jsonList = dataStore.getJsonValue(storeKey).optList();
+        int count = 0;
         for (JsonValue value : jsonList) {
-            allMutations.add(PendingAttributeMutation.fromJsonList(value.optList()));
+            for (PendingAttributeMutation mutation : PendingAttributeMutation.fromJsonList(value.optList())) {
+                mutations.remove(mutation.getMutationName());
+                mutations.put(mutation.getMutationName(), mutation);
+                count++;
+            }
         }
-        return allMutations;
+
+        requiresSave = jsonList.size() > 1 || count != mutations.size();
+        return mutations;
     }
+
+    /**
+     * Writes the compacted mutations to the data store.
+     */
+    private void save() {
+        requiresSave = false;
+
+        if (mutations == null || mutations.isEmpty()) {
+            dataStore.remove(storeKey);
+            return;
+        }
+
+        List<PendingAttributeMutation> values = new ArrayList<>(mutations.values());
+        dataStore.put(storeKey, JsonValue.wrapOpt(Collections.singletonList(values)));
+    }
+
 }
@@ -104,6 +104,55 @@ class PendingTagGroupMutationStore {
         }
     }
 
+    /**
+     * Collapses mutations down to a minimum set of mutations and returns them, reading and
+     * writing the store once.
+     *
+     * @return The collapsed mutations.
+     */
+    @NonNull
+    List<TagGroupsMutation> collapseAndGetMutations() {
+        synchronized (this) {
+            List<TagGroupsMutation> mutations = getMutations();
+            if (mutations.isEmpty()) {
+                return mutations;
+            }
+
+            mutations = TagGroupsMutation.collapseMutations(mutations);
+            dataStore.put(storeKey, JsonValue.wrapOpt(mutations));
+            return mutations;
+        }
+    }
+
+    /**
+     * Removes uploaded mutations from the front of the store in a single write. Mutations are
+     * only removed while they still match the front of the store, so mutations that were cleared
+     * or collapsed during the upload are left alone.
+     *
+     * @param uploaded The uploaded mutations, in store order.
+     */
+    void removeUploaded(@NonNull List<TagGroupsMutation> uploaded) {
+        if (uploaded.isEmpty()) {
+            return;
+        }
+
+        synchronized (this) {
+            List<TagGroupsMutation> mutations = getMutations();
+
+            int count = 0;
+            while (count < uploaded.size() && count < mutations.size() && uploaded.get(count).equals(mutations.get(count))) {
+                count++;
+            }
+
+            if (count == 0) {
+                return;
+            }
+
+            mutations = mutations.subList(count, mutations.size());
+            dataStore.put(storeKey, JsonValue.wrapOpt(mutations));
+        }
+    }
+
     /**
      * Converts the old tag group store to tag mutations.
      *
@@ -121,6 +121,10 @@ public class TagGroupRegistrar {
 
     /**
      * Uploads mutations for the specified type and identifier.
+     * <p>
+     * Pending mutations are collapsed into a batch of at most one set mutation and one
+     * add/remove mutation, since the API does not allow set to be combined with add or remove.
+     * The pending store is checkpointed once per batch instead of once per request.
      *
      * @param type The type.
      * @param identifier The identifier. Either the channel ID for {@link #CHANNEL} type, or the named user ID.
@@ -132,26 +136,36 @@ public class TagGroupRegistrar {
 
         while (true) {
             // Collapse mutations before we try to send any updates
-            mutationStore.collapseMutations();
-
-            TagGroupsMutation mutation = mutationStore.peek();
-            if (mutation == null) {
+            List<TagGroupsMutation> batch = mutationStore.collapseAndGetMutations();
+            if (batch.isEmpty()) {
                 break;
             }
 
-            Response response = client.updateTagGroups(type, identifier, mutation);
+            List<TagGroupsMutation> uploaded = new ArrayList<>();
+            boolean isComplete = true;
 
-            // No response, 5xx, or 429
-            if (response == null || UAHttpStatusUtil.inServerErrorRange(response.getStatus()) || response.getStatus() == Response.HTTP_TOO_MANY_REQUESTS) {
-                Logger.debug("Failed to update tag groups, will retry later.");
-                return false;
+            for (TagGroupsMutation mutation : batch) {
+                Response response = client.updateTagGroups(type, identifier, mutation);
+
+                // No response, 5xx, or 429
+                if (response == null || UAHttpStatusUtil.inServerErrorRange(response.getStatus()) || response.getStatus() == Response.HTTP_TOO_MANY_REQUESTS) {
+                    Logger.debug("Failed to update tag groups, will retry later.");
+                    isComplete = false;
+                    break;
+                }
+
+                notifyListeners(mutation);
+                uploaded.add(mutation);
+
+                int status = response.getStatus();
+                Logger.debug("Update tag groups finished with status: %s", status);
             }
 
-            notifyListeners(mutation);
-            mutationStore.pop();
+            mutationStore.removeUploaded(uploaded);
 
-            int status = response.getStatus();
-            Logger.debug("Update tag groups finished with status: %s", status);
+            if (!isComplete) {
+                return false;
+            }
         }
 
         return true;
@@ -153,7 +153,7 @@ public class TagGroupsMutation implements JsonSerializable {
      * @return A new list of collapsed mutations.
      */
     @NonNull
-    static List<TagGroupsMutation> collapseMutations(@Nullable List<TagGroupsMutation> mutations) {
+    public static List<TagGroupsMutation> collapseMutations(@Nullable List<TagGroupsMutation> mutations) {
         if (mutations == null || mutations.isEmpty()) {
             return Collections.emptyList();
         }
@@ -344,8 +344,16 @@ public class TagGroupsMutation implements JsonSerializable {
 
         TagGroupsMutation mutation = (TagGroupsMutation) o;
 
-        return mutation.toJsonValue().equals(mutation.toJsonValue());
+        // Compare the tags, the JSON order follows the hash set iteration order
+        if (!tagsEqual(addTags, mutation.addTags)) {
+            return false;
+        }
+
+        if (!tagsEqual(removeTags, mutation.removeTags)) {
+            return false;
+        }
 
+        return tagsEqual(setTags, mutation.setTags);
     }
 
     @Override
@@ -356,6 +364,21 @@ public class TagGroupsMutation implements JsonSerializable {
         return result;
     }
 
+    /**
+     * Compares two tag maps. A missing map is equal to an empty map, since neither is written to JSON.
+     *
+     * @param lh The first tag map.
+     * @param rh The second tag map.
+     * @return {@code true} if the tag maps are equal, otherwise {@code false}.
+     */
+    private static boolean tagsEqual(@Nullable Map<String, Set<String>> lh, @Nullable Map<String, Set<String>> rh) {
+        if (lh == null || lh.isEmpty()) {
+            return rh == null || rh.isEmpty();
+        }
+
+        return lh.equals(rh);
+    }
+
     public void apply(@NonNull Map<String, Set<String>> tagGroups) {
         // Add tags
         if (addTags != null) {
@@ -383,7 +406,7 @@ public class TagGroupsMutation implements JsonSerializable {
         // Set tags
         if (setTags != null) {
             for (Map.Entry<String, Set<String>> entry : setTags.entrySet()) {
-                tagGroups.put(entry.getKey(), entry.getValue());
+                tagGroups.put(entry.getKey(), new HashSet<>(entry.getValue()));
             }
         }
     }
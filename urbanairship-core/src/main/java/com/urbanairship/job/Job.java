@@ -4,8 +4,11 @@ import com.urbanairship.AirshipComponent;
 import com.urbanairship.AirshipExecutors;
 import com.urbanairship.Logger;
 import com.urbanairship.UAirship;
+import com.urbanairship.util.Network;
 import com.urbanairship.util.UAStringUtil;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Executor;
 
 import androidx.annotation.NonNull;
@@ -67,6 +70,11 @@ class Job implements Runnable {
             return;
         }
 
+        if (JobBatch.isBatch(jobInfo)) {
+            runBatch(airship);
+            return;
+        }
+
         final AirshipComponent component = findAirshipComponent(airship, jobInfo.getAirshipComponentName());
         if (component == null) {
             Logger.error("JobDispatcher - Unavailable to find airship components for jobInfo: %s", jobInfo);
@@ -97,6 +105,86 @@ class Job implements Runnable {
         });
     }
 
+    /**
+     * Runs the due jobs in a batch in dependency order. The batch shares a single connectivity check,
+     * and any jobs that need to be retried are added back to the next batch.
+     *
+     * @param airship The airship instance.
+     */
+    @WorkerThread
+    private void runBatch(@NonNull UAirship airship) {
+        int batchId = jobInfo.getId();
+        JobDispatcher dispatcher = JobDispatcher.shared(UAirship.getApplicationContext());
+        List<JobInfo> dueJobs = dispatcher.onBatchStarted(batchId, JobBatch.parseJobs(jobInfo));
+
+        Logger.verbose("Job - Running batch of %s jobs", dueJobs.size());
+
+        if (!Network.isConnected()) {
+            Logger.debug("Job - Network unavailable, retrying batch.");
+            finishBatch(dispatcher, batchId, dueJobs);
+            return;
+        }
+
+        runBatchedJob(airship, dispatcher, batchId, dueJobs, 0, new ArrayList<JobInfo>());
+    }
+
+    /**
+     * Runs a batched job on the component's job executor. The next job is started once the job
+     * finishes, so the batch does not block the job executor while it runs.
+     *
+     * @param airship The airship instance.
+     * @param dispatcher The job dispatcher.
+     * @param batchId The batch job ID.
+     * @param batchedJobs The batched jobs.
+     * @param index The index of the job to run.
+     * @param retryJobs The jobs that need to be retried.
+     */
+    private void runBatchedJob(@NonNull final UAirship airship, @NonNull final JobDispatcher dispatcher,
+                               final int batchId, @NonNull final List<JobInfo> batchedJobs, final int index,
+                               @NonNull final List<JobInfo> retryJobs) {
+        if (index >= batchedJobs.size()) {
+            finishBatch(dispatcher, batchId, retryJobs);
+            return;
+        }
+
+        final JobInfo batchedJob = batchedJobs.get(index);
+        final AirshipComponent component = findAirshipComponent(airship, batchedJob.getAirshipComponentName());
+        if (component == null || !component.isComponentEnabled()) {
+            Logger.debug("JobDispatcher - Component unavailable or disabled. Dropping jobInfo: %s", batchedJob);
+            runBatchedJob(airship, dispatcher, batchId, batchedJobs, index + 1, retryJobs);
+            return;
+        }
+
+        component.getJobExecutor(batchedJob).execute(new Runnable() {
+            @Override
+            public void run() {
+                int result = component.onPerformJob(airship, batchedJob);
+                Logger.verbose("Job - Finished batched job: %s with result: %s", batchedJob, result);
+
+                if (result == JobInfo.JOB_RETRY) {
+                    retryJobs.add(batchedJob);
+                }
+
+                runBatchedJob(airship, dispatcher, batchId, batchedJobs, index + 1, retryJobs);
+            }
+        });
+    }
+
+    /**
+     * Finishes the batch.
+     *
+     * @param dispatcher The job dispatcher.
+     * @param batchId The batch job ID.
+     * @param retryJobs The jobs that need to be retried.
+     */
+    private void finishBatch(@NonNull JobDispatcher dispatcher, int batchId, @NonNull List<JobInfo> retryJobs) {
+        dispatcher.onBatchFinished(batchId, retryJobs);
+
+        if (callback != null) {
+            callback.onFinish(this, JobInfo.JOB_FINISHED);
+        }
+    }
+
     /**
      * Finds the {@link AirshipComponent}s for a given job.
      *
@@ -0,0 +1,231 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.job;
+
+import com.urbanairship.Logger;
+import com.urbanairship.json.JsonException;
+import com.urbanairship.json.JsonList;
+import com.urbanairship.json.JsonMap;
+import com.urbanairship.json.JsonValue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A set of pending network jobs that share a single scheduler wake-up. Jobs are keyed by
+ * their ID, matching the scheduler behavior where scheduling a job with an existing ID
+ * replaces the previous job. Each job keeps its own deadline, and the batch wakes up for the
+ * earliest one. Jobs that are due by then run together.
+ */
+class JobBatch {
+
+    /**
+     * Batch job action.
+     */
+    static final String ACTION_RUN_BATCH = "ACTION_RUN_BATCH";
+
+    /**
+     * Batch job extra that contains the batched jobs.
+     */
+    private static final String JOBS_KEY = "jobs";
+
+    /**
+     * Dependency order for known job IDs. The channel has to exist before tags, attributes,
+     * named user or inbox requests can be made against it. Unknown IDs run last.
+     */
+    private static final int[] DEPENDENCY_ORDER = new int[] {
+            JobInfo.CHANNEL_UPDATE_PUSH_TOKEN,
+            JobInfo.CHANNEL_UPDATE_REGISTRATION,
+            JobInfo.NAMED_USER_UPDATE_ID,
+            JobInfo.CHANNEL_UPDATE_TAG_GROUPS,
+            JobInfo.CHANNEL_UPDATE_ATTRIBUTES,
+            JobInfo.NAMED_USER_UPDATE_TAG_GROUPS,
+            JobInfo.RICH_PUSH_UPDATE_USER,
+            JobInfo.RICH_PUSH_SYNC_MESSAGE_STATE,
+            JobInfo.RICH_PUSH_UPDATE_MESSAGES,
+            JobInfo.REMOTE_DATA_REFRESH,
+            JobInfo.ANALYTICS_UPDATE_ADVERTISING_ID,
+            JobInfo.ANALYTICS_EVENT_UPLOAD
+    };
+
+    private static final Comparator<JobInfo> DEPENDENCY_COMPARATOR = new Comparator<JobInfo>() {
+        @Override
+        public int compare(@NonNull JobInfo lh, @NonNull JobInfo rh) {
+            return getDependencyRank(lh.getId()) - getDependencyRank(rh.getId());
+        }
+    };
+
+    private final Map<Integer, JobInfo> jobs = new LinkedHashMap<>();
+    private final Map<Integer, Long> deadlines = new HashMap<>();
+
+    /**
+     * Adds a job to the batch.
+     *
+     * @param jobInfo The job.
+     * @param deadline The time in milliseconds when the job is due.
+     * @return {@code true} if the job was new to the batch, {@code false} if it replaced a job with the same ID.
+     */
+    boolean add(@NonNull JobInfo jobInfo, long deadline) {
+        deadlines.put(jobInfo.getId(), deadline);
+        return jobs.put(jobInfo.getId(), jobInfo) == null;
+    }
+
+    /**
+     * Checks if the batch contains a job with the given ID.
+     *
+     * @param jobId The job ID.
+     * @return {@code true} if the batch contains the job, otherwise {@code false}.
+     */
+    boolean contains(int jobId) {
+        return jobs.containsKey(jobId);
+    }
+
+    /**
+     * Removes a job from the batch.
+     *
+     * @param jobId The job ID.
+     * @return {@code true} if a job was removed, otherwise {@code false}.
+     */
+    boolean remove(int jobId) {
+        deadlines.remove(jobId);
+        return jobs.remove(jobId) != null;
+    }
+
+    /**
+     * Removes and returns the jobs of a running batch that are due. Jobs that are not due yet
+     * are kept for the next batch. Jobs that have been replaced since the batch was scheduled
+     * are skipped, the replacement runs at its own deadline. Jobs that are not in the batch,
+     * for example after the app was restarted, are due.
+     *
+     * @param batchedJobs The jobs of the running batch.
+     * @param now The current time in milliseconds.
+     * @return The jobs to run.
+     */
+    @NonNull
+    List<JobInfo> removeDue(@NonNull Collection<JobInfo> batchedJobs, long now) {
+        List<JobInfo> due = new ArrayList<>();
+        for (JobInfo jobInfo : batchedJobs) {
+            JobInfo pending = jobs.get(jobInfo.getId());
+            if (pending == null) {
+                due.add(jobInfo);
+            } else if (pending.equals(jobInfo) && deadlines.get(jobInfo.getId()) <= now) {
+                remove(jobInfo.getId());
+                due.add(jobInfo);
+            }
+        }
+
+        return due;
+    }
+
+    /**
+     * Gets the earliest deadline of the batched jobs.
+     *
+     * @return The earliest deadline in milliseconds, or {@code Long.MAX_VALUE} if the batch is empty.
+     */
+    long getNextDeadline() {
+        long next = Long.MAX_VALUE;
+        for (Long deadline : deadlines.values()) {
+            next = Math.min(next, deadline);
+        }
+
+        return next;
+    }
+
+    /**
+     * Checks if the batch is empty.
+     *
+     * @return {@code true} if the batch is empty, otherwise {@code false}.
+     */
+    boolean isEmpty() {
+        return jobs.isEmpty();
+    }
+
+    /**
+     * Gets the batch size.
+     *
+     * @return The number of batched jobs.
+     */
+    int size() {
+        return jobs.size();
+    }
+
+    /**
+     * Creates the job info that will run the batch.
+     *
+     * @param batchId The batch job ID, either {@link JobInfo#JOB_BATCH} or {@link JobInfo#JOB_BATCH_ALTERNATE}.
+     * @param delayMs The delay in milliseconds.
+     * @return The batch job info.
+     */
+    @NonNull
+    JobInfo toJobInfo(@JobInfo.JobId int batchId, long delayMs) {
+        List<JsonValue> jobValues = new ArrayList<>();
+        boolean persistent = false;
+        for (JobInfo jobInfo : jobs.values()) {
+            jobValues.add(jobInfo.toJsonValue());
+            persistent |= jobInfo.isPersistent();
+        }
+
+        return JobInfo.newBuilder()
+                      .setAction(ACTION_RUN_BATCH)
+                      .setId(batchId)
+                      .setNetworkAccessRequired(true)
+                      .setPersistent(persistent)
+                      .setInitialDelay(delayMs, TimeUnit.MILLISECONDS)
+                      .setExtras(JsonMap.newBuilder()
+                                        .put(JOBS_KEY, new JsonList(jobValues))
+                                        .build())
+                      .build();
+    }
+
+    /**
+     * Checks if the job info runs a batch.
+     *
+     * @param jobInfo The job info.
+     * @return {@code true} if the job info is a batch, otherwise {@code false}.
+     */
+    static boolean isBatch(@NonNull JobInfo jobInfo) {
+        return ACTION_RUN_BATCH.equals(jobInfo.getAction())
+                && (jobInfo.getId() == JobInfo.JOB_BATCH || jobInfo.getId() == JobInfo.JOB_BATCH_ALTERNATE);
+    }
+
+    /**
+     * Parses the jobs from a batch job info.
+     *
+     * @param batchJobInfo The batch job info.
+     * @return The jobs sorted in dependency order.
+     */
+    @NonNull
+    static List<JobInfo> parseJobs(@NonNull JobInfo batchJobInfo) {
+        List<JobInfo> jobInfos = new ArrayList<>();
+        for (JsonValue value : batchJobInfo.getExtras().opt(JOBS_KEY).optList()) {
+            try {
+                jobInfos.add(JobInfo.fromJson(value));
+            } catch (JsonException e) {
+                Logger.error(e, "JobBatch - Failed to parse batched job: %s", value);
+            }
+        }
+
+        Collections.sort(jobInfos, DEPENDENCY_COMPARATOR);
+        return jobInfos;
+    }
+
+    private static int getDependencyRank(int jobId) {
+        for (int i = 0; i < DEPENDENCY_ORDER.length; i++) {
+            if (DEPENDENCY_ORDER[i] == jobId) {
+                return i;
+            }
+        }
+
+        return DEPENDENCY_ORDER.length;
+    }
+
+}
@@ -15,6 +15,12 @@ import com.urbanairship.Logger;
 import com.urbanairship.UAirship;
 import com.urbanairship.app.ActivityMonitor;
 import com.urbanairship.app.GlobalActivityMonitor;
+import com.urbanairship.util.Clock;
+
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -26,6 +32,11 @@ import androidx.annotation.VisibleForTesting;
  * it will be scheduled using either the AlarmManager or GcmNetworkManager. When a job is finally performed,
  * it will call {@link com.urbanairship.AirshipComponent#onPerformJob(UAirship, JobInfo)}
  * for the component the job specifies.
+ * <p>
+ * Network jobs that need to be scheduled are coalesced into a single batch job so they share one
+ * scheduler wake-up and connectivity check. The batch wakes up when the earliest job is due and runs
+ * the due jobs in dependency order. Batches alternate between two job IDs so scheduling the next batch
+ * never replaces a batch that is still running.
  *
  * @hide
  */
@@ -42,6 +53,18 @@ public class JobDispatcher {
      */
     private static final int DEFAULT_JOB_ID_START = 3000000;
 
+    /**
+     * Max initial delay for a network job to be coalesced. Jobs with longer delays are scheduled on their own.
+     */
+    private static final long MAX_COALESCED_DELAY_MS = 60000; // 1 minute.
+
+    /**
+     * Delay used when batched jobs need to be retried.
+     */
+    private static final long BATCH_RETRY_DELAY_MS = 30000; // 30 seconds.
+
+    private static final long HOUR_MS = 60 * 60 * 1000;
+
     private final Context context;
 
     @SuppressLint("StaticFieldLeak")
@@ -49,6 +72,13 @@ public class JobDispatcher {
 
     private final SchedulerFactory schedulerFactory;
     private final ActivityMonitor activityMonitor;
+    private final Clock clock;
+
+    private final Object batchLock = new Object();
+    private final JobBatch pendingBatch = new JobBatch();
+    private final LinkedList<Long> savedWakeUps = new LinkedList<>();
+    private final Set<Integer> runningBatchIds = new HashSet<>();
+    private int scheduledBatchId = JobInfo.JOB_BATCH;
 
     private Scheduler scheduler;
     private boolean isUsingFallbackScheduler = false;
@@ -79,9 +109,15 @@ public class JobDispatcher {
 
     @VisibleForTesting
     JobDispatcher(@NonNull Context context, SchedulerFactory schedulerFactory, ActivityMonitor activityMonitor) {
+        this(context, schedulerFactory, activityMonitor, Clock.DEFAULT_CLOCK);
+    }
+
+    @VisibleForTesting
+    JobDispatcher(@NonNull Context context, SchedulerFactory schedulerFactory, ActivityMonitor activityMonitor, @NonNull Clock clock) {
         this.context = context.getApplicationContext();
         this.schedulerFactory = schedulerFactory;
         this.activityMonitor = activityMonitor;
+        this.clock = clock;
     }
 
     /**
@@ -93,12 +129,18 @@ public class JobDispatcher {
         try {
 
             if (requiresScheduling(jobInfo)) {
-                getScheduler().schedule(context, jobInfo, getScheduleId(jobInfo.getId()));
+                if (isCoalescable(jobInfo)) {
+                    coalesce(jobInfo);
+                } else {
+                    removeFromBatch(jobInfo.getId());
+                    getScheduler().schedule(context, jobInfo, getScheduleId(jobInfo.getId()));
+                }
                 return;
             }
 
             // Otherwise start the service directly
             try {
+                removeFromBatch(jobInfo.getId());
                 getScheduler().cancel(context, jobInfo.getId());
                 context.startService(AirshipService.createIntent(context, jobInfo, null));
             } catch (SecurityException | IllegalStateException ex) {
@@ -138,6 +180,7 @@ public class JobDispatcher {
      */
     public void cancel(int jobId) {
         try {
+            removeFromBatch(jobId);
             getScheduler().cancel(context, getScheduleId(jobId));
         } catch (SchedulerException e) {
             Logger.error(e, "Scheduler failed to cancel job with id: %s", jobId);
@@ -148,6 +191,188 @@ public class JobDispatcher {
         }
     }
 
+    /**
+     * Gets the number of scheduler wake-ups that were saved by coalescing network jobs
+     * during the last hour.
+     *
+     * @return The number of saved wake-ups in the last hour.
+     */
+    public int getWakeUpsSavedPerHour() {
+        synchronized (batchLock) {
+            pruneSavedWakeUps();
+            return savedWakeUps.size();
+        }
+    }
+
+    /**
+     * Gets the time until the pending batch wakes up. A network job dispatched with this delay
+     * rides along on the same wake-up without holding the batch back.
+     *
+     * @return The time in milliseconds until the pending batch wakes up, or -1 if no batch is pending.
+     */
+    public long getPendingBatchDelay() {
+        synchronized (batchLock) {
+            if (pendingBatch.isEmpty()) {
+                return -1;
+            }
+
+            return Math.max(0, pendingBatch.getNextDeadline() - clock.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Called when a batch starts running. Removes the due jobs from the pending batch and
+     * schedules the rest under the other batch ID.
+     *
+     * @param batchId The batch job ID.
+     * @param jobInfos The batched jobs.
+     * @return The jobs that are due and should run now.
+     */
+    @NonNull
+    List<JobInfo> onBatchStarted(int batchId, @NonNull List<JobInfo> jobInfos) {
+        synchronized (batchLock) {
+            runningBatchIds.add(batchId);
+
+            List<JobInfo> dueJobs = pendingBatch.removeDue(jobInfos, clock.currentTimeMillis());
+            if (!pendingBatch.isEmpty()) {
+                scheduleBatchWithFallback();
+            }
+
+            return dueJobs;
+        }
+    }
+
+    /**
+     * Called when a batch is finished. Adds jobs that need to be retried back to the pending batch.
+     *
+     * @param batchId The batch job ID.
+     * @param retryJobs The jobs to retry.
+     */
+    void onBatchFinished(int batchId, @NonNull List<JobInfo> retryJobs) {
+        synchronized (batchLock) {
+            long deadline = clock.currentTimeMillis() + BATCH_RETRY_DELAY_MS;
+            for (JobInfo jobInfo : retryJobs) {
+                // Keep any newer job that was dispatched while the batch was running
+                if (!pendingBatch.contains(jobInfo.getId())) {
+                    pendingBatch.add(jobInfo, deadline);
+                }
+            }
+
+            // Schedule before the batch is marked finished so the batch that is still
+            // running is not replaced
+            if (!pendingBatch.isEmpty()) {
+                scheduleBatchWithFallback();
+            }
+
+            runningBatchIds.remove(batchId);
+        }
+    }
+
+    /**
+     * Checks if the job can be coalesced into the pending batch.
+     *
+     * @param jobInfo The job info.
+     * @return {@code true} if the job can be coalesced, otherwise {@code false}.
+     */
+    private boolean isCoalescable(@NonNull JobInfo jobInfo) {
+        return jobInfo.isNetworkAccessRequired()
+                && jobInfo.getInitialDelay() <= MAX_COALESCED_DELAY_MS
+                && !JobBatch.isBatch(jobInfo);
+    }
+
+    /**
+     * Adds the job to the pending batch and reschedules the batch.
+     *
+     * @param jobInfo The job info.
+     * @throws SchedulerException if the scheduler fails to schedule the batch.
+     */
+    private void coalesce(@NonNull JobInfo jobInfo) throws SchedulerException {
+        // Replace the job if it was scheduled on its own
+        getScheduler().cancel(context, getScheduleId(jobInfo.getId()));
+
+        synchronized (batchLock) {
+            long now = clock.currentTimeMillis();
+            boolean hasPendingBatch = !pendingBatch.isEmpty();
+
+            if (pendingBatch.add(jobInfo, now + jobInfo.getInitialDelay()) && hasPendingBatch) {
+                savedWakeUps.add(now);
+                pruneSavedWakeUps();
+            }
+
+            Logger.verbose("JobDispatcher - Coalesced job: %s, batch size: %s", jobInfo, pendingBatch.size());
+            scheduleBatch();
+        }
+    }
+
+    /**
+     * Removes a job from the pending batch.
+     *
+     * @param jobId The job ID.
+     * @throws SchedulerException if the scheduler fails to update the batch.
+     */
+    private void removeFromBatch(int jobId) throws SchedulerException {
+        synchronized (batchLock) {
+            if (!pendingBatch.remove(jobId)) {
+                return;
+            }
+
+            if (pendingBatch.isEmpty()) {
+                if (!runningBatchIds.contains(scheduledBatchId)) {
+                    getScheduler().cancel(context, getScheduleId(scheduledBatchId));
+                }
+            } else {
+                scheduleBatch();
+            }
+        }
+    }
+
+    /**
+     * Schedules the pending batch to wake up when the earliest job is due. Replaces any previously
+     * scheduled batch, unless that batch is running, in which case the other batch ID is used.
+     *
+     * @throws SchedulerException if the scheduler fails to schedule the batch.
+     */
+    private void scheduleBatch() throws SchedulerException {
+        if (runningBatchIds.contains(scheduledBatchId)) {
+            int otherBatchId = scheduledBatchId == JobInfo.JOB_BATCH ? JobInfo.JOB_BATCH_ALTERNATE : JobInfo.JOB_BATCH;
+            if (runningBatchIds.contains(otherBatchId)) {
+                // Both batches are running, the batch is scheduled once one of them finishes
+                return;
+            }
+
+            scheduledBatchId = otherBatchId;
+        }
+
+        long delay = Math.max(0, pendingBatch.getNextDeadline() - clock.currentTimeMillis());
+        JobInfo batchJobInfo = pendingBatch.toJobInfo(scheduledBatchId, delay);
+        getScheduler().schedule(context, batchJobInfo, getScheduleId(scheduledBatchId));
+    }
+
+    /**
+     * Schedules the pending batch, falling back to a different scheduler on failure.
+     */
+    private void scheduleBatchWithFallback() {
+        try {
+            scheduleBatch();
+        } catch (SchedulerException e) {
+            Logger.error(e, "Scheduler failed to schedule job batch");
+
+            if (useFallbackScheduler()) {
+                scheduleBatchWithFallback();
+            }
+        }
+    }
+
+    /**
+     * Drops saved wake-up timestamps that are older than an hour.
+     */
+    private void pruneSavedWakeUps() {
+        long hourAgo = clock.currentTimeMillis() - HOUR_MS;
+        while (!savedWakeUps.isEmpty() && savedWakeUps.getFirst() < hourAgo) {
+            savedWakeUps.removeFirst();
+        }
+    }
+
     /**
      * Returns the scheduler.
      *
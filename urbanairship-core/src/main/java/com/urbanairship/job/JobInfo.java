@@ -12,6 +12,7 @@ import com.urbanairship.AirshipComponent;
 import com.urbanairship.Logger;
 import com.urbanairship.json.JsonException;
 import com.urbanairship.json.JsonMap;
+import com.urbanairship.json.JsonSerializable;
 import com.urbanairship.json.JsonValue;
 import com.urbanairship.util.Checks;
 
@@ -34,12 +35,13 @@ import static java.lang.annotation.RetentionPolicy.SOURCE;
  * @hide
  */
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
-public class JobInfo {
+public class JobInfo implements JsonSerializable {
 
     @IntDef({ ANALYTICS_EVENT_UPLOAD, ANALYTICS_UPDATE_ADVERTISING_ID, NAMED_USER_UPDATE_ID,
             NAMED_USER_UPDATE_TAG_GROUPS, CHANNEL_UPDATE_PUSH_TOKEN, CHANNEL_UPDATE_REGISTRATION,
             CHANNEL_UPDATE_TAG_GROUPS, RICH_PUSH_UPDATE_USER, RICH_PUSH_UPDATE_MESSAGES,
-            RICH_PUSH_SYNC_MESSAGE_STATE, REMOTE_DATA_REFRESH, CHANNEL_UPDATE_ATTRIBUTES})
+            RICH_PUSH_SYNC_MESSAGE_STATE, REMOTE_DATA_REFRESH, CHANNEL_UPDATE_ATTRIBUTES, JOB_BATCH,
+            JOB_BATCH_ALTERNATE })
     @Retention(SOURCE)
     public @interface JobId {}
 
@@ -60,6 +62,9 @@ public class JobInfo {
 
     public static final int REMOTE_DATA_REFRESH = 10;
 
+    public static final int JOB_BATCH = 12;
+    public static final int JOB_BATCH_ALTERNATE = 13;
+
     private static final String EXTRA_AIRSHIP_COMPONENT = "EXTRA_AIRSHIP_COMPONENT";
     private static final String EXTRA_JOB_EXTRAS = "EXTRA_JOB_EXTRAS";
     private static final String EXTRA_INITIAL_DELAY = "EXTRA_INITIAL_DELAY";
@@ -68,6 +73,15 @@ public class JobInfo {
     private static final String EXTRA_IS_NETWORK_ACCESS_REQUIRED = "EXTRA_IS_NETWORK_ACCESS_REQUIRED";
     private static final String EXTRA_PERSISTENT = "EXTRA_PERSISTENT";
 
+    // JSON keys
+    private static final String AIRSHIP_COMPONENT_KEY = "airship_component";
+    private static final String EXTRAS_KEY = "extras";
+    private static final String INITIAL_DELAY_KEY = "initial_delay";
+    private static final String ACTION_KEY = "action";
+    private static final String ID_KEY = "id";
+    private static final String NETWORK_ACCESS_REQUIRED_KEY = "network_access_required";
+    private static final String PERSISTENT_KEY = "persistent";
+
     // ID generation
     private static final String SHARED_PREFERENCES_FILE = "com.urbanairship.job.ids";
     private static final String NEXT_GENERATED_ID_KEY = "next_generated_id";
@@ -295,6 +309,93 @@ public class JobInfo {
         return null;
     }
 
+    @NonNull
+    @Override
+    public JsonValue toJsonValue() {
+        return JsonMap.newBuilder()
+                      .put(AIRSHIP_COMPONENT_KEY, airshipComponentName)
+                      .put(ACTION_KEY, action)
+                      .put(ID_KEY, id)
+                      .put(EXTRAS_KEY, extras)
+                      .put(NETWORK_ACCESS_REQUIRED_KEY, isNetworkAccessRequired)
+                      .put(INITIAL_DELAY_KEY, initialDelay)
+                      .put(PERSISTENT_KEY, persistent)
+                      .build()
+                      .toJsonValue();
+    }
+
+    /**
+     * Parses a jobInfo from JSON.
+     *
+     * @param jsonValue The JSON value.
+     * @return The parsed jobInfo.
+     * @throws JsonException If the JSON is invalid.
+     */
+    @NonNull
+    static JobInfo fromJson(@NonNull JsonValue jsonValue) throws JsonException {
+        JsonMap jsonMap = jsonValue.optMap();
+        if (!jsonMap.opt(ACTION_KEY).isString()) {
+            throw new JsonException("Invalid job: " + jsonValue);
+        }
+
+        JobInfo.Builder builder = new Builder()
+                .setAction(jsonMap.opt(ACTION_KEY).getString())
+                .setInitialDelay(jsonMap.opt(INITIAL_DELAY_KEY).getLong(0), TimeUnit.MILLISECONDS)
+                .setExtras(jsonMap.opt(EXTRAS_KEY).optMap())
+                .setAirshipComponent(jsonMap.opt(AIRSHIP_COMPONENT_KEY).getString())
+                .setNetworkAccessRequired(jsonMap.opt(NETWORK_ACCESS_REQUIRED_KEY).getBoolean(false))
+                .setPersistent(jsonMap.opt(PERSISTENT_KEY).getBoolean(false));
+
+        //noinspection WrongConstant
+        builder.setId(jsonMap.opt(ID_KEY).getInt(0));
+
+        return builder.build();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        JobInfo jobInfo = (JobInfo) o;
+
+        if (isNetworkAccessRequired != jobInfo.isNetworkAccessRequired) {
+            return false;
+        }
+        if (initialDelay != jobInfo.initialDelay) {
+            return false;
+        }
+        if (persistent != jobInfo.persistent) {
+            return false;
+        }
+        if (id != jobInfo.id) {
+            return false;
+        }
+        if (!extras.equals(jobInfo.extras)) {
+            return false;
+        }
+        if (!action.equals(jobInfo.action)) {
+            return false;
+        }
+        return airshipComponentName != null ? airshipComponentName.equals(jobInfo.airshipComponentName) : jobInfo.airshipComponentName == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = extras.hashCode();
+        result = 31 * result + action.hashCode();
+        result = 31 * result + (airshipComponentName != null ? airshipComponentName.hashCode() : 0);
+        result = 31 * result + (isNetworkAccessRequired ? 1 : 0);
+        result = 31 * result + (int) (initialDelay ^ (initialDelay >>> 32));
+        result = 31 * result + (persistent ? 1 : 0);
+        result = 31 * result + id;
+        return result;
+    }
+
     @NonNull
     @Override
     public String toString() {
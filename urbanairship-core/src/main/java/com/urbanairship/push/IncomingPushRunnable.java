@@ -2,11 +2,13 @@ package com.urbanairship.push;
 
 import android.Manifest;
 import android.app.Notification;
+import android.app.NotificationManager;
 import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Build;
 import android.os.Bundle;
+import android.service.notification.StatusBarNotification;
 
 import com.urbanairship.Autopilot;
 import com.urbanairship.Logger;
@@ -26,6 +28,7 @@ import com.urbanairship.push.notifications.NotificationProvider;
 import com.urbanairship.push.notifications.NotificationResult;
 import com.urbanairship.util.Checks;
 import com.urbanairship.util.ManifestUtils;
+import com.urbanairship.util.UAStringUtil;
 
 import java.util.Map;
 import java.util.UUID;
@@ -46,6 +49,10 @@ class IncomingPushRunnable implements Runnable {
     private static final long AIRSHIP_WAIT_TIME_MS = 5000; // 5 seconds.
     private static final long LONG_AIRSHIP_WAIT_TIME_MS = 10000; // 10 seconds.
 
+    static final String EXTRA_NOTIFICATION_ID = "notification_id";
+    static final String EXTRA_NOTIFICATION_TAG = "notification_tag";
+    static final String EXTRA_NOTIFICATION_CHANNEL_ID = "notification_channel_id";
+
     private final Context context;
     private final PushMessage message;
     private final String providerClass;
@@ -53,6 +60,9 @@ class IncomingPushRunnable implements Runnable {
     private final boolean isLongRunning;
     private final boolean isProcessed;
     private final JobDispatcher jobDispatcher;
+    private final NotificationArguments mediaUpdateArguments;
+    private final PushTrace trace;
+    private boolean isDelivered;
 
     /**
      * Default constructor.
@@ -67,6 +77,8 @@ class IncomingPushRunnable implements Runnable {
         this.isProcessed = builder.isProcessed;
         this.notificationManager = builder.notificationManager == null ? NotificationManagerCompat.from(context) : builder.notificationManager;
         this.jobDispatcher = builder.jobDispatcher == null ? JobDispatcher.shared(context) : builder.jobDispatcher;
+        this.mediaUpdateArguments = builder.mediaUpdateArguments;
+        this.trace = new PushTrace(message);
     }
 
     @Override
@@ -87,11 +99,30 @@ class IncomingPushRunnable implements Runnable {
         }
 
         if (checkProvider(airship, providerClass)) {
-            // If we've already processed the push, proceed to notification display
-            if (isProcessed) {
-                postProcessPush(airship);
-            } else {
-                processPush(airship);
+            if (mediaUpdateArguments != null) {
+                try {
+                    updateNotificationMedia(airship, mediaUpdateArguments);
+                } finally {
+                    airship.getPushManager().getNotificationMediaLoader().release(message);
+                }
+                return;
+            }
+
+            try {
+                // If we've already processed the push, proceed to notification display
+                if (isProcessed) {
+                    postProcessPush(airship);
+                } else {
+                    processPush(airship);
+                }
+            } finally {
+                // Media that is still loading for a notification update is kept until it lands
+                airship.getPushManager().getNotificationMediaLoader().release(message);
+                // Only delivered pushes count towards the total, dropped and rescheduled pushes would skew it
+                if (isDelivered) {
+                    trace.finish();
+                }
+                airship.getPushManager().onPushTraced(trace);
             }
         }
     }
@@ -114,8 +145,13 @@ class IncomingPushRunnable implements Runnable {
             return;
         }
 
-        if (!airship.getPushManager().isUniqueCanonicalId(message.getCanonicalPushId())) {
-            Logger.debug("Received a duplicate push with canonical ID: %s", message.getCanonicalPushId());
+        // Fallback to the send ID to catch the same push delivered by more than one provider
+        String pushId = UAStringUtil.isEmpty(message.getCanonicalPushId()) ? message.getSendId() : message.getCanonicalPushId();
+        long dedupeStart = PushTrace.now();
+        boolean isUnique = airship.getPushManager().isUniqueCanonicalId(pushId);
+        trace.record(PushTrace.STAGE_DEDUPE, dedupeStart);
+        if (!isUnique) {
+            Logger.debug("Received a duplicate push with ID: %s", pushId);
             return;
         }
 
@@ -129,8 +165,15 @@ class IncomingPushRunnable implements Runnable {
             return;
         }
 
+        // Start loading the notification media while the actions run
+        if (airship.getPushManager().isOptIn()) {
+            airship.getPushManager().getNotificationMediaLoader().prefetch(message);
+        }
+
         // Run the push actions
+        long actionsStart = PushTrace.now();
         runActions();
+        trace.record(PushTrace.STAGE_ACTIONS, actionsStart);
 
         // Set last received metadata
         airship.getPushManager().setLastReceivedMetadata(message.getMetadata());
@@ -149,7 +192,7 @@ class IncomingPushRunnable implements Runnable {
         if (!airship.getPushManager().isOptIn()) {
             Logger.info("User notifications opted out. Unable to display notification for message: %s", message);
             notifyPushReceived(airship, false);
-            airship.getAnalytics().addEvent(new PushArrivedEvent(message));
+            addArrivedEvent(airship, new PushArrivedEvent(message));
             return;
         }
 
@@ -158,18 +201,21 @@ class IncomingPushRunnable implements Runnable {
         if (provider == null) {
             Logger.error("NotificationProvider is null. Unable to display notification for message: %s", message);
             notifyPushReceived(airship, false);
-            airship.getAnalytics().addEvent(new PushArrivedEvent(message));
+            addArrivedEvent(airship, new PushArrivedEvent(message));
             return;
         }
 
         NotificationArguments arguments;
+        long argumentsStart = PushTrace.now();
         try {
             arguments = provider.onCreateNotificationArguments(context, message);
         } catch (Exception e) {
             Logger.error(e, "Failed to generate notification arguments for message. Skipping.");
             notifyPushReceived(airship, false);
-            airship.getAnalytics().addEvent(new PushArrivedEvent(message));
+            addArrivedEvent(airship, new PushArrivedEvent(message));
             return;
+        } finally {
+            trace.record(PushTrace.STAGE_ARGUMENTS, argumentsStart);
         }
 
         if (!isLongRunning && arguments.getRequiresLongRunningTask()) {
@@ -179,11 +225,14 @@ class IncomingPushRunnable implements Runnable {
         }
 
         NotificationResult result;
+        long buildStart = PushTrace.now();
         try {
             result = provider.onCreateNotification(context, arguments);
         } catch (Exception e) {
             Logger.error(e, "Cancelling notification display to create and display notification.");
             result = NotificationResult.cancel();
+        } finally {
+            trace.record(PushTrace.STAGE_BUILD, buildStart);
         }
 
         Logger.debug("IncomingPushRunnable - Received result status %s for push message: %s", result.getStatus(), message);
@@ -193,28 +242,18 @@ class IncomingPushRunnable implements Runnable {
                 Notification notification = result.getNotification();
                 Checks.checkNotNull(notification, "Invalid notification result. Missing notification.");
 
+                long channelStart = PushTrace.now();
                 NotificationChannelCompat notificationChannel = getNotificationChannel(airship, notification, arguments);
+                trace.record(PushTrace.STAGE_CHANNEL, channelStart);
 
-                // Apply legacy settings
-                if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
-                    if (notificationChannel != null) {
-                        NotificationChannelUtils.applyLegacySettings(notification, notificationChannel);
-                    } else {
-                        applyDeprecatedSettings(airship, notification);
-                    }
-                }
-
-                // Notify the provider the notification was created
-                provider.onNotificationCreated(context, notification, arguments);
-
-                // Post the notification
-                boolean posted = postNotification(notification, arguments);
+                boolean posted = displayNotification(airship, provider, notification, notificationChannel, arguments);
 
-                airship.getAnalytics().addEvent(new PushArrivedEvent(message, notificationChannel));
+                addArrivedEvent(airship, new PushArrivedEvent(message, notificationChannel));
 
                 if (posted) {
                     notifyPushReceived(airship, true);
                     notifyNotificationPosted(airship, arguments);
+                    scheduleMediaUpdate(airship, arguments);
                 } else {
                     notifyPushReceived(airship, false);
                 }
@@ -222,7 +261,7 @@ class IncomingPushRunnable implements Runnable {
                 break;
 
             case NotificationResult.CANCEL:
-                airship.getAnalytics().addEvent(new PushArrivedEvent(message));
+                addArrivedEvent(airship, new PushArrivedEvent(message));
                 notifyPushReceived(airship, false);
                 break;
 
@@ -233,6 +272,154 @@ class IncomingPushRunnable implements Runnable {
         }
     }
 
+    /**
+     * Applies the legacy settings, notifies the provider the notification was created and posts
+     * the notification.
+     *
+     * @param airship The airship instance.
+     * @param provider The notification provider.
+     * @param notification The notification.
+     * @param notificationChannel The notification channel, or null if it was not found.
+     * @param arguments The notification arguments.
+     * @return {@code true} if the notification was posted, otherwise {@code false}.
+     */
+    private boolean displayNotification(@NonNull UAirship airship,
+                                        @NonNull NotificationProvider provider,
+                                        @NonNull Notification notification,
+                                        @Nullable NotificationChannelCompat notificationChannel,
+                                        @NonNull NotificationArguments arguments) {
+        // Apply legacy settings
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+            if (notificationChannel != null) {
+                NotificationChannelUtils.applyLegacySettings(notification, notificationChannel);
+            } else {
+                applyDeprecatedSettings(airship, notification);
+            }
+        }
+
+        // Notify the provider the notification was created
+        provider.onNotificationCreated(context, notification, arguments);
+
+        // Post the notification
+        long postStart = PushTrace.now();
+        boolean posted = postNotification(notification, arguments);
+        trace.record(PushTrace.STAGE_POST, postStart);
+        return posted;
+    }
+
+    /**
+     * Schedules a job to update the posted notification in place if media missed the deadline
+     * and is still loading.
+     *
+     * @param airship The airship instance.
+     * @param arguments The notification arguments.
+     */
+    private void scheduleMediaUpdate(@NonNull UAirship airship, @NonNull NotificationArguments arguments) {
+        if (!airship.getPushManager().getNotificationMediaLoader().hasPendingMedia(message)) {
+            return;
+        }
+
+        JobInfo jobInfo = JobInfo.newBuilder()
+                                 .setAction(PushManager.ACTION_UPDATE_NOTIFICATION_MEDIA)
+                                 .generateUniqueId(context)
+                                 .setAirshipComponent(PushManager.class)
+                                 .setExtras(JsonMap.newBuilder()
+                                                   .putOpt(EXTRA_PUSH, message)
+                                                   .put(EXTRA_PROVIDER_CLASS, providerClass)
+                                                   .put(EXTRA_NOTIFICATION_ID, arguments.getNotificationId())
+                                                   .put(EXTRA_NOTIFICATION_TAG, arguments.getNotificationTag())
+                                                   .put(EXTRA_NOTIFICATION_CHANNEL_ID, arguments.getNotificationChannelId())
+                                                   .build())
+                                 .build();
+
+        jobDispatcher.dispatch(jobInfo);
+    }
+
+    /**
+     * Updates the posted notification in place once the media that missed the deadline loads.
+     *
+     * @param airship The airship instance.
+     * @param arguments The arguments the notification was posted with.
+     */
+    private void updateNotificationMedia(@NonNull UAirship airship, @NonNull NotificationArguments arguments) {
+        if (!airship.getPushManager().getNotificationMediaLoader().awaitMedia(message)) {
+            Logger.debug("Notification media failed to load, skipping update for message: %s", message);
+            return;
+        }
+
+        // Avoid bringing back a notification that was dismissed while the media was loading
+        if (!isNotificationActive(arguments)) {
+            Logger.debug("Notification no longer active, skipping media update for message: %s", message);
+            return;
+        }
+
+        NotificationProvider provider = getNotificationProvider(airship);
+        if (provider == null) {
+            return;
+        }
+
+        NotificationResult result;
+        try {
+            result = provider.onCreateNotification(context, arguments);
+        } catch (Exception e) {
+            Logger.error(e, "Failed to update notification with loaded media.");
+            return;
+        }
+
+        Notification notification = result.getNotification();
+        if (result.getStatus() != NotificationResult.OK || notification == null) {
+            return;
+        }
+
+        // Update in place without alerting again
+        notification.flags |= Notification.FLAG_ONLY_ALERT_ONCE;
+        Logger.debug("Updating notification with loaded media for message: %s", message);
+        displayNotification(airship, provider, notification, getNotificationChannel(airship, notification, arguments), arguments);
+    }
+
+    /**
+     * Checks if the notification is still displayed. Active notifications are only available on
+     * Android M and newer, older versions are treated as not active.
+     *
+     * @param arguments The notification arguments.
+     * @return {@code true} if the notification is active, otherwise {@code false}.
+     */
+    private boolean isNotificationActive(@NonNull NotificationArguments arguments) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
+            return false;
+        }
+
+        NotificationManager manager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+        if (manager == null) {
+            return false;
+        }
+
+        try {
+            for (StatusBarNotification statusBarNotification : manager.getActiveNotifications()) {
+                if (statusBarNotification.getId() == arguments.getNotificationId()
+                        && UAStringUtil.equals(statusBarNotification.getTag(), arguments.getNotificationTag())) {
+                    return true;
+                }
+            }
+        } catch (Exception e) {
+            Logger.error(e, "Unable to get active notifications.");
+        }
+
+        return false;
+    }
+
+    /**
+     * Adds the push arrived event.
+     *
+     * @param airship The airship instance.
+     * @param event The push arrived event.
+     */
+    private void addArrivedEvent(@NonNull UAirship airship, @NonNull PushArrivedEvent event) {
+        long start = PushTrace.now();
+        airship.getAnalytics().addEvent(event);
+        trace.record(PushTrace.STAGE_ANALYTICS, start);
+    }
+
     @Nullable
     private NotificationProvider getNotificationProvider(UAirship airship) {
         if (message.isAccengagePush()) {
@@ -330,6 +517,7 @@ class IncomingPushRunnable implements Runnable {
     }
 
     private void notifyPushReceived(UAirship airship, boolean notificationPosted) {
+        isDelivered = true;
         for (PushListener listener : airship.getPushManager().getPushListeners()) {
             listener.onPushReceived(message, notificationPosted);
         }
@@ -424,6 +612,7 @@ class IncomingPushRunnable implements Runnable {
         private boolean isProcessed;
         private NotificationManagerCompat notificationManager;
         private JobDispatcher jobDispatcher;
+        private NotificationArguments mediaUpdateArguments;
 
         /**
          * Default constructor.
@@ -508,6 +697,19 @@ class IncomingPushRunnable implements Runnable {
             return this;
         }
 
+        /**
+         * Sets the arguments of a posted notification to update in place once its media loads.
+         * If set, the runnable only updates the notification.
+         *
+         * @param arguments The arguments the notification was posted with.
+         * @return The builder instance.
+         */
+        @NonNull
+        Builder setMediaUpdateArguments(@NonNull NotificationArguments arguments) {
+            this.mediaUpdateArguments = arguments;
+            return this;
+        }
+
         /**
          * Builds the runnable.
          *
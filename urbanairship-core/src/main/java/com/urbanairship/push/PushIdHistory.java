@@ -0,0 +1,302 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.push;
+
+import com.urbanairship.Logger;
+import com.urbanairship.PreferenceDataStore;
+import com.urbanairship.json.JsonException;
+import com.urbanairship.json.JsonList;
+import com.urbanairship.json.JsonMap;
+import com.urbanairship.json.JsonValue;
+import com.urbanairship.util.Clock;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+/**
+ * History of received push IDs used to drop duplicate pushes.
+ * <p>
+ * IDs are kept in a hash set for constant time lookups and grouped into a ring of time buckets
+ * that together cover the TTL. Expiring IDs drops whole buckets, and each bucket is persisted under
+ * its own key so recording an ID only rewrites the current bucket. The history holds at most
+ * {@code maxIds} IDs, evicting the oldest first.
+ * <p>
+ * The history is exact rather than probabilistic. At the bounded capacity a hash set is cheap,
+ * and a Bloom filter false positive would drop a push that was never delivered.
+ */
+class PushIdHistory {
+
+    /**
+     * Number of buckets in the ring.
+     */
+    static final int BUCKET_COUNT = 24;
+
+    /**
+     * Default max amount of IDs to remember.
+     */
+    static final int DEFAULT_MAX_IDS = 5000;
+
+    /**
+     * Key prefix for the persisted buckets. The key is suffixed with the bucket's ring index.
+     */
+    private static final String BUCKET_KEY_PREFIX = "com.urbanairship.push.PUSH_ID_HISTORY_";
+
+    /**
+     * Key used by previous versions to store the last 10 canonical IDs.
+     */
+    private static final String LEGACY_CANONICAL_IDS_KEY = "com.urbanairship.push.LAST_CANONICAL_IDS";
+
+    private static final String BUCKET_NUMBER_KEY = "bucket";
+    private static final String IDS_KEY = "ids";
+
+    private final PreferenceDataStore dataStore;
+    private final Clock clock;
+    private final long bucketDurationMs;
+    private final int maxIds;
+
+    private final Bucket[] buckets = new Bucket[BUCKET_COUNT];
+    private final Set<String> ids = new HashSet<>();
+    private boolean isLoaded;
+
+    /**
+     * Default constructor.
+     *
+     * @param dataStore The preference data store.
+     * @param ttlMs How long an ID is remembered in milliseconds.
+     */
+    PushIdHistory(@NonNull PreferenceDataStore dataStore, long ttlMs) {
+        this(dataStore, ttlMs, DEFAULT_MAX_IDS, Clock.DEFAULT_CLOCK);
+    }
+
+    @VisibleForTesting
+    PushIdHistory(@NonNull PreferenceDataStore dataStore, long ttlMs, int maxIds, @NonNull Clock clock) {
+        this.dataStore = dataStore;
+        this.bucketDurationMs = Math.max(1, ttlMs / BUCKET_COUNT);
+        this.maxIds = Math.max(1, maxIds);
+        this.clock = clock;
+    }
+
+    /**
+     * Records the ID if it has not been seen within the TTL.
+     *
+     * @param id The push ID.
+     * @return {@code true} if the ID was added, {@code false} if the ID was already in the history.
+     */
+    synchronized boolean add(@NonNull String id) {
+        long bucketNumber = clock.currentTimeMillis() / bucketDurationMs;
+
+        load(bucketNumber);
+        expire(bucketNumber);
+
+        if (ids.contains(id)) {
+            return false;
+        }
+
+        while (ids.size() >= maxIds) {
+            evictOldest();
+        }
+
+        int index = getIndex(bucketNumber);
+        getBucket(bucketNumber).ids.add(id);
+        ids.add(id);
+        save(index);
+        return true;
+    }
+
+    /**
+     * Gets the number of remembered IDs.
+     *
+     * @return The number of IDs.
+     */
+    @VisibleForTesting
+    synchronized int size() {
+        load(clock.currentTimeMillis() / bucketDurationMs);
+        return ids.size();
+    }
+
+    /**
+     * Drops buckets that are older than the TTL.
+     *
+     * @param bucketNumber The current bucket number.
+     */
+    private void expire(long bucketNumber) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            Bucket bucket = buckets[i];
+            if (bucket != null && bucket.number <= bucketNumber - BUCKET_COUNT) {
+                removeIds(bucket);
+                buckets[i] = null;
+                dataStore.remove(BUCKET_KEY_PREFIX + i);
+            }
+        }
+    }
+
+    /**
+     * Evicts the oldest ID.
+     */
+    private void evictOldest() {
+        int oldestIndex = -1;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (buckets[i] != null && (oldestIndex == -1 || buckets[i].number < buckets[oldestIndex].number)) {
+                oldestIndex = i;
+            }
+        }
+
+        if (oldestIndex == -1) {
+            ids.clear();
+            return;
+        }
+
+        Bucket bucket = buckets[oldestIndex];
+        String evicted = bucket.ids.poll();
+        if (evicted != null) {
+            ids.remove(evicted);
+        }
+
+        if (bucket.ids.isEmpty()) {
+            buckets[oldestIndex] = null;
+        }
+
+        save(oldestIndex);
+    }
+
+    /**
+     * Loads the persisted buckets and migrates the legacy canonical ID list.
+     *
+     * @param bucketNumber The current bucket number.
+     */
+    private void load(long bucketNumber) {
+        if (isLoaded) {
+            return;
+        }
+
+        isLoaded = true;
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            Bucket bucket = Bucket.fromJson(dataStore.getJsonValue(BUCKET_KEY_PREFIX + i));
+            if (bucket == null || getIndex(bucket.number) != i) {
+                continue;
+            }
+
+            buckets[i] = bucket;
+            ids.addAll(bucket.ids);
+        }
+
+        String legacyIds = dataStore.getString(LEGACY_CANONICAL_IDS_KEY, null);
+        if (legacyIds == null) {
+            return;
+        }
+
+        try {
+            int index = getIndex(bucketNumber);
+            for (JsonValue value : JsonValue.parseString(legacyIds).optList()) {
+                String id = value.getString();
+                if (id == null || ids.contains(id)) {
+                    continue;
+                }
+
+                getBucket(bucketNumber).ids.add(id);
+                ids.add(id);
+            }
+            save(index);
+        } catch (JsonException e) {
+            Logger.debug(e, "PushIdHistory - Unable to parse canonical IDs.");
+        }
+
+        dataStore.remove(LEGACY_CANONICAL_IDS_KEY);
+    }
+
+    /**
+     * Gets the bucket for the bucket number, replacing any bucket left in its ring slot.
+     *
+     * @param bucketNumber The bucket number.
+     * @return The bucket.
+     */
+    @NonNull
+    private Bucket getBucket(long bucketNumber) {
+        int index = getIndex(bucketNumber);
+        Bucket bucket = buckets[index];
+        if (bucket != null && bucket.number == bucketNumber) {
+            return bucket;
+        }
+
+        if (bucket != null) {
+            removeIds(bucket);
+        }
+
+        bucket = new Bucket(bucketNumber);
+        buckets[index] = bucket;
+        return bucket;
+    }
+
+    private void removeIds(@NonNull Bucket bucket) {
+        for (String id : bucket.ids) {
+            ids.remove(id);
+        }
+    }
+
+    private void save(int index) {
+        Bucket bucket = buckets[index];
+        if (bucket == null) {
+            dataStore.remove(BUCKET_KEY_PREFIX + index);
+        } else {
+            dataStore.put(BUCKET_KEY_PREFIX + index, bucket.toJsonValue());
+        }
+    }
+
+    private static int getIndex(long bucketNumber) {
+        return (int) (bucketNumber % BUCKET_COUNT);
+    }
+
+    /**
+     * IDs received within a single bucket duration, in the order they were received.
+     */
+    private static class Bucket {
+
+        private final long number;
+        private final ArrayDeque<String> ids = new ArrayDeque<>();
+
+        Bucket(long number) {
+            this.number = number;
+        }
+
+        @NonNull
+        JsonValue toJsonValue() {
+            List<JsonValue> values = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                values.add(JsonValue.wrap(id));
+            }
+
+            return JsonMap.newBuilder()
+                          .put(BUCKET_NUMBER_KEY, number)
+                          .put(IDS_KEY, new JsonList(values))
+                          .build()
+                          .toJsonValue();
+        }
+
+        @Nullable
+        static Bucket fromJson(@NonNull JsonValue value) {
+            JsonMap map = value.optMap();
+            if (!map.opt(BUCKET_NUMBER_KEY).isNumber()) {
+                return null;
+            }
+
+            Bucket bucket = new Bucket(map.opt(BUCKET_NUMBER_KEY).getLong(0));
+            for (JsonValue id : map.opt(IDS_KEY).optList()) {
+                if (id.isString()) {
+                    bucket.ids.add(id.optString());
+                }
+            }
+
+            return bucket.ids.isEmpty() ? null : bucket;
+        }
+
+    }
+
+}
@@ -21,15 +21,16 @@ import com.urbanairship.channel.TagGroupsEditor;
 import com.urbanairship.job.JobDispatcher;
 import com.urbanairship.job.JobInfo;
 import com.urbanairship.json.JsonException;
-import com.urbanairship.json.JsonList;
+import com.urbanairship.json.JsonMap;
 import com.urbanairship.json.JsonValue;
 import com.urbanairship.push.notifications.AirshipNotificationProvider;
 import com.urbanairship.push.notifications.NotificationActionButtonGroup;
+import com.urbanairship.push.notifications.NotificationArguments;
 import com.urbanairship.push.notifications.NotificationChannelRegistry;
+import com.urbanairship.push.notifications.NotificationMediaLoader;
 import com.urbanairship.push.notifications.NotificationProvider;
 import com.urbanairship.util.UAStringUtil;
 
-import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
@@ -170,19 +171,14 @@ public class PushManager extends AirshipComponent {
     private final String UA_NOTIFICATION_BUTTON_GROUP_PREFIX = "ua_";
 
     /**
-     * Key to store the push canonical IDs for push deduping.
-     */
-    private static final String LAST_CANONICAL_IDS_KEY = "com.urbanairship.push.LAST_CANONICAL_IDS";
-
-    /**
-     * Max amount of canonical IDs to store.
+     * Action to display a notification.
      */
-    private static final int MAX_CANONICAL_IDS = 10;
+    static final String ACTION_DISPLAY_NOTIFICATION = "ACTION_DISPLAY_NOTIFICATION";
 
     /**
-     * Action to display a notification.
+     * Action to update a posted notification once its media loads.
      */
-    static final String ACTION_DISPLAY_NOTIFICATION = "ACTION_DISPLAY_NOTIFICATION";
+    static final String ACTION_UPDATE_NOTIFICATION_MEDIA = "ACTION_UPDATE_NOTIFICATION_MEDIA";
 
     /**
      * Action to update push registration.
@@ -220,14 +216,17 @@ public class PushManager extends AirshipComponent {
     private final JobDispatcher jobDispatcher;
     private final PushProvider pushProvider;
     private NotificationChannelRegistry notificationChannelRegistry;
+    private final NotificationMediaLoader notificationMediaLoader;
 
     private NotificationListener notificationListener;
     private List<PushTokenListener> pushTokenListeners = new CopyOnWriteArrayList<>();
 
     private List<PushListener> pushListeners = new CopyOnWriteArrayList<>();
     private List<InternalNotificationListener> internalNotificationListeners = new CopyOnWriteArrayList<>();
+    private List<PushTraceListener> pushTraceListeners = new CopyOnWriteArrayList<>();
+    private final PushTraceStats pushTraceStats = new PushTraceStats();
 
-    private final Object uniqueIdLock = new Object();
+    private final PushIdHistory pushIdHistory;
 
     private final AirshipChannel airshipChannel;
 
@@ -269,6 +268,8 @@ public class PushManager extends AirshipComponent {
         this.notificationProvider = new AirshipNotificationProvider(context, configOptions);
         this.notificationManagerCompat = NotificationManagerCompat.from(context);
         this.notificationChannelRegistry = new NotificationChannelRegistry(context, configOptions);
+        this.pushIdHistory = new PushIdHistory(preferenceDataStore, configOptions.pushDeduplicationTtlMS);
+        this.notificationMediaLoader = new NotificationMediaLoader(context, configOptions.notificationMediaDeadlineMS);
 
         this.actionGroupMap.putAll(ActionButtonGroupsParser.fromXml(context, R.xml.ua_notification_buttons));
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
@@ -388,6 +389,33 @@ public class PushManager extends AirshipComponent {
                 pushRunnable.run();
 
                 return JobInfo.JOB_FINISHED;
+
+            case ACTION_UPDATE_NOTIFICATION_MEDIA:
+                JsonMap extras = jobInfo.getExtras();
+                PushMessage updateMessage = PushMessage.fromJsonValue(extras.opt(PushProviderBridge.EXTRA_PUSH));
+                String updateProviderClass = extras.opt(PushProviderBridge.EXTRA_PROVIDER_CLASS).getString();
+
+                if (updateProviderClass == null) {
+                    return JobInfo.JOB_FINISHED;
+                }
+
+                NotificationArguments arguments = NotificationArguments.newBuilder(updateMessage)
+                                                                       .setNotificationId(extras.opt(IncomingPushRunnable.EXTRA_NOTIFICATION_TAG).getString(),
+                                                                               extras.opt(IncomingPushRunnable.EXTRA_NOTIFICATION_ID).getInt(-1))
+                                                                       .setNotificationChannelId(extras.opt(IncomingPushRunnable.EXTRA_NOTIFICATION_CHANNEL_ID)
+                                                                                                       .getString(NotificationProvider.DEFAULT_NOTIFICATION_CHANNEL))
+                                                                       .build();
+
+                new IncomingPushRunnable.Builder(getContext())
+                        .setLongRunning(true)
+                        .setProcessed(true)
+                        .setMessage(updateMessage)
+                        .setProviderClass(updateProviderClass)
+                        .setMediaUpdateArguments(arguments)
+                        .build()
+                        .run();
+
+                return JobInfo.JOB_FINISHED;
         }
 
         return JobInfo.JOB_FINISHED;
@@ -465,6 +493,18 @@ public class PushManager extends AirshipComponent {
         return notificationProvider;
     }
 
+    /**
+     * Returns the notification media loader.
+     *
+     * @return The NotificationMediaLoader
+     * @hide
+     */
+    @NonNull
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public NotificationMediaLoader getNotificationMediaLoader() {
+        return notificationMediaLoader;
+    }
+
     /**
      * Returns the shared notification channel registry.
      *
@@ -722,6 +762,49 @@ public class PushManager extends AirshipComponent {
         pushListeners.remove(listener);
     }
 
+    /**
+     * Adds a push trace listener. The listener is called with the stage timings of every push
+     * after it finishes processing.
+     *
+     * @param listener The listener.
+     */
+    public void addPushTraceListener(@NonNull PushTraceListener listener) {
+        pushTraceListeners.add(listener);
+    }
+
+    /**
+     * Removes a push trace listener.
+     *
+     * @param listener The listener.
+     */
+    public void removePushTraceListener(@NonNull PushTraceListener listener) {
+        pushTraceListeners.remove(listener);
+    }
+
+    /**
+     * Gets the aggregated stage timings of recently processed pushes.
+     *
+     * @return The push trace stats.
+     */
+    @NonNull
+    public PushTraceStats getPushTraceStats() {
+        return pushTraceStats;
+    }
+
+    /**
+     * Called when a push finished processing.
+     *
+     * @param trace The push trace.
+     */
+    void onPushTraced(@NonNull PushTrace trace) {
+        pushTraceStats.add(trace);
+        Logger.verbose("PushManager - %s", trace);
+
+        for (PushTraceListener listener : pushTraceListeners) {
+            listener.onPushTraced(trace, pushTraceStats);
+        }
+    }
+
     /**
      * Adds a push token listener.
      *
@@ -949,7 +1032,8 @@ public class PushManager extends AirshipComponent {
      * Check to see if we've seen this ID before. If we have,
      * return false. If not, add the ID to our history and return true.
      *
-     * @param canonicalId The canonical push ID for an incoming notification.
+     * @param canonicalId The canonical push ID for an incoming notification, or the send ID
+     * if the notification does not define a canonical ID.
      * @return <code>false</code> if the ID exists in the history, otherwise <code>true</code>.
      */
     boolean isUniqueCanonicalId(@Nullable String canonicalId) {
@@ -957,35 +1041,7 @@ public class PushManager extends AirshipComponent {
             return true;
         }
 
-        synchronized (uniqueIdLock) {
-            JsonList jsonList = null;
-            try {
-                jsonList = JsonValue.parseString(preferenceDataStore.getString(LAST_CANONICAL_IDS_KEY, null)).getList();
-            } catch (JsonException e) {
-                Logger.debug(e, "PushJobHandler - Unable to parse canonical Ids.");
-            }
-
-            List<JsonValue> canonicalIds = jsonList == null ? new ArrayList<JsonValue>() : jsonList.getList();
-
-            // Wrap the canonicalId
-            JsonValue id = JsonValue.wrap(canonicalId);
-
-            // Check if the list contains the canonicalId
-            if (canonicalIds.contains(id)) {
-                return false;
-            }
-
-            // Add it
-            canonicalIds.add(id);
-            if (canonicalIds.size() > MAX_CANONICAL_IDS) {
-                canonicalIds = canonicalIds.subList(canonicalIds.size() - MAX_CANONICAL_IDS, canonicalIds.size());
-            }
-
-            // Store the new list
-            preferenceDataStore.put(LAST_CANONICAL_IDS_KEY, JsonValue.wrapOpt(canonicalIds).toString());
-
-            return true;
-        }
+        return pushIdHistory.add(canonicalId);
     }
 
     private void dispatchUpdatePushTokenJob() {
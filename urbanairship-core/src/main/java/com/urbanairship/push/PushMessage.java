@@ -21,12 +21,14 @@ import com.urbanairship.push.notifications.NotificationChannelRegistry;
 import com.urbanairship.util.UAMathUtil;
 import com.urbanairship.util.UAStringUtil;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 import androidx.annotation.DrawableRes;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
 
 /**
  * A push message, usually created from handling a message intent from either GCM,
@@ -255,15 +257,57 @@ public class PushMessage implements Parcelable, JsonSerializable {
 
     private Uri sound = null;
 
+    /**
+     * JSON valued extras, parsed on first use.
+     */
+    private final Map<String, JsonValue> parsedExtras = new HashMap<>();
+
     /**
      * Create a new PushMessage
      *
      * @param pushBundle The intent extras for the push
      */
     public PushMessage(@NonNull Bundle pushBundle) {
+        this(bundleToData(pushBundle), pushBundle);
+    }
+
+    /**
+     * Create a new PushMessage
+     *
+     * @param data The push data.
+     */
+    public PushMessage(@NonNull Map<String, String> data) {
+        this(new HashMap<>(data), null);
+    }
+
+    private PushMessage(@NonNull Map<String, String> data, @Nullable Bundle pushBundle) {
+        this.data = Collections.unmodifiableMap(data);
         this.pushBundle = pushBundle;
+    }
+
+    /**
+     * Creates a push message that is a read-only view over the push data instead of a copy. The
+     * data must not be modified after the message is created.
+     *
+     * @param data The push data.
+     * @return The push message.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    @NonNull
+    public static PushMessage wrap(@NonNull Map<String, String> data) {
+        return new PushMessage(data, null);
+    }
 
-        this.data = new HashMap<>();
+    /**
+     * Converts the push bundle to push data.
+     *
+     * @param pushBundle The push bundle.
+     * @return The push data.
+     */
+    @NonNull
+    private static Map<String, String> bundleToData(@NonNull Bundle pushBundle) {
+        Map<String, String> data = new HashMap<>();
         for (String key : pushBundle.keySet()) {
             Object value = pushBundle.get(key);
 
@@ -271,15 +315,8 @@ public class PushMessage implements Parcelable, JsonSerializable {
                 data.put(key, String.valueOf(value));
             }
         }
-    }
 
-    /**
-     * Create a new PushMessage
-     *
-     * @param data The push data.
-     */
-    public PushMessage(@NonNull Map<String, String> data) {
-        this.data = new HashMap<>(data);
+        return data;
     }
 
     /**
@@ -444,18 +481,17 @@ public class PushMessage implements Parcelable, JsonSerializable {
      */
     @NonNull
     public Map<String, ActionValue> getActions() {
-        String actionsPayload = data.get(EXTRA_ACTIONS);
         Map<String, ActionValue> actions = new HashMap<>();
 
         try {
-            JsonMap actionsJson = JsonValue.parseString(actionsPayload).getMap();
+            JsonMap actionsJson = getJsonExtra(EXTRA_ACTIONS).getMap();
             if (actionsJson != null) {
                 for (Map.Entry<String, JsonValue> entry : actionsJson) {
                     actions.put(entry.getKey(), new ActionValue(entry.getValue()));
                 }
             }
         } catch (JsonException e) {
-            Logger.error("Unable to parse action payload: %s", actionsPayload);
+            Logger.error("Unable to parse action payload: %s", data.get(EXTRA_ACTIONS));
             return actions;
         }
 
@@ -466,6 +502,29 @@ public class PushMessage implements Parcelable, JsonSerializable {
         return actions;
     }
 
+    /**
+     * Gets a JSON valued extra. The extra is parsed the first time it is requested and the parsed
+     * value is reused afterwards.
+     *
+     * @param key The extra key.
+     * @return The parsed value, or {@link JsonValue#NULL} if the extra does not exist.
+     * @throws JsonException if the extra is not valid JSON.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    @NonNull
+    public JsonValue getJsonExtra(@NonNull String key) throws JsonException {
+        synchronized (parsedExtras) {
+            JsonValue value = parsedExtras.get(key);
+            if (value == null) {
+                value = JsonValue.parseString(data.get(key));
+                parsedExtras.put(key, value);
+            }
+
+            return value;
+        }
+    }
+
     /**
      * Gets the notification actions payload.
      *
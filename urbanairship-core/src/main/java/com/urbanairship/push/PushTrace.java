@@ -0,0 +1,177 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.push;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+/**
+ * Processing trace for a single push. Records how long each stage took, from when the push was
+ * handed to the SDK by the push provider until the notification was posted.
+ */
+public class PushTrace {
+
+    /**
+     * Checking the push against previously received push IDs.
+     */
+    @NonNull
+    public static final String STAGE_DEDUPE = "dedupe";
+
+    /**
+     * Running the push actions.
+     */
+    @NonNull
+    public static final String STAGE_ACTIONS = "actions";
+
+    /**
+     * Creating the notification arguments with the notification provider.
+     */
+    @NonNull
+    public static final String STAGE_ARGUMENTS = "arguments";
+
+    /**
+     * Building the notification with the notification provider.
+     */
+    @NonNull
+    public static final String STAGE_BUILD = "build";
+
+    /**
+     * Looking up the notification channel.
+     */
+    @NonNull
+    public static final String STAGE_CHANNEL = "channel";
+
+    /**
+     * Posting the notification.
+     */
+    @NonNull
+    public static final String STAGE_POST = "post";
+
+    /**
+     * Adding the push arrived event.
+     */
+    @NonNull
+    public static final String STAGE_ANALYTICS = "analytics";
+
+    /**
+     * Total time from when the push was received until processing finished. Only recorded for
+     * pushes that were delivered to the push listeners, whether or not a notification was posted.
+     */
+    @NonNull
+    public static final String STAGE_TOTAL = "total";
+
+    private final PushMessage message;
+    private final long startTime;
+    private final Map<String, Long> durations = new LinkedHashMap<>();
+
+    /**
+     * Default constructor.
+     *
+     * @param message The push message.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public PushTrace(@NonNull PushMessage message) {
+        this.message = message;
+        this.startTime = now();
+    }
+
+    /**
+     * Gets the current time used to measure stages.
+     *
+     * @return The current time in nanoseconds.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public static long now() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records a stage that started at the given time and finished now. Recording a stage more
+     * than once adds up the time.
+     *
+     * @param stage The stage.
+     * @param startTime The stage start time from {@link #now()}.
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public void record(@NonNull String stage, long startTime) {
+        long duration = now() - startTime;
+        synchronized (durations) {
+            Long previous = durations.get(stage);
+            durations.put(stage, previous == null ? duration : previous + duration);
+        }
+    }
+
+    /**
+     * Records the total time.
+     */
+    void finish() {
+        record(STAGE_TOTAL, startTime);
+    }
+
+    /**
+     * Gets the push message.
+     *
+     * @return The push message.
+     */
+    @NonNull
+    public PushMessage getMessage() {
+        return message;
+    }
+
+    /**
+     * Gets the recorded stages in the order they were first recorded.
+     *
+     * @return The recorded stages.
+     */
+    @NonNull
+    public Set<String> getStages() {
+        synchronized (durations) {
+            return Collections.unmodifiableSet(new LinkedHashSet<>(durations.keySet()));
+        }
+    }
+
+    /**
+     * Gets the time a stage took.
+     *
+     * @param stage The stage.
+     * @param unit The time unit.
+     * @return The stage duration, or -1 if the stage was not recorded.
+     */
+    public long getDuration(@NonNull String stage, @NonNull TimeUnit unit) {
+        synchronized (durations) {
+            Long duration = durations.get(stage);
+            return duration == null ? -1 : unit.convert(duration, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        synchronized (durations) {
+            StringBuilder builder = new StringBuilder("PushTrace{");
+            boolean first = true;
+            for (Map.Entry<String, Long> entry : durations.entrySet()) {
+                if (!first) {
+                    builder.append(", ");
+                }
+                first = false;
+                builder.append(entry.getKey())
+                       .append("=")
+                       .append(TimeUnit.NANOSECONDS.toMicros(entry.getValue()))
+                       .append("us");
+            }
+            return builder.append('}').toString();
+        }
+    }
+
+}
@@ -0,0 +1,22 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.push;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+/**
+ * Listener for push processing traces.
+ */
+public interface PushTraceListener {
+
+    /**
+     * Called when a push finished processing.
+     *
+     * @param trace The push's trace.
+     * @param stats The aggregated stats, including the push.
+     */
+    @WorkerThread
+    void onPushTraced(@NonNull PushTrace trace, @NonNull PushTraceStats stats);
+
+}
@@ -0,0 +1,147 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.push;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+/**
+ * Aggregated push processing stage timings.
+ * <p>
+ * Only the most recent samples of each stage are kept in a fixed size ring, so recording a push
+ * costs a constant amount of time and memory. Percentiles are computed when requested.
+ */
+public class PushTraceStats {
+
+    /**
+     * Max number of samples kept per stage.
+     */
+    static final int MAX_SAMPLES = 100;
+
+    private final Map<String, Samples> samples = new HashMap<>();
+    private final Set<String> stages = new LinkedHashSet<>();
+
+    /**
+     * Default constructor.
+     *
+     * @hide
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+    public PushTraceStats() {
+    }
+
+    /**
+     * Adds the stage timings of a push.
+     *
+     * @param trace The push trace.
+     */
+    void add(@NonNull PushTrace trace) {
+        synchronized (samples) {
+            for (String stage : trace.getStages()) {
+                Samples stageSamples = samples.get(stage);
+                if (stageSamples == null) {
+                    stageSamples = new Samples();
+                    samples.put(stage, stageSamples);
+                    stages.add(stage);
+                }
+
+                stageSamples.add(trace.getDuration(stage, TimeUnit.NANOSECONDS));
+            }
+        }
+    }
+
+    /**
+     * Gets the stages that have samples.
+     *
+     * @return The stages.
+     */
+    @NonNull
+    public Set<String> getStages() {
+        synchronized (samples) {
+            return Collections.unmodifiableSet(new LinkedHashSet<>(stages));
+        }
+    }
+
+    /**
+     * Gets the number of samples kept for a stage.
+     *
+     * @param stage The stage.
+     * @return The number of samples.
+     */
+    public int getSampleCount(@NonNull String stage) {
+        synchronized (samples) {
+            Samples stageSamples = samples.get(stage);
+            return stageSamples == null ? 0 : stageSamples.count;
+        }
+    }
+
+    /**
+     * Gets a percentile of the stage's recent timings.
+     *
+     * @param stage The stage.
+     * @param percentile The percentile, between 0 and 100.
+     * @param unit The time unit.
+     * @return The percentile, or -1 if the stage has no samples.
+     */
+    public long getPercentile(@NonNull String stage, int percentile, @NonNull TimeUnit unit) {
+        long[] sorted;
+        synchronized (samples) {
+            Samples stageSamples = samples.get(stage);
+            if (stageSamples == null || stageSamples.count == 0) {
+                return -1;
+            }
+
+            sorted = Arrays.copyOf(stageSamples.values, stageSamples.count);
+        }
+
+        Arrays.sort(sorted);
+        int clamped = Math.max(0, Math.min(100, percentile));
+        int index = (int) Math.ceil(clamped / 100.0 * sorted.length) - 1;
+        return unit.convert(sorted[Math.max(0, index)], TimeUnit.NANOSECONDS);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("PushTraceStats{");
+        boolean first = true;
+        for (String stage : getStages()) {
+            if (!first) {
+                builder.append(", ");
+            }
+            first = false;
+            builder.append(stage)
+                   .append("=[p50=").append(getPercentile(stage, 50, TimeUnit.MILLISECONDS))
+                   .append("ms, p90=").append(getPercentile(stage, 90, TimeUnit.MILLISECONDS))
+                   .append("ms, p99=").append(getPercentile(stage, 99, TimeUnit.MILLISECONDS))
+                   .append("ms]");
+        }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Ring of the most recent samples of a stage.
+     */
+    private static class Samples {
+
+        private final long[] values = new long[MAX_SAMPLES];
+        private int count;
+        private int next;
+
+        void add(long value) {
+            values[next] = value;
+            next = (next + 1) % MAX_SAMPLES;
+            count = Math.min(count + 1, MAX_SAMPLES);
+        }
+
+    }
+
+}
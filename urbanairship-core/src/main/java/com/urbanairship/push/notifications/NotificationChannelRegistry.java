@@ -12,7 +12,11 @@ import com.urbanairship.AirshipExecutors;
 import com.urbanairship.Logger;
 import com.urbanairship.PendingResult;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 
@@ -25,6 +29,9 @@ import androidx.annotation.XmlRes;
 
 /**
  * Compatibility class for registering notification channels.
+ * <p>
+ * Saved channels are loaded into memory once and kept up to date as channels are created and
+ * deleted, so looking up a channel while displaying a push does not need to wait on the database.
  */
 public class NotificationChannelRegistry {
 
@@ -39,6 +46,11 @@ public class NotificationChannelRegistry {
     private final Context context;
     private NotificationManager notificationManager;
 
+    /**
+     * Immutable snapshot of the saved channels, or null until loaded. Only replaced on the executor.
+     */
+    private volatile Map<String, NotificationChannelCompat> channels;
+
     /**
      * NotificationChannelRegistry constructor.
      *
@@ -66,6 +78,13 @@ public class NotificationChannelRegistry {
         this.dataManager = dataManager;
         this.executor = executor;
         this.notificationManager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                loadChannels();
+            }
+        });
     }
 
     /**
@@ -80,22 +99,7 @@ public class NotificationChannelRegistry {
         executor.execute(new Runnable() {
             @Override
             public void run() {
-                NotificationChannelCompat result;
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-                    NotificationChannel channel = notificationManager.getNotificationChannel(id);
-                    if (channel != null) {
-                        result = new NotificationChannelCompat(channel);
-                    } else {
-                        result = dataManager.getChannel(id);
-                        if (result != null) {
-                            notificationManager.createNotificationChannel(result.toNotificationChannel());
-                        }
-                    }
-                } else {
-                    result = dataManager.getChannel(id);
-                }
-
-                pendingResult.setResult(result);
+                pendingResult.setResult(resolveChannel(id, loadChannels()));
             }
         });
 
@@ -111,6 +115,16 @@ public class NotificationChannelRegistry {
     @Nullable
     @WorkerThread
     public NotificationChannelCompat getNotificationChannelSync(@NonNull String id) {
+        // Lock-free lookup once the channels are loaded
+        Map<String, NotificationChannelCompat> snapshot = channels;
+        if (snapshot != null) {
+            NotificationChannelCompat result = resolveChannel(id, snapshot);
+            if (result != null) {
+                return result;
+            }
+        }
+
+        // Fallback to the executor so any pending changes are applied first
         try {
             return getNotificationChannel(id).get();
         } catch (InterruptedException e) {
@@ -136,15 +150,20 @@ public class NotificationChannelRegistry {
                 if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
                     notificationManager.deleteNotificationChannel(id);
                 }
+
+                Map<String, NotificationChannelCompat> updated = new HashMap<>(loadChannels());
+                updated.remove(id);
+                channels = Collections.unmodifiableMap(updated);
+
                 dataManager.deleteChannel(id);
             }
         });
     }
 
     /**
-     * Adds a notification channel and saves it to disk. This method is a no-op if a channel
-     * is already created with the same identifier. On Android O and above, this method
-     * will also create an equivalent NotificationChannel with NotificationManager.
+     * Adds a notification channel and saves it to disk, replacing any saved channel with the same
+     * identifier. On Android O and above, this method will also create an equivalent
+     * NotificationChannel with NotificationManager.
      *
      * @param channelCompat A NotificationChannelCompat.
      */
@@ -155,6 +174,8 @@ public class NotificationChannelRegistry {
                 if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
                     notificationManager.createNotificationChannel(channelCompat.toNotificationChannel());
                 }
+
+                cacheChannels(Collections.singletonList(channelCompat));
                 dataManager.createChannel(channelCompat);
             }
         });
@@ -171,6 +192,7 @@ public class NotificationChannelRegistry {
         executor.execute(new Runnable() {
             @Override
             public void run() {
+                cacheChannels(Collections.singletonList(channelCompat));
                 dataManager.createChannel(channelCompat);
             }
         });
@@ -178,9 +200,9 @@ public class NotificationChannelRegistry {
 
 
     /**
-     * Creates notification channels from an XML file. Any channel that is already created
-     * will no-op. On Android O and above, each channel will also create an equivalent
-     * NotificationChannel with NotificationManager.
+     * Creates notification channels from an XML file. Channels are saved in a single transaction,
+     * replacing any saved channels with the same identifiers. On Android O and above, each channel
+     * will also create an equivalent NotificationChannel with NotificationManager.
      *
      * The resource file can define all attributes on the channel:
      * <pre>
@@ -210,14 +232,14 @@ public class NotificationChannelRegistry {
             @Override
             public void run() {
                 List<NotificationChannelCompat> channelCompats = NotificationChannelCompat.fromXml(context, resourceId);
-                for (NotificationChannelCompat channelCompat : channelCompats) {
-
-                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                    for (NotificationChannelCompat channelCompat : channelCompats) {
                         notificationManager.createNotificationChannel(channelCompat.toNotificationChannel());
                     }
-
-                    dataManager.createChannel(channelCompat);
                 }
+
+                cacheChannels(channelCompats);
+                dataManager.createChannels(channelCompats);
             }
         });
     }
@@ -235,11 +257,76 @@ public class NotificationChannelRegistry {
             @Override
             public void run() {
                 List<NotificationChannelCompat> channelCompats = NotificationChannelCompat.fromXml(context, resourceId);
-                for (NotificationChannelCompat channelCompat : channelCompats) {
-                    dataManager.createChannel(channelCompat);
-                }
+                cacheChannels(channelCompats);
+                dataManager.createChannels(channelCompats);
             }
         });
     }
 
+    /**
+     * Resolves a channel. On Android O and above, the NotificationManager's channel is preferred
+     * and saved channels that have not been created yet are created with the NotificationManager.
+     *
+     * @param id The channel identifier.
+     * @param channels The saved channels.
+     * @return The channel, or null if it does not exist.
+     */
+    @Nullable
+    private NotificationChannelCompat resolveChannel(@NonNull String id, @NonNull Map<String, NotificationChannelCompat> channels) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationChannel channel = notificationManager.getNotificationChannel(id);
+            if (channel != null) {
+                return new NotificationChannelCompat(channel);
+            }
+
+            NotificationChannelCompat result = channels.get(id);
+            if (result != null) {
+                notificationManager.createNotificationChannel(result.toNotificationChannel());
+            }
+            return result;
+        }
+
+        return channels.get(id);
+    }
+
+    /**
+     * Loads the saved channels if they have not been loaded yet. Must be called on the executor.
+     *
+     * @return The saved channels.
+     */
+    @NonNull
+    @WorkerThread
+    private Map<String, NotificationChannelCompat> loadChannels() {
+        Map<String, NotificationChannelCompat> snapshot = channels;
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        Map<String, NotificationChannelCompat> loaded = new HashMap<>();
+        for (NotificationChannelCompat channelCompat : dataManager.getChannels()) {
+            // Older versions could save the same channel more than once, the first one wins
+            if (!loaded.containsKey(channelCompat.getId())) {
+                loaded.put(channelCompat.getId(), channelCompat);
+            }
+        }
+
+        snapshot = Collections.unmodifiableMap(loaded);
+        channels = snapshot;
+        return snapshot;
+    }
+
+    /**
+     * Adds channels to the in-memory snapshot. Must be called on the executor.
+     *
+     * @param channelCompats The channels.
+     */
+    @WorkerThread
+    private void cacheChannels(@NonNull Collection<NotificationChannelCompat> channelCompats) {
+        Map<String, NotificationChannelCompat> updated = new HashMap<>(loadChannels());
+        for (NotificationChannelCompat channelCompat : channelCompats) {
+            updated.put(channelCompat.getId(), channelCompat);
+        }
+        channels = Collections.unmodifiableMap(updated);
+    }
+
 }
@@ -12,7 +12,9 @@ import com.urbanairship.json.JsonException;
 import com.urbanairship.json.JsonValue;
 import com.urbanairship.util.DataManager;
 
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 import androidx.annotation.NonNull;
@@ -65,21 +67,45 @@ public class NotificationChannelRegistryDataManager extends DataManager {
     }
 
     /**
-     * Creates a channel in the database. This is a no-op if a channel already exists under
-     * the associated identifier.
+     * Creates a channel in the database, replacing any channel already saved under the
+     * associated identifier.
      *
      * @param channelCompat A NotificationChannelCompat.
      */
     @WorkerThread
     public boolean createChannel(@NonNull NotificationChannelCompat channelCompat) {
+        return createChannels(Collections.singletonList(channelCompat));
+    }
+
+    /**
+     * Creates channels in the database in a single transaction, replacing any channels already
+     * saved under the associated identifiers.
+     *
+     * @param channelCompats The channels.
+     * @return {@code true} if the channels were saved, otherwise {@code false}.
+     */
+    @WorkerThread
+    public boolean createChannels(@NonNull Collection<NotificationChannelCompat> channelCompats) {
         final SQLiteDatabase db = getWritableDatabase();
 
         if (db == null) {
-            Logger.error("NotificationChannelRegistryDataManager - Unable to save notification channel.");
+            Logger.error("NotificationChannelRegistryDataManager - Unable to save notification channels.");
             return false;
         }
 
-        saveChannel(channelCompat, db);
+        db.beginTransaction();
+        try {
+            for (NotificationChannelCompat channelCompat : channelCompats) {
+                db.delete(TABLE_NAME, COLUMN_NAME_CHANNEL_ID + " = ?", new String[] { channelCompat.getId() });
+                saveChannel(channelCompat, db);
+            }
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            Logger.error(e, "NotificationChannelRegistryDataManager - Unable to save notification channels.");
+            return false;
+        } finally {
+            db.endTransaction();
+        }
 
         return true;
     }
@@ -87,14 +113,14 @@ public class NotificationChannelRegistryDataManager extends DataManager {
     /**
      * Gets all the saved notification channels.
      *
-     * @return A Set of NotificationChannelCompat objects, or an empty set if none are available.
+     * @return A Set of NotificationChannelCompat objects in the order they were saved, or an empty set if none are available.
      */
     @NonNull
     @WorkerThread
     public Set<NotificationChannelCompat> getChannels() {
         Cursor cursor = query(TABLE_NAME, null, null, null, null);
 
-        Set<NotificationChannelCompat> channels = new HashSet<>();
+        Set<NotificationChannelCompat> channels = new LinkedHashSet<>();
 
         if (cursor == null) {
             return channels;
@@ -104,10 +130,14 @@ public class NotificationChannelRegistryDataManager extends DataManager {
 
         while (!cursor.isAfterLast()) {
             NotificationChannelCompat channelCompat = getChannel(cursor);
-            channels.add(channelCompat);
+            if (channelCompat != null) {
+                channels.add(channelCompat);
+            }
             cursor.moveToNext();
         }
 
+        cursor.close();
+
         return channels;
     }
 
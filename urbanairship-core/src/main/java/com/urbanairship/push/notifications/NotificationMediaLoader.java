@@ -0,0 +1,435 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.push.notifications;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.DisplayMetrics;
+import android.util.TypedValue;
+import android.view.WindowManager;
+
+import com.urbanairship.AirshipExecutors;
+import com.urbanairship.Logger;
+import com.urbanairship.json.JsonException;
+import com.urbanairship.json.JsonMap;
+import com.urbanairship.push.PushMessage;
+import com.urbanairship.util.ImageUtils;
+import com.urbanairship.util.MediaCache;
+import com.urbanairship.util.UAStringUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+/**
+ * Loads the media referenced by a push message for its notification.
+ * <p>
+ * All the media of a message is requested in parallel as soon as the push arrives. Building the
+ * notification waits for the media until a deadline that is measured from when the media was
+ * requested. Media that misses the deadline keeps loading so the notification can be updated in
+ * place once it lands. Requests are released once the push is processed, media that is still
+ * loading is released as soon as it lands. Downloaded media is kept in the shared {@link MediaCache}.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public class NotificationMediaLoader {
+
+    /**
+     * Max number of media requests that are kept around after they are requested.
+     */
+    private static final int MAX_REQUESTS = 10;
+
+    /**
+     * Max time in milliseconds to wait for media that missed the deadline to finish loading.
+     */
+    private static final long MAX_LOAD_TIME_MS = 30000;
+
+    private final static int BIG_IMAGE_HEIGHT_DP = 240;
+    private final static double BIG_IMAGE_SCREEN_WIDTH_PERCENT = .75;
+
+    /**
+     * Fetches and decodes media.
+     */
+    interface BitmapFetcher {
+
+        /**
+         * Fetches a bitmap.
+         *
+         * @param context The application context.
+         * @param url The image URL.
+         * @param reqWidth The requested width.
+         * @param reqHeight The requested height.
+         * @return The bitmap or null if it failed to be fetched.
+         * @throws IOException if the bitmap fails to be fetched.
+         */
+        @Nullable
+        @WorkerThread
+        Bitmap fetch(@NonNull Context context, @NonNull URL url, int reqWidth, int reqHeight) throws IOException;
+
+    }
+
+    private final Context context;
+    private final Executor executor;
+    private final BitmapFetcher fetcher;
+    private final long deadlineMs;
+
+    private final Map<String, Request> requests = new LinkedHashMap<String, Request>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Request> eldest) {
+            return size() > MAX_REQUESTS;
+        }
+    };
+
+    /**
+     * Default constructor.
+     *
+     * @param context The application context.
+     * @param deadlineMs The deadline in milliseconds.
+     */
+    public NotificationMediaLoader(@NonNull Context context, long deadlineMs) {
+        this(context, deadlineMs, AirshipExecutors.THREAD_POOL_EXECUTOR, new BitmapFetcher() {
+            @Nullable
+            @Override
+            public Bitmap fetch(@NonNull Context context, @NonNull URL url, int reqWidth, int reqHeight) throws IOException {
+                // Serve from the shared media cache so the same image is only downloaded once
+                MediaCache cache = MediaCache.shared(context);
+                try {
+                    if (!cache.fetch(url).isSuccess) {
+                        return null;
+                    }
+
+                    File file = cache.get(url.toString());
+                    if (file != null) {
+                        Bitmap bitmap = ImageUtils.fetchScaledBitmap(context, new URL(Uri.fromFile(file).toString()), reqWidth, reqHeight);
+                        if (bitmap != null) {
+                            return bitmap;
+                        }
+                    }
+                } catch (IOException e) {
+                    Logger.debug(e, "Unable to load notification image from the media cache: %s", url);
+                }
+
+                // Failed to cache or trimmed by a concurrent fetch, fallback to downloading directly
+                return ImageUtils.fetchScaledBitmap(context, url, reqWidth, reqHeight);
+            }
+        });
+    }
+
+    @VisibleForTesting
+    NotificationMediaLoader(@NonNull Context context, long deadlineMs, @NonNull Executor executor, @NonNull BitmapFetcher fetcher) {
+        this.context = context.getApplicationContext();
+        this.deadlineMs = deadlineMs;
+        this.executor = executor;
+        this.fetcher = fetcher;
+    }
+
+    /**
+     * Gets the deadline in milliseconds.
+     *
+     * @return The deadline in milliseconds.
+     */
+    public long getDeadlineMs() {
+        return deadlineMs;
+    }
+
+    /**
+     * Starts loading all the media referenced by the message in parallel.
+     *
+     * @param message The push message.
+     */
+    public void prefetch(@NonNull PushMessage message) {
+        for (URL url : getMediaUrls(message)) {
+            request(url);
+        }
+    }
+
+    /**
+     * Gets a big image, waiting until the deadline if it is still loading.
+     *
+     * @param url The image URL.
+     * @return The bitmap, or null if it failed to be fetched or missed the deadline.
+     */
+    @Nullable
+    @WorkerThread
+    public Bitmap getBigImage(@NonNull URL url) {
+        Request request = request(url);
+        long remaining = deadlineMs - (SystemClock.elapsedRealtime() - request.startTime);
+
+        try {
+            return request.task.get(Math.max(0, remaining), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Logger.error("Failed to create big picture style, interrupted while fetching image.");
+        } catch (ExecutionException e) {
+            Logger.error("Failed to create big picture style, unable to fetch image: %s", e);
+        } catch (TimeoutException e) {
+            Logger.error("Big picture missed the %s ms deadline.", deadlineMs);
+        }
+
+        return null;
+    }
+
+    /**
+     * Checks if any media of the message is still loading.
+     *
+     * @param message The push message.
+     * @return {@code true} if media is still loading, otherwise {@code false}.
+     */
+    public boolean hasPendingMedia(@NonNull PushMessage message) {
+        for (URL url : getMediaUrls(message)) {
+            Request request;
+            synchronized (requests) {
+                request = requests.get(url.toString());
+            }
+
+            if (request != null && !request.task.isDone()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Waits for all the media of the message to finish loading, up to {@link #MAX_LOAD_TIME_MS}.
+     * Media that is no longer loading, such as after the app was restarted, is requested again.
+     *
+     * @param message The push message.
+     * @return {@code true} if any of the media loaded, otherwise {@code false}.
+     */
+    @WorkerThread
+    public boolean awaitMedia(@NonNull PushMessage message) {
+        List<Request> pending = new ArrayList<>();
+        for (URL url : getMediaUrls(message)) {
+            pending.add(request(url));
+        }
+
+        return await(pending);
+    }
+
+    /**
+     * Releases the media of the message. Media that is still loading is released once it lands.
+     *
+     * @param message The push message.
+     */
+    public void release(@NonNull PushMessage message) {
+        synchronized (requests) {
+            for (URL url : getMediaUrls(message)) {
+                Request request = requests.get(url.toString());
+                if (request == null) {
+                    continue;
+                }
+
+                if (request.task.isDone()) {
+                    requests.remove(request.key);
+                } else {
+                    request.released = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits for the requests to finish loading, up to {@link #MAX_LOAD_TIME_MS}.
+     *
+     * @param requests The requests.
+     * @return {@code true} if any of the media loaded, otherwise {@code false}.
+     */
+    @WorkerThread
+    private boolean await(@NonNull List<Request> requests) {
+        long end = SystemClock.elapsedRealtime() + MAX_LOAD_TIME_MS;
+        boolean loaded = false;
+        for (Request request : requests) {
+            long remaining = end - SystemClock.elapsedRealtime();
+            try {
+                loaded |= request.task.get(Math.max(0, remaining), TimeUnit.MILLISECONDS) != null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (ExecutionException e) {
+                Logger.debug(e, "Notification media failed to load.");
+            } catch (TimeoutException e) {
+                Logger.debug("Notification media did not load within %s ms.", MAX_LOAD_TIME_MS);
+            }
+        }
+
+        return loaded;
+    }
+
+    /**
+     * Gets the media URLs referenced by the message.
+     *
+     * @param message The push message.
+     * @return The media URLs.
+     */
+    @NonNull
+    static List<URL> getMediaUrls(@NonNull PushMessage message) {
+        String stylePayload = message.getStylePayload();
+        if (stylePayload == null) {
+            return Collections.emptyList();
+        }
+
+        try {
+            JsonMap styleJson = message.getJsonExtra(PushMessage.EXTRA_STYLE).optMap();
+            if (!StyleNotificationExtender.BIG_PICTURE_KEY.equals(styleJson.opt(StyleNotificationExtender.TYPE_KEY).optString())) {
+                return Collections.emptyList();
+            }
+
+            String url = styleJson.opt(StyleNotificationExtender.BIG_PICTURE_KEY).optString();
+            if (UAStringUtil.isEmpty(url)) {
+                return Collections.emptyList();
+            }
+
+            return Collections.singletonList(new URL(url));
+        } catch (JsonException | MalformedURLException e) {
+            Logger.debug(e, "Unable to parse notification media.");
+            return Collections.emptyList();
+        }
+    }
+
+    @NonNull
+    private Request request(@NonNull final URL url) {
+        final String key = url.toString();
+        Request request;
+        synchronized (requests) {
+            request = requests.get(key);
+            if (request != null && !request.task.isDone()) {
+                request.released = false;
+                if (SystemClock.elapsedRealtime() - request.startTime < deadlineMs) {
+                    return request;
+                }
+
+                // Still loading but past its deadline, give the new caller its own deadline
+                Request restarted = new Request(key, request.task);
+                requests.put(key, restarted);
+                return restarted;
+            }
+
+            if (request != null && isLoaded(request)) {
+                request.released = false;
+                return request;
+            }
+
+            // Fetch again if the previous request failed
+            request = new Request(key, new FutureTask<Bitmap>(new Callable<Bitmap>() {
+                @Nullable
+                @Override
+                public Bitmap call() throws Exception {
+                    Logger.debug("Fetching notification image at URL: %s", url);
+                    int[] size = getBigImageSize();
+                    return fetcher.fetch(context, url, size[0], size[1]);
+                }
+            }) {
+                @Override
+                protected void done() {
+                    onRequestDone(key, this);
+                }
+            });
+
+            requests.put(key, request);
+        }
+
+        executor.execute(request.task);
+        return request;
+    }
+
+    /**
+     * Called when a request finishes loading. Evicts the request if it was released while it was
+     * still loading, or if it failed.
+     *
+     * @param key The request key.
+     * @param task The request task.
+     */
+    private void onRequestDone(@NonNull String key, @NonNull FutureTask<Bitmap> task) {
+        synchronized (requests) {
+            Request request = requests.get(key);
+            if (request == null || request.task != task) {
+                return;
+            }
+
+            if (request.released || !isLoaded(request)) {
+                requests.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Checks if the request finished loading a bitmap.
+     *
+     * @param request The request.
+     * @return {@code true} if the bitmap is loaded, otherwise {@code false}.
+     */
+    private static boolean isLoaded(@NonNull Request request) {
+        if (!request.task.isDone() || request.task.isCancelled()) {
+            return false;
+        }
+
+        try {
+            return request.task.get() != null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Gets the requested big image size. Since notifications do not take up the entire screen,
+     * request 3/4 the longest device dimension. Big images have a max height of 240dp.
+     *
+     * @return The width and height.
+     */
+    @NonNull
+    private int[] getBigImageSize() {
+        WindowManager window = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+        DisplayMetrics dm = new DisplayMetrics();
+        window.getDefaultDisplay().getMetrics(dm);
+
+        int reqWidth = (int) (Math.max(dm.widthPixels, dm.heightPixels) * BIG_IMAGE_SCREEN_WIDTH_PERCENT);
+        int reqHeight = (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, BIG_IMAGE_HEIGHT_DP, dm);
+        return new int[] { reqWidth, reqHeight };
+    }
+
+    /**
+     * A media request.
+     */
+    private static class Request {
+
+        private final String key;
+        private final FutureTask<Bitmap> task;
+        private final long startTime;
+
+        // Guarded by requests
+        private boolean released;
+
+        Request(@NonNull String key, @NonNull FutureTask<Bitmap> task) {
+            this.key = key;
+            this.task = task;
+            this.startTime = SystemClock.elapsedRealtime();
+        }
+
+    }
+
+}
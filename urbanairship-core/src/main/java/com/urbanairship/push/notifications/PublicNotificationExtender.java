@@ -8,7 +8,6 @@ import android.graphics.BitmapFactory;
 import com.urbanairship.Logger;
 import com.urbanairship.json.JsonException;
 import com.urbanairship.json.JsonMap;
-import com.urbanairship.json.JsonValue;
 import com.urbanairship.push.PushMessage;
 import com.urbanairship.util.UAStringUtil;
 
@@ -89,7 +88,7 @@ public class PublicNotificationExtender implements NotificationCompat.Extender {
         }
 
         try {
-            JsonMap jsonMap = JsonValue.parseString(arguments.getMessage().getPublicNotificationPayload()).optMap();
+            JsonMap jsonMap = arguments.getMessage().getJsonExtra(PushMessage.EXTRA_PUBLIC_NOTIFICATION).optMap();
 
             NotificationCompat.Builder publicBuilder = new NotificationCompat.Builder(context, arguments.getNotificationChannelId())
                     .setContentTitle(jsonMap.opt(TITLE_KEY).optString())
@@ -86,7 +86,7 @@ public class StyleNotificationExtender implements NotificationCompat.Extender {
 
         JsonMap styleJson;
         try {
-            styleJson = JsonValue.parseString(stylePayload).optMap();
+            styleJson = message.getJsonExtra(PushMessage.EXTRA_STYLE).optMap();
         } catch (JsonException e) {
             Logger.error(e, "Failed to parse notification style payload.");
             return false;
@@ -9,7 +9,6 @@ import com.urbanairship.Logger;
 import com.urbanairship.UAirship;
 import com.urbanairship.json.JsonException;
 import com.urbanairship.json.JsonMap;
-import com.urbanairship.json.JsonValue;
 import com.urbanairship.push.PushMessage;
 import com.urbanairship.util.UAStringUtil;
 
@@ -54,7 +53,7 @@ public class WearableNotificationExtender implements NotificationCompat.Extender
 
         JsonMap wearableJson;
         try {
-            wearableJson = JsonValue.parseString(wearablePayload).optMap();
+            wearableJson = arguments.getMessage().getJsonExtra(PushMessage.EXTRA_WEARABLE).optMap();
         } catch (JsonException e) {
             Logger.error(e, "Failed to parse wearable payload.");
             return builder;
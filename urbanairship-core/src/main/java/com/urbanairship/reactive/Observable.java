@@ -5,6 +5,7 @@ package com.urbanairship.reactive;
 import com.urbanairship.Predicate;
 
 import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -178,42 +179,30 @@ public class Observable<T> {
     }
 
     /**
-     * Maps values in an Observable stream to new values
+     * Maps values in an Observable stream to new values. Consecutive map and filter operators
+     * are fused into a single subscription to the source.
      *
      * @param func The map function
      * @param <R> The type under observation of the result Observable.
      * @return A mapped Observable.
      */
     @NonNull
+    @SuppressWarnings("unchecked")
     public <R> Observable<R> map(@NonNull final Function<T, R> func) {
-        return flatMap(new Function<T, Observable<R>>() {
-            @NonNull
-            @Override
-            public Observable<R> apply(@NonNull T value) {
-                return just(func.apply(value));
-            }
-        });
+        return FusedObservable.fuse(this, new Operator((Function<Object, Object>) func, null));
     }
 
     /**
-     * Filters values out of an Observable stream that do not pass the provided predicate.
+     * Filters values out of an Observable stream that do not pass the provided predicate. Consecutive
+     * map and filter operators are fused into a single subscription to the source.
      *
      * @param pred The predicate.
      * @return A filtered Observable.
      */
     @NonNull
+    @SuppressWarnings("unchecked")
     public Observable<T> filter(@NonNull final Predicate<T> pred) {
-        return flatMap(new Function<T, Observable<T>>() {
-            @NonNull
-            @Override
-            public Observable<T> apply(@NonNull T value) {
-                if (pred.apply(value)) {
-                    return just(value);
-                } else {
-                    return empty();
-                }
-            }
-        });
+        return FusedObservable.fuse(this, new Operator(null, (Predicate<Object>) pred));
     }
 
     /**
@@ -277,7 +266,8 @@ public class Observable<T> {
     }
 
     /**
-     * Transforms an Observable stream to deliver its callbacks on the supplied scheduler.
+     * Transforms an Observable stream to deliver its callbacks on the supplied scheduler. Callbacks
+     * that arrive while a delivery is pending are queued and delivered in the same scheduled run.
      *
      * @param scheduler The scheduler.
      * @return A transformed Observable whose callbacks are delivered on the supplied scheduler.
@@ -289,45 +279,7 @@ public class Observable<T> {
             @Override
             public Subscription apply(@NonNull final Observer<T> observer) {
                 final SerialSubscription subscription = new SerialSubscription();
-
-                subscription.setSubscription(subscribe(new Observer<T>() {
-                    @Override
-                    public void onNext(@NonNull final T value) {
-                        scheduler.schedule(new Runnable() {
-                            @Override
-                            public void run() {
-                                if (!subscription.isCancelled()) {
-                                    observer.onNext(value);
-                                }
-                            }
-                        });
-                    }
-
-                    @Override
-                    public void onCompleted() {
-                        scheduler.schedule(new Runnable() {
-                            @Override
-                            public void run() {
-                                if (!subscription.isCancelled()) {
-                                    observer.onCompleted();
-                                }
-                            }
-                        });
-                    }
-
-                    @Override
-                    public void onError(@NonNull final Exception e) {
-                        scheduler.schedule(new Runnable() {
-                            @Override
-                            public void run() {
-                                if (!subscription.isCancelled()) {
-                                    observer.onError(e);
-                                }
-                            }
-                        });
-                    }
-                }));
-
+                subscription.setSubscription(subscribe(new ObserveOnObserver<>(observer, scheduler, subscription)));
                 return subscription;
             }
         });
@@ -664,6 +616,199 @@ public class Observable<T> {
         });
     }
 
+    /**
+     * A fused map or filter step.
+     */
+    private static class Operator {
+
+        @Nullable
+        private final Function<Object, Object> map;
+
+        @Nullable
+        private final Predicate<Object> filter;
+
+        Operator(@Nullable Function<Object, Object> map, @Nullable Predicate<Object> filter) {
+            this.map = map;
+            this.filter = filter;
+        }
+
+    }
+
+    /**
+     * Observable that applies a chain of map and filter operators to each source value in a
+     * single observer, without allocating intermediate Observables per value.
+     *
+     * @param <T> The type under observation.
+     */
+    private static class FusedObservable<T> extends Observable<T> {
+
+        private final Observable<Object> source;
+        private final Operator[] operators;
+
+        private FusedObservable(@NonNull Observable<Object> source, @NonNull Operator[] operators) {
+            this.source = source;
+            this.operators = operators;
+        }
+
+        @NonNull
+        @SuppressWarnings("unchecked")
+        static <T> Observable<T> fuse(@NonNull Observable<?> upstream, @NonNull Operator operator) {
+            if (upstream instanceof FusedObservable) {
+                FusedObservable<?> fused = (FusedObservable<?>) upstream;
+                Operator[] operators = new Operator[fused.operators.length + 1];
+                System.arraycopy(fused.operators, 0, operators, 0, fused.operators.length);
+                operators[fused.operators.length] = operator;
+                return new FusedObservable<>(fused.source, operators);
+            }
+
+            return new FusedObservable<>((Observable<Object>) upstream, new Operator[] { operator });
+        }
+
+        @NonNull
+        @Override
+        public Subscription subscribe(@NonNull final Observer<T> observer) {
+            final SerialSubscription subscription = new SerialSubscription();
+
+            subscription.setSubscription(source.subscribe(new Observer<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public void onNext(@NonNull Object value) {
+                    if (subscription.isCancelled()) {
+                        return;
+                    }
+
+                    Object current = value;
+                    for (Operator operator : operators) {
+                        if (operator.filter != null) {
+                            if (!operator.filter.apply(current)) {
+                                return;
+                            }
+                        } else if (operator.map != null) {
+                            current = operator.map.apply(current);
+                        }
+                    }
+
+                    observer.onNext((T) current);
+                }
+
+                @Override
+                public void onCompleted() {
+                    if (!subscription.isCancelled()) {
+                        observer.onCompleted();
+                    }
+                }
+
+                @Override
+                public void onError(@NonNull Exception e) {
+                    if (!subscription.isCancelled()) {
+                        observer.onError(e);
+                    }
+                }
+            }));
+
+            return subscription;
+        }
+
+    }
+
+    /**
+     * Observer that queues callbacks and drains them on a scheduler. Only one drain is scheduled
+     * at a time, so bursts of values are delivered with a single scheduled run.
+     *
+     * @param <T> The type under observation.
+     */
+    private static class ObserveOnObserver<T> implements Observer<T>, Runnable {
+
+        private final Observer<T> observer;
+        private final Scheduler scheduler;
+        private final Subscription subscription;
+        private final ArrayDeque<T> queue = new ArrayDeque<>();
+
+        private boolean isDrainScheduled;
+        private boolean isCompleted;
+        private Exception error;
+
+        ObserveOnObserver(@NonNull Observer<T> observer, @NonNull Scheduler scheduler, @NonNull Subscription subscription) {
+            this.observer = observer;
+            this.scheduler = scheduler;
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(@NonNull T value) {
+            synchronized (queue) {
+                queue.add(value);
+            }
+            scheduleDrain();
+        }
+
+        @Override
+        public void onCompleted() {
+            synchronized (queue) {
+                isCompleted = true;
+            }
+            scheduleDrain();
+        }
+
+        @Override
+        public void onError(@NonNull Exception e) {
+            synchronized (queue) {
+                error = e;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            synchronized (queue) {
+                if (isDrainScheduled) {
+                    return;
+                }
+                isDrainScheduled = true;
+            }
+
+            scheduler.schedule(this);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                T value;
+                Exception pendingError;
+                boolean completed;
+
+                synchronized (queue) {
+                    value = queue.poll();
+                    pendingError = error;
+                    completed = isCompleted;
+
+                    if (value == null) {
+                        isDrainScheduled = false;
+                        error = null;
+                        isCompleted = false;
+                    }
+                }
+
+                if (subscription.isCancelled()) {
+                    return;
+                }
+
+                if (value != null) {
+                    observer.onNext(value);
+                    continue;
+                }
+
+                if (pendingError != null) {
+                    observer.onError(pendingError);
+                } else if (completed) {
+                    observer.onCompleted();
+                }
+
+                return;
+            }
+        }
+
+    }
+
     /**
      * Generic value holder class.
      *
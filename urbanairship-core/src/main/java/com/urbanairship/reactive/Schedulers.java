@@ -19,7 +19,8 @@ public class Schedulers {
     private static LooperScheduler main;
 
     /**
-     * Creates a Scheduler that targets the provided looper at scheduler time.
+     * Creates a Scheduler that targets the provided looper at scheduler time. The scheduler
+     * reuses a single handler for the looper.
      *
      * @param looper The looper to schedule on.
      * @return A Scheduler.
@@ -48,7 +49,7 @@ public class Schedulers {
      */
     public static class LooperScheduler implements Scheduler {
 
-        private final Looper looper;
+        private final Handler handler;
 
         /**
          * Run loop Scheduler constructor.
@@ -56,14 +57,14 @@ public class Schedulers {
          * @param looper The looper to scheduler on.
          */
         public LooperScheduler(@NonNull Looper looper) {
-            this.looper = looper;
+            this.handler = new Handler(looper);
         }
 
         @NonNull
         public Subscription schedule(@NonNull final Runnable runnable) {
             final Subscription subscription = Subscription.empty();
 
-            new Handler(looper).post(new Runnable() {
+            handler.post(new Runnable() {
                 @Override
                 public void run() {
                     if (!subscription.isCancelled()) {
@@ -79,7 +80,7 @@ public class Schedulers {
         public Subscription schedule(long delayTimeMs, @NonNull final Runnable runnable) {
             final Subscription subscription = Subscription.empty();
 
-            new Handler(looper).postDelayed(new Runnable() {
+            handler.postDelayed(new Runnable() {
                 @Override
                 public void run() {
                     if (!subscription.isCancelled()) {
@@ -2,13 +2,16 @@
 
 package com.urbanairship.reactive;
 
-import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.RestrictTo;
 
 /**
  * Subject implementation. A Subject is both an Observer and an Observable.
+ * <p>
+ * Observers are held in a copy-on-write list so emitting a value does not copy the observer list.
  *
  * @param <T> The type under observation.
  * @hide
@@ -16,7 +19,7 @@ import androidx.annotation.RestrictTo;
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
 public class Subject<T> extends Observable<T> implements Observer<T> {
 
-    private final ArrayList<Observer<T>> observers = new ArrayList<>();
+    private final List<Observer<T>> observers = new CopyOnWriteArrayList<>();
     private boolean completed = false;
     private Exception error;
 
@@ -64,7 +67,7 @@ public class Subject<T> extends Observable<T> implements Observer<T> {
     @Override
     synchronized
     public void onNext(@NonNull T value) {
-        for (Observer<T> observer : new ArrayList<>(observers)) {
+        for (Observer<T> observer : observers) {
             observer.onNext(value);
         }
     }
@@ -73,7 +76,7 @@ public class Subject<T> extends Observable<T> implements Observer<T> {
     synchronized
     public void onCompleted() {
         completed = true;
-        for (Observer<T> observer : new ArrayList<>(observers)) {
+        for (Observer<T> observer : observers) {
             observer.onCompleted();
         }
     }
@@ -82,7 +85,7 @@ public class Subject<T> extends Observable<T> implements Observer<T> {
     synchronized
     public void onError(@NonNull Exception e) {
         error = e;
-        for (Observer<T> observer : new ArrayList<>(observers)) {
+        for (Observer<T> observer : observers) {
             observer.onError(e);
         }
     }
@@ -97,9 +100,7 @@ public class Subject<T> extends Observable<T> implements Observer<T> {
         return Subscription.create(new Runnable() {
             @Override
             public void run() {
-                if (hasObservers()) {
-                    observers.remove(observer);
-                }
+                observers.remove(observer);
             }
         });
     }
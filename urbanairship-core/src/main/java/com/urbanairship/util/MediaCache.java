@@ -0,0 +1,283 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.util;
+
+import android.content.Context;
+
+import com.urbanairship.AirshipExecutors;
+import com.urbanairship.Logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+/**
+ * Disk cache for remote media that is shared by notifications and in-app messages.
+ * <p>
+ * Files are keyed by the SHA-256 of their URL and trimmed least recently used first once the
+ * cache grows past its max size. Downloads are written to a temp file and renamed into place so a
+ * partially downloaded file is never served.
+ *
+ * @hide
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+public class MediaCache {
+
+    /**
+     * Default max size of the cache in bytes.
+     */
+    static final long DEFAULT_MAX_SIZE = 1024 * 1024 * 20; // 20MB
+
+    private static final String CACHE_DIRECTORY = "com.urbanairship.media";
+    private static final String TEMP_FILE_SUFFIX = ".temp";
+    private static final long STALE_TEMP_FILE_AGE_MS = 60 * 60 * 1000; // 1 hour
+    private static final int BUFFER_SIZE = 1024;
+
+    private static MediaCache shared;
+
+    private final File directory;
+    private final long maxSize;
+    private final Executor executor;
+
+    /**
+     * Gets the shared media cache.
+     *
+     * @param context The application context.
+     * @return The shared media cache.
+     */
+    @NonNull
+    public static MediaCache shared(@NonNull Context context) {
+        synchronized (MediaCache.class) {
+            if (shared == null) {
+                File directory = new File(context.getApplicationContext().getCacheDir(), CACHE_DIRECTORY);
+                shared = new MediaCache(directory, DEFAULT_MAX_SIZE, AirshipExecutors.THREAD_POOL_EXECUTOR);
+            }
+
+            return shared;
+        }
+    }
+
+    @VisibleForTesting
+    MediaCache(@NonNull File directory, long maxSize, @NonNull Executor executor) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+        this.executor = executor;
+    }
+
+    /**
+     * Gets the cached file for the URL.
+     *
+     * @param url The media URL.
+     * @return The cached file, or null if the URL is not cached.
+     */
+    @Nullable
+    public File get(@NonNull String url) {
+        File file = file(url);
+        if (!file.exists()) {
+            return null;
+        }
+
+        // Mark as recently used
+        if (!file.setLastModified(System.currentTimeMillis())) {
+            Logger.verbose("MediaCache - Unable to update last modified time: %s", file);
+        }
+
+        return file;
+    }
+
+    /**
+     * Fetches the URL into the cache if it is not already cached.
+     *
+     * @param url The media URL.
+     * @return The download result.
+     * @throws IOException if the file fails to be downloaded.
+     */
+    @NonNull
+    @WorkerThread
+    public FileUtils.DownloadResult fetch(@NonNull URL url) throws IOException {
+        if (get(url.toString()) != null) {
+            return new FileUtils.DownloadResult(true, 0);
+        }
+
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Unable to create media cache directory: " + directory);
+        }
+
+        File temp = File.createTempFile("ua_", TEMP_FILE_SUFFIX, directory);
+        try {
+            FileUtils.DownloadResult result = FileUtils.downloadFile(url, temp);
+            if (result.isSuccess && !temp.renameTo(file(url.toString()))) {
+                throw new IOException("Unable to move media into the cache: " + url);
+            }
+
+            return result;
+        } finally {
+            if (temp.exists() && !temp.delete()) {
+                Logger.verbose("MediaCache - Failed to delete temp file: %s", temp);
+            }
+
+            trim();
+        }
+    }
+
+    /**
+     * Fetches the URL into the cache and copies the cached file to the destination.
+     *
+     * @param url The media URL.
+     * @param destination The destination file.
+     * @return The download result.
+     * @throws IOException if the file fails to be downloaded or copied.
+     */
+    @NonNull
+    @WorkerThread
+    public FileUtils.DownloadResult fetch(@NonNull URL url, @NonNull File destination) throws IOException {
+        FileUtils.DownloadResult result = fetch(url);
+        if (!result.isSuccess) {
+            return result;
+        }
+
+        File file = get(url.toString());
+        if (file == null) {
+            // Trimmed by a concurrent fetch, fallback to downloading directly
+            return FileUtils.downloadFile(url, destination);
+        }
+
+        copy(file, destination);
+        return result;
+    }
+
+    /**
+     * Fetches the URL into the cache in the background if the device is on an unmetered network.
+     *
+     * @param url The media URL.
+     */
+    public void prefetch(@NonNull final URL url) {
+        if (get(url.toString()) != null || !Network.isConnected() || Network.isMetered()) {
+            return;
+        }
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    fetch(url);
+                } catch (IOException e) {
+                    Logger.debug(e, "MediaCache - Unable to prefetch media: %s", url);
+                }
+            }
+        });
+    }
+
+    /**
+     * Deletes the least recently used files until the cache is within its max size. Temp files of
+     * downloads that are in progress are skipped.
+     */
+    private void trim() {
+        File[] listedFiles = directory.listFiles();
+        if (listedFiles == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        List<File> cachedFiles = new ArrayList<>();
+        for (File file : listedFiles) {
+            if (!file.getName().endsWith(TEMP_FILE_SUFFIX)) {
+                cachedFiles.add(file);
+                continue;
+            }
+
+            // Left behind by a download that never finished, such as when the app was killed
+            if (now - file.lastModified() > STALE_TEMP_FILE_AGE_MS && !file.delete()) {
+                Logger.verbose("MediaCache - Failed to delete stale temp file: %s", file);
+            }
+        }
+
+        File[] files = cachedFiles.toArray(new File[0]);
+        long size = 0;
+        for (File file : files) {
+            size += file.length();
+        }
+
+        if (size <= maxSize) {
+            return;
+        }
+
+        final long[] lastModified = new long[files.length];
+        Integer[] order = new Integer[files.length];
+        for (int i = 0; i < files.length; i++) {
+            lastModified[i] = files[i].lastModified();
+            order[i] = i;
+        }
+
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer lh, Integer rh) {
+                return lastModified[lh] < lastModified[rh] ? -1 : (lastModified[lh] == lastModified[rh] ? 0 : 1);
+            }
+        });
+
+        for (int i = 0; i < order.length && size > maxSize; i++) {
+            File file = files[order[i]];
+            long length = file.length();
+            if (file.delete()) {
+                size -= length;
+            }
+        }
+    }
+
+    @NonNull
+    private File file(@NonNull String url) {
+        return new File(directory, UAStringUtil.sha256(url));
+    }
+
+    private static void copy(@NonNull File source, @NonNull File destination) throws IOException {
+        InputStream inputStream = null;
+        OutputStream outputStream = null;
+
+        try {
+            inputStream = new FileInputStream(source);
+            outputStream = new FileOutputStream(destination);
+
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int bytesRead;
+            while ((bytesRead = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, bytesRead);
+            }
+        } catch (IOException e) {
+            destination.delete();
+            throw e;
+        } finally {
+            if (inputStream != null) {
+                try {
+                    inputStream.close();
+                } catch (IOException e) {
+                    Logger.debug(e, "MediaCache - Failed to close stream.");
+                }
+            }
+
+            if (outputStream != null) {
+                try {
+                    outputStream.close();
+                } catch (IOException e) {
+                    Logger.debug(e, "MediaCache - Failed to close stream.");
+                }
+            }
+        }
+    }
+
+}
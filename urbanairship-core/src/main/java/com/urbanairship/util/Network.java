@@ -39,4 +39,22 @@ public class Network {
         return info != null && info.isConnected();
     }
 
+    /**
+     * Determines whether or not the active network is metered.
+     *
+     * @return <code>true</code> if the active network is metered or unknown, otherwise
+     * <code>false</code>.
+     */
+    public static boolean isMetered() {
+        ConnectivityManager cm = (ConnectivityManager)
+                UAirship.getApplicationContext().getSystemService(Context.CONNECTIVITY_SERVICE);
+
+        if (cm == null) {
+            Logger.error("Error fetching network info.");
+            return true;
+        }
+
+        return cm.isActiveNetworkMetered();
+    }
+
 }
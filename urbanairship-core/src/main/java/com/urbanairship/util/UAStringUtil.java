@@ -82,6 +82,34 @@ public abstract class UAStringUtil {
         return builder.toString();
     }
 
+    /**
+     * Gets the number of bytes the string takes when encoded as UTF-8, without encoding it.
+     * Unpaired surrogates count as a single replacement byte, matching {@link String#getBytes(String)}.
+     *
+     * @param value The string.
+     * @return The UTF-8 byte length.
+     */
+    public static int getUtf8Length(@NonNull String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+
+        return length;
+    }
+
     /**
      * Returns the sha256 hex string for a given string.
      *
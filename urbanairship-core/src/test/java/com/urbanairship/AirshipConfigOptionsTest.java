@@ -52,6 +52,7 @@ public class AirshipConfigOptionsTest extends BaseTestCase {
         assertTrue(production.inProduction);
         assertFalse(production.analyticsEnabled);
         assertEquals(2700, production.backgroundReportingIntervalMS);
+        assertEquals(3600000, production.pushDeduplicationTtlMS);
         assertFalse(production.autoLaunchApplication);
         assertTrue(production.channelCreationDelayEnabled);
         assertFalse(production.channelCaptureEnabled);
@@ -0,0 +1,119 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+public class ComponentInitializerTest extends BaseTestCase {
+
+    private StartupTrace trace;
+    private ComponentInitializer initializer;
+    private List<String> order;
+
+    @Before
+    public void setup() {
+        trace = new StartupTrace();
+        initializer = new ComponentInitializer(Executors.newCachedThreadPool(), trace);
+        order = Collections.synchronizedList(new ArrayList<String>());
+    }
+
+    @Test
+    public void testDependencyOrder() {
+        initializer.add("c", record("c"), "a", "b")
+                   .add("a", record("a"))
+                   .add("b", record("b"), "a")
+                   .run();
+
+        assertEquals(3, order.size());
+        assertTrue(order.indexOf("a") < order.indexOf("b"));
+        assertTrue(order.indexOf("b") < order.indexOf("c"));
+        assertEquals(3, trace.getEntries().size());
+    }
+
+    @Test
+    public void testIndependentTasksRunConcurrently() {
+        final CountDownLatch latch = new CountDownLatch(2);
+        final AtomicBoolean concurrent = new AtomicBoolean(true);
+
+        Runnable waitForOther = new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+                try {
+                    if (!latch.await(5, TimeUnit.SECONDS)) {
+                        concurrent.set(false);
+                    }
+                } catch (InterruptedException e) {
+                    concurrent.set(false);
+                }
+            }
+        };
+
+        initializer.add("a", waitForOther)
+                   .add("b", waitForOther)
+                   .run();
+
+        assertTrue(concurrent.get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMissingDependency() {
+        initializer.add("a", record("a"), "missing").run();
+    }
+
+    @Test
+    public void testCycle() {
+        initializer.add("a", record("a"), "b")
+                   .add("b", record("b"), "a");
+
+        try {
+            initializer.run();
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+
+        assertTrue(order.isEmpty());
+    }
+
+    @Test
+    public void testFailure() {
+        initializer.add("a", new Runnable() {
+            @Override
+            public void run() {
+                throw new IllegalArgumentException("failed");
+            }
+        }).add("b", record("b"), "a");
+
+        try {
+            initializer.run();
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+
+        assertFalse(order.contains("b"));
+    }
+
+    private Runnable record(final String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                order.add(name);
+            }
+        };
+    }
+
+}
@@ -15,6 +15,7 @@ import org.junit.rules.ExpectedException;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.Shadows;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import androidx.annotation.NonNull;
@@ -92,6 +93,37 @@ public class UAirshipTest extends BaseTestCase {
         assertNull(intents.get(0).getExtras());
     }
 
+    /**
+     * Test takeOff records a startup trace for each component.
+     */
+    @Test
+    public void testStartupTrace() {
+        UAirship.takeOff(application, configOptions);
+        UAirship airship = UAirship.shared();
+
+        List<StartupTrace.Entry> entries = airship.getStartupTrace().getEntries();
+        List<String> names = new ArrayList<>();
+        for (StartupTrace.Entry entry : entries) {
+            names.add(entry.getName());
+            assertNotNull(entry.getThreadName());
+            assertTrue(entry.getDurationMs() >= 0);
+        }
+
+        assertTrue(names.contains("preference_data_store"));
+        assertTrue(names.contains("channel"));
+        assertTrue(names.contains("push"));
+        assertTrue(names.contains("remote_config"));
+        assertTrue(names.contains("init:PushManager"));
+
+        // Optional modules are loaded during takeOff
+        assertTrue(names.contains("debug"));
+        assertTrue(names.contains("ad_id"));
+
+        // Push is created after analytics
+        assertTrue(names.indexOf("analytics") < names.indexOf("push"));
+        assertTrue(names.indexOf("push") < names.indexOf("remote_data"));
+    }
+
     /**
      * Test takeOff with valid application and config options calls the correct callbacks.
      * Also tests the AIRSHIP_READY broadcast is extended.
@@ -8,6 +8,7 @@ import com.urbanairship.BaseTestCase;
 import com.urbanairship.TestApplication;
 import com.urbanairship.json.JsonException;
 import com.urbanairship.json.JsonList;
+import com.urbanairship.json.JsonMap;
 import com.urbanairship.json.JsonValue;
 import com.urbanairship.push.PushManager;
 import com.urbanairship.push.PushMessage;
@@ -516,6 +517,42 @@ public class CustomEventTest extends BaseTestCase {
         assertFalse(eventBuilder.build().isValid());
     }
 
+    /**
+     * Test the tracked properties size matches the size of the serialized properties.
+     */
+    @Test
+    public void testPropertiesSize() throws Exception {
+        CustomEvent.Builder eventBuilder = CustomEvent.newBuilder("event name");
+        assertEquals(new JsonMap(null).toString().getBytes("UTF-8").length, eventBuilder.getPropertiesSize());
+
+        eventBuilder.addProperty("string", "h\u00e9llo \u2713 \ud83d\ude00")
+                    .addProperty("quote\"key", "new\nline")
+                    .addProperty("int", 100)
+                    .addProperty("double", 1.5)
+                    .addProperty("boolean", true)
+                    .addProperty("list", JsonValue.wrapOpt(Arrays.asList("one", "two")))
+                    .addProperty("map", JsonMap.newBuilder().put("nested", "\u00fc").build());
+
+        CustomEvent event = eventBuilder.build();
+        assertEquals(event.getProperties().toString().getBytes("UTF-8").length, eventBuilder.getPropertiesSize());
+
+        // Replacing a property
+        eventBuilder.addProperty("string", "short");
+        event = eventBuilder.build();
+        assertEquals(event.getProperties().toString().getBytes("UTF-8").length, eventBuilder.getPropertiesSize());
+
+        // Setting the properties
+        JsonMap properties = JsonMap.newBuilder()
+                                    .put("\u00e9", "\u00e9")
+                                    .put("other", 1)
+                                    .build();
+        eventBuilder.setProperties(properties);
+        assertEquals(properties.toString().getBytes("UTF-8").length, eventBuilder.getPropertiesSize());
+
+        eventBuilder.setProperties(null);
+        assertEquals(2, eventBuilder.getPropertiesSize());
+    }
+
     /**
      * Helper method to create a fixed size string with a repeating character.
      *
@@ -5,6 +5,7 @@ import com.urbanairship.PreferenceDataStore;
 import com.urbanairship.TestAirshipRuntimeConfig;
 import com.urbanairship.TestApplication;
 import com.urbanairship.analytics.CustomEvent;
+import com.urbanairship.analytics.Event;
 import com.urbanairship.analytics.location.RegionEvent;
 import com.urbanairship.app.ActivityMonitor;
 import com.urbanairship.job.JobDispatcher;
@@ -36,6 +37,7 @@ public class EventManagerTest extends BaseTestCase {
     private EventResolver mockEventResolver;
     private JobDispatcher mockDispatcher;
     private ActivityMonitor mockActivityMonitor;
+    private UploadConditions mockUploadConditions;
     private PreferenceDataStore dataStore;
 
     private TestAirshipRuntimeConfig testAirshipRuntimeConfig;
@@ -43,15 +45,18 @@ public class EventManagerTest extends BaseTestCase {
     @Before
     public void setUp() {
         mockDispatcher = mock(JobDispatcher.class);
+        when(mockDispatcher.getPendingBatchDelay()).thenReturn(-1L);
         mockEventResolver = mock(EventResolver.class);
         mockClient = mock(EventApiClient.class);
         mockActivityMonitor = mock(ActivityMonitor.class);
+        mockUploadConditions = mock(UploadConditions.class);
+        when(mockUploadConditions.getQuality()).thenReturn(UploadConditions.QUALITY_GOOD);
 
         dataStore = TestApplication.getApplication().preferenceDataStore;
         testAirshipRuntimeConfig = TestAirshipRuntimeConfig.newTestConfig();
 
         eventManager = new EventManager(dataStore, testAirshipRuntimeConfig, mockDispatcher,
-                mockActivityMonitor, mockEventResolver, mockClient);
+                mockActivityMonitor, mockEventResolver, mockClient, mockUploadConditions);
     }
 
     /**
@@ -97,6 +102,101 @@ public class EventManagerTest extends BaseTestCase {
         }));
     }
 
+    /**
+     * Tests adding an event on a poor network increases the upload delay.
+     */
+    @Test
+    public void testAddEventPoorConditions() {
+        when(mockUploadConditions.getQuality()).thenReturn(UploadConditions.QUALITY_POOR);
+
+        CustomEvent customEvent = CustomEvent.newBuilder("event name").build();
+        eventManager.addEvent(customEvent, "session");
+
+        verify(mockDispatcher).dispatch(Mockito.argThat(new ArgumentMatcher<JobInfo>() {
+            @Override
+            public boolean matches(JobInfo jobInfo) {
+                return jobInfo.getAction().equals(EventManager.ACTION_SEND) && jobInfo.getInitialDelay() == 40000L;
+            }
+        }));
+    }
+
+    /**
+     * Tests adding a low priority event in the background piggybacks on pending network jobs.
+     */
+    @Test
+    public void testAddLowPriorityEventPiggybacks() {
+        when(mockActivityMonitor.isAppForegrounded()).thenReturn(false);
+        when(mockDispatcher.getPendingBatchDelay()).thenReturn(5000L);
+        dataStore.put(EventManager.LAST_SEND_KEY, System.currentTimeMillis());
+        dataStore.put(MIN_BATCH_INTERVAL_KEY, 0);
+
+        Event event = mock(Event.class);
+        when(event.getPriority()).thenReturn(Event.LOW_PRIORITY);
+        eventManager.addEvent(event, "session");
+
+        // Uses the batch's wake-up instead of waiting for the background reporting interval
+        verify(mockDispatcher).dispatch(Mockito.argThat(new ArgumentMatcher<JobInfo>() {
+            @Override
+            public boolean matches(JobInfo jobInfo) {
+                return jobInfo.getAction().equals(EventManager.ACTION_SEND) && jobInfo.getInitialDelay() == 5000L;
+            }
+        }));
+    }
+
+    /**
+     * Tests adding a low priority event in the background does not piggyback if the min batch
+     * interval has not passed by the time the pending network jobs run.
+     */
+    @Test
+    public void testAddLowPriorityEventPiggybackMinBatchInterval() {
+        when(mockActivityMonitor.isAppForegrounded()).thenReturn(false);
+        when(mockDispatcher.getPendingBatchDelay()).thenReturn(5000L);
+        dataStore.put(EventManager.LAST_SEND_KEY, System.currentTimeMillis());
+        dataStore.put(MIN_BATCH_INTERVAL_KEY, 60000);
+
+        Event event = mock(Event.class);
+        when(event.getPriority()).thenReturn(Event.LOW_PRIORITY);
+        eventManager.addEvent(event, "session");
+
+        verify(mockDispatcher).dispatch(Mockito.argThat(new ArgumentMatcher<JobInfo>() {
+            @Override
+            public boolean matches(JobInfo jobInfo) {
+                return jobInfo.getAction().equals(EventManager.ACTION_SEND) && jobInfo.getInitialDelay() > 5000L;
+            }
+        }));
+    }
+
+    /**
+     * Tests the upload metrics.
+     */
+    @Test
+    public void testUploadMetrics() {
+        Map<String, String> events = new HashMap<>();
+        events.put("firstEvent", "1234");
+        events.put("secondEvent", "12345678");
+
+        when(mockEventResolver.getEventCount()).thenReturn(2);
+        when(mockEventResolver.getPayloadSize()).thenReturn(12);
+        when(mockEventResolver.getEvents(Mockito.anyInt())).thenReturn(events);
+
+        EventResponse response = mock(EventResponse.class);
+        when(response.getStatus()).thenReturn(200);
+        when(mockClient.sendEvents(Mockito.<String>anyCollection(), Mockito.<String, String>anyMap())).thenReturn(response);
+
+        assertEquals(0, eventManager.getBytesPerEvent());
+
+        eventManager.addEvent(CustomEvent.newBuilder("event name").build(), "session");
+        assertTrue(eventManager.uploadEvents(Collections.<String, String>emptyMap()));
+        assertTrue(eventManager.uploadEvents(Collections.<String, String>emptyMap()));
+
+        assertEquals(6, eventManager.getBytesPerEvent());
+        assertEquals(2, eventManager.getSessionUploadCount());
+
+        // New session resets the session upload count
+        eventManager.addEvent(CustomEvent.newBuilder("event name").build(), "another session");
+        assertEquals(0, eventManager.getSessionUploadCount());
+    }
+
     /**
      * Tests sending events
      */
@@ -115,7 +215,7 @@ public class EventManagerTest extends BaseTestCase {
 
         // Return 200 bytes in size.  It should only be able to do 100 bytes so only
         // the first event.
-        when(mockEventResolver.getDatabaseSize()).thenReturn(200);
+        when(mockEventResolver.getPayloadSize()).thenReturn(200);
 
         // Return the event when it asks for 1
         when(mockEventResolver.getEvents(1)).thenReturn(events);
@@ -165,7 +265,7 @@ public class EventManagerTest extends BaseTestCase {
         dataStore.put(EventManager.MAX_BATCH_SIZE_KEY, 100000);
 
         // Fake the resolver to act like it has more than 500 events
-        when(mockEventResolver.getDatabaseSize()).thenReturn(100000);
+        when(mockEventResolver.getPayloadSize()).thenReturn(100000);
         when(mockEventResolver.getEventCount()).thenReturn(1000);
 
         eventManager.uploadEvents(Collections.<String, String>emptyMap());
@@ -186,7 +286,7 @@ public class EventManagerTest extends BaseTestCase {
         headers.put("foo", "bar");
 
         when(mockEventResolver.getEventCount()).thenReturn(1);
-        when(mockEventResolver.getDatabaseSize()).thenReturn(100);
+        when(mockEventResolver.getPayloadSize()).thenReturn(100);
         when(mockEventResolver.getEvents(1)).thenReturn(events);
 
         dataStore.put(EventManager.MAX_BATCH_SIZE_KEY, 100);
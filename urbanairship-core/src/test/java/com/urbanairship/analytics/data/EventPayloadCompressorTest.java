@@ -0,0 +1,59 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.analytics.data;
+
+import com.urbanairship.BaseTestCase;
+import com.urbanairship.analytics.CustomEvent;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+public class EventPayloadCompressorTest extends BaseTestCase {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        String payload = CustomEvent.newBuilder("purchased")
+                                    .setEventValue(12.99)
+                                    .addProperty("category", "shoes")
+                                    .addProperty("unicode", "h\u00e9llo \u2713 \ud83d\ude00")
+                                    .build()
+                                    .createEventPayload("session id");
+
+        byte[] compressed = EventPayloadCompressor.compress(payload);
+        assertEquals(payload, EventPayloadCompressor.decompress(compressed));
+
+        assertTrue(compressed.length < payload.getBytes("UTF-8").length);
+    }
+
+    @Test
+    public void testEmptyPayload() throws IOException {
+        assertEquals("", EventPayloadCompressor.decompress(EventPayloadCompressor.compress("")));
+    }
+
+    @Test
+    public void testInvalidPayload() {
+        try {
+            EventPayloadCompressor.decompress(new byte[] { 2, 1, 2, 3 });
+            fail();
+        } catch (IOException e) {
+            // expected
+        }
+
+        byte[] compressed = EventPayloadCompressor.compress("{\"type\":\"app_foreground\"}");
+        byte[] truncated = new byte[compressed.length / 2];
+        System.arraycopy(compressed, 0, truncated, 0, truncated.length);
+
+        try {
+            EventPayloadCompressor.decompress(truncated);
+            fail();
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+}
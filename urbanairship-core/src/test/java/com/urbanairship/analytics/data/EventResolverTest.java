@@ -68,6 +68,41 @@ public class EventResolverTest extends BaseTestCase {
         assertEquals(0, eventResolver.getEventCount());
     }
 
+    /**
+     * Test trimming the database deletes the lowest priority events first.
+     */
+    @Test
+    public void testTrimDatabaseByPriority() {
+        TestEvent customEvent = new TestEvent("custom", "enhanced_custom_event");
+        eventResolver.insertEvent(customEvent, "session");
+        eventResolver.insertEvent(new TestEvent("normal"), "session");
+        eventResolver.insertEvent(new TestEvent("screen-1", "screen_tracking"), "session");
+        eventResolver.insertEvent(new TestEvent("screen-2", "screen_tracking"), "session");
+
+        // Only the oldest screen event needs to go
+        eventResolver.trimDatabase(eventResolver.getDatabaseSize() - 1);
+        Map<String, String> events = eventResolver.getEvents(10);
+        assertEquals(3, events.size());
+        assertFalse(events.containsKey("screen-1"));
+
+        // Trim down to the custom event
+        eventResolver.trimDatabase(customEvent.createEventPayload("session").length());
+        events = eventResolver.getEvents(10);
+        assertEquals(1, events.size());
+        assertTrue(events.containsKey("custom"));
+    }
+
+    /**
+     * Test the retention priority uses the type weights over the event priority.
+     */
+    @Test
+    public void testGetRetentionPriority() {
+        assertEquals(Event.NORMAL_PRIORITY, EventResolver.getRetentionPriority(new TestEvent()));
+        assertEquals(Event.HIGH_PRIORITY, EventResolver.getRetentionPriority(new TestEvent("id", "enhanced_custom_event")));
+        assertEquals(Event.HIGH_PRIORITY, EventResolver.getRetentionPriority(new TestEvent("id", "push_arrived")));
+        assertEquals(Event.LOW_PRIORITY, EventResolver.getRetentionPriority(new TestEvent("id", "screen_tracking")));
+    }
+
     /**
      * Test trimming the database when the oldest session ID is null does not throw
      * an exception.
@@ -169,6 +204,30 @@ public class EventResolverTest extends BaseTestCase {
         assertEquals(eventSize * 3, eventResolver.getDatabaseSize());
     }
 
+    /**
+     * Test compressed events are stored smaller and read back as the original payload.
+     */
+    @Test
+    public void testCompressedEvents() {
+        EventResolver compressingResolver = new EventResolver(RuntimeEnvironment.application, true);
+
+        // Stored before compression was enabled
+        TestEvent uncompressed = new TestEvent("uncompressed");
+        eventResolver.insertEvent(uncompressed, "session id");
+
+        TestEvent compressed = new TestEvent("compressed");
+        compressingResolver.insertEvent(compressed, "session id");
+
+        int payloadSize = uncompressed.createEventPayload("session id").length() + compressed.createEventPayload("session id").length();
+        assertEquals(payloadSize, compressingResolver.getPayloadSize());
+        assertTrue(compressingResolver.getDatabaseSize() < payloadSize);
+
+        Map<String, String> eventData = compressingResolver.getEvents(2);
+        assertEquals(2, eventData.size());
+        assertEquals(uncompressed.createEventPayload("session id"), eventData.get("uncompressed"));
+        assertEquals(compressed.createEventPayload("session id"), eventData.get("compressed"));
+    }
+
     /**
      * Test getting the event count
      */
@@ -5,11 +5,13 @@ package com.urbanairship.channel;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Build;
+import android.os.Looper;
 import android.telephony.TelephonyManager;
 
 import com.urbanairship.AirshipConfigOptions;
 import com.urbanairship.BaseTestCase;
 import com.urbanairship.PreferenceDataStore;
+import com.urbanairship.TestActivityMonitor;
 import com.urbanairship.TestAirshipRuntimeConfig;
 import com.urbanairship.UAirship;
 import com.urbanairship.http.RequestException;
@@ -17,9 +19,11 @@ import com.urbanairship.http.Response;
 import com.urbanairship.job.JobDispatcher;
 import com.urbanairship.job.JobInfo;
 import com.urbanairship.locale.LocaleManager;
+import com.urbanairship.util.UAStringUtil;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatcher;
 import org.mockito.Mockito;
 import org.robolectric.RuntimeEnvironment;
@@ -32,6 +36,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.HttpsURLConnection;
 
@@ -67,6 +72,7 @@ public class AirshipChannelTests extends BaseTestCase {
 
     private JobDispatcher mockDispatcher;
     private LocaleManager localeManager;
+    private TestActivityMonitor activityMonitor;
 
     private PreferenceDataStore dataStore;
 
@@ -76,6 +82,10 @@ public class AirshipChannelTests extends BaseTestCase {
                                                                   .setAction("ACTION_UPDATE_CHANNEL_REGISTRATION")
                                                                   .build();
 
+    private static final JobInfo UPDATE_CHANNEL_JOB = JobInfo.newBuilder()
+                                                             .setAction("ACTION_UPDATE_CHANNEL")
+                                                             .build();
+
     private static final JobInfo UPDATE_ATTRIBUTES_JOB = JobInfo.newBuilder()
                                                                 .setAction("ACTION_UPDATE_ATTRIBUTES")
                                                                 .build();
@@ -98,10 +108,12 @@ public class AirshipChannelTests extends BaseTestCase {
         runtimeConfig = TestAirshipRuntimeConfig.newTestConfig();
 
         localeManager = new LocaleManager(getApplication(), dataStore);
+        activityMonitor = new TestActivityMonitor();
 
         airshipChannel = new AirshipChannel(getApplication(), dataStore,
                 runtimeConfig, mockClient, mockTagGroupRegistrar, localeManager,
-                mockDispatcher, mockPendingAttributeStore, mockAttributeClient);
+                mockDispatcher, mockPendingAttributeStore, mockAttributeClient,
+                activityMonitor, Looper.getMainLooper());
     }
 
     /**
@@ -114,14 +126,14 @@ public class AirshipChannelTests extends BaseTestCase {
         verify(mockDispatcher, times(1)).dispatch(Mockito.argThat(new ArgumentMatcher<JobInfo>() {
             @Override
             public boolean matches(JobInfo jobInfo) {
-                return jobInfo.getAction().equals("ACTION_UPDATE_TAG_GROUPS");
+                return jobInfo.getAction().equals("ACTION_UPDATE_CHANNEL");
             }
         }));
 
         verify(mockDispatcher, times(1)).dispatch(Mockito.argThat(new ArgumentMatcher<JobInfo>() {
             @Override
             public boolean matches(JobInfo jobInfo) {
-                return jobInfo.getAction().equals("ACTION_UPDATE_TAG_GROUPS");
+                return jobInfo.getAction().equals("ACTION_UPDATE_CHANNEL");
             }
         }));
     }
@@ -236,6 +248,43 @@ public class AirshipChannelTests extends BaseTestCase {
         assertTrue(listener.onChannelUpdatedCalled);
     }
 
+    /**
+     * Test update channel only sends the fields that changed.
+     */
+    @Test
+    public void testUpdateChannelSendsChangedFields() throws RequestException {
+        testCreateChannel();
+
+        ArgumentCaptor<ChannelRegistrationPayload> createCaptor = ArgumentCaptor.forClass(ChannelRegistrationPayload.class);
+        verify(mockClient).createChannelWithPayload(createCaptor.capture());
+        ChannelRegistrationPayload created = createCaptor.getValue();
+        assertNotNull(created.timezone);
+
+        // Modify the payload so it actually updates the registration
+        airshipChannel.editTags().addTag("cool").apply();
+
+        when(mockClient.updateChannelWithPayload(eq("channel"), any(ChannelRegistrationPayload.class)))
+                .thenReturn(AirshipChannelTests.<Void>createResponse(null, 200));
+
+        assertEquals(JobInfo.JOB_FINISHED, airshipChannel.onPerformJob(UAirship.shared(), UPDATE_REGISTRATION_JOB));
+
+        ArgumentCaptor<ChannelRegistrationPayload> updateCaptor = ArgumentCaptor.forClass(ChannelRegistrationPayload.class);
+        verify(mockClient).updateChannelWithPayload(eq("channel"), updateCaptor.capture());
+        ChannelRegistrationPayload updated = updateCaptor.getValue();
+
+        // Tags changed, everything else is the same
+        assertEquals(Collections.singleton("cool"), updated.tags);
+        assertNull(updated.timezone);
+        assertNull(updated.sdkVersion);
+        assertTrue(airshipChannel.getAverageRegistrationBytes() > 0);
+        assertTrue(airshipChannel.getAverageRegistrationBytes() < UAStringUtil.getUtf8Length(created.toString()));
+
+        // Nothing changed, no update
+        clearInvocations(mockClient);
+        assertEquals(JobInfo.JOB_FINISHED, airshipChannel.onPerformJob(UAirship.shared(), UPDATE_REGISTRATION_JOB));
+        verifyZeroInteractions(mockClient);
+    }
+
     /**
      * Test channel create retries when an exception is thrown.
      */
@@ -376,7 +425,7 @@ public class AirshipChannelTests extends BaseTestCase {
         verify(mockDispatcher).dispatch(Mockito.argThat(new ArgumentMatcher<JobInfo>() {
             @Override
             public boolean matches(JobInfo jobInfo) {
-                return jobInfo.getAction().equals("ACTION_UPDATE_CHANNEL_REGISTRATION");
+                return jobInfo.getAction().equals("ACTION_UPDATE_CHANNEL");
             }
         }));
     }
@@ -554,7 +603,7 @@ public class AirshipChannelTests extends BaseTestCase {
         verify(mockDispatcher, times(0)).dispatch(Mockito.argThat(new ArgumentMatcher<JobInfo>() {
             @Override
             public boolean matches(JobInfo jobInfo) {
-                return jobInfo.getAction().equals("ACTION_UPDATE_TAG_GROUPS");
+                return jobInfo.getAction().equals("ACTION_UPDATE_CHANNEL");
             }
         }));
     }
@@ -572,7 +621,7 @@ public class AirshipChannelTests extends BaseTestCase {
         verify(mockDispatcher).dispatch(Mockito.argThat(new ArgumentMatcher<JobInfo>() {
             @Override
             public boolean matches(JobInfo jobInfo) {
-                return jobInfo.getAction().equals("ACTION_UPDATE_TAG_GROUPS");
+                return jobInfo.getAction().equals("ACTION_UPDATE_CHANNEL");
             }
         }));
     }
@@ -589,7 +638,7 @@ public class AirshipChannelTests extends BaseTestCase {
         verify(mockDispatcher).dispatch(Mockito.argThat(new ArgumentMatcher<JobInfo>() {
             @Override
             public boolean matches(JobInfo jobInfo) {
-                return jobInfo.getAction().equals("ACTION_UPDATE_ATTRIBUTES");
+                return jobInfo.getAction().equals("ACTION_UPDATE_CHANNEL");
             }
         }));
     }
@@ -737,7 +786,7 @@ public class AirshipChannelTests extends BaseTestCase {
         verify(mockDispatcher, atLeastOnce()).dispatch(Mockito.argThat(new ArgumentMatcher<JobInfo>() {
             @Override
             public boolean matches(JobInfo jobInfo) {
-                return jobInfo.getAction().equals("ACTION_UPDATE_CHANNEL_REGISTRATION");
+                return jobInfo.getAction().equals("ACTION_UPDATE_CHANNEL");
             }
         }));
     }
@@ -768,7 +817,7 @@ public class AirshipChannelTests extends BaseTestCase {
         verify(mockDispatcher, atLeastOnce()).dispatch(Mockito.argThat(new ArgumentMatcher<JobInfo>() {
             @Override
             public boolean matches(JobInfo jobInfo) {
-                return jobInfo.getAction().equals("ACTION_UPDATE_CHANNEL_REGISTRATION");
+                return jobInfo.getAction().equals("ACTION_UPDATE_CHANNEL");
             }
         }));
     }
@@ -915,7 +964,8 @@ public class AirshipChannelTests extends BaseTestCase {
 
         airshipChannel = new AirshipChannel(getApplication(), getApplication().preferenceDataStore,
                 runtimeConfig, mockClient, mockTagGroupRegistrar, localeManager,
-                mockDispatcher, mockPendingAttributeStore, mockAttributeClient);
+                mockDispatcher, mockPendingAttributeStore, mockAttributeClient,
+                activityMonitor, Looper.getMainLooper());
 
         airshipChannel.init();
         assertFalse(airshipChannel.isChannelCreationDelayEnabled());
@@ -930,7 +980,8 @@ public class AirshipChannelTests extends BaseTestCase {
 
         airshipChannel = new AirshipChannel(getApplication(), getApplication().preferenceDataStore,
                 runtimeConfig, mockClient, mockTagGroupRegistrar, localeManager,
-                mockDispatcher, mockPendingAttributeStore, mockAttributeClient);
+                mockDispatcher, mockPendingAttributeStore, mockAttributeClient,
+                activityMonitor, Looper.getMainLooper());
 
         airshipChannel.init();
         assertTrue(airshipChannel.isChannelCreationDelayEnabled());
@@ -953,7 +1004,8 @@ public class AirshipChannelTests extends BaseTestCase {
 
         airshipChannel = new AirshipChannel(getApplication(), getApplication().preferenceDataStore,
                 runtimeConfig, mockClient, mockTagGroupRegistrar, localeManager,
-                mockDispatcher, mockPendingAttributeStore, mockAttributeClient);
+                mockDispatcher, mockPendingAttributeStore, mockAttributeClient,
+                activityMonitor, Looper.getMainLooper());
 
         airshipChannel.init();
 
@@ -969,11 +1021,125 @@ public class AirshipChannelTests extends BaseTestCase {
         verify(mockDispatcher).dispatch(Mockito.argThat(new ArgumentMatcher<JobInfo>() {
             @Override
             public boolean matches(JobInfo jobInfo) {
-                return jobInfo.getAction().equals("ACTION_UPDATE_CHANNEL_REGISTRATION");
+                return jobInfo.getAction().equals("ACTION_UPDATE_CHANNEL");
+            }
+        }));
+    }
+
+    /**
+     * Test updates requested in the foreground are merged into a single job.
+     */
+    @Test
+    public void testUpdatesDebouncedInForeground() throws RequestException {
+        testCreateChannel();
+        clearInvocations(mockDispatcher);
+
+        activityMonitor.foreground();
+
+        airshipChannel.editTags().addTag("cool").apply();
+        airshipChannel.editAttributes().setAttribute("key", "value").apply();
+        airshipChannel.editTagGroups().addTag("group", "tag").apply();
+
+        verifyZeroInteractions(mockDispatcher);
+
+        Shadows.shadowOf(Looper.getMainLooper()).getScheduler().advanceBy(5000, TimeUnit.MILLISECONDS);
+
+        verify(mockDispatcher, times(1)).dispatch(Mockito.argThat(new ArgumentMatcher<JobInfo>() {
+            @Override
+            public boolean matches(JobInfo jobInfo) {
+                return jobInfo.getAction().equals("ACTION_UPDATE_CHANNEL");
+            }
+        }));
+        assertEquals(2, airshipChannel.getCoalescedUpdateCount());
+    }
+
+    /**
+     * Test pending updates are dispatched when the app backgrounds.
+     */
+    @Test
+    public void testUpdatesFlushOnBackground() throws RequestException {
+        testCreateChannel();
+        clearInvocations(mockDispatcher);
+
+        airshipChannel.init();
+        activityMonitor.foreground();
+
+        airshipChannel.editAttributes().setAttribute("key", "value").apply();
+        airshipChannel.updateRegistration();
+        verifyZeroInteractions(mockDispatcher);
+
+        activityMonitor.background();
+
+        verify(mockDispatcher, times(1)).dispatch(Mockito.argThat(new ArgumentMatcher<JobInfo>() {
+            @Override
+            public boolean matches(JobInfo jobInfo) {
+                return jobInfo.getAction().equals("ACTION_UPDATE_CHANNEL");
+            }
+        }));
+        assertEquals(1, airshipChannel.getCoalescedUpdateCount());
+
+        // Nothing left to flush
+        Shadows.shadowOf(Looper.getMainLooper()).getScheduler().advanceBy(5000, TimeUnit.MILLISECONDS);
+        verify(mockDispatcher, times(1)).dispatch(any(JobInfo.class));
+    }
+
+    /**
+     * Test the update channel job updates the registration, tag groups, and attributes.
+     */
+    @Test
+    public void testUpdateChannelJob() throws RequestException {
+        testCreateChannel();
+
+        airshipChannel.editTags().addTag("cool").apply();
+
+        when(mockClient.updateChannelWithPayload(eq("channel"), any(ChannelRegistrationPayload.class)))
+                .thenReturn(AirshipChannelTests.<Void>createResponse(null, 200));
+        when(mockTagGroupRegistrar.uploadMutations(TagGroupRegistrar.CHANNEL, "channel")).thenReturn(true);
+
+        int result = airshipChannel.onPerformJob(UAirship.shared(), UPDATE_CHANNEL_JOB);
+        assertEquals(JobInfo.JOB_FINISHED, result);
+
+        verify(mockClient).updateChannelWithPayload(eq("channel"), any(ChannelRegistrationPayload.class));
+        verify(mockTagGroupRegistrar).uploadMutations(TagGroupRegistrar.CHANNEL, "channel");
+        verify(mockPendingAttributeStore, atLeastOnce()).peek();
+
+        // Retries if any update needs to be retried
+        when(mockTagGroupRegistrar.uploadMutations(TagGroupRegistrar.CHANNEL, "channel")).thenReturn(false);
+        assertEquals(JobInfo.JOB_RETRY, airshipChannel.onPerformJob(UAirship.shared(), UPDATE_CHANNEL_JOB));
+    }
+
+    /**
+     * Test creating the channel from the legacy registration job requests a follow-up update.
+     */
+    @Test
+    public void testCreateChannelRequestsUpdate() throws RequestException {
+        testCreateChannel();
+
+        verify(mockDispatcher).dispatch(Mockito.argThat(new ArgumentMatcher<JobInfo>() {
+            @Override
+            public boolean matches(JobInfo jobInfo) {
+                return jobInfo.getAction().equals("ACTION_UPDATE_CHANNEL");
             }
         }));
     }
 
+    /**
+     * Test creating the channel from the update channel job does not request another update.
+     */
+    @Test
+    public void testUpdateChannelJobCreatesChannelWithoutFollowUpUpdate() throws RequestException {
+        when(mockClient.createChannelWithPayload(any(ChannelRegistrationPayload.class)))
+                .thenReturn(createResponse("channel", 200));
+        when(mockTagGroupRegistrar.uploadMutations(TagGroupRegistrar.CHANNEL, "channel")).thenReturn(true);
+
+        int result = airshipChannel.onPerformJob(UAirship.shared(), UPDATE_CHANNEL_JOB);
+        assertEquals(JobInfo.JOB_FINISHED, result);
+        assertEquals("channel", airshipChannel.getId());
+
+        verify(mockTagGroupRegistrar).uploadMutations(TagGroupRegistrar.CHANNEL, "channel");
+        verifyZeroInteractions(mockDispatcher);
+    }
+
     private static <T> Response<T> createResponse(T result, int status) {
         return new Response.Builder<T>(status)
                 .setResponseBody("test")
@@ -19,6 +19,8 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatcher;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import java.net.HttpURLConnection;
 import java.util.List;
@@ -37,6 +39,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -770,4 +773,113 @@ public class NamedUserTest extends BaseTestCase {
             }
         }));
     }
+
+    /**
+     * Test rapid ID changes only send the final named user ID.
+     */
+    @Test
+    public void testIdChurnSendsFinalId() throws RequestException {
+        when(mockChannel.getId()).thenReturn("channelID");
+        when(mockTagGroupRegistrar.uploadMutations(anyInt(), anyString())).thenReturn(true);
+        TestNamedUserServer server = new TestNamedUserServer();
+
+        for (int i = 0; i < 1000; i++) {
+            namedUser.setId("user-" + (i % 3));
+            namedUser.setId(null);
+        }
+        namedUser.setId("final");
+
+        JobInfo jobInfo = JobInfo.newBuilder().setAction(NamedUser.ACTION_UPDATE_NAMED_USER).build();
+        assertEquals(JobInfo.JOB_FINISHED, namedUser.onPerformJob(UAirship.shared(), jobInfo));
+
+        assertEquals(1, server.requestCount);
+        assertEquals("final", server.namedUserId);
+        verify(mockNamedUserClient, never()).disassociate(anyString());
+        assertTrue(namedUser.isIdUpToDate());
+    }
+
+    /**
+     * Test changing the ID back to the synced ID does not send a request.
+     */
+    @Test
+    public void testIdChurnBackToSyncedIdSkipsRequest() throws RequestException {
+        when(mockChannel.getId()).thenReturn("channelID");
+        when(mockTagGroupRegistrar.uploadMutations(anyInt(), anyString())).thenReturn(true);
+        TestNamedUserServer server = new TestNamedUserServer();
+
+        namedUser.setId("namedUserID");
+        JobInfo jobInfo = JobInfo.newBuilder().setAction(NamedUser.ACTION_UPDATE_NAMED_USER).build();
+        assertEquals(JobInfo.JOB_FINISHED, namedUser.onPerformJob(UAirship.shared(), jobInfo));
+        assertEquals(1, server.requestCount);
+
+        // Logout and login again
+        namedUser.setId(null);
+        namedUser.setId("other");
+        namedUser.setId("namedUserID");
+        assertFalse(namedUser.isIdUpToDate());
+
+        assertEquals(JobInfo.JOB_FINISHED, namedUser.onPerformJob(UAirship.shared(), jobInfo));
+        assertEquals(1, server.requestCount);
+        assertTrue(namedUser.isIdUpToDate());
+
+        // Force update still sends the ID
+        namedUser.forceUpdate();
+        assertEquals(JobInfo.JOB_FINISHED, namedUser.onPerformJob(UAirship.shared(), jobInfo));
+        assertEquals(2, server.requestCount);
+    }
+
+    /**
+     * Test the server ends up with the final ID when jobs run in between ID changes.
+     */
+    @Test
+    public void testIdChurnWithInterleavedJobs() throws RequestException {
+        when(mockChannel.getId()).thenReturn("channelID");
+        when(mockTagGroupRegistrar.uploadMutations(anyInt(), anyString())).thenReturn(true);
+        TestNamedUserServer server = new TestNamedUserServer();
+
+        JobInfo jobInfo = JobInfo.newBuilder().setAction(NamedUser.ACTION_UPDATE_NAMED_USER).build();
+        int jobCount = 0;
+        for (int i = 0; i < 500; i++) {
+            namedUser.setId(i % 2 == 0 ? "user-" + (i % 5) : null);
+            if (i % 10 == 9) {
+                assertEquals(JobInfo.JOB_FINISHED, namedUser.onPerformJob(UAirship.shared(), jobInfo));
+                jobCount++;
+            }
+        }
+
+        assertTrue(server.requestCount <= jobCount);
+        assertNull(server.namedUserId);
+        assertTrue(namedUser.isIdUpToDate());
+    }
+
+    /**
+     * Stand-in for the named user API that tracks the associated named user.
+     */
+    private class TestNamedUserServer {
+
+        String namedUserId;
+        int requestCount;
+
+        TestNamedUserServer() throws RequestException {
+            when(mockNamedUserClient.associate(anyString(), anyString())).thenAnswer(new Answer<Response<Void>>() {
+                @Override
+                public Response<Void> answer(InvocationOnMock invocation) {
+                    requestCount++;
+                    namedUserId = invocation.getArgument(0);
+                    return new Response.Builder<Void>(200).build();
+                }
+            });
+
+            when(mockNamedUserClient.disassociate(anyString())).thenAnswer(new Answer<Response<Void>>() {
+                @Override
+                public Response<Void> answer(InvocationOnMock invocation) {
+                    requestCount++;
+                    namedUserId = null;
+                    return new Response.Builder<Void>(200).build();
+                }
+            });
+        }
+
+    }
+
 }
@@ -132,4 +132,113 @@ public class PendingAttributeMutationStoreTest extends BaseTestCase {
 
         assertEquals(expectedResult, JsonValue.wrapOpt(store.peek()).toString());
     }
+
+    @Test
+    public void testAddCompacts() {
+        // 10k edits of 100 attributes while offline
+        for (int i = 0; i < 10000; i++) {
+            List<AttributeMutation> mutations = new ArrayList<>();
+            mutations.add(AttributeMutation.newSetAttributeMutation("key_" + (i % 100), "value_" + i));
+            store.add(PendingAttributeMutation.fromAttributeMutations(mutations, i));
+        }
+
+        List<List<PendingAttributeMutation>> stored = store.getMutations();
+        assertEquals(1, stored.size());
+        assertEquals(100, stored.get(0).size());
+
+        // Last writer wins
+        PendingAttributeMutation last = stored.get(0).get(99);
+        assertEquals("key_99", last.getMutationName());
+        assertEquals("value_9999", last.getMutationValue());
+
+        // Persisted compacted
+        PendingAttributeMutationStore reloaded = new PendingAttributeMutationStore(TestApplication.getApplication().preferenceDataStore, "test");
+        assertEquals(stored, reloaded.getMutations());
+    }
+
+    @Test
+    public void testReplacedAttributeMovesToEnd() {
+        List<AttributeMutation> mutations = new ArrayList<>();
+        mutations.add(AttributeMutation.newSetAttributeMutation("first", "value"));
+        mutations.add(AttributeMutation.newSetAttributeMutation("second", "value"));
+        store.add(PendingAttributeMutation.fromAttributeMutations(mutations, 0));
+
+        mutations.clear();
+        mutations.add(AttributeMutation.newRemoveAttributeMutation("first"));
+        store.add(PendingAttributeMutation.fromAttributeMutations(mutations, 0));
+
+        String expectedResult = "[{\"action\":\"set\",\"value\":\"value\",\"key\":\"second\",\"timestamp\":\"1970-01-01T00:00:00\"},"+
+                "{\"action\":\"remove\",\"key\":\"first\",\"timestamp\":\"1970-01-01T00:00:00\"}]";
+
+        assertEquals(expectedResult, JsonValue.wrapOpt(store.peek()).toString());
+    }
+
+    @Test
+    public void testPeekBatchSize() {
+        store = new PendingAttributeMutationStore(TestApplication.getApplication().preferenceDataStore, "test", 200);
+
+        List<AttributeMutation> mutations = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            mutations.add(AttributeMutation.newSetAttributeMutation("key_" + i, "value"));
+        }
+        store.add(PendingAttributeMutation.fromAttributeMutations(mutations, 0));
+
+        // Each mutation is ~80 bytes
+        List<PendingAttributeMutation> batch = store.peek();
+        assertEquals(2, batch.size());
+        store.removeUploaded(batch);
+
+        batch = store.peek();
+        assertEquals(2, batch.size());
+        assertEquals("key_2", batch.get(0).getMutationName());
+        store.removeUploaded(batch);
+
+        batch = store.peek();
+        assertEquals(1, batch.size());
+        store.removeUploaded(batch);
+
+        assertNull(store.peek());
+    }
+
+    @Test
+    public void testRemoveUploadedKeepsNewMutations() {
+        List<AttributeMutation> mutations = new ArrayList<>();
+        mutations.add(AttributeMutation.newSetAttributeMutation("key", "old"));
+        store.add(PendingAttributeMutation.fromAttributeMutations(mutations, 0));
+
+        List<PendingAttributeMutation> uploading = store.peek();
+
+        // Changed while uploading
+        mutations.clear();
+        mutations.add(AttributeMutation.newSetAttributeMutation("key", "new"));
+        store.add(PendingAttributeMutation.fromAttributeMutations(mutations, 0));
+
+        store.removeUploaded(uploading);
+
+        List<PendingAttributeMutation> pending = store.peek();
+        assertEquals(1, pending.size());
+        assertEquals("new", pending.get(0).getMutationValue());
+    }
+
+    @Test
+    public void testCollapseOldFormat() {
+        List<AttributeMutation> first = new ArrayList<>();
+        first.add(AttributeMutation.newSetAttributeMutation("key", "old"));
+        first.add(AttributeMutation.newSetAttributeMutation("other", "value"));
+
+        List<AttributeMutation> second = new ArrayList<>();
+        second.add(AttributeMutation.newSetAttributeMutation("key", "new"));
+
+        List<List<PendingAttributeMutation>> stored = new ArrayList<>();
+        stored.add(PendingAttributeMutation.fromAttributeMutations(first, 0));
+        stored.add(PendingAttributeMutation.fromAttributeMutations(second, 0));
+        TestApplication.getApplication().preferenceDataStore.put("test", JsonValue.wrapOpt(stored));
+
+        store.collapseAndSaveMutations();
+
+        String expectedResult = "[[{\"action\":\"set\",\"value\":\"value\",\"key\":\"other\",\"timestamp\":\"1970-01-01T00:00:00\"},"+
+                "{\"action\":\"set\",\"value\":\"new\",\"key\":\"key\",\"timestamp\":\"1970-01-01T00:00:00\"}]]";
+
+        assertEquals(expectedResult, TestApplication.getApplication().preferenceDataStore.getJsonValue("test").toString());
+    }
 }
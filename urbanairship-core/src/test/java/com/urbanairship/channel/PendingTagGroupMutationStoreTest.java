@@ -89,6 +89,37 @@ public class PendingTagGroupMutationStoreTest extends BaseTestCase {
         assertEquals(collapseMutations.get(0), store.peek());
     }
 
+    @Test
+    public void testCollapseAndGetMutations() {
+        List<TagGroupsMutation> mutations = new ArrayList<>();
+        mutations.add(TagGroupsMutation.newAddTagsMutation("group-one", createTagSet("cool")));
+        mutations.add(TagGroupsMutation.newSetTagsMutation("group-two", createTagSet("whatever")));
+        mutations.add(TagGroupsMutation.newRemoveTagsMutation("group-one", createTagSet("cool")));
+        store.add(mutations);
+
+        List<TagGroupsMutation> collapsed = store.collapseAndGetMutations();
+        assertEquals(TagGroupsMutation.collapseMutations(mutations), collapsed);
+        assertEquals(collapsed, store.getMutations());
+    }
+
+    @Test
+    public void testRemoveUploaded() {
+        TagGroupsMutation first = TagGroupsMutation.newAddTagsMutation("group-one", createTagSet("cool"));
+        TagGroupsMutation second = TagGroupsMutation.newSetTagsMutation("group-two", createTagSet("whatever"));
+        TagGroupsMutation third = TagGroupsMutation.newRemoveTagsMutation("group-three", createTagSet("story"));
+        store.add(Arrays.asList(first, second, third));
+
+        store.removeUploaded(Arrays.asList(first, second));
+        assertEquals(Arrays.asList(third), store.getMutations());
+
+        // Mutations no longer at the front of the store are left alone
+        store.removeUploaded(Arrays.asList(first));
+        assertEquals(Arrays.asList(third), store.getMutations());
+
+        store.removeUploaded(Arrays.asList(third));
+        assertTrue(store.getMutations().isEmpty());
+    }
+
     private Set<String> createTagSet(String... tags) {
         return new HashSet<>(Arrays.asList(tags));
     }
@@ -4,8 +4,10 @@ package com.urbanairship.channel;
 
 import com.google.common.collect.Lists;
 import com.urbanairship.BaseTestCase;
+import com.urbanairship.PreferenceDataStore;
 import com.urbanairship.TestApplication;
 import com.urbanairship.http.Response;
+import com.urbanairship.json.JsonValue;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -17,13 +19,21 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import androidx.annotation.NonNull;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -172,6 +182,55 @@ public class TagGroupRegistrarTests extends BaseTestCase {
         registrar.removeListener(listener);
     }
 
+    /**
+     * Test 1,000 queued edits are uploaded in as few requests as the API allows, with a single
+     * checkpoint of the pending store.
+     */
+    @Test
+    public void testUploadBatch() {
+        PreferenceDataStore dataStore = spy(TestApplication.getApplication().preferenceDataStore);
+        PendingTagGroupMutationStore store = new PendingTagGroupMutationStore(dataStore, "TagGroupRegistrarTests.batch");
+        store.clear();
+        registrar = new TagGroupRegistrar(mockClient, store, namedUserStore);
+
+        List<TagGroupsMutation> mutations = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            String group = "group-" + (i % 10);
+            Set<String> tags = new HashSet<>(Lists.newArrayList("tag-" + i));
+            switch (i % 3) {
+                case 0:
+                    mutations.add(TagGroupsMutation.newAddTagsMutation(group, tags));
+                    break;
+                case 1:
+                    mutations.add(TagGroupsMutation.newRemoveTagsMutation(group, tags));
+                    break;
+                default:
+                    mutations.add(TagGroupsMutation.newSetTagsMutation(group, tags));
+                    break;
+            }
+        }
+        registrar.addMutations(TagGroupRegistrar.CHANNEL, mutations);
+
+        final AtomicInteger requests = new AtomicInteger();
+        when(mockClient.updateTagGroups(eq(TagGroupRegistrar.CHANNEL), eq("identifier"), any(TagGroupsMutation.class))).thenAnswer(new Answer<Response>() {
+            @Override
+            public Response answer(InvocationOnMock invocation) {
+                requests.incrementAndGet();
+                return new Response.Builder<Void>(HttpURLConnection.HTTP_OK).build();
+            }
+        });
+
+        clearInvocations(dataStore);
+        assertTrue(registrar.uploadMutations(TagGroupRegistrar.CHANNEL, "identifier"));
+
+        // One set mutation and one add/remove mutation
+        assertEquals(2, requests.get());
+        assertTrue(store.getMutations().isEmpty());
+
+        // One write to collapse the batch and one to checkpoint it
+        verify(dataStore, times(2)).put(eq("TagGroupRegistrarTests.batch"), any(JsonValue.class));
+    }
+
     private void verifyRequest(Response response, @TagGroupRegistrar.TagGroupType int type, PendingTagGroupMutationStore store, boolean expectedResult) {
 
         TestListener listener = new TestListener();
@@ -122,6 +122,31 @@ public class TagGroupsMutationTest extends BaseTestCase {
         assertEquals(JsonValue.parseString(expected), collapsed.get(0).toJsonValue());
     }
 
+    @Test
+    public void testEqualsAfterCollapseShrinksTags() {
+        // Add 50 tags then remove 48 of them, the collapsed set keeps the capacity of 50 tags
+        Set<String> addTags = tagSet("O", "P");
+        Set<String> removeTags = new HashSet<>();
+        for (int i = 0; i < 48; i++) {
+            addTags.add("tag-" + i);
+            removeTags.add("tag-" + i);
+        }
+
+        List<TagGroupsMutation> mutations = new ArrayList<>();
+        mutations.add(TagGroupsMutation.newAddTagsMutation("group", addTags));
+        mutations.add(TagGroupsMutation.newRemoveTagsMutation("group", removeTags));
+
+        List<TagGroupsMutation> collapsed = TagGroupsMutation.collapseMutations(mutations);
+        assertEquals(1, collapsed.size());
+
+        // Same mutation once stored and parsed again
+        TagGroupsMutation parsed = TagGroupsMutation.fromJsonValue(collapsed.get(0).toJsonValue());
+        assertEquals(collapsed.get(0), parsed);
+        assertEquals(collapsed.get(0).hashCode(), parsed.hashCode());
+
+        assertFalse(collapsed.get(0).equals(TagGroupsMutation.newAddTagsMutation("group", tagSet("O", "P"))));
+    }
+
     @Test
     public void testCollapseMultipleGroups() throws JsonException {
         final TagGroupsMutation addGroup1 = TagGroupsMutation.newAddTagsMutation("group1", tagSet("tag1", "tag2"));
@@ -0,0 +1,133 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.job;
+
+import com.urbanairship.AirshipComponent;
+import com.urbanairship.BaseTestCase;
+import com.urbanairship.analytics.Analytics;
+import com.urbanairship.channel.AirshipChannel;
+import com.urbanairship.json.JsonMap;
+import com.urbanairship.push.PushManager;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+public class JobBatchTest extends BaseTestCase {
+
+    @Test
+    public void testDependencyOrder() {
+        JobInfo upload = createJob(JobInfo.ANALYTICS_EVENT_UPLOAD, Analytics.class);
+        JobInfo attributes = createJob(JobInfo.CHANNEL_UPDATE_ATTRIBUTES, AirshipChannel.class);
+        JobInfo tags = createJob(JobInfo.CHANNEL_UPDATE_TAG_GROUPS, AirshipChannel.class);
+        JobInfo registration = createJob(JobInfo.CHANNEL_UPDATE_REGISTRATION, AirshipChannel.class);
+
+        JobBatch batch = new JobBatch();
+        batch.add(upload, 0);
+        batch.add(attributes, 0);
+        batch.add(tags, 0);
+        batch.add(registration, 0);
+
+        List<JobInfo> jobs = JobBatch.parseJobs(batch.toJobInfo(JobInfo.JOB_BATCH, 0));
+        assertEquals(Arrays.asList(registration, tags, attributes, upload), jobs);
+    }
+
+    @Test
+    public void testAddReplacesSameId() {
+        JobBatch batch = new JobBatch();
+        assertTrue(batch.add(createJob(JobInfo.CHANNEL_UPDATE_REGISTRATION, AirshipChannel.class), 0));
+
+        JobInfo replacement = JobInfo.newBuilder()
+                                     .setAction("other_action")
+                                     .setId(JobInfo.CHANNEL_UPDATE_REGISTRATION)
+                                     .setNetworkAccessRequired(true)
+                                     .setAirshipComponent(AirshipChannel.class)
+                                     .build();
+
+        assertFalse(batch.add(replacement, 0));
+        assertEquals(1, batch.size());
+        assertEquals(Collections.singletonList(replacement), JobBatch.parseJobs(batch.toJobInfo(JobInfo.JOB_BATCH, 0)));
+    }
+
+    @Test
+    public void testRemoveDueSkipsReplacedJobs() {
+        JobInfo original = createJob(JobInfo.CHANNEL_UPDATE_REGISTRATION, AirshipChannel.class);
+        JobInfo replacement = JobInfo.newBuilder()
+                                     .setAction("other_action")
+                                     .setId(JobInfo.CHANNEL_UPDATE_REGISTRATION)
+                                     .setNetworkAccessRequired(true)
+                                     .setAirshipComponent(AirshipChannel.class)
+                                     .build();
+
+        JobBatch batch = new JobBatch();
+        batch.add(original, 0);
+        batch.add(replacement, 0);
+
+        assertTrue(batch.removeDue(Collections.singletonList(original), 0).isEmpty());
+        assertFalse(batch.isEmpty());
+
+        assertEquals(Collections.singletonList(replacement), batch.removeDue(Collections.singletonList(replacement), 0));
+        assertTrue(batch.isEmpty());
+    }
+
+    @Test
+    public void testRemoveDue() {
+        JobInfo registration = createJob(JobInfo.CHANNEL_UPDATE_REGISTRATION, AirshipChannel.class);
+        JobInfo upload = createJob(JobInfo.ANALYTICS_EVENT_UPLOAD, Analytics.class);
+        JobInfo unknown = createJob(JobInfo.CHANNEL_UPDATE_TAG_GROUPS, AirshipChannel.class);
+
+        JobBatch batch = new JobBatch();
+        batch.add(registration, 100);
+        batch.add(upload, 30000);
+        assertEquals(100, batch.getNextDeadline());
+
+        // Jobs that are not in the batch run, jobs that are not due stay in the batch
+        List<JobInfo> due = batch.removeDue(Arrays.asList(registration, upload, unknown), 1000);
+        assertEquals(Arrays.asList(registration, unknown), due);
+        assertEquals(1, batch.size());
+        assertEquals(30000, batch.getNextDeadline());
+    }
+
+    @Test
+    public void testBatchJobInfo() {
+        JobInfo persistentJob = JobInfo.newBuilder()
+                                       .setAction("test_action")
+                                       .setId(JobInfo.CHANNEL_UPDATE_PUSH_TOKEN)
+                                       .setNetworkAccessRequired(true)
+                                       .setPersistent(true)
+                                       .setInitialDelay(5, TimeUnit.SECONDS)
+                                       .setExtras(JsonMap.newBuilder().put("key", "value").build())
+                                       .setAirshipComponent(PushManager.class)
+                                       .build();
+
+        JobBatch batch = new JobBatch();
+        batch.add(persistentJob, 0);
+
+        JobInfo batchJob = batch.toJobInfo(JobInfo.JOB_BATCH, 1000);
+        assertTrue(JobBatch.isBatch(batchJob));
+        assertTrue(batchJob.isPersistent());
+        assertTrue(batchJob.isNetworkAccessRequired());
+        assertEquals(1000, batchJob.getInitialDelay());
+
+        // Verify the batch survives the bundle round trip used by the schedulers
+        JobInfo fromBundle = JobInfo.fromBundle(batchJob.toBundle());
+        assertEquals(Collections.singletonList(persistentJob), JobBatch.parseJobs(fromBundle));
+    }
+
+    private static JobInfo createJob(@JobInfo.JobId int jobId, Class<? extends AirshipComponent> component) {
+        return JobInfo.newBuilder()
+                      .setAction("test_action")
+                      .setId(jobId)
+                      .setNetworkAccessRequired(true)
+                      .setAirshipComponent(component)
+                      .build();
+    }
+
+}
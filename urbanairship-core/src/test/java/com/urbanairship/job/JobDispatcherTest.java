@@ -11,21 +11,31 @@ import android.os.TransactionTooLargeException;
 import com.urbanairship.BaseTestCase;
 import com.urbanairship.TestActivityMonitor;
 import com.urbanairship.TestApplication;
+import com.urbanairship.TestClock;
 import com.urbanairship.json.JsonMap;
 import com.urbanairship.push.PushManager;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.robolectric.RuntimeEnvironment;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
 import androidx.annotation.NonNull;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.robolectric.Shadows.shadowOf;
@@ -133,6 +143,190 @@ public class JobDispatcherTest extends BaseTestCase {
         verify(mockFallbackScheduler).cancel(context, 3000007);
     }
 
+    @Test
+    public void testCoalesceNetworkJobs() throws SchedulerException {
+        JobInfo tagsJob = createNetworkJob(JobInfo.CHANNEL_UPDATE_TAG_GROUPS);
+        JobInfo registrationJob = createNetworkJob(JobInfo.CHANNEL_UPDATE_REGISTRATION);
+
+        dispatcher.dispatch(tagsJob);
+        dispatcher.dispatch(registrationJob);
+
+        ArgumentCaptor<JobInfo> captor = ArgumentCaptor.forClass(JobInfo.class);
+        verify(mockScheduler, times(2)).schedule(eq(context), captor.capture(), eq(3000012));
+
+        JobInfo batchJob = captor.getValue();
+        assertTrue(JobBatch.isBatch(batchJob));
+        assertTrue(batchJob.isNetworkAccessRequired());
+
+        // Registration runs before tags
+        assertEquals(Arrays.asList(registrationJob, tagsJob), JobBatch.parseJobs(batchJob));
+        assertEquals(1, dispatcher.getWakeUpsSavedPerHour());
+    }
+
+    @Test
+    public void testCoalesceSameJobDoesNotCountAsSaved() throws SchedulerException {
+        dispatcher.dispatch(createNetworkJob(JobInfo.REMOTE_DATA_REFRESH));
+        dispatcher.dispatch(createNetworkJob(JobInfo.REMOTE_DATA_REFRESH));
+
+        assertEquals(0, dispatcher.getWakeUpsSavedPerHour());
+    }
+
+    @Test
+    public void testWakeUpsSavedPerHour() {
+        TestClock clock = new TestClock();
+        JobDispatcher dispatcher = new JobDispatcher(context, new JobDispatcher.SchedulerFactory() {
+            @NonNull
+            @Override
+            public Scheduler createScheduler(Context context) {
+                return mockScheduler;
+            }
+
+            @NonNull
+            @Override
+            public Scheduler createFallbackScheduler(Context context) {
+                return mockFallbackScheduler;
+            }
+        }, activityMonitor, clock);
+
+        dispatcher.dispatch(createNetworkJob(JobInfo.CHANNEL_UPDATE_REGISTRATION));
+        dispatcher.dispatch(createNetworkJob(JobInfo.CHANNEL_UPDATE_ATTRIBUTES));
+        dispatcher.dispatch(createNetworkJob(JobInfo.ANALYTICS_EVENT_UPLOAD));
+        assertEquals(2, dispatcher.getWakeUpsSavedPerHour());
+
+        clock.currentTimeMillis += TimeUnit.HOURS.toMillis(1) + 1;
+        assertEquals(0, dispatcher.getWakeUpsSavedPerHour());
+    }
+
+    @Test
+    public void testDelayedNetworkJobNotCoalesced() throws SchedulerException {
+        JobInfo delayedJob = JobInfo.newBuilder()
+                                    .setAction("test_action")
+                                    .setId(JobInfo.ANALYTICS_EVENT_UPLOAD)
+                                    .setNetworkAccessRequired(true)
+                                    .setInitialDelay(10, TimeUnit.MINUTES)
+                                    .setAirshipComponent(PushManager.class)
+                                    .build();
+
+        dispatcher.dispatch(delayedJob);
+        verify(mockScheduler).schedule(context, delayedJob, 3000000);
+    }
+
+    @Test
+    public void testCancelRemovesJobFromBatch() throws SchedulerException {
+        dispatcher.dispatch(createNetworkJob(JobInfo.CHANNEL_UPDATE_REGISTRATION));
+        dispatcher.cancel(JobInfo.CHANNEL_UPDATE_REGISTRATION);
+
+        verify(mockScheduler).cancel(context, 3000012);
+
+        // Cancelled once when coalesced and once by the cancel
+        verify(mockScheduler, times(2)).cancel(context, 3000005);
+    }
+
+    @Test
+    public void testBatchStarted() throws SchedulerException {
+        JobInfo registrationJob = createNetworkJob(JobInfo.CHANNEL_UPDATE_REGISTRATION);
+        dispatcher.dispatch(registrationJob);
+        assertEquals(Collections.singletonList(registrationJob),
+                dispatcher.onBatchStarted(JobInfo.JOB_BATCH, Collections.singletonList(registrationJob)));
+
+        // A job dispatched after the batch started is scheduled under the other batch ID
+        JobInfo tagsJob = createNetworkJob(JobInfo.CHANNEL_UPDATE_TAG_GROUPS);
+        dispatcher.dispatch(tagsJob);
+
+        ArgumentCaptor<JobInfo> captor = ArgumentCaptor.forClass(JobInfo.class);
+        verify(mockScheduler).schedule(eq(context), captor.capture(), eq(3000013));
+        assertEquals(Collections.singletonList(tagsJob), JobBatch.parseJobs(captor.getValue()));
+        assertEquals(0, dispatcher.getWakeUpsSavedPerHour());
+    }
+
+    @Test
+    public void testBatchJobsRunAtTheirOwnDeadline() throws SchedulerException {
+        TestClock clock = new TestClock();
+        JobDispatcher dispatcher = createDispatcher(clock);
+
+        JobInfo registrationJob = createNetworkJob(JobInfo.CHANNEL_UPDATE_REGISTRATION);
+        JobInfo uploadJob = JobInfo.newBuilder()
+                                   .setAction("test_action")
+                                   .setId(JobInfo.ANALYTICS_EVENT_UPLOAD)
+                                   .setNetworkAccessRequired(true)
+                                   .setInitialDelay(30, TimeUnit.SECONDS)
+                                   .setAirshipComponent(PushManager.class)
+                                   .build();
+
+        dispatcher.dispatch(registrationJob);
+        dispatcher.dispatch(uploadJob);
+
+        // The batch wakes up for the registration job
+        ArgumentCaptor<JobInfo> captor = ArgumentCaptor.forClass(JobInfo.class);
+        verify(mockScheduler, times(2)).schedule(eq(context), captor.capture(), eq(3000012));
+        JobInfo batchJob = captor.getValue();
+        assertEquals(0, batchJob.getInitialDelay());
+
+        // Only the registration job is due
+        clock.currentTimeMillis += 1000;
+        assertEquals(Collections.singletonList(registrationJob), dispatcher.onBatchStarted(JobInfo.JOB_BATCH, JobBatch.parseJobs(batchJob)));
+
+        // The upload is scheduled for its own deadline under the other batch ID
+        verify(mockScheduler).schedule(eq(context), captor.capture(), eq(3000013));
+        assertEquals(Collections.singletonList(uploadJob), JobBatch.parseJobs(captor.getValue()));
+        assertEquals(29000, captor.getValue().getInitialDelay());
+    }
+
+    @Test
+    public void testBatchFinishedRetriesJobs() throws SchedulerException {
+        JobDispatcher dispatcher = createDispatcher(new TestClock());
+
+        JobInfo registrationJob = createNetworkJob(JobInfo.CHANNEL_UPDATE_REGISTRATION);
+        dispatcher.dispatch(registrationJob);
+        dispatcher.onBatchStarted(JobInfo.JOB_BATCH, Collections.singletonList(registrationJob));
+        dispatcher.onBatchFinished(JobInfo.JOB_BATCH, Collections.singletonList(registrationJob));
+
+        // The running batch is not replaced
+        ArgumentCaptor<JobInfo> captor = ArgumentCaptor.forClass(JobInfo.class);
+        verify(mockScheduler).schedule(eq(context), captor.capture(), eq(3000013));
+        assertEquals(Collections.singletonList(registrationJob), JobBatch.parseJobs(captor.getValue()));
+        assertEquals(30000, captor.getValue().getInitialDelay());
+        verify(mockScheduler, times(1)).schedule(eq(context), Mockito.any(JobInfo.class), eq(3000012));
+    }
+
+    @Test
+    public void testBatchedJobScheduledOnItsOwn() throws SchedulerException {
+        dispatcher.dispatch(createNetworkJob(JobInfo.CHANNEL_UPDATE_REGISTRATION));
+
+        JobInfo delayedJob = JobInfo.newBuilder()
+                                    .setAction("test_action")
+                                    .setId(JobInfo.CHANNEL_UPDATE_REGISTRATION)
+                                    .setNetworkAccessRequired(true)
+                                    .setInitialDelay(10, TimeUnit.MINUTES)
+                                    .setAirshipComponent(PushManager.class)
+                                    .build();
+        dispatcher.dispatch(delayedJob);
+
+        // The job is removed from the batch
+        verify(mockScheduler).cancel(context, 3000012);
+        verify(mockScheduler).schedule(context, delayedJob, 3000005);
+        assertEquals(-1, dispatcher.getPendingBatchDelay());
+    }
+
+    @Test
+    public void testJobScheduledOnItsOwnMovedToBatch() throws SchedulerException {
+        JobInfo delayedJob = JobInfo.newBuilder()
+                                    .setAction("test_action")
+                                    .setId(JobInfo.CHANNEL_UPDATE_REGISTRATION)
+                                    .setNetworkAccessRequired(true)
+                                    .setInitialDelay(10, TimeUnit.MINUTES)
+                                    .setAirshipComponent(PushManager.class)
+                                    .build();
+        dispatcher.dispatch(delayedJob);
+        verify(mockScheduler).schedule(context, delayedJob, 3000005);
+
+        dispatcher.dispatch(createNetworkJob(JobInfo.CHANNEL_UPDATE_REGISTRATION));
+
+        // The job scheduled on its own is cancelled
+        verify(mockScheduler).cancel(context, 3000005);
+        assertEquals(0, dispatcher.getPendingBatchDelay());
+    }
+
     @Test
     public void testCatchesTransactionTooLargeException() throws Exception {
         Context context = mock(Context.class);
@@ -161,4 +355,29 @@ public class JobDispatcherTest extends BaseTestCase {
         dispatcher.dispatch(jobInfo);
     }
 
+    private JobDispatcher createDispatcher(@NonNull TestClock clock) {
+        return new JobDispatcher(context, new JobDispatcher.SchedulerFactory() {
+            @NonNull
+            @Override
+            public Scheduler createScheduler(Context context) {
+                return mockScheduler;
+            }
+
+            @NonNull
+            @Override
+            public Scheduler createFallbackScheduler(Context context) {
+                return mockFallbackScheduler;
+            }
+        }, activityMonitor, clock);
+    }
+
+    private JobInfo createNetworkJob(@JobInfo.JobId int jobId) {
+        return JobInfo.newBuilder()
+                      .setAction("test_action")
+                      .setId(jobId)
+                      .setNetworkAccessRequired(true)
+                      .setAirshipComponent(PushManager.class)
+                      .build();
+    }
+
 }
@@ -21,11 +21,13 @@ import com.urbanairship.modules.accengage.AccengageNotificationHandler;
 import com.urbanairship.push.notifications.NotificationArguments;
 import com.urbanairship.push.notifications.NotificationChannelCompat;
 import com.urbanairship.push.notifications.NotificationChannelRegistry;
+import com.urbanairship.push.notifications.NotificationMediaLoader;
 import com.urbanairship.push.notifications.NotificationProvider;
 import com.urbanairship.push.notifications.NotificationResult;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
@@ -34,6 +36,7 @@ import org.robolectric.Shadows;
 import org.robolectric.annotation.Config;
 import org.robolectric.shadows.ShadowPendingIntent;
 
+import java.util.Arrays;
 import java.util.Collections;
 
 import androidx.annotation.NonNull;
@@ -41,11 +44,13 @@ import androidx.core.app.NotificationCompat;
 import androidx.core.app.NotificationManagerCompat;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertNotNull;
 import static junit.framework.Assert.assertSame;
 import static junit.framework.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
@@ -66,6 +71,7 @@ public class IncomingPushRunnableTest extends BaseTestCase {
     private NotificationManagerCompat notificationManager;
     private Analytics analytics;
     private NotificationChannelRegistry mockChannelRegistry;
+    private NotificationMediaLoader mockMediaLoader;
 
     private TestNotificationProvider notificationProvider;
     private TestNotificationProvider accengageNotificationProvider;
@@ -106,6 +112,9 @@ public class IncomingPushRunnableTest extends BaseTestCase {
         mockChannelRegistry = mock(NotificationChannelRegistry.class);
         when(pushManager.getNotificationChannelRegistry()).thenReturn(mockChannelRegistry);
 
+        mockMediaLoader = mock(NotificationMediaLoader.class);
+        when(pushManager.getNotificationMediaLoader()).thenReturn(mockMediaLoader);
+
         notificationProvider = new TestNotificationProvider();
         accengageNotificationProvider = new TestNotificationProvider();
 
@@ -179,6 +188,124 @@ public class IncomingPushRunnableTest extends BaseTestCase {
         verify(notificationListener).onNotificationPosted(any(NotificationInfo.class));
     }
 
+    /**
+     * Test the push stage timings are traced.
+     */
+    @Test
+    public void testPushTrace() {
+        when(pushManager.isComponentEnabled()).thenReturn(true);
+        when(pushManager.isPushEnabled()).thenReturn(true);
+        when(pushManager.isOptIn()).thenReturn(true);
+        when(pushManager.isUniqueCanonicalId("testPushID")).thenReturn(true);
+
+        notificationProvider.notification = createNotification();
+        notificationProvider.tag = "testNotificationTag";
+
+        pushRunnable.run();
+
+        ArgumentCaptor<PushTrace> captor = ArgumentCaptor.forClass(PushTrace.class);
+        verify(pushManager).onPushTraced(captor.capture());
+
+        PushTrace trace = captor.getValue();
+        assertSame(message, trace.getMessage());
+        assertTrue(trace.getStages().containsAll(Arrays.asList(PushTrace.STAGE_DEDUPE, PushTrace.STAGE_ACTIONS,
+                PushTrace.STAGE_ARGUMENTS, PushTrace.STAGE_BUILD, PushTrace.STAGE_CHANNEL, PushTrace.STAGE_POST,
+                PushTrace.STAGE_ANALYTICS, PushTrace.STAGE_TOTAL)));
+    }
+
+    /**
+     * Test the total is not traced for a duplicate push.
+     */
+    @Test
+    public void testPushTraceDuplicate() {
+        when(pushManager.isComponentEnabled()).thenReturn(true);
+        when(pushManager.isPushEnabled()).thenReturn(true);
+        when(pushManager.isOptIn()).thenReturn(true);
+        when(pushManager.isUniqueCanonicalId("testPushID")).thenReturn(false);
+
+        pushRunnable.run();
+
+        ArgumentCaptor<PushTrace> captor = ArgumentCaptor.forClass(PushTrace.class);
+        verify(pushManager).onPushTraced(captor.capture());
+
+        PushTrace trace = captor.getValue();
+        assertTrue(trace.getStages().contains(PushTrace.STAGE_DEDUPE));
+        assertFalse(trace.getStages().contains(PushTrace.STAGE_TOTAL));
+    }
+
+    /**
+     * Test a job is scheduled to update the notification when media misses the deadline.
+     */
+    @Test
+    public void testScheduleMediaUpdate() {
+        when(pushManager.isComponentEnabled()).thenReturn(true);
+        when(pushManager.isPushEnabled()).thenReturn(true);
+        when(pushManager.isOptIn()).thenReturn(true);
+        when(pushManager.isUniqueCanonicalId("testPushID")).thenReturn(true);
+        when(mockMediaLoader.hasPendingMedia(message)).thenReturn(true);
+
+        notificationProvider.notification = createNotification();
+        notificationProvider.tag = "testNotificationTag";
+
+        pushRunnable.run();
+
+        verify(mockMediaLoader).prefetch(message);
+        verify(mockMediaLoader).release(message);
+        verify(notificationManager).notify("testNotificationTag", TEST_NOTIFICATION_ID, notificationProvider.notification);
+
+        ArgumentCaptor<JobInfo> captor = ArgumentCaptor.forClass(JobInfo.class);
+        verify(jobDispatcher).dispatch(captor.capture());
+
+        JobInfo jobInfo = captor.getValue();
+        assertEquals(PushManager.ACTION_UPDATE_NOTIFICATION_MEDIA, jobInfo.getAction());
+        assertEquals(TEST_NOTIFICATION_ID, jobInfo.getExtras().opt(IncomingPushRunnable.EXTRA_NOTIFICATION_ID).getInt(-1));
+        assertEquals("testNotificationTag", jobInfo.getExtras().opt(IncomingPushRunnable.EXTRA_NOTIFICATION_TAG).getString());
+        assertEquals(TEST_NOTIFICATION_CHANNEL_ID, jobInfo.getExtras().opt(IncomingPushRunnable.EXTRA_NOTIFICATION_CHANNEL_ID).getString());
+    }
+
+    /**
+     * Test the notification is updated in place when media that missed the deadline loads.
+     */
+    @Test
+    public void testUpdateNotificationWhenMediaLoads() {
+        when(pushManager.isPushEnabled()).thenReturn(true);
+        when(mockMediaLoader.awaitMedia(any(PushMessage.class))).thenReturn(true);
+
+        notificationProvider.notification = createNotification();
+        notificationProvider.tag = "testNotificationTag";
+
+        // Notification is still displayed
+        NotificationManager systemNotificationManager = (NotificationManager) TestApplication.getApplication().getSystemService(Context.NOTIFICATION_SERVICE);
+        systemNotificationManager.notify("testNotificationTag", TEST_NOTIFICATION_ID, notificationProvider.notification);
+
+        createMediaUpdateRunnable().run();
+
+        verify(notificationManager).notify("testNotificationTag", TEST_NOTIFICATION_ID, notificationProvider.notification);
+        assertTrue((notificationProvider.notification.flags & Notification.FLAG_ONLY_ALERT_ONCE) != 0);
+        assertEquals(1, notificationProvider.createdCount);
+        verify(mockMediaLoader).release(any(PushMessage.class));
+
+        // Listeners and analytics are only notified by the original push
+        verifyZeroInteractions(pushListener, notificationListener, analytics);
+    }
+
+    /**
+     * Test a dismissed notification is not posted again when media that missed the deadline loads.
+     */
+    @Test
+    public void testDismissedNotificationNotUpdatedWhenMediaLoads() {
+        when(pushManager.isPushEnabled()).thenReturn(true);
+        when(mockMediaLoader.awaitMedia(any(PushMessage.class))).thenReturn(true);
+
+        notificationProvider.notification = createNotification();
+        notificationProvider.tag = "testNotificationTag";
+
+        createMediaUpdateRunnable().run();
+
+        verify(notificationManager, Mockito.never()).notify(any(String.class), Mockito.anyInt(), any(Notification.class));
+        assertEquals(0, notificationProvider.createdCount);
+    }
+
     /**
      * Test ignoring push from other vendors.
      */
@@ -479,10 +606,27 @@ public class IncomingPushRunnableTest extends BaseTestCase {
                 .build();
     }
 
+    private IncomingPushRunnable createMediaUpdateRunnable() {
+        PushMessage pushMessage = new PushMessage(pushBundle);
+        return new IncomingPushRunnable.Builder(TestApplication.getApplication())
+                .setProviderClass(testPushProvider.getClass().toString())
+                .setMessage(pushMessage)
+                .setNotificationManager(notificationManager)
+                .setLongRunning(true)
+                .setJobDispatcher(jobDispatcher)
+                .setProcessed(true)
+                .setMediaUpdateArguments(NotificationArguments.newBuilder(pushMessage)
+                                                              .setNotificationChannelId(TEST_NOTIFICATION_CHANNEL_ID)
+                                                              .setNotificationId("testNotificationTag", TEST_NOTIFICATION_ID)
+                                                              .build())
+                .build();
+    }
+
     public static class TestNotificationProvider implements NotificationProvider {
 
         public Notification notification;
         public String tag;
+        public int createdCount;
 
         @NonNull
         @Override
@@ -505,7 +649,7 @@ public class IncomingPushRunnableTest extends BaseTestCase {
 
         @Override
         public void onNotificationCreated(@NonNull Context context, @NonNull Notification notification, @NonNull NotificationArguments arguments) {
-
+            createdCount++;
         }
 
     }
@@ -0,0 +1,100 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.push;
+
+import com.urbanairship.BaseTestCase;
+import com.urbanairship.PreferenceDataStore;
+import com.urbanairship.TestApplication;
+import com.urbanairship.TestClock;
+import com.urbanairship.json.JsonList;
+import com.urbanairship.json.JsonValue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+public class PushIdHistoryTest extends BaseTestCase {
+
+    private static final long TTL = TimeUnit.DAYS.toMillis(1);
+
+    private PreferenceDataStore dataStore;
+    private TestClock clock;
+    private PushIdHistory history;
+
+    @Before
+    public void setup() {
+        dataStore = TestApplication.getApplication().preferenceDataStore;
+        clock = new TestClock();
+        clock.currentTimeMillis = 0;
+        history = new PushIdHistory(dataStore, TTL, 1000, clock);
+    }
+
+    @Test
+    public void testAdd() {
+        assertTrue(history.add("one"));
+        assertTrue(history.add("two"));
+        assertFalse(history.add("one"));
+        assertFalse(history.add("two"));
+        assertEquals(2, history.size());
+    }
+
+    @Test
+    public void testExpiresAfterTtl() {
+        assertTrue(history.add("one"));
+
+        // Still within the TTL
+        clock.currentTimeMillis = TTL - 1;
+        assertFalse(history.add("one"));
+
+        // The first add's bucket has expired
+        clock.currentTimeMillis = TTL + TTL / PushIdHistory.BUCKET_COUNT;
+        assertTrue(history.add("one"));
+    }
+
+    @Test
+    public void testMaxIds() {
+        history = new PushIdHistory(dataStore, TTL, 100, clock);
+
+        for (int i = 0; i < 150; i++) {
+            clock.currentTimeMillis = i;
+            assertTrue(history.add("id-" + i));
+        }
+
+        assertEquals(100, history.size());
+
+        // Oldest IDs are evicted first
+        assertTrue(history.add("id-0"));
+        assertFalse(history.add("id-149"));
+    }
+
+    @Test
+    public void testPersistence() {
+        for (int i = 0; i < 2000; i++) {
+            clock.currentTimeMillis = i * (TTL / 4000);
+            history.add("id-" + i);
+        }
+
+        PushIdHistory restored = new PushIdHistory(dataStore, TTL, 1000, clock);
+        assertEquals(1000, restored.size());
+        assertFalse(restored.add("id-1999"));
+        assertFalse(restored.add("id-1000"));
+        assertTrue(restored.add("id-999"));
+    }
+
+    @Test
+    public void testMigratesLegacyIds() {
+        dataStore.put("com.urbanairship.push.LAST_CANONICAL_IDS", new JsonList(Arrays.asList(JsonValue.wrap("one"), JsonValue.wrap("two"))).toString());
+
+        assertFalse(history.add("one"));
+        assertFalse(history.add("two"));
+        assertTrue(history.add("three"));
+        assertFalse(dataStore.isSet("com.urbanairship.push.LAST_CANONICAL_IDS"));
+    }
+
+}
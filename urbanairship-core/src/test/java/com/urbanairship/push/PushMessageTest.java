@@ -593,4 +593,44 @@ public class PushMessageTest extends BaseTestCase {
         message = new PushMessage(bundle);
         assertTrue(message.isAccengagePush());
     }
+
+    /**
+     * Test JSON extras are parsed once and reused.
+     */
+    @Test
+    public void testGetJsonExtra() throws JsonException {
+        Bundle extras = new Bundle();
+        extras.putString(PushMessage.EXTRA_STYLE, "{\"type\":\"big_text\"}");
+        extras.putString(PushMessage.EXTRA_WEARABLE, "{invalid");
+        PushMessage message = new PushMessage(extras);
+
+        JsonValue style = message.getJsonExtra(PushMessage.EXTRA_STYLE);
+        assertEquals("big_text", style.optMap().opt("type").getString());
+        assertTrue(style == message.getJsonExtra(PushMessage.EXTRA_STYLE));
+
+        assertTrue(message.getJsonExtra(PushMessage.EXTRA_PUBLIC_NOTIFICATION).isNull());
+
+        try {
+            message.getJsonExtra(PushMessage.EXTRA_WEARABLE);
+            Assert.fail("Invalid JSON should throw.");
+        } catch (JsonException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Test wrapping push data.
+     */
+    @Test
+    public void testWrap() {
+        Map<String, String> data = new HashMap<>();
+        data.put(PushMessage.EXTRA_ALERT, "alert");
+        data.put(PushMessage.EXTRA_SEND_ID, "send id");
+
+        PushMessage message = PushMessage.wrap(data);
+        assertEquals("alert", message.getAlert());
+        assertEquals(new PushMessage(data), message);
+        assertEquals("send id", message.getPushBundle().getString(PushMessage.EXTRA_SEND_ID));
+    }
+
 }
@@ -0,0 +1,68 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.push;
+
+import android.os.Bundle;
+
+import com.urbanairship.BaseTestCase;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+public class PushTraceStatsTest extends BaseTestCase {
+
+    private PushTraceStats stats;
+    private PushMessage message;
+
+    @Before
+    public void setup() {
+        stats = new PushTraceStats();
+        message = new PushMessage(new Bundle());
+    }
+
+    @Test
+    public void testPercentiles() {
+        for (int i = 1; i <= 100; i++) {
+            stats.add(createTrace(PushTrace.STAGE_POST, TimeUnit.MILLISECONDS.toNanos(i)));
+        }
+
+        assertEquals(50, stats.getPercentile(PushTrace.STAGE_POST, 50, TimeUnit.MILLISECONDS));
+        assertEquals(90, stats.getPercentile(PushTrace.STAGE_POST, 90, TimeUnit.MILLISECONDS));
+        assertEquals(99, stats.getPercentile(PushTrace.STAGE_POST, 99, TimeUnit.MILLISECONDS));
+        assertEquals(100, stats.getPercentile(PushTrace.STAGE_POST, 100, TimeUnit.MILLISECONDS));
+        assertEquals(1, stats.getPercentile(PushTrace.STAGE_POST, 0, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testMissingStage() {
+        assertEquals(-1, stats.getPercentile(PushTrace.STAGE_BUILD, 50, TimeUnit.MILLISECONDS));
+        assertEquals(0, stats.getSampleCount(PushTrace.STAGE_BUILD));
+        assertTrue(stats.getStages().isEmpty());
+    }
+
+    @Test
+    public void testKeepsRecentSamples() {
+        for (int i = 0; i < PushTraceStats.MAX_SAMPLES; i++) {
+            stats.add(createTrace(PushTrace.STAGE_POST, TimeUnit.SECONDS.toNanos(10)));
+        }
+
+        for (int i = 0; i < PushTraceStats.MAX_SAMPLES; i++) {
+            stats.add(createTrace(PushTrace.STAGE_POST, TimeUnit.MILLISECONDS.toNanos(1)));
+        }
+
+        assertEquals(PushTraceStats.MAX_SAMPLES, stats.getSampleCount(PushTrace.STAGE_POST));
+        assertEquals(1, stats.getPercentile(PushTrace.STAGE_POST, 100, TimeUnit.MILLISECONDS));
+    }
+
+    private PushTrace createTrace(String stage, long durationNanos) {
+        PushTrace trace = new PushTrace(message);
+        trace.record(stage, PushTrace.now() - durationNanos);
+        return trace;
+    }
+
+}
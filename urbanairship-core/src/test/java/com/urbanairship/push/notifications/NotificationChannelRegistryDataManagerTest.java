@@ -12,6 +12,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.robolectric.RuntimeEnvironment;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -73,4 +74,28 @@ public class NotificationChannelRegistryDataManagerTest extends BaseTestCase {
         dataManager.createChannel(channel1);
         Assert.assertTrue(dataManager.deleteChannel(channel1.getId()));
     }
+
+    @Test
+    public void testCreateChannelReplaces() {
+        dataManager.createChannel(channel1);
+
+        NotificationChannelCompat updated = new NotificationChannelCompat("test", "Updated Channel", NotificationManager.IMPORTANCE_LOW);
+        dataManager.createChannel(updated);
+
+        Assert.assertEquals(updated, dataManager.getChannel("test"));
+        Assert.assertEquals(1, dataManager.getChannels().size());
+    }
+
+    @Test
+    public void testCreateChannels() {
+        Assert.assertTrue(dataManager.createChannels(Arrays.asList(channel1, channel2)));
+        Assert.assertTrue(dataManager.createChannels(Arrays.asList(channel1, channel2)));
+
+        Set<NotificationChannelCompat> channels = new HashSet<>();
+        channels.add(channel1);
+        channels.add(channel2);
+
+        Assert.assertEquals(channels, dataManager.getChannels());
+    }
+
 }
@@ -14,11 +14,17 @@ import org.junit.Before;
 import org.junit.Test;
 import org.robolectric.annotation.Config;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.concurrent.Executor;
 
 import androidx.core.app.NotificationManagerCompat;
 
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
@@ -41,12 +47,7 @@ public class NotificationChannelRegistryTest extends BaseTestCase {
         dataManager = mock(NotificationChannelRegistryDataManager.class);
         when(context.getSystemService(Context.NOTIFICATION_SERVICE)).thenReturn(notificationManager);
 
-        channelRegistry = new NotificationChannelRegistry(context, dataManager, new Executor() {
-            @Override
-            public void execute(Runnable command) {
-                command.run();
-            }
-        });
+        channelRegistry = createRegistry();
 
         channel = new NotificationChannel("test", "Test Channel", NotificationManagerCompat.IMPORTANCE_HIGH);
         otherChannel = new NotificationChannel("test2", "Test Channel 2", NotificationManagerCompat.IMPORTANCE_LOW);
@@ -58,10 +59,10 @@ public class NotificationChannelRegistryTest extends BaseTestCase {
     @Test
     @Config(sdk = 25)
     public void testGetNotificationChannelAsyncPreOreo() {
-        when(dataManager.getChannel("test")).thenReturn(channelCompat);
-        PendingResult<NotificationChannelCompat> result = channelRegistry.getNotificationChannel("test");
+        when(dataManager.getChannels()).thenReturn(Collections.singleton(channelCompat));
+        channelRegistry = createRegistry();
 
-        verify(dataManager).getChannel("test");
+        PendingResult<NotificationChannelCompat> result = channelRegistry.getNotificationChannel("test");
         Assert.assertEquals(channelCompat, result.getResult());
     }
 
@@ -95,7 +96,9 @@ public class NotificationChannelRegistryTest extends BaseTestCase {
 
     @Test
     public void testGetNotificationChannelCreatesRealChannel() {
-        when(dataManager.getChannel(channelCompat.getId())).thenReturn(channelCompat);
+        when(dataManager.getChannels()).thenReturn(Collections.singleton(channelCompat));
+        channelRegistry = createRegistry();
+
         channelRegistry.getNotificationChannel(channelCompat.getId());
         verify(notificationManager).createNotificationChannel(channelCompat.toNotificationChannel());
     }
@@ -113,4 +116,46 @@ public class NotificationChannelRegistryTest extends BaseTestCase {
         verify(notificationManager).deleteNotificationChannel("test");
     }
 
+    @Test
+    @Config(sdk = 25)
+    public void testChannelsLoadedOnce() {
+        when(dataManager.getChannels()).thenReturn(new LinkedHashSet<>(Arrays.asList(channelCompat, otherChannelCompat)));
+        channelRegistry = createRegistry();
+
+        Assert.assertEquals(channelCompat, channelRegistry.getNotificationChannelSync("test"));
+        Assert.assertEquals(otherChannelCompat, channelRegistry.getNotificationChannelSync("test2"));
+        Assert.assertNull(channelRegistry.getNotificationChannelSync("missing"));
+
+        verify(dataManager, times(1)).getChannels();
+        verify(dataManager, never()).getChannel(anyString());
+    }
+
+    @Test
+    @Config(sdk = 25)
+    public void testCreateAndDeleteUpdatesCache() {
+        channelRegistry.createNotificationChannel(channelCompat);
+        Assert.assertEquals(channelCompat, channelRegistry.getNotificationChannelSync("test"));
+
+        channelRegistry.deleteNotificationChannel("test");
+        Assert.assertNull(channelRegistry.getNotificationChannelSync("test"));
+
+        verify(dataManager, never()).getChannel(anyString());
+    }
+
+    @Test
+    public void testDeferredChannelCreatedOnSyncLookup() {
+        channelRegistry.createDeferredNotificationChannel(channelCompat);
+        Assert.assertEquals(channelCompat, channelRegistry.getNotificationChannelSync("test"));
+        verify(notificationManager).createNotificationChannel(channelCompat.toNotificationChannel());
+    }
+
+    private NotificationChannelRegistry createRegistry() {
+        return new NotificationChannelRegistry(context, dataManager, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        });
+    }
+
 }
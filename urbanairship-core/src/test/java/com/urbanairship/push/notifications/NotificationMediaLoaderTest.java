@@ -0,0 +1,169 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.push.notifications;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.Bundle;
+
+import com.urbanairship.BaseTestCase;
+import com.urbanairship.UAirship;
+import com.urbanairship.json.JsonMap;
+import com.urbanairship.push.PushMessage;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+public class NotificationMediaLoaderTest extends BaseTestCase {
+
+    private static final String IMAGE_URL = "https://example.com/image.png";
+
+    private Context context = UAirship.getApplicationContext();
+    private Bitmap bitmap;
+    private PushMessage message;
+
+    private Executor directExecutor = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable runnable) {
+            runnable.run();
+        }
+    };
+
+    private Executor threadExecutor = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable runnable) {
+            new Thread(runnable).start();
+        }
+    };
+
+    @Before
+    public void setup() {
+        bitmap = Bitmap.createBitmap(1, 1, Bitmap.Config.ARGB_8888);
+
+        Bundle extras = new Bundle();
+        extras.putString(PushMessage.EXTRA_ALERT, "alert");
+        extras.putString(PushMessage.EXTRA_STYLE, JsonMap.newBuilder()
+                                                         .put(StyleNotificationExtender.TYPE_KEY, StyleNotificationExtender.BIG_PICTURE_KEY)
+                                                         .put(StyleNotificationExtender.BIG_PICTURE_KEY, IMAGE_URL)
+                                                         .build()
+                                                         .toString());
+        message = new PushMessage(extras);
+    }
+
+    @Test
+    public void testGetMediaUrls() throws Exception {
+        assertEquals(Collections.singletonList(new URL(IMAGE_URL)), NotificationMediaLoader.getMediaUrls(message));
+
+        Bundle extras = new Bundle();
+        extras.putString(PushMessage.EXTRA_STYLE, JsonMap.newBuilder()
+                                                         .put(StyleNotificationExtender.TYPE_KEY, StyleNotificationExtender.BIG_TEXT_KEY)
+                                                         .build()
+                                                         .toString());
+        assertTrue(NotificationMediaLoader.getMediaUrls(new PushMessage(extras)).isEmpty());
+        assertTrue(NotificationMediaLoader.getMediaUrls(new PushMessage(new Bundle())).isEmpty());
+    }
+
+    @Test
+    public void testPrefetchIsShared() throws Exception {
+        final AtomicInteger fetches = new AtomicInteger();
+        NotificationMediaLoader loader = new NotificationMediaLoader(context, 1000, directExecutor, new NotificationMediaLoader.BitmapFetcher() {
+            @Nullable
+            @Override
+            public Bitmap fetch(@NonNull Context context, @NonNull URL url, int reqWidth, int reqHeight) {
+                fetches.incrementAndGet();
+                return bitmap;
+            }
+        });
+
+        loader.prefetch(message);
+        assertSame(bitmap, loader.getBigImage(new URL(IMAGE_URL)));
+        assertEquals(1, fetches.get());
+        assertFalse(loader.hasPendingMedia(message));
+    }
+
+    @Test
+    public void testDeadline() throws Exception {
+        final CountDownLatch download = new CountDownLatch(1);
+        NotificationMediaLoader loader = new NotificationMediaLoader(context, 50, threadExecutor, new NotificationMediaLoader.BitmapFetcher() {
+            @Nullable
+            @Override
+            public Bitmap fetch(@NonNull Context context, @NonNull URL url, int reqWidth, int reqHeight) throws IOException {
+                try {
+                    download.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                return bitmap;
+            }
+        });
+
+        loader.prefetch(message);
+
+        // Misses the deadline but keeps loading
+        assertNull(loader.getBigImage(new URL(IMAGE_URL)));
+        assertTrue(loader.hasPendingMedia(message));
+
+        download.countDown();
+        assertTrue(loader.awaitMedia(message));
+
+        // The loaded image is served without waiting
+        assertSame(bitmap, loader.getBigImage(new URL(IMAGE_URL)));
+    }
+
+    @Test
+    public void testReleaseEvictsLoadedMedia() throws Exception {
+        final AtomicInteger fetches = new AtomicInteger();
+        NotificationMediaLoader loader = new NotificationMediaLoader(context, 1000, directExecutor, new NotificationMediaLoader.BitmapFetcher() {
+            @Nullable
+            @Override
+            public Bitmap fetch(@NonNull Context context, @NonNull URL url, int reqWidth, int reqHeight) {
+                fetches.incrementAndGet();
+                return bitmap;
+            }
+        });
+
+        loader.prefetch(message);
+        assertSame(bitmap, loader.getBigImage(new URL(IMAGE_URL)));
+        loader.release(message);
+
+        assertSame(bitmap, loader.getBigImage(new URL(IMAGE_URL)));
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    public void testFailedRequestIsFetchedAgain() throws Exception {
+        final AtomicInteger fetches = new AtomicInteger();
+        NotificationMediaLoader loader = new NotificationMediaLoader(context, 1000, directExecutor, new NotificationMediaLoader.BitmapFetcher() {
+            @Nullable
+            @Override
+            public Bitmap fetch(@NonNull Context context, @NonNull URL url, int reqWidth, int reqHeight) throws IOException {
+                if (fetches.incrementAndGet() == 1) {
+                    throw new IOException("failed");
+                }
+                return bitmap;
+            }
+        });
+
+        loader.prefetch(message);
+        assertNull(loader.getBigImage(new URL(IMAGE_URL)));
+        assertSame(bitmap, loader.getBigImage(new URL(IMAGE_URL)));
+        assertEquals(2, fetches.get());
+    }
+
+}
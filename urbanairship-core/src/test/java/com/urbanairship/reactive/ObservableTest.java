@@ -179,6 +179,60 @@ public class ObservableTest extends BaseTestCase {
         validateObservable(filtered, expectedInts, 3, 1, 0);
     }
 
+    @Test
+    public void testFusedMapFilter() throws Exception {
+        Observable<Integer> obs = Observable.from(Arrays.asList(1, 2, 3, 4, 5, 6));
+
+        Observable<String> fused = obs.filter(new Predicate<Integer>() {
+            @Override
+            public boolean apply(Integer value) {
+                return value % 2 == 0;
+            }
+        }).map(new Function<Integer, Integer>() {
+            @NonNull
+            @Override
+            public Integer apply(@NonNull Integer value) {
+                return value * 10;
+            }
+        }).filter(new Predicate<Integer>() {
+            @Override
+            public boolean apply(Integer value) {
+                return value > 20;
+            }
+        }).map(new Function<Integer, String>() {
+            @NonNull
+            @Override
+            public String apply(@NonNull Integer value) {
+                return value.toString();
+            }
+        });
+
+        validateObservable(fused, Arrays.asList("40", "60"), 2, 1, 0);
+    }
+
+    @Test
+    public void testFusedMapCancel() throws Exception {
+        Subject<Integer> subject = Subject.create();
+        Subscription subscription = subject.map(new Function<Integer, Integer>() {
+            @NonNull
+            @Override
+            public Integer apply(@NonNull Integer value) {
+                return value + 1;
+            }
+        }).subscribe(new Subscriber<Integer>() {
+            @Override
+            public void onNext(@NonNull Integer value) {
+                values.add(value);
+            }
+        });
+
+        subject.onNext(1);
+        subscription.cancel();
+        subject.onNext(2);
+
+        Assert.assertEquals(Arrays.<Object>asList(2), values);
+    }
+
     @Test
     public void testObserveOnMyLooper() throws Exception {
         Observable<Integer> three = Observable.just(3);
@@ -196,6 +250,54 @@ public class ObservableTest extends BaseTestCase {
         validateObservable(backgroundThree, backgroundThread.getLooper(), Arrays.asList(3), 1, 1, 0);
     }
 
+    @Test
+    public void testObserveOnBatchesDelivery() throws Exception {
+        final List<Runnable> scheduled = new ArrayList<>();
+        Scheduler scheduler = new Scheduler() {
+            @NonNull
+            @Override
+            public Subscription schedule(@NonNull Runnable runnable) {
+                scheduled.add(runnable);
+                return Subscription.empty();
+            }
+
+            @NonNull
+            @Override
+            public Subscription schedule(long delayTimeMs, @NonNull Runnable runnable) {
+                scheduled.add(runnable);
+                return Subscription.empty();
+            }
+        };
+
+        Observable<Integer> obs = Observable.from(Arrays.asList(1, 2, 3, 4, 5)).observeOn(scheduler);
+        subscribeObservable(obs);
+
+        // A single drain is scheduled for all the values and the completion
+        Assert.assertEquals(1, scheduled.size());
+        Assert.assertTrue(values.isEmpty());
+
+        scheduled.remove(0).run();
+        Assert.assertTrue(scheduled.isEmpty());
+        performAsserts(null, null, Arrays.asList(1, 2, 3, 4, 5), 5, 1, 0);
+    }
+
+    @Test
+    public void testObserveOnCancel() throws Exception {
+        Subject<Integer> subject = Subject.create();
+        Subscription subscription = subject.observeOn(Schedulers.looper(backgroundThread.getLooper()))
+                                           .subscribe(new Subscriber<Integer>() {
+                                               @Override
+                                               public void onNext(@NonNull Integer value) {
+                                                   values.add(value);
+                                               }
+                                           });
+
+        subject.onNext(1);
+        subscription.cancel();
+
+        performAsserts(backgroundThread.getLooper(), null, new ArrayList<>(), 0, 0, 0);
+    }
+
     @Test
     public void testDefer() throws Exception {
         final ArrayList<Integer> ints = new ArrayList<>(Arrays.asList(1, 2, 3));
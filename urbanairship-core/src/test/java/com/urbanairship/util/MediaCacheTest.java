@@ -0,0 +1,146 @@
+/* Copyright Airship and Contributors */
+
+package com.urbanairship.util;
+
+import android.net.Uri;
+
+import com.urbanairship.BaseTestCase;
+import com.urbanairship.UAirship;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.Executor;
+
+import androidx.annotation.NonNull;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+public class MediaCacheTest extends BaseTestCase {
+
+    private File sourceDirectory;
+    private File cacheDirectory;
+    private MediaCache cache;
+
+    private Executor directExecutor = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable runnable) {
+            runnable.run();
+        }
+    };
+
+    @Before
+    public void setup() {
+        File root = UAirship.getApplicationContext().getCacheDir();
+        sourceDirectory = new File(root, "media-source");
+        cacheDirectory = new File(root, "media-cache");
+        sourceDirectory.mkdirs();
+        cache = new MediaCache(cacheDirectory, 100, directExecutor);
+    }
+
+    @Test
+    public void testFetch() throws IOException {
+        URL url = createMedia("one", 10);
+        assertNull(cache.get(url.toString()));
+
+        assertTrue(cache.fetch(url).isSuccess);
+
+        File cached = cache.get(url.toString());
+        assertNotNull(cached);
+        assertEquals(10, cached.length());
+
+        // Served from the cache once the source is gone
+        new File(sourceDirectory, "one").delete();
+        assertTrue(cache.fetch(url).isSuccess);
+    }
+
+    @Test
+    public void testFetchToDestination() throws IOException {
+        URL url = createMedia("one", 10);
+        File destination = new File(sourceDirectory, "destination");
+
+        assertTrue(cache.fetch(url, destination).isSuccess);
+        assertEquals(10, destination.length());
+        assertNotNull(cache.get(url.toString()));
+    }
+
+    @Test
+    public void testTrimLeastRecentlyUsed() throws IOException {
+        URL one = createMedia("one", 40);
+        URL two = createMedia("two", 40);
+        URL three = createMedia("three", 40);
+
+        cache.fetch(one);
+        cache.fetch(two);
+
+        // Mark one as the most recently used
+        cache.get(two.toString()).setLastModified(1000);
+        cache.get(one.toString());
+
+        cache.fetch(three);
+
+        assertNotNull(cache.get(one.toString()));
+        assertNull(cache.get(two.toString()));
+        assertNotNull(cache.get(three.toString()));
+    }
+
+    @Test
+    public void testTrimSkipsDownloadsInProgress() throws IOException {
+        cacheDirectory.mkdirs();
+        File inProgress = new File(cacheDirectory, "ua_in_progress.temp");
+        writeFile(inProgress, 80);
+
+        File abandoned = new File(cacheDirectory, "ua_abandoned.temp");
+        writeFile(abandoned, 80);
+        abandoned.setLastModified(System.currentTimeMillis() - 2 * 60 * 60 * 1000);
+
+        URL one = createMedia("one", 40);
+        URL two = createMedia("two", 40);
+        cache.fetch(one);
+        cache.fetch(two);
+
+        // Temp files do not count towards the cache size
+        assertNotNull(cache.get(one.toString()));
+        assertNotNull(cache.get(two.toString()));
+
+        assertTrue(inProgress.exists());
+        assertFalse(abandoned.exists());
+    }
+
+    @Test
+    public void testFetchMissingFile() throws IOException {
+        URL url = new URL(Uri.fromFile(new File(sourceDirectory, "missing")).toString());
+
+        try {
+            cache.fetch(url);
+        } catch (IOException e) {
+            // expected
+        }
+
+        assertNull(cache.get(url.toString()));
+        String[] files = cacheDirectory.list();
+        assertFalse(files != null && files.length > 0);
+    }
+
+    @NonNull
+    private URL createMedia(@NonNull String name, int size) throws IOException {
+        File file = new File(sourceDirectory, name);
+        writeFile(file, size);
+        return new URL(Uri.fromFile(file).toString());
+    }
+
+    private static void writeFile(@NonNull File file, int size) throws IOException {
+        FileOutputStream outputStream = new FileOutputStream(file);
+        outputStream.write(new byte[size]);
+        outputStream.close();
+    }
+
+}
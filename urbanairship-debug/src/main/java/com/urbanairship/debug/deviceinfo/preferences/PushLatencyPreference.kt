@@ -0,0 +1,40 @@
+package com.urbanairship.debug.deviceinfo.preferences
+
+import android.annotation.TargetApi
+import android.content.Context
+import android.os.Build
+import android.util.AttributeSet
+import androidx.preference.Preference
+import com.urbanairship.UAirship
+import com.urbanairship.debug.R
+import com.urbanairship.debug.extensions.copyToClipboard
+import com.urbanairship.push.PushTrace
+import java.util.concurrent.TimeUnit
+
+class PushLatencyPreference : Preference {
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    constructor(context: Context, attrs: AttributeSet?, defStyleAttr: Int, defStyleRes: Int) : super(context, attrs, defStyleAttr, defStyleRes) {}
+
+    constructor(context: Context, attrs: AttributeSet?, defStyleAttr: Int) : super(context, attrs, defStyleAttr) {}
+
+    constructor(context: Context, attrs: AttributeSet?) : super(context, attrs) {}
+
+    override fun getSummary(): CharSequence? {
+        super.getSummary()
+        val stats = UAirship.shared().pushManager.pushTraceStats
+        if (stats.getSampleCount(PushTrace.STAGE_TOTAL) == 0) {
+            return context.getString(R.string.ua_push_latency_no_data)
+        }
+
+        return context.getString(R.string.ua_push_latency_summary,
+                stats.getPercentile(PushTrace.STAGE_TOTAL, 50, TimeUnit.MILLISECONDS),
+                stats.getPercentile(PushTrace.STAGE_TOTAL, 90, TimeUnit.MILLISECONDS),
+                stats.getPercentile(PushTrace.STAGE_TOTAL, 99, TimeUnit.MILLISECONDS))
+    }
+
+    override fun onClick() {
+        super.onClick()
+        UAirship.shared().pushManager.pushTraceStats.toString().copyToClipboard(context, true)
+    }
+}
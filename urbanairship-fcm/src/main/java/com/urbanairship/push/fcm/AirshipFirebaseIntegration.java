@@ -30,7 +30,7 @@ public class AirshipFirebaseIntegration {
     @NonNull
     public static Future<Void> processMessage(@NonNull Context context, @NonNull RemoteMessage message) {
         final PendingResult<Void> pendingResult = new PendingResult<>();
-        PushProviderBridge.processPush(FcmPushProvider.class, new PushMessage(message.getData()))
+        PushProviderBridge.processPush(FcmPushProvider.class, PushMessage.wrap(message.getData()))
                           .execute(context, new Runnable() {
                               @Override
                               public void run() {
@@ -48,7 +48,7 @@ public class AirshipFirebaseIntegration {
      * @param message The message.
      */
     public static void processMessageSync(@NonNull Context context, @NonNull RemoteMessage message) {
-        PushProviderBridge.processPush(FcmPushProvider.class, new PushMessage(message.getData()))
+        PushProviderBridge.processPush(FcmPushProvider.class, PushMessage.wrap(message.getData()))
                           .executeSync(context);
     }
 
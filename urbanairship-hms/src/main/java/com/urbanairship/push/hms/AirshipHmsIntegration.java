@@ -30,7 +30,7 @@ public class AirshipHmsIntegration {
     @NonNull
     public static Future<Void> processMessage(@NonNull Context context, @NonNull RemoteMessage message) {
         final PendingResult<Void> pendingResult = new PendingResult<>();
-        PushProviderBridge.processPush(HmsPushProvider.class, new PushMessage(message.getDataOfMap()))
+        PushProviderBridge.processPush(HmsPushProvider.class, PushMessage.wrap(message.getDataOfMap()))
                           .execute(context, new Runnable() {
                               @Override
                               public void run() {
@@ -48,7 +48,7 @@ public class AirshipHmsIntegration {
      * @param message The message.
      */
     public static void processMessageSync(@NonNull Context context, @NonNull RemoteMessage message) {
-        PushProviderBridge.processPush(HmsPushProvider.class, new PushMessage(message.getDataOfMap()))
+        PushProviderBridge.processPush(HmsPushProvider.class, PushMessage.wrap(message.getDataOfMap()))
                           .executeSync(context);
     }
 